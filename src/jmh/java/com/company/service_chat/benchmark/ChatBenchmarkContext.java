@@ -0,0 +1,103 @@
+package com.company.service_chat.benchmark;
+
+import com.company.service_chat.Service_chatApplication;
+import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.ChatRoom;
+import com.company.service_chat.repository.ChatMemberRepository;
+import com.company.service_chat.repository.ChatMessageRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 벤치마크용 스프링 컨텍스트 (H2 메모리 DB) + 시드 데이터
+// 테스트 프로필과 같은 설정을 코드로 넣음 (jmh 소스셋에는 src/test/resources가 없음)
+final class ChatBenchmarkContext {
+
+    static final String METADATA_JSON =
+            "{\"actionType\":\"TICKET_REQUEST\",\"sellerId\":200,\"visibleTarget\":\"SELLER\","
+                    + "\"actions\":[{\"label\":\"양도 수락\",\"actionCode\":\"TRANSFER_ACCEPT\",\"isPrimary\":true},"
+                    + "{\"label\":\"양도 거절\",\"actionCode\":\"TRANSFER_REJECT\",\"isPrimary\":false}]}";
+
+    private static final int SEED_CHUNK_SIZE = 1_000;
+    // 벤치마크마다 다른 사용자/티켓 번호를 쓰도록
+    private static final AtomicLong NEXT_USER_ID = new AtomicLong(1_000_000);
+
+    private ChatBenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(Service_chatApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:jmh;MODE=MYSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.show-sql=false",
+                        "spring.flyway.enabled=false",
+                        "chat.node-id=1",
+                        "chat.broadcast.mode=local",
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    static long nextUserId() {
+        return NEXT_USER_ID.getAndAdd(2);
+    }
+
+    // 구매자/판매자 방 하나 + 메시지 messageCount개 (10개 중 1개는 metadata 있는 시스템 메시지)
+    static Long seedRoom(ConfigurableApplicationContext context, Long buyerId, Long sellerId, int messageCount) {
+        ChatRoomRepository chatRoomRepository = context.getBean(ChatRoomRepository.class);
+        ChatMemberRepository chatMemberRepository = context.getBean(ChatMemberRepository.class);
+        ChatMessageRepository chatMessageRepository = context.getBean(ChatMessageRepository.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        Long chatroomId = transactionTemplate.execute(status -> {
+            ChatRoom room = ChatRoom.builder()
+                    .ticketId(sellerId)
+                    .buyerId(buyerId)
+                    .sellerId(sellerId)
+                    .build();
+            room.reserveInitialSeq(messageCount); // 아래에서 넣을 메시지 순번 1..messageCount
+            chatRoomRepository.save(room);
+            chatMemberRepository.saveAll(List.of(
+                    new ChatMember(buyerId, room.getChatroomId()),
+                    new ChatMember(sellerId, room.getChatroomId())));
+            return room.getChatroomId();
+        });
+
+        // 한 트랜잭션에 다 넣으면 영속성 컨텍스트가 커지므로 나눠서 저장
+        for (int from = 0; from < messageCount; from += SEED_CHUNK_SIZE) {
+            int to = Math.min(messageCount, from + SEED_CHUNK_SIZE);
+            int start = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                List<ChatMessage> chunk = new ArrayList<>(to - start);
+                for (int i = start; i < to; i++) {
+                    boolean system = i % 10 == 0;
+                    chunk.add(ChatMessage.builder()
+                            .chatroomId(chatroomId)
+                            .senderId(i % 2 == 0 ? buyerId : sellerId)
+                            .type(system ? ChatMessage.MessageType.SYSTEM_ACTION_MESSAGE : ChatMessage.MessageType.TEXT)
+                            .content("메시지 " + i)
+                            .metadata(system ? METADATA_JSON : null)
+                            .seq((long) i + 1)
+                            .build());
+                }
+                List<ChatMessage> saved = chatMessageRepository.saveAll(chunk);
+                ChatMessage last = saved.get(saved.size() - 1);
+                chatRoomRepository.updateLastMessage(
+                        chatroomId, last.getMessageId(), last.getSeq(), last.getContent(), last.getType(), last.getSentAt());
+            });
+        }
+        return chatroomId;
+    }
+}
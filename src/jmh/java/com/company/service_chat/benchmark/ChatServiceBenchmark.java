@@ -0,0 +1,84 @@
+package com.company.service_chat.benchmark;
+
+import com.company.service_chat.dto.ChatMessageDto;
+import com.company.service_chat.dto.SystemActionMetadata;
+import com.company.service_chat.service.ChatService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// 메시지 저장 / 메시지 목록 응답 만들기 (H2, 방 하나에 historySize개 시드)
+// - saveTextMessage          : 일반 메시지 저장 (INSERT + 최신 메시지 포인터 + 안 읽은 수)
+// - saveSystemActionMessage  : metadata 직렬화 포함 시스템 메시지 저장
+// - getMessagesByChatroomId  : 전체 히스토리 조회 + 응답 변환
+// - getLatestPage            : 최신 50개 커서 페이지 조회 + 응답 변환
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChatServiceBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int historySize;
+
+    private ConfigurableApplicationContext context;
+    private ChatService chatService;
+    private Long chatroomId;
+    private Long buyerId;
+    private Long sellerId;
+    private SystemActionMetadata metadata;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ChatBenchmarkContext.start();
+        chatService = context.getBean(ChatService.class);
+        buyerId = ChatBenchmarkContext.nextUserId();
+        sellerId = buyerId + 1;
+        chatroomId = ChatBenchmarkContext.seedRoom(context, buyerId, sellerId, historySize);
+        metadata = SystemActionMetadata.builder()
+                .actionType(SystemActionMetadata.ActionType.TICKET_REQUEST)
+                .sellerId(sellerId)
+                .visibleTarget(SystemActionMetadata.VisibleTarget.SELLER)
+                .action(SystemActionMetadata.Action.builder()
+                        .label("양도 수락").actionCode("TRANSFER_ACCEPT").primary(true).build())
+                .action(SystemActionMetadata.Action.builder()
+                        .label("양도 거절").actionCode("TRANSFER_REJECT").primary(false).build())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object saveTextMessage() {
+        return chatService.saveMessage(ChatMessageDto.builder()
+                .chatroomId(chatroomId)
+                .senderId(buyerId)
+                .type(ChatMessageDto.MessageType.TEXT)
+                .content("벤치마크 메시지")
+                .build());
+    }
+
+    @Benchmark
+    public Object saveSystemActionMessage() {
+        return chatService.saveSystemMessage(
+                chatroomId,
+                buyerId,
+                ChatMessageDto.MessageType.SYSTEM_ACTION_MESSAGE,
+                "구매자가 티켓 양도를 신청했습니다. 수락/거절을 선택해주세요.",
+                metadata);
+    }
+
+    @Benchmark
+    public void getMessagesByChatroomId(Blackhole blackhole) {
+        blackhole.consume(chatService.getMessagesByChatroomId(chatroomId));
+    }
+
+    @Benchmark
+    public void getLatestPage(Blackhole blackhole) {
+        blackhole.consume(chatService.getMessages(chatroomId, null, null, ChatService.DEFAULT_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,46 @@
+package com.company.service_chat.benchmark;
+
+import com.company.service_chat.service.ChatRoomService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// 채팅 목록(인박스) 조회: 사용자 한 명이 방 roomCount개에 참여, 방마다 메시지 messagesPerRoom개
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InboxBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int roomCount;
+
+    @Param({"20", "200"})
+    public int messagesPerRoom;
+
+    private ConfigurableApplicationContext context;
+    private ChatRoomService chatRoomService;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ChatBenchmarkContext.start();
+        chatRoomService = context.getBean(ChatRoomService.class);
+        userId = ChatBenchmarkContext.nextUserId();
+        for (int i = 0; i < roomCount; i++) {
+            // 매번 다른 판매자와의 방
+            ChatBenchmarkContext.seedRoom(context, userId, ChatBenchmarkContext.nextUserId(), messagesPerRoom);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void getChatRoomsByUserId(Blackhole blackhole) {
+        blackhole.consume(chatRoomService.getChatRoomsByUserId(userId));
+    }
+}
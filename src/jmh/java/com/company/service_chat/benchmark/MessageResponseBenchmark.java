@@ -0,0 +1,117 @@
+package com.company.service_chat.benchmark;
+
+import com.company.service_chat.dto.ChatMessageResponse;
+import com.company.service_chat.dto.SystemActionMetadata;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.service.ChatMetrics;
+import com.company.service_chat.service.ChatService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Builder;
+import lombok.Getter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 메시지 1000개 히스토리 응답 만들기 + JSON 직렬화 비용 비교
+// legacy: metadata JSON 문자열 -> Object 파싱 -> 다시 직렬화 (예전 toResponse / getMessagesByChatroomId)
+// raw   : metadata JSON 문자열을 그대로 출력 (@JsonRawValue)
+// 실행: ./gradlew jmh
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageResponseBenchmark {
+
+    // 히스토리 중 metadata가 있는 메시지 비율 (시스템 메시지가 많은 방 / 일반 대화 위주 방)
+    @Param({"10", "50", "100"})
+    public int metadataPercent;
+
+    @Param({"1000"})
+    public int historySize;
+
+    private ObjectMapper objectMapper;
+    private ChatService chatService;
+    private List<ChatMessage> history;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        // toResponse는 저장소를 쓰지 않으므로 ObjectMapper와 지표만 넘김
+        chatService = new ChatService(null, null, null, objectMapper, null, null,
+                new ChatMetrics(new SimpleMeterRegistry()), null, null, null, null);
+
+        String metadataJson = objectMapper.writeValueAsString(SystemActionMetadata.builder()
+                .actionType(SystemActionMetadata.ActionType.TICKET_REQUEST)
+                .sellerId(200L)
+                .visibleTarget(SystemActionMetadata.VisibleTarget.SELLER)
+                .action(SystemActionMetadata.Action.builder()
+                        .label("양도 수락").actionCode("TRANSFER_ACCEPT").primary(true).build())
+                .action(SystemActionMetadata.Action.builder()
+                        .label("양도 거절").actionCode("TRANSFER_REJECT").primary(false).build())
+                .build());
+
+        history = new ArrayList<>(historySize);
+        LocalDateTime sentAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 0; i < historySize; i++) {
+            boolean withMetadata = i % 100 < metadataPercent;
+            history.add(ChatMessage.builder()
+                    .messageId((long) i + 1)
+                    .chatroomId(1L)
+                    .senderId(i % 2 == 0 ? 100L : 200L)
+                    .type(withMetadata ? ChatMessage.MessageType.SYSTEM_ACTION_MESSAGE : ChatMessage.MessageType.TEXT)
+                    .content("메시지 " + i)
+                    .metadata(withMetadata ? metadataJson : null)
+                    .sentAt(sentAt.plusSeconds(i))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public void legacyParseAndReserialize(Blackhole blackhole) throws Exception {
+        List<LegacyMessageResponse> responses = new ArrayList<>(history.size());
+        for (ChatMessage message : history) {
+            Object metadataObj = null;
+            if (message.getMetadata() != null) {
+                try {
+                    metadataObj = objectMapper.readValue(message.getMetadata(), Object.class);
+                } catch (Exception e) {
+                    metadataObj = null;
+                }
+            }
+            responses.add(LegacyMessageResponse.builder()
+                    .messageId(message.getMessageId())
+                    .senderId(message.getSenderId())
+                    .type(message.getType().name())
+                    .content(message.getContent())
+                    .sentAt(message.getSentAt())
+                    .metadata(metadataObj)
+                    .build());
+        }
+        blackhole.consume(objectMapper.writeValueAsBytes(responses));
+    }
+
+    @Benchmark
+    public void rawPassthrough(Blackhole blackhole) throws Exception {
+        List<ChatMessageResponse> responses = new ArrayList<>(history.size());
+        for (ChatMessage message : history) {
+            responses.add(chatService.toResponse(message));
+        }
+        blackhole.consume(objectMapper.writeValueAsBytes(responses));
+    }
+
+    // 변경 전 ChatMessageResponse (metadata를 Object로 들고 있던 형태)
+    @Getter
+    @Builder
+    public static class LegacyMessageResponse {
+        private Long messageId;
+        private Long senderId;
+        private String type;
+        private String content;
+        private LocalDateTime sentAt;
+        private Object metadata;
+    }
+}
@@ -0,0 +1,80 @@
+package com.company.service_chat.benchmark;
+
+import com.company.service_chat.dto.SystemActionMetadata;
+import com.company.service_chat.dto.SystemMessageTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// 시스템 메시지 metadata 직렬화 (메시지 저장 시 한 번)
+// typed: SystemActionMetadata 를 매번 만들어서 직렬화 (템플릿 도입 전 핸들러 방식) / map: 예전 HashMap 방식
+// template: SystemMessageTemplate 에 ID만 끼워 넣음
+// 할당량 비교: ./gradlew jmh -PjmhIncludes=MetadataSerializationBenchmark -PjmhProfilers=gc (gc.alloc.rate.norm)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetadataSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private SystemActionMetadata typedMetadata;
+    private Map<String, Object> mapMetadata;
+    private long buyerId = 100L;
+    private long sellerId = 200L; // 상수 접기 방지용 필드
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        typedMetadata = SystemActionMetadata.builder()
+                .actionType(SystemActionMetadata.ActionType.TICKET_REQUEST)
+                .sellerId(200L)
+                .visibleTarget(SystemActionMetadata.VisibleTarget.SELLER)
+                .action(SystemActionMetadata.Action.builder()
+                        .label("양도 수락").actionCode("TRANSFER_ACCEPT").primary(true).build())
+                .action(SystemActionMetadata.Action.builder()
+                        .label("양도 거절").actionCode("TRANSFER_REJECT").primary(false).build())
+                .build();
+
+        mapMetadata = new HashMap<>();
+        mapMetadata.put("actionType", "TICKET_REQUEST");
+        mapMetadata.put("sellerId", 200L);
+        mapMetadata.put("visibleTarget", "SELLER");
+        List<Map<String, Object>> actions = new ArrayList<>();
+        actions.add(Map.of("label", "양도 수락", "actionCode", "TRANSFER_ACCEPT", "isPrimary", true));
+        actions.add(Map.of("label", "양도 거절", "actionCode", "TRANSFER_REJECT", "isPrimary", false));
+        mapMetadata.put("actions", actions);
+    }
+
+    @Benchmark
+    public String typed() throws Exception {
+        return objectMapper.writeValueAsString(typedMetadata);
+    }
+
+    // 핸들러에서 하던 그대로: metadata/버튼 객체 생성 + 직렬화
+    @Benchmark
+    public String typedBuildAndWrite() throws Exception {
+        return objectMapper.writeValueAsString(SystemActionMetadata.builder()
+                .actionType(SystemActionMetadata.ActionType.TICKET_REQUEST)
+                .sellerId(sellerId)
+                .visibleTarget(SystemActionMetadata.VisibleTarget.SELLER)
+                .action(SystemActionMetadata.Action.builder()
+                        .label("양도 수락").actionCode("TRANSFER_ACCEPT").primary(true).build())
+                .action(SystemActionMetadata.Action.builder()
+                        .label("양도 거절").actionCode("TRANSFER_REJECT").primary(false).build())
+                .build());
+    }
+
+    @Benchmark
+    public String template() {
+        return SystemMessageTemplate.TICKET_REQUEST.render(buyerId, sellerId).json();
+    }
+
+    @Benchmark
+    public String map() throws Exception {
+        return objectMapper.writeValueAsString(mapMetadata);
+    }
+}
@@ -0,0 +1,80 @@
+package com.company.service_chat.benchmark;
+
+import com.company.service_chat.config.CompactPayloadNegotiator;
+import com.company.service_chat.dto.ChatMessageResponse;
+import com.company.service_chat.dto.SystemMessageTemplate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// 브로드캐스트 프레임 payload: JSON vs CBOR (CompactPayloadNegotiator)
+// json      : 브로드캐스트마다 한 번 하는 JSON 직렬화 (지금과 같음)
+// jsonToCbor: CBOR 세션이 있는 파드에서 브로드캐스트마다 한 번 더 하는 변환
+// parseJson / parseCbor: 받는 쪽 파싱 비용 비교용 (트리로 읽기)
+// 메시지 크기(바이트)는 setUp 에서 출력 (JMH 로그의 "payload bytes" 줄)
+// 실행: ./gradlew jmh -PjmhIncludes=PayloadEncodingBenchmark (-PjmhProfilers=gc 로 할당량도)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PayloadEncodingBenchmark {
+
+    // TEXT: 일반 대화 / SYSTEM: 버튼 metadata 가 있는 시스템 메시지
+    @Param({"TEXT", "SYSTEM"})
+    public String kind;
+
+    private ObjectMapper objectMapper;
+    private CBORMapper cborMapper;
+    private ChatMessageResponse response;
+    private byte[] json;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() throws Exception {
+        // 스프링 기본 ObjectMapper 와 같은 설정 (LocalDateTime 을 ISO 문자열로)
+        objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        cborMapper = new CBORMapper();
+
+        boolean system = "SYSTEM".equals(kind);
+        response = ChatMessageResponse.builder()
+                .messageId(231_845_470_654_529L) // Snowflake ID 크기 (53비트, 2025년 기준 15~16자리)
+                .seq(1_024L)
+                .senderId(1_234_567_890_123L)
+                .type(system ? "SYSTEM_ACTION_MESSAGE" : "TEXT")
+                .content(system ? SystemMessageTemplate.TICKET_REQUEST.getContent() : "네 내일 오후 7시에 공연장 앞에서 뵐게요!")
+                .sentAt(LocalDateTime.of(2025, 1, 1, 19, 30, 15, 123_456_000))
+                .metadata(system ? SystemMessageTemplate.TICKET_REQUEST.render(1_234_567_890_123L, 42L).json() : null)
+                .build();
+
+        json = objectMapper.writeValueAsBytes(response);
+        cbor = CompactPayloadNegotiator.toCbor(json);
+        System.out.printf("%npayload bytes [%s] json=%d cbor=%d (%.0f%%)%n",
+                kind, json.length, cbor.length, cbor.length * 100.0 / json.length);
+    }
+
+    @Benchmark
+    public byte[] json() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] jsonToCbor() {
+        return CompactPayloadNegotiator.toCbor(json);
+    }
+
+    @Benchmark
+    public JsonNode parseJson() throws Exception {
+        return objectMapper.readTree(json);
+    }
+
+    @Benchmark
+    public JsonNode parseCbor() throws Exception {
+        return cborMapper.readTree(cbor);
+    }
+}
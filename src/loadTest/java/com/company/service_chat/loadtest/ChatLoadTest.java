@@ -0,0 +1,261 @@
+package com.company.service_chat.loadtest;
+
+import com.company.service_chat.Service_chatApplication;
+import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatRoom;
+import com.company.service_chat.repository.ChatMemberRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.RestTemplateXhrTransport;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.Transport;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket(STOMP over SockJS) 종단 간 부하 테스트.
+ * 앱을 H2 + 내장 브로커(local 브로드캐스트)로 띄우고, 수천 개의 STOMP 세션이
+ * /topic/chatrooms/{id} 를 구독한 상태에서 /app/chat/message 로 메시지를 보낸다.
+ * 전송 -> 구독자 수신 지연시간 분포(HdrHistogram)와 초당 발송/전달 메시지 수를 출력한다.
+ *
+ * 실행: ./gradlew loadTest -PloadTest.clients=2000 -PloadTest.messagesPerSecond=1000
+ * 세션 수가 많으면 열린 파일 수 제한(ulimit -n)을 먼저 늘려야 한다.
+ */
+public class ChatLoadTest {
+
+    private static final long USER_ID_BASE = 5_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        ConfigurableApplicationContext context = startServer(config);
+        int exitCode = 0;
+        try {
+            new ChatLoadTest().run(context, config);
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext startServer(LoadTestConfig config) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(Service_chatApplication.class);
+        if ("virtual".equals(config.threadModel())) {
+            builder.profiles("virtual"); // application-virtual.yml (Tomcat / STOMP 채널 가상 스레드 + 커넥션 풀 설정)
+        }
+        return builder
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MYSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.show-sql=false",
+                        "spring.flyway.enabled=false",
+                        "chat.node-id=1",
+                        "chat.broadcast.mode=local",
+                        "chat.persistence.mode=" + config.persistenceMode(),
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    private void run(ConfigurableApplicationContext context, LoadTestConfig config) throws Exception {
+        String port = context.getEnvironment().getProperty("local.server.port");
+        String url = "http://localhost:" + port + "/ws";
+        List<ChatRoom> rooms = seedRooms(context, config.rooms());
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Recorder latencyRecorder = new Recorder(3);
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        LongAdder received = new LongAdder();
+        LongAdder errors = new LongAdder();
+
+        // 1. 클라이언트 만들기: 방마다 clientsPerRoom개, 구매자/판매자 번갈아 가며 발송
+        List<StompLoadClient> clients = new ArrayList<>(config.clients());
+        for (int i = 0; i < config.clients(); i++) {
+            ChatRoom room = rooms.get(i / config.clientsPerRoom());
+            Long userId = i % 2 == 0 ? room.getBuyerId() : room.getSellerId();
+            clients.add(new StompLoadClient(room.getChatroomId(), userId, objectMapper,
+                    latencyRecorder, measuring, received, errors));
+        }
+
+        // 2. 연결 (동시 핸드셰이크 수 제한)
+        WebSocketStompClient stompClient = new WebSocketStompClient(new SockJsClient(transports(config)));
+        stompClient.setMessageConverter(new ByteArrayMessageConverter());
+        long connectStart = System.nanoTime();
+        int connected = connectAll(clients, stompClient, url, config.connectConcurrency());
+        long connectMillis = (System.nanoTime() - connectStart) / 1_000_000;
+        System.out.printf("connected %,d / %,d sessions in %,d ms (%s, rooms=%,d)%n",
+                connected, config.clients(), connectMillis, config.transport(), rooms.size());
+
+        // 3. 발송 시작 -> 워밍업 -> 측정
+        LongAdder sent = new LongAdder();
+        ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor();
+        startSending(sender, clients, config.messagesPerSecond(), sent);
+
+        TimeUnit.SECONDS.sleep(config.warmupSeconds());
+        latencyRecorder.getIntervalHistogram(); // 워밍업 구간 버리기
+        measuring.set(true);
+        long sentBefore = sent.sum();
+        long receivedBefore = received.sum();
+        long measureStart = System.nanoTime();
+
+        TimeUnit.SECONDS.sleep(config.durationSeconds());
+
+        long sentDuring = sent.sum() - sentBefore;
+        sender.shutdownNow();
+        // 이미 보낸 메시지가 도착할 시간
+        TimeUnit.SECONDS.sleep(2);
+        measuring.set(false);
+        double seconds = (System.nanoTime() - measureStart) / 1e9;
+        long receivedDuring = received.sum() - receivedBefore;
+        Histogram histogram = latencyRecorder.getIntervalHistogram();
+
+        report(config, connected, sentDuring, receivedDuring, seconds, errors.sum(), histogram);
+
+        clients.forEach(StompLoadClient::disconnect);
+        stompClient.stop();
+    }
+
+    private List<ChatRoom> seedRooms(ConfigurableApplicationContext context, int roomCount) {
+        ChatRoomRepository chatRoomRepository = context.getBean(ChatRoomRepository.class);
+        ChatMemberRepository chatMemberRepository = context.getBean(ChatMemberRepository.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        return transactionTemplate.execute(status -> {
+            List<ChatRoom> rooms = new ArrayList<>(roomCount);
+            for (int i = 0; i < roomCount; i++) {
+                long buyerId = USER_ID_BASE + i * 2L;
+                rooms.add(ChatRoom.builder()
+                        .ticketId(USER_ID_BASE + i)
+                        .buyerId(buyerId)
+                        .sellerId(buyerId + 1)
+                        .build());
+            }
+            rooms = chatRoomRepository.saveAll(rooms);
+
+            List<ChatMember> members = new ArrayList<>(roomCount * 2);
+            for (ChatRoom room : rooms) {
+                members.add(new ChatMember(room.getBuyerId(), room.getChatroomId()));
+                members.add(new ChatMember(room.getSellerId(), room.getChatroomId()));
+            }
+            chatMemberRepository.saveAll(members);
+            return rooms;
+        });
+    }
+
+    private List<Transport> transports(LoadTestConfig config) {
+        if ("xhr".equalsIgnoreCase(config.transport())) {
+            return List.of(new RestTemplateXhrTransport(new RestTemplate()));
+        }
+        return List.of(new WebSocketTransport(new StandardWebSocketClient()));
+    }
+
+    private int connectAll(List<StompLoadClient> clients, WebSocketStompClient stompClient, String url,
+                           int concurrency) throws InterruptedException {
+        Semaphore handshakes = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(clients.size());
+        for (StompLoadClient client : clients) {
+            handshakes.acquire();
+            client.connect(stompClient, url).whenComplete((session, error) -> {
+                handshakes.release();
+                done.countDown();
+            });
+        }
+        done.await(5, TimeUnit.MINUTES);
+        return (int) clients.stream().filter(StompLoadClient::isConnected).count();
+    }
+
+    // 10ms마다 (초당 발송 수 / 100)개씩, 연결된 클라이언트를 돌아가며 발송
+    private void startSending(ScheduledExecutorService sender, List<StompLoadClient> clients,
+                              int messagesPerSecond, LongAdder sent) {
+        double perTick = messagesPerSecond / 100.0;
+        int[] cursor = {0};
+        double[] carry = {0};
+        sender.scheduleAtFixedRate(() -> {
+            carry[0] += perTick;
+            int toSend = (int) carry[0];
+            carry[0] -= toSend;
+            for (int i = 0; i < toSend; i++) {
+                StompLoadClient client = clients.get(cursor[0]);
+                cursor[0] = (cursor[0] + 1) % clients.size();
+                if (client.send()) {
+                    sent.increment();
+                }
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS);
+    }
+
+    private void report(LoadTestConfig config, int connected, long sent, long received, double seconds,
+                        long errors, Histogram histogram) throws Exception {
+        System.out.println();
+        System.out.println("==== chat websocket load test ====");
+        System.out.printf("sessions       : %,d connected / %,d target, %d per room%n",
+                connected, config.clients(), config.clientsPerRoom());
+        System.out.printf("server         : persistence=%s, threads=%s (java %s)%n",
+                config.persistenceMode(), config.threadModel(), Runtime.version().feature());
+        System.out.printf("sent           : %,d (%,.0f msg/s, target %,d msg/s)%n",
+                sent, sent / seconds, config.messagesPerSecond());
+        System.out.printf("delivered      : %,d (%,.0f msg/s, expected ~%,d)%n",
+                received, received / seconds, sent * config.clientsPerRoom());
+        System.out.printf("errors         : %,d%n", errors);
+        System.out.printf("latency (ms)   : p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f (n=%,d)%n",
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0,
+                histogram.getTotalCount());
+
+        // 전체 분포는 HdrHistogram 형식으로 저장 (https://hdrhistogram.github.io/HdrHistogram/plotFiles.html 로 그래프)
+        File outputDir = new File(System.getProperty("loadTest.outputDir", "build/loadtest"));
+        outputDir.mkdirs();
+        File output = new File(outputDir, "latency-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".hgrm");
+        try (PrintStream out = new PrintStream(output)) {
+            histogram.outputPercentileDistribution(out, 1000.0); // 마이크로초 -> 밀리초
+        }
+        System.out.printf("histogram      : %s%n", output.getPath());
+
+        // 실행마다 한 줄씩 쌓아서 설정별로 비교 (loadTestThreadModels 태스크가 출력)
+        File summary = new File(outputDir, "summary.csv");
+        boolean newFile = !summary.exists();
+        try (PrintStream out = new PrintStream(new FileOutputStream(summary, true))) {
+            if (newFile) {
+                out.println("time,threadModel,persistence,sessions,sentPerSec,deliveredPerSec,errors,p50Ms,p99Ms,p999Ms,maxMs");
+            }
+            out.printf("%s,%s,%s,%d,%.0f,%.0f,%d,%.2f,%.2f,%.2f,%.2f%n",
+                    LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                    config.threadModel(), config.persistenceMode(), connected,
+                    sent / seconds, received / seconds, errors,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+        }
+    }
+}
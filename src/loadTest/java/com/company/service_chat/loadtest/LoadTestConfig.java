@@ -0,0 +1,39 @@
+package com.company.service_chat.loadtest;
+
+// 부하 테스트 설정 (-PloadTest.xxx=값 -> 시스템 프로퍼티 loadTest.xxx)
+record LoadTestConfig(
+        int clients,             // 동시 STOMP 세션 수
+        int clientsPerRoom,      // 방 하나에 구독하는 세션 수 (메시지 하나가 전달되는 수)
+        int messagesPerSecond,   // 전체 발송 속도
+        int warmupSeconds,       // 지연시간 기록 전 워밍업
+        int durationSeconds,     // 측정 시간
+        int connectConcurrency,  // 동시에 진행하는 핸드셰이크 수
+        String transport,        // websocket: SockJS 웹소켓 전송 / xhr: SockJS XHR 폴백
+        String persistenceMode,  // 서버 메시지 저장 모드 (sync / write-behind)
+        String threadModel       // 서버 스레드 모델 (platform / virtual: virtual 프로필, Java 21 필요)
+) {
+
+    static LoadTestConfig fromSystemProperties() {
+        LoadTestConfig config = new LoadTestConfig(
+                Integer.getInteger("loadTest.clients", 1_000),
+                Integer.getInteger("loadTest.clientsPerRoom", 10),
+                Integer.getInteger("loadTest.messagesPerSecond", 500),
+                Integer.getInteger("loadTest.warmupSeconds", 10),
+                Integer.getInteger("loadTest.durationSeconds", 60),
+                Integer.getInteger("loadTest.connectConcurrency", 200),
+                System.getProperty("loadTest.transport", "websocket"),
+                System.getProperty("loadTest.persistenceMode", "sync"),
+                System.getProperty("loadTest.threadModel", "platform"));
+        if (config.clients() < 1 || config.clientsPerRoom() < 1 || config.messagesPerSecond() < 1) {
+            throw new IllegalArgumentException("clients, clientsPerRoom, messagesPerSecond는 1 이상이어야 합니다.");
+        }
+        if (!"platform".equals(config.threadModel()) && !"virtual".equals(config.threadModel())) {
+            throw new IllegalArgumentException("threadModel은 platform 또는 virtual 이어야 합니다: " + config.threadModel());
+        }
+        return config;
+    }
+
+    int rooms() {
+        return (clients + clientsPerRoom - 1) / clientsPerRoom;
+    }
+}
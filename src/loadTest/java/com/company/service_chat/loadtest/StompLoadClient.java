@@ -0,0 +1,129 @@
+package com.company.service_chat.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Recorder;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// 부하 테스트용 STOMP 클라이언트 하나 (채팅방 하나 구독 + 그 방에 메시지 발송)
+// 보낸 시각(System.nanoTime)을 content에 넣어서, 같은 JVM의 구독자가 받았을 때 전송 -> 수신 지연시간을 기록
+final class StompLoadClient {
+
+    static final String CONTENT_PREFIX = "lt|";
+
+    private final Long chatroomId;
+    private final Long userId;
+    private final ObjectMapper objectMapper;
+    private final Recorder latencyRecorder;
+    private final AtomicBoolean measuring;
+    private final LongAdder received;
+    private final LongAdder errors;
+    private volatile StompSession session;
+
+    StompLoadClient(Long chatroomId, Long userId, ObjectMapper objectMapper, Recorder latencyRecorder,
+                    AtomicBoolean measuring, LongAdder received, LongAdder errors) {
+        this.chatroomId = chatroomId;
+        this.userId = userId;
+        this.objectMapper = objectMapper;
+        this.latencyRecorder = latencyRecorder;
+        this.measuring = measuring;
+        this.received = received;
+        this.errors = errors;
+    }
+
+    // 연결 + /topic/chatrooms/{id} 구독 (구독 완료(RECEIPT)까지 기다리지 않음, 워밍업 동안 자리 잡음)
+    CompletableFuture<StompSession> connect(WebSocketStompClient stompClient, String url) {
+        return stompClient.connectAsync(url, new StompSessionHandlerAdapter() {
+                    @Override
+                    public void handleTransportError(StompSession session, Throwable exception) {
+                        errors.increment();
+                    }
+
+                    @Override
+                    public void handleException(StompSession session, StompCommand command, StompHeaders headers,
+                                                byte[] payload, Throwable exception) {
+                        errors.increment();
+                    }
+                })
+                .thenApply(connected -> {
+                    connected.subscribe("/topic/chatrooms/" + chatroomId, new RoomFrameHandler());
+                    this.session = connected;
+                    return connected;
+                });
+    }
+
+    boolean isConnected() {
+        StompSession current = session;
+        return current != null && current.isConnected();
+    }
+
+    // /app/chat/message 로 TEXT 메시지 발송
+    boolean send() {
+        StompSession current = session;
+        if (current == null || !current.isConnected()) {
+            return false;
+        }
+        try {
+            Map<String, Object> message = new LinkedHashMap<>();
+            message.put("chatroomId", chatroomId);
+            message.put("senderId", userId);
+            message.put("type", "TEXT");
+            message.put("content", CONTENT_PREFIX + System.nanoTime());
+
+            StompHeaders headers = new StompHeaders();
+            headers.setDestination("/app/chat/message");
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            current.send(headers, objectMapper.writeValueAsBytes(message));
+            return true;
+        } catch (Exception e) {
+            errors.increment();
+            return false;
+        }
+    }
+
+    void disconnect() {
+        StompSession current = session;
+        if (current != null && current.isConnected()) {
+            current.disconnect();
+        }
+    }
+
+    private class RoomFrameHandler implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long receivedAt = System.nanoTime();
+            received.increment();
+            try {
+                JsonNode content = objectMapper.readTree((byte[]) payload).get("content");
+                if (content == null || !content.asText().startsWith(CONTENT_PREFIX)) {
+                    return; // 시스템 메시지 등
+                }
+                long sentAt = Long.parseLong(content.asText().substring(CONTENT_PREFIX.length()));
+                if (measuring.get()) {
+                    latencyRecorder.recordValue(Math.max(0, (receivedAt - sentAt) / 1_000)); // 마이크로초
+                }
+            } catch (Exception e) {
+                errors.increment();
+            }
+        }
+    }
+}
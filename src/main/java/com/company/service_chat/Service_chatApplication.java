@@ -2,8 +2,10 @@ package com.company.service_chat;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // 안 읽은 메시지 카운터 보정 등 주기 작업
 public class Service_chatApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,175 @@
+package com.company.service_chat.config;
+
+import com.company.service_chat.service.ChatMetrics;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// STOMP 세션별 payload 인코딩 협상 (JSON / CBOR)
+// 클라이언트가 CONNECT 프레임에 accept-content-type:application/cbor 를 보내면 그 세션으로 가는 MESSAGE 프레임을 CBOR 로 바꿔서 전송
+// - 브로드캐스트는 지금처럼 JSON 으로 한 번만 직렬화(Redis 발행 / 로컬 브로커)하고, 발신 채널에서 CBOR 세션으로 가는 것만 변환
+//   같은 브로드캐스트는 구독자마다 같은 payload 배열이 오므로 배열 단위로 한 번만 변환해서 재사용
+// - JSON 토큰을 그대로 CBOR 로 옮김 (객체로 읽지 않음, ChatMessageResponse.metadata 의 @JsonRawValue 는 CBOR 로 직접 쓸 수 없음)
+// - CBOR 는 바이너리 WebSocket 프레임으로 보내야 하는데 스프링은 content-type 이 application/octet-stream 일 때만 바이너리로 보내므로
+//   content-type:application/octet-stream;encoding=cbor 로 보냄 (클라이언트는 encoding 파라미터로 구분)
+// - SockJS 는 텍스트 프레임만 보낼 수 있어서 /ws-native(SockJS 없는 WebSocket)로 연결한 세션만 CBOR, /ws 는 요청해도 JSON
+// - 클라이언트 -> 서버 SEND 프레임은 content-type:application/cbor 이면 WebSocketConfig 의 CBOR 컨버터가 읽음
+@Slf4j
+@Component
+public class CompactPayloadNegotiator implements ChannelInterceptor, HandshakeInterceptor {
+
+    public static final String ACCEPT_HEADER = "accept-content-type";
+    public static final MimeType APPLICATION_CBOR = new MimeType("application", "cbor");
+    public static final MimeType CBOR_FRAME = new MimeType(MimeTypeUtils.APPLICATION_OCTET_STREAM, Map.of("encoding", "cbor"));
+
+    // 핸드셰이크 때 세션 속성에 표시 (바이너리 프레임을 보낼 수 있는 연결)
+    static final String BINARY_FRAMES_ATTRIBUTE = "chat.binary-frames";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+
+    private final ChatMetrics chatMetrics;
+    private final boolean enabled;
+    // CBOR 로 받기로 한 세션 ID
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet();
+    // JSON payload 배열 -> CBOR (weakKeys: 배열 동일성 기준, 전송이 끝나 배열이 버려지면 같이 정리)
+    private final Cache<byte[], byte[]> encoded;
+
+    public CompactPayloadNegotiator(ChatMetrics chatMetrics,
+                                    @Value("${chat.websocket.compact-payload.enabled:true}") boolean enabled,
+                                    @Value("${chat.websocket.compact-payload.cache-size:1024}") int cacheSize) {
+        this.chatMetrics = chatMetrics;
+        this.enabled = enabled;
+        this.encoded = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        attributes.put(BINARY_FRAMES_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    // 수신 채널: CONNECT 에서 협상, DISCONNECT 에서 정리 / 발신 채널: CBOR 세션으로 가는 MESSAGE 변환
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (type == null || sessionId == null) {
+            return message;
+        }
+        if (type == SimpMessageType.CONNECT) {
+            negotiate(message, sessionId);
+        } else if (type == SimpMessageType.DISCONNECT) {
+            cborSessions.remove(sessionId);
+        } else if (type == SimpMessageType.MESSAGE && cborSessions.contains(sessionId)) {
+            return encode(message, sessionId);
+        }
+        return message;
+    }
+
+    // JSON 을 같은 구조의 CBOR 로 (정수는 가변 길이 정수, 문자열/필드 이름은 길이 + UTF-8)
+    public static byte[] toCbor(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+        try (JsonParser parser = JSON_FACTORY.createParser(json);
+             JsonGenerator generator = CBOR_FACTORY.createGenerator(out)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private void negotiate(Message<?> message, String sessionId) {
+        String accept = SimpMessageHeaderAccessor.wrap(message).getFirstNativeHeader(ACCEPT_HEADER);
+        if (!enabled || accept == null || !isCborType(accept)) {
+            return;
+        }
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(message.getHeaders());
+        if (attributes == null || !Boolean.TRUE.equals(attributes.get(BINARY_FRAMES_ATTRIBUTE))) {
+            log.debug("SockJS 세션은 바이너리 프레임을 보낼 수 없어 JSON 으로 전송: sessionId={}", sessionId);
+            return;
+        }
+        cborSessions.add(sessionId);
+    }
+
+    private Message<?> encode(Message<?> message, String sessionId) {
+        if (!(message.getPayload() instanceof byte[] json) || !isJson(message.getHeaders().get(MessageHeaders.CONTENT_TYPE))) {
+            return message;
+        }
+        byte[] cbor;
+        try {
+            cbor = encoded.get(json, key -> {
+                long start = System.nanoTime();
+                byte[] result = toCbor(key);
+                chatMetrics.recordSerialize(start, "cbor");
+                return result;
+            });
+        } catch (RuntimeException e) {
+            log.warn("CBOR 변환 실패, JSON 그대로 전송합니다: sessionId={}", sessionId, e);
+            return message;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        accessor.setContentType(CBOR_FRAME);
+        return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+    }
+
+    private static boolean isCborType(String value) {
+        try {
+            return APPLICATION_CBOR.equalsTypeAndSubtype(MimeTypeUtils.parseMimeType(value));
+        } catch (InvalidMimeTypeException e) {
+            return false;
+        }
+    }
+
+    private static boolean isJson(Object contentType) {
+        if (contentType instanceof MimeType mimeType) {
+            return MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(mimeType);
+        }
+        if (!(contentType instanceof String value)) {
+            return false;
+        }
+        try {
+            return MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(MimeTypeUtils.parseMimeType(value));
+        } catch (InvalidMimeTypeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.company.service_chat.config;
+
+import com.company.service_chat.entity.id.SnowflakeIdGenerator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Snowflake ID 노드 번호 설정
+// chat.node-id 가 있으면 그 값, 없으면 Redis 에서 0~63 중 비어 있는 번호를 임대 (SET NX + TTL)
+// - 살아 있는 파드끼리는 같은 번호를 받지 않음, 비어 있는 번호가 없거나 Redis 에 연결할 수 없으면 시작 실패
+// - renew-interval-ms 마다 TTL 연장, 종료 시 반납 (비정상 종료한 파드의 번호는 TTL 이 지나면 다시 사용)
+// - 연장하려고 보니 다른 파드가 가져간 뒤면 (TTL 보다 오래 Redis 와 끊겼던 경우) 새 번호를 임대해서 바꿈
+@Slf4j
+@Configuration
+public class IdGeneratorConfig {
+
+    static final String NODE_KEY_PREFIX = "chat:id-generator:node:";
+
+    // 내 임대면 TTL 연장, 만료돼서 비어 있으면 다시 임대 -> 1, 다른 파드가 가져갔으면 0
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('pexpire', KEYS[1], ARGV[2])
+            end
+            if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration leaseTtl;
+    private final String owner;
+    // 임대한 번호 (chat.node-id 로 지정했으면 null)
+    private volatile Long leasedNodeId;
+
+    public IdGeneratorConfig(@Value("${chat.node-id:}") String configuredNodeId,
+                             @Value("${chat.node-id-lease.ttl-seconds:30}") long leaseTtlSeconds,
+                             ObjectProvider<StringRedisTemplate> stringRedisTemplate) {
+        this.leaseTtl = Duration.ofSeconds(leaseTtlSeconds);
+        this.owner = hostName() + ":" + UUID.randomUUID();
+        long nodeId;
+        if (!configuredNodeId.isBlank()) {
+            this.stringRedisTemplate = null;
+            nodeId = Long.parseLong(configuredNodeId.trim());
+        } else {
+            this.stringRedisTemplate = stringRedisTemplate.getIfAvailable();
+            if (this.stringRedisTemplate == null) {
+                throw new IllegalStateException("Snowflake 노드 번호를 임대할 Redis 가 없습니다. chat.node-id 로 직접 지정하세요.");
+            }
+            nodeId = leaseNodeId();
+            this.leasedNodeId = nodeId;
+        }
+        SnowflakeIdGenerator.configure(nodeId);
+        log.info("Snowflake ID 노드 번호: {}", nodeId);
+    }
+
+    @Scheduled(initialDelayString = "${chat.node-id-lease.renew-interval-ms:10000}",
+               fixedDelayString = "${chat.node-id-lease.renew-interval-ms:10000}")
+    public void renewLease() {
+        Long nodeId = leasedNodeId;
+        if (nodeId == null) {
+            return;
+        }
+        Long renewed;
+        try {
+            renewed = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(NODE_KEY_PREFIX + nodeId),
+                    owner, String.valueOf(leaseTtl.toMillis()));
+        } catch (Exception e) {
+            // TTL 안에 다시 연결되면 그대로 유지
+            log.warn("Snowflake 노드 번호 임대 연장 실패: nodeId={}, {}", nodeId, e.getMessage());
+            return;
+        }
+        if (renewed == null || renewed == 0) {
+            long newNodeId = leaseNodeId();
+            leasedNodeId = newNodeId;
+            SnowflakeIdGenerator.configure(newNodeId);
+            log.error("Snowflake 노드 번호 {} 를 다른 파드가 임대해서 {} 로 바꿉니다.", nodeId, newNodeId);
+        }
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        Long nodeId = leasedNodeId;
+        if (nodeId == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(NODE_KEY_PREFIX + nodeId), owner);
+        } catch (Exception e) {
+            log.warn("Snowflake 노드 번호 반납 실패 (TTL 후 만료): nodeId={}, {}", nodeId, e.getMessage());
+        }
+    }
+
+    Long getLeasedNodeId() {
+        return leasedNodeId;
+    }
+
+    // 파드들이 같은 번호부터 경쟁하지 않도록 임의의 위치부터 한 바퀴 확인
+    private long leaseNodeId() {
+        int nodes = SnowflakeIdGenerator.MAX_NODE_ID + 1;
+        int start = ThreadLocalRandom.current().nextInt(nodes);
+        for (int i = 0; i < nodes; i++) {
+            long nodeId = (start + i) % nodes;
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(NODE_KEY_PREFIX + nodeId, owner, leaseTtl);
+            if (Boolean.TRUE.equals(acquired)) {
+                return nodeId;
+            }
+        }
+        throw new IllegalStateException("사용할 수 있는 Snowflake 노드 번호가 없습니다. (최대 " + nodes + "개 파드)");
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.company.service_chat.config;
 
+import com.company.service_chat.service.ChatMessageBroadcaster;
+import com.company.service_chat.service.RedisBroadcastListener;
+import com.company.service_chat.service.RoomSnapshotCache;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -12,6 +16,9 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -98,4 +105,17 @@ public class RedisConfig {
             .cacheDefaults(cacheConfig)
             .build();
     }
+
+    // 파드 간 WebSocket 브로드캐스트 / 채팅방 캐시 무효화 수신용 (chat.broadcast.mode=redis 일 때만)
+    @Bean
+    @ConditionalOnProperty(name = "chat.broadcast.mode", havingValue = "redis", matchIfMissing = true)
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       RedisBroadcastListener broadcastListener,
+                                                                       RoomSnapshotCache roomSnapshotCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(broadcastListener, new PatternTopic(ChatMessageBroadcaster.CHANNEL_PREFIX + "*"));
+        container.addMessageListener(roomSnapshotCache, new ChannelTopic(RoomSnapshotCache.INVALIDATE_CHANNEL));
+        return container;
+    }
 }
@@ -0,0 +1,120 @@
+package com.company.service_chat.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// 느린 구독자(탭이 멈춘 브라우저, 끊긴 모바일 등) 처리 정책
+// 구독자에게 보낼 프레임은 세션마다 버퍼에 쌓이는데, 상대가 못 받으면 버퍼가 계속 커져서 힙을 차지함
+// - disconnect: 스프링 기본 동작. send-time-limit-ms / send-buffer-size-limit 을 넘으면 세션 종료 (WebSocketConfig)
+// - drop      : 소켓 쓰기가 stall-threshold-ms 이상 막혀 있는 세션에는 새 MESSAGE 프레임을 버퍼에 넣지 않고 버림
+//               (세션은 유지, 다시 받기 시작하면 정상 전달, 빠진 메시지는 재접속/커서 조회로 보완)
+//               버퍼 한도는 그대로 적용되므로 그래도 넘치면 세션 종료
+@Slf4j
+@Component
+public class SlowConsumerGuard implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    public static final String POLICY_DISCONNECT = "disconnect";
+    public static final String POLICY_DROP = "drop";
+
+    private final boolean dropEnabled;
+    private final long stallThresholdNanos;
+    private final Counter droppedFrames;
+    // 세션 ID -> 실제 소켓 쓰기 상태 (drop 정책일 때만)
+    private final Map<String, WriteTrackingSession> sessions = new ConcurrentHashMap<>();
+
+    public SlowConsumerGuard(MeterRegistry meterRegistry,
+                             @Value("${chat.websocket.slow-consumer.policy:disconnect}") String policy,
+                             @Value("${chat.websocket.slow-consumer.stall-threshold-ms:2000}") long stallThresholdMillis) {
+        if (!POLICY_DISCONNECT.equalsIgnoreCase(policy) && !POLICY_DROP.equalsIgnoreCase(policy)) {
+            throw new IllegalArgumentException("지원하지 않는 slow-consumer 정책입니다: " + policy);
+        }
+        this.dropEnabled = POLICY_DROP.equalsIgnoreCase(policy);
+        this.stallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(stallThresholdMillis);
+        this.droppedFrames = Counter.builder("chat.websocket.slow_consumer.dropped")
+                .description("느린 구독자에게 보내지 않고 버린 프레임 수")
+                .register(meterRegistry);
+    }
+
+    // 세션을 감싸서 실제 소켓 쓰기가 언제부터 막혀 있는지 기록
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        if (!dropEnabled) {
+            return handler;
+        }
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                WriteTrackingSession tracked = new WriteTrackingSession(session);
+                sessions.put(session.getId(), tracked);
+                super.afterConnectionEstablished(tracked);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    // clientOutboundChannel: 막혀 있는 세션으로 가는 MESSAGE 프레임은 버퍼에 넣기 전에 버림
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (!dropEnabled || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        WriteTrackingSession session = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (session != null && session.isStalled(stallThresholdNanos)) {
+            droppedFrames.increment();
+            log.debug("느린 구독자 프레임 버림: sessionId={}", session.getId());
+            return null;
+        }
+        return message;
+    }
+
+    // 스프링의 세션 버퍼(ConcurrentWebSocketSessionDecorator)는 한 번에 한 스레드만 이 세션으로 실제 전송을 하므로
+    // 전송 시작 시각이 남아 있으면 그 시간만큼 소켓 쓰기가 막혀 있다는 뜻
+    private static class WriteTrackingSession extends WebSocketSessionDecorator {
+
+        private volatile long writeStartedAt;
+
+        WriteTrackingSession(WebSocketSession delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            writeStartedAt = System.nanoTime();
+            try {
+                super.sendMessage(message);
+            } finally {
+                writeStartedAt = 0;
+            }
+        }
+
+        boolean isStalled(long thresholdNanos) {
+            long startedAt = writeStartedAt;
+            return startedAt != 0 && System.nanoTime() - startedAt > thresholdNanos;
+        }
+    }
+}
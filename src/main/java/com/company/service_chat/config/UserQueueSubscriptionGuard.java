@@ -0,0 +1,68 @@
+package com.company.service_chat.config;
+
+import com.company.service_chat.service.ChatMessageBroadcaster;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// 사용자 큐(/queue/users/{userId}/...) 구독 확인
+// 채팅 목록 변경분, 그 사용자에게만 보이는 시스템 메시지(양도 수락/거절 버튼 등)가 가는 곳이라 본인만 구독할 수 있어야 함
+// - CONNECT 프레임의 user-id 헤더로 세션의 사용자를 정하고(세션 속성), 이후 바꿀 수 없음
+// - SUBSCRIBE 목적지의 userId 가 세션의 사용자와 다르거나 CONNECT 때 user-id 를 보내지 않았으면 거부 (클라이언트는 ERROR 프레임을 받음)
+// - /topic 등 다른 목적지는 그대로 (채팅방 메시지는 지금처럼 방 토픽으로)
+@Slf4j
+@Component
+public class UserQueueSubscriptionGuard implements ChannelInterceptor {
+
+    public static final String USER_ID_HEADER = "user-id";
+    static final String USER_ID_ATTRIBUTE = "chat.user-id";
+
+    // 수신 채널: CONNECT 에서 사용자 기록, SUBSCRIBE 에서 확인
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type == SimpMessageType.CONNECT) {
+            bindUser(message);
+        } else if (type == SimpMessageType.SUBSCRIBE) {
+            checkSubscription(message);
+        }
+        return message;
+    }
+
+    private void bindUser(Message<?> message) {
+        String userId = SimpMessageHeaderAccessor.wrap(message).getFirstNativeHeader(USER_ID_HEADER);
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(message.getHeaders());
+        if (userId == null || attributes == null) {
+            return;
+        }
+        try {
+            attributes.put(USER_ID_ATTRIBUTE, Long.valueOf(userId.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("user-id 헤더가 올바르지 않습니다: " + userId);
+        }
+    }
+
+    private void checkSubscription(Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !destination.startsWith(ChatMessageBroadcaster.USER_QUEUE_PREFIX)) {
+            return;
+        }
+        String rest = destination.substring(ChatMessageBroadcaster.USER_QUEUE_PREFIX.length());
+        int slash = rest.indexOf('/');
+        String target = slash < 0 ? rest : rest.substring(0, slash);
+
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(message.getHeaders());
+        Object userId = attributes == null ? null : attributes.get(USER_ID_ATTRIBUTE);
+        if (userId == null || !userId.toString().equals(target)) {
+            log.warn("다른 사용자의 큐 구독 거부: sessionId={}, userId={}, destination={}",
+                    SimpMessageHeaderAccessor.getSessionId(message.getHeaders()), userId, destination);
+            throw new IllegalStateException("다른 사용자의 큐는 구독할 수 없습니다.");
+        }
+    }
+}
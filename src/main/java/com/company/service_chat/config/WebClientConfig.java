@@ -1,16 +1,53 @@
 package com.company.service_chat.config;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
     @Bean
-    public WebClient ticketWebClient() {
+    public WebClient ticketWebClient(@Value("${ticket.service.url:http://host.docker.internal:8082}") String ticketServiceUrl,
+                                     @Value("${ticket.service.connect-timeout-ms:500}") int connectTimeoutMillis,
+                                     @Value("${ticket.service.timeout-ms:1500}") long timeoutMillis) {
+        // 티켓 서비스가 느려도 채팅방 생성이 오래 잡혀 있지 않도록 연결/응답 타임아웃 설정
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofMillis(timeoutMillis));
+
         return WebClient.builder()
-                .baseUrl("http://host.docker.internal:8082") // 티켓 서비스 URL (호스트에서 실행 중)
+                .baseUrl(ticketServiceUrl) // 티켓 서비스 URL (기본값: 호스트에서 실행 중)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    // 티켓 서비스 서킷 브레이커
+    // 최근 호출의 실패(타임아웃, 5xx, 연결 오류) 비율이 임계치를 넘으면 일정 시간 동안 바로 실패 처리
+    // (404 / 응답 형식 오류는 티켓 서비스 장애가 아니므로 실패로 세지 않음)
+    @Bean
+    public CircuitBreaker ticketServiceCircuitBreaker(
+            @Value("${ticket.service.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${ticket.service.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${ticket.service.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${ticket.service.circuit-breaker.open-duration-ms:10000}") long openDurationMillis) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(Duration.ofMillis(openDurationMillis))
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .ignoreExceptions(WebClientResponseException.NotFound.class, IllegalStateException.class)
                 .build();
+        return CircuitBreaker.of("ticket-service", config);
     }
 }
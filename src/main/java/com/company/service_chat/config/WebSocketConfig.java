@@ -1,15 +1,75 @@
 package com.company.service_chat.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableWebSocketMessageBroker // 1. 웹소켓 메시지 브로커 활성화
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // 스프링이 만드는 수신/발신 채널 executor 빈 이름 -> 가상 스레드 이름 접두사
+    private static final Map<String, String> CHANNEL_EXECUTORS = Map.of(
+            "clientInboundChannelExecutor", "ws-inbound-",
+            "clientOutboundChannelExecutor", "ws-outbound-");
+
+    // STOMP 수신 채널: @MessageMapping 처리 (메시지 저장 등 JPA 블로킹 작업)
+    @Value("${chat.websocket.inbound.core-pool-size:16}")
+    private int inboundCorePoolSize;
+
+    @Value("${chat.websocket.inbound.max-pool-size:64}")
+    private int inboundMaxPoolSize;
+
+    @Value("${chat.websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    // STOMP 발신 채널: 구독자 세션으로 프레임 전송
+    @Value("${chat.websocket.outbound.core-pool-size:16}")
+    private int outboundCorePoolSize;
+
+    @Value("${chat.websocket.outbound.max-pool-size:64}")
+    private int outboundMaxPoolSize;
+
+    @Value("${chat.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    // 세션 단위 전송 제한 (넘으면 세션 종료, SlowConsumerGuard 참고)
+    @Value("${chat.websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${chat.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${chat.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    private final SlowConsumerGuard slowConsumerGuard;
+    private final CompactPayloadNegotiator compactPayloadNegotiator;
+    private final UserQueueSubscriptionGuard userQueueSubscriptionGuard;
+
+    public WebSocketConfig(SlowConsumerGuard slowConsumerGuard, CompactPayloadNegotiator compactPayloadNegotiator,
+                           UserQueueSubscriptionGuard userQueueSubscriptionGuard) {
+        this.slowConsumerGuard = slowConsumerGuard;
+        this.compactPayloadNegotiator = compactPayloadNegotiator;
+        this.userQueueSubscriptionGuard = userQueueSubscriptionGuard;
+    }
+
     // 2. STOMP 엔드포인트(최초 연결 지점) 설정
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -17,6 +77,11 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*") // CORS 문제 방지, 모든 도메인 허용
                 .withSockJS(); // SockJS 지원 활성화 (하위 브라우저 호환성 확보)
+
+        // SockJS 없는 WebSocket 연결 주소 (바이너리 프레임 가능, CBOR payload 는 여기로 연결한 세션만 협상)
+        registry.addEndpoint("/ws-native")
+                .setAllowedOriginPatterns("*")
+                .addInterceptors(compactPayloadNegotiator);
     }
 
     // 3. 메시지 브로커 설정
@@ -27,8 +92,84 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
         // 서버 -> 클라이언트로 메시지를 보낼 때 사용하는 접두사
         // /topic: 다수에게 브로드캐스팅할 때 사용 (채팅방 메시지)
-        // /queue: 특정 사용자에게 1:1로 보낼 때 사용 (개인 알림 등)
+        // /queue: 특정 사용자에게 1:1로 보낼 때 사용 (/queue/users/{userId}: 채팅 목록 변경분, InboxEventPublisher)
+        //         (/queue/users/{userId}/chatrooms/{chatroomId}: 그 사용자에게만 보이는 시스템 메시지)
+        //         CONNECT 때 user-id 헤더로 보낸 본인 큐만 구독 가능 (UserQueueSubscriptionGuard)
         registry.enableSimpleBroker("/topic", "/queue");
-        // topic만 해도 될 것 같긴 한데.. 혹시 모르니 queue도 남겨둠
+        // 발신 채널이 여러 스레드(또는 가상 스레드)라도 세션마다 보낸 순서대로 전송
+        registry.setPreservePublishOrder(true);
+    }
+
+    // 4. 수신/발신 채널 스레드 풀 (기본값은 대기열 무제한이라 밀리면 힙이 계속 늘어남)
+    // 대기열까지 꽉 차면 거부 (보낸 스레드에서 직접 처리하지 않음)
+    // - 수신: 웹소켓 읽기 스레드가 JPA 작업을 하지 않도록, 거부된 프레임은 클라이언트가 ERROR 프레임을 받음
+    // - 발신: 브로커 스레드가 대신 보내면 대기 중인 프레임보다 먼저 나가서 세션 안 순서가 바뀌므로, 그 세션 전송만 실패로 기록
+    // 가상 스레드 모드는 이 풀 대신 VirtualThreadTaskExecutor 를 사용 (virtualChannelExecutors 참고)
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("ws-inbound-",
+                inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity));
+        registration.interceptors(compactPayloadNegotiator, userQueueSubscriptionGuard);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("ws-outbound-",
+                outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity));
+        // 버릴 프레임은 CBOR 로 바꾸기 전에 버림
+        registration.interceptors(slowConsumerGuard, compactPayloadNegotiator);
+    }
+
+    // 5. 세션 단위 전송 제한 + 느린 구독자 처리
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registry) {
+        registry.setMessageSizeLimit(messageSizeLimit);
+        registry.setSendTimeLimit(sendTimeLimitMillis);
+        registry.setSendBufferSizeLimit(sendBufferSizeLimit);
+        registry.addDecoratorFactory(slowConsumerGuard);
+    }
+
+    // 6. payload 컨버터: 기본(JSON 등)에 CBOR 추가 (CompactPayloadNegotiator 참고)
+    // content-type:application/cbor 로 보낸 SEND 프레임만 CBOR 로 읽고, content-type 이 없으면 지금처럼 JSON
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        MappingJackson2MessageConverter cbor = new MappingJackson2MessageConverter(CompactPayloadNegotiator.APPLICATION_CBOR);
+        cbor.setObjectMapper(Jackson2ObjectMapperBuilder.cbor().build());
+        cbor.setStrictContentTypeMatch(true);
+        messageConverters.add(cbor);
+        return true;
+    }
+
+    // 가상 스레드 모드 (chat.websocket.virtual-threads, Java 21 이상): 채널 executor 를 VirtualThreadTaskExecutor 로 교체
+    // 가상 스레드를 스레드 풀에 담으면 max-pool-size 가 동시 실행 상한이 되어 블로킹 작업이 다시 풀 크기에 묶임
+    // 스프링 6.1 의 ChannelRegistration 은 ThreadPoolTaskExecutor 만 받으므로 만들어지는 executor 빈을 초기화 전에 바꿈
+    @Bean
+    static BeanPostProcessor virtualChannelExecutors(@Value("${chat.websocket.virtual-threads:false}") boolean virtualThreads) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (!virtualThreads || !CHANNEL_EXECUTORS.containsKey(beanName)) {
+                    return bean;
+                }
+                try {
+                    return new VirtualThreadTaskExecutor(CHANNEL_EXECUTORS.get(beanName));
+                } catch (UnsupportedOperationException e) {
+                    throw new IllegalStateException("가상 스레드는 Java 21 이상에서만 사용할 수 있습니다. (chat.websocket.virtual-threads)", e);
+                }
+            }
+        };
+    }
+
+    private ThreadPoolTaskExecutor channelExecutor(String threadNamePrefix, int corePoolSize, int maxPoolSize,
+                                                   int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
     }
-}
\ No newline at end of file
+}
@@ -33,12 +33,37 @@ public class ChatRoomController {
     }
 
     // 3. 메시지 목록 조회 (GET /chat/rooms/{chatroomId}/messages)
+    // 커서 페이지 조회: ?size=30 (최신 30개), ?before=120&size=30 (120 이전), ?after=150 (150 이후)
+    // 파라미터가 하나도 없으면 기존처럼 전체 목록 반환
+    // userId(보는 사람)를 넘기면 상대방에게만 보이는 시스템 메시지(양도 수락/거절 버튼 등)는 빼고 반환
     @GetMapping("/{chatroomId}/messages")
-    public ApiResponse<List<ChatMessageResponse>> getChatMessages(@PathVariable Long chatroomId) {
-        List<ChatMessageResponse> messages = chatService.getMessagesByChatroomId(chatroomId);
+    public ApiResponse<List<ChatMessageResponse>> getChatMessages(
+            @PathVariable Long chatroomId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Long userId) {
+
+        if (before == null && after == null && size == null) {
+            return ApiResponse.success(chatService.getMessagesByChatroomId(chatroomId, userId));
+        }
+        List<ChatMessageResponse> messages = chatService.getMessages(chatroomId, before, after, size, userId);
         return ApiResponse.success(messages);
     }
 
+    // 3-1. 순번 이후 메시지 조회 (GET /chat/rooms/{chatroomId}/messages/resume?afterSeq=120&size=100&userId=1)
+    // 재접속하거나 실시간 메시지의 seq가 건너뛰었을 때 빠진 구간만 받아옴 (hasMore면 이어서 조회)
+    // userId를 넘기면 상대방 전용 메시지는 빠지고, hasMore가 false면 lastSeq까지 받은 것으로 처리
+    @GetMapping("/{chatroomId}/messages/resume")
+    public ApiResponse<ChatMessageResumeResponse> resumeChatMessages(
+            @PathVariable Long chatroomId,
+            @RequestParam Long afterSeq,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Long userId) {
+
+        return ApiResponse.success(chatService.resumeMessages(chatroomId, afterSeq, size, userId));
+    }
+
     // 4. 메시지 읽음 처리 (POST /chat/rooms/{chatroomId}/read?userId=1&lastReadMessageId=33)
     @PostMapping("/{chatroomId}/read")
     public ApiResponse<Void> markAsRead(
@@ -60,6 +85,18 @@ public class ChatRoomController {
         return ApiResponse.success(null);
     }
 
+    // 4-2. 여러 방 읽음 처리 (POST /chat/rooms/read?userId=1)
+    // body: [{"chatroomId":1,"lastReadMessageId":33},{"chatroomId":2}] (lastReadMessageId 가 없으면 최신 메시지까지)
+    // 바로 저장하지 않고 모아서 주기적으로 저장 (ReadReceiptBuffer), 안 읽은 수는 저장 주기만큼 늦게 반영될 수 있음
+    @PostMapping("/read")
+    public ApiResponse<Void> markRoomsAsRead(
+            @RequestParam Long userId,
+            @RequestBody List<ReadReceiptRequest> receipts) {
+
+        chatService.submitReadReceipts(userId, receipts);
+        return ApiResponse.success(null);
+    }
+
     // 5. 사용자 기준으로 채팅방 삭제 (DELETE /chat/rooms/{chatroomId}?userId=1)
     @DeleteMapping("/{chatroomId}")
     public ApiResponse<Void> deleteChatRoom(
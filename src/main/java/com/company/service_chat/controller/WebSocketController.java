@@ -2,38 +2,45 @@ package com.company.service_chat.controller;
 
 import com.company.service_chat.dto.ChatMessageDto;
 import com.company.service_chat.dto.ChatMessageResponse;
+import com.company.service_chat.dto.ReadReceiptRequest;
 import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.service.ChatMessageBroadcaster;
+import com.company.service_chat.service.ChatMetrics;
 import com.company.service_chat.service.ChatService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Controller;
 
 @Controller
 @RequiredArgsConstructor
 public class WebSocketController {
 
-    private final SimpMessageSendingOperations messagingTemplate;
+    private final ChatMessageBroadcaster chatMessageBroadcaster;
     private final ChatService chatService;
+    private final ChatMetrics chatMetrics;
 
     // 클라이언트 → 서버
     // /pub/chat/message 로 메시지를 보내면 이 메서드가 작동
     @MessageMapping("/chat/message")
     public void message(@Payload ChatMessageDto dto) {
 
-        // 1. DB에 메시지 저장
-        ChatMessage saved = chatService.saveMessage(dto);
-
-        // 2. 응답 구조 바꿔주기 (REST와 WS을 동일하게)
-        ChatMessageResponse response = chatService.toResponse(saved);
-
-        // 3. 목적지 채팅방 설정
-        String destination = "/topic/chatrooms/" + saved.getChatroomId();
-
-        // 4. WebSocket으로 전송
-        messagingTemplate.convertAndSend(destination, response);
+        // 1. DB에 메시지 저장 (write-behind 모드면 배치 저장 대기열에 넣음)
+        // 2. 저장이 확정되면 응답 구조 바꿔서 (REST와 WS을 동일하게)
+        // 3. 채팅방(/topic/chatrooms/{id}) 구독자에게 전송 (다른 파드 구독자 포함)
+        // 수신 -> 브로드캐스트까지 걸린 시간 기록 (write-behind group-commit이면 배치 커밋 대기 포함)
+        long start = System.nanoTime();
+        try {
+            chatService.saveMessage(dto, saved -> {
+                ChatMessageResponse response = chatService.toResponse(saved);
+                chatMessageBroadcaster.broadcastToRoom(saved.getChatroomId(), response);
+                chatMetrics.recordPipeline(start, true);
+            });
+        } catch (RuntimeException e) {
+            chatMetrics.recordPipeline(start, false);
+            throw e;
+        }
     }
 
     // 서버 -> 웹소켓 (프론트로 전달)
@@ -52,11 +59,19 @@ public class WebSocketController {
         );
         // 2. 시스템 메시지 쪽도 응답 구조 바꿔주기
         ChatMessageResponse response = chatService.toResponse(saved);
-        // 3. 저장한 메시지를 다시 broadcast
-        messagingTemplate.convertAndSend(
-                "/topic/chatrooms/" + chatroomId,
-                response
-        );
+        // 3. 저장한 메시지를 다시 broadcast (한 사람에게만 보이는 메시지면 그 사람에게만)
+        // 클라이언트가 보낸 metadata 는 템플릿으로 만든 것이 아니라서 visibleTo 가 없음 -> HIDDEN 프레임을 받을 상대도 없음
+        chatMessageBroadcaster.broadcastMessage(chatroomId, saved.getVisibleTo(), null, response);
+    }
+
+    // 읽음 처리 (/app/chat/{chatroomId}/read, {"userId":1,"lastReadMessageId":33})
+    // 스크롤 중 자주 보내도 되도록 바로 저장하지 않고 모아서 주기적으로 저장 (ReadReceiptBuffer)
+    @MessageMapping("/chat/{chatroomId}/read")
+    public void read(
+            @DestinationVariable Long chatroomId,
+            @Payload ReadReceiptRequest receipt
+    ) {
+        chatService.submitReadReceipt(chatroomId, receipt.getUserId(), receipt.getLastReadMessageId());
     }
 
 }
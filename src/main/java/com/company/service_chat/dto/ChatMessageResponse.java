@@ -1,19 +1,62 @@
 // 클라이언트(프론트)로 반환할 때 사용하는 응답용 DTO
 package com.company.service_chat.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+import java.io.IOException;
 
 import java.time.LocalDateTime;
 
 @Getter
-@Builder
+@Builder(toBuilder = true)
+@Jacksonized // 다른 파드가 브로드캐스트한 메시지를 다시 읽을 때 (RecentMessageCache)
 public class ChatMessageResponse {
 
+    // 나에게 보이지 않는 메시지 자리 (seq 만 있고 내용 없음), 받은 쪽은 seq 만 이어 받고 화면에는 표시하지 않음
+    public static final String HIDDEN_TYPE = "HIDDEN";
+
     private Long messageId;
+    // 방 안 순번 (1부터 빈틈 없이 증가), 받은 값이 마지막 값 + 1이 아니면 resume API로 빠진 구간 조회
+    // 다른 사람에게만 보이는 메시지는 실시간으로 HIDDEN 프레임(seq 만)을 받으므로 빈틈이 생기지 않음
+    private Long seq;
     private Long senderId;
     private String type;
     private String content;
     private LocalDateTime sentAt;
-    private Object metadata;
+
+    // DB에 저장된 metadata JSON 문자열을 파싱 없이 그대로 출력 (프론트는 기존처럼 객체로 받음)
+    // 저장 시 ObjectMapper로 만든 문자열만 들어가므로 항상 올바른 JSON
+    // 읽을 때는 JSON 객체를 다시 문자열로
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
+    private String metadata;
+
+    // 이 사용자에게만 보이는 메시지 (ChatMessage.visibleTo), 응답에는 넣지 않고 최근 메시지 캐시에서 보는 사람 기준으로 거를 때만 사용
+    @JsonIgnore
+    private Long visibleTo;
+
+    // visibleTo 에게만 보이는 메시지를 다른 참여자에게 보낼 자리 표시 (HIDDEN 프레임)
+    public static ChatMessageResponse hidden(Long seq) {
+        return ChatMessageResponse.builder().seq(seq).type(HIDDEN_TYPE).build();
+    }
+
+    // viewerId 가 볼 수 있는 메시지인지 (viewerId 가 없으면 예전처럼 전부)
+    public boolean visibleFor(Long viewerId) {
+        return visibleTo == null || viewerId == null || visibleTo.equals(viewerId);
+    }
+
+    static class RawJsonDeserializer extends JsonDeserializer<String> {
+        @Override
+        public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return parser.readValueAsTree().toString();
+        }
+    }
 }
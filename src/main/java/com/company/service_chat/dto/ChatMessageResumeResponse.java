@@ -0,0 +1,17 @@
+// 재접속/누락 시 순번 이후 메시지 조회 응답 (GET /chat/rooms/{id}/messages/resume)
+package com.company.service_chat.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class ChatMessageResumeResponse {
+
+    private Long chatroomId;
+    private Long lastSeq;       // 조회 시점에 방에 저장된 마지막 순번
+    private boolean hasMore;    // true면 마지막 메시지의 seq로 다시 조회 (페이지 크기 제한)
+    private List<ChatMessageResponse> messages; // afterSeq 이후 메시지, seq 오름차순
+}
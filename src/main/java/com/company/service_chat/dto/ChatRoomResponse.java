@@ -3,12 +3,16 @@
 // 채팅방 목록 조회 or 채팅방 상세 화면 입장 시 사용
 package com.company.service_chat.dto;
 
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.ChatRoom;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import java.time.LocalDateTime;
 
 @Getter
 @Builder
+@AllArgsConstructor
 public class ChatRoomResponse {
     private Long chatroomId;
     private Long ticketId;
@@ -20,4 +24,24 @@ public class ChatRoomResponse {
     private String lastMessageType;         // 마지막 메시지 타입 (TEXT, SYSTEM_ACTION_MESSAGE, SYSTEM_INFO_MESSAGE)
     private LocalDateTime lastMessageTime;  // 마지막 메시지 시간
     private Integer unreadCount;            // 안 읽은 메시지 수
+
+    // 채팅 목록 조회 쿼리(JPQL constructor expression)에서 바로 DTO를 만들기 위한 생성자
+    // enum/COUNT 결과를 그대로 받아서 문자열/Integer로 변환
+    public ChatRoomResponse(Long chatroomId,
+                            Long ticketId,
+                            LocalDateTime createdAt,
+                            ChatRoom.RoomStatus roomStatus,
+                            String lastMessageContent,
+                            ChatMessage.MessageType lastMessageType,
+                            LocalDateTime lastMessageTime,
+                            Number unreadCount) {
+        this.chatroomId = chatroomId;
+        this.ticketId = ticketId;
+        this.createdAt = createdAt;
+        this.roomStatus = roomStatus != null ? roomStatus.name() : null;
+        this.lastMessageContent = lastMessageContent;
+        this.lastMessageType = lastMessageType != null ? lastMessageType.name() : null;
+        this.lastMessageTime = lastMessageTime;
+        this.unreadCount = unreadCount != null ? unreadCount.intValue() : 0;
+    }
 }
@@ -0,0 +1,37 @@
+// 채팅 목록(인박스) 변경분 알림 DTO (/queue/users/{userId})
+// 채팅 목록 화면이 GET /chat/rooms 를 다시 조회하지 않고 받은 변경분만 반영하기 위한 것
+package com.company.service_chat.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL) // 이벤트 종류마다 쓰는 필드만 전송
+public class InboxEvent {
+
+    public enum Type {
+        MESSAGE, // 새 메시지: 최신 메시지 정보 갱신 + 안 읽은 수에 unreadDelta 더하기
+        READ     // 읽은 위치 변경: 본인이면 unreadCount 로 교체, 상대방이면 lastReadMessageId 까지 읽음 표시
+    }
+
+    private Type type;
+    private Long chatroomId;
+
+    // MESSAGE (필드 이름은 ChatRoomResponse 와 같게)
+    private Long messageId;
+    private Long seq;
+    private Long senderId;
+    private String lastMessageContent;
+    private String lastMessageType;
+    private LocalDateTime lastMessageTime;
+    private Integer unreadDelta; // 받는 사람 기준 안 읽은 메시지 수 증가분 (상대방이 보낸 TEXT면 1)
+
+    // READ
+    private Long readerId;
+    private Long lastReadMessageId;
+    private Integer unreadCount; // 읽은 사람의 남은 안 읽은 메시지 수 (읽은 사람에게 보낼 때만)
+}
@@ -0,0 +1,18 @@
+package com.company.service_chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// 읽음 처리 (STOMP /app/chat/{chatroomId}/read, POST /chat/rooms/read 목록의 한 항목)
+// lastReadMessageId 가 없으면 방의 최신 메시지까지 읽음
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptRequest {
+    private Long chatroomId;
+    private Long userId; // STOMP 로 받을 때만 사용 (REST 는 userId 파라미터)
+    private Long lastReadMessageId;
+}
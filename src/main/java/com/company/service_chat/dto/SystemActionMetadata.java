@@ -0,0 +1,50 @@
+// 시스템 메시지(양도 요청/수락/거절 등)의 metadata 구조
+// 예전에는 Map<String, Object>로 만들었는데, 키 오타/타입 실수를 막기 위해 타입으로 정리
+// 저장 시 JSON 문자열로 한 번만 직렬화되고, 응답에서는 그 문자열을 그대로 내려줌 (ChatMessageResponse.metadata)
+package com.company.service_chat.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.List;
+
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_EMPTY) // 값이 없는 필드는 JSON에서 생략 (기존 Map 형태와 동일)
+public class SystemActionMetadata {
+
+    private ActionType actionType;
+    private Long buyerId;
+    private Long sellerId;
+    private VisibleTarget visibleTarget;
+    private String reason;
+    @Singular
+    private List<Action> actions;
+
+    public enum ActionType {
+        REQUEST_TRANSFER_INTRO,  // 구매자: 양도 요청하기 안내
+        TRANSFER_INTRO_SELLER,   // 판매자: 구매자 입장 안내
+        TICKET_REQUEST,          // 판매자: 양도 수락/거절
+        PAYMENT_REQUEST,         // 구매자: 결제하기
+        TICKET_REJECT            // 구매자: 양도 거절 안내
+    }
+
+    // 메시지를 볼 사람 (프론트에서 표시 여부 판단)
+    public enum VisibleTarget {
+        BUYER,
+        SELLER
+    }
+
+    // 메시지에 붙는 버튼
+    @Getter
+    @Builder
+    public static class Action {
+        private String label;
+        private String actionCode;
+        @JsonProperty("isPrimary") // 프론트는 isPrimary 키로 받음
+        private boolean primary;
+    }
+}
@@ -0,0 +1,183 @@
+// 시스템 메시지(채팅방 생성 안내, 양도 요청/수락/거절) 템플릿
+// 문구와 metadata 는 actionType 마다 고정이고 구매자/판매자 ID만 바뀌므로
+// metadata JSON 을 클래스 로딩 때 한 번 직렬화해서 고정 부분으로 나눠두고, 저장할 때는 ID만 끼워 넣음
+// (메시지마다 SystemActionMetadata/Action 객체를 만들고 ObjectMapper 로 직렬화하지 않음)
+package com.company.service_chat.dto;
+
+import com.company.service_chat.dto.SystemActionMetadata.ActionType;
+import com.company.service_chat.dto.SystemActionMetadata.VisibleTarget;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+public enum SystemMessageTemplate {
+
+    // 구매자: "양도 요청하기" 버튼
+    REQUEST_TRANSFER_INTRO(ActionType.REQUEST_TRANSFER_INTRO, ChatMessageDto.MessageType.SYSTEM_ACTION_MESSAGE,
+            "티켓 거래를 시작하려면 '양도 요청하기' 버튼을 눌러주세요.",
+            (buyerId, sellerId) -> SystemActionMetadata.builder()
+                    .actionType(ActionType.REQUEST_TRANSFER_INTRO)
+                    .buyerId(buyerId)
+                    .sellerId(sellerId)
+                    .visibleTarget(VisibleTarget.BUYER)
+                    .action(action("양도 요청하기", "TRANSFER_REQUEST", true))),
+
+    // 판매자: 구매자 입장 안내 (버튼 없이 정보만)
+    TRANSFER_INTRO_SELLER(ActionType.TRANSFER_INTRO_SELLER, ChatMessageDto.MessageType.SYSTEM_INFO_MESSAGE,
+            "구매자가 채팅을 시작했습니다. 양도 요청을 기다리고 있습니다.",
+            (buyerId, sellerId) -> SystemActionMetadata.builder()
+                    .actionType(ActionType.TRANSFER_INTRO_SELLER)
+                    .buyerId(buyerId)
+                    .sellerId(sellerId)
+                    .visibleTarget(VisibleTarget.SELLER)),
+
+    // 판매자: 양도 수락/거절 버튼
+    TICKET_REQUEST(ActionType.TICKET_REQUEST, ChatMessageDto.MessageType.SYSTEM_ACTION_MESSAGE,
+            "구매자가 티켓 양도를 신청했습니다. 수락/거절을 선택해주세요.",
+            (buyerId, sellerId) -> SystemActionMetadata.builder()
+                    .actionType(ActionType.TICKET_REQUEST)
+                    .sellerId(sellerId)
+                    .visibleTarget(VisibleTarget.SELLER)
+                    .action(action("양도 수락", "TRANSFER_ACCEPT", true))
+                    .action(action("양도 거절", "TRANSFER_REJECT", false))),
+
+    // 구매자: 결제하기 버튼
+    PAYMENT_REQUEST(ActionType.PAYMENT_REQUEST, ChatMessageDto.MessageType.SYSTEM_ACTION_MESSAGE,
+            "양도가 수락되었습니다. 구매자는 24시간 이내에 결제를 진행해주세요.",
+            (buyerId, sellerId) -> SystemActionMetadata.builder()
+                    .actionType(ActionType.PAYMENT_REQUEST)
+                    .buyerId(buyerId)
+                    .visibleTarget(VisibleTarget.BUYER)
+                    .action(action("결제하기", "START_PAYMENT", true))),
+
+    // 구매자: 양도 거절 안내
+    TICKET_REJECT(ActionType.TICKET_REJECT, ChatMessageDto.MessageType.SYSTEM_INFO_MESSAGE,
+            "판매자가 양도를 거절했습니다. 채팅이 잠금 상태로 전환됩니다.",
+            (buyerId, sellerId) -> SystemActionMetadata.builder()
+                    .actionType(ActionType.TICKET_REJECT)
+                    .reason("판매자 거절")
+                    .visibleTarget(VisibleTarget.BUYER)
+                    .buyerId(buyerId));
+
+    // JSON 에서 ID 자리를 찾기 위한 표시값 (실제 ID로 나올 수 없는 음수)
+    private static final long BUYER_MARK = -7_000_000_000_000_000_001L;
+    private static final long SELLER_MARK = -7_000_000_000_000_000_002L;
+
+    private static final Map<ActionType, SystemMessageTemplate> BY_ACTION_TYPE = new EnumMap<>(ActionType.class);
+
+    static {
+        for (SystemMessageTemplate template : values()) {
+            BY_ACTION_TYPE.put(template.actionType, template);
+        }
+    }
+
+    @Getter
+    private final ActionType actionType;
+    @Getter
+    private final ChatMessageDto.MessageType messageType;
+    @Getter
+    private final String content;
+    @Getter
+    private final VisibleTarget visibleTarget; // 메시지를 볼 사람 (ChatMessage.visibleTo)
+
+    // metadata JSON 의 고정 부분, 사이사이에 slots 순서대로 ID가 들어감 (parts.length == slots.length + 1)
+    private final String[] parts;
+    private final boolean[] buyerSlots; // true: 구매자 ID, false: 판매자 ID
+    private final int fixedLength;
+
+    SystemMessageTemplate(ActionType actionType, ChatMessageDto.MessageType messageType, String content,
+                          BiFunction<Long, Long, SystemActionMetadata.SystemActionMetadataBuilder> metadata) {
+        this.actionType = actionType;
+        this.messageType = messageType;
+        this.content = content;
+
+        SystemActionMetadata prototype = metadata.apply(BUYER_MARK, SELLER_MARK).build();
+        this.visibleTarget = prototype.getVisibleTarget();
+        String json = Json.write(prototype);
+        String buyerMark = Long.toString(BUYER_MARK);
+        String sellerMark = Long.toString(SELLER_MARK);
+        List<String> fixed = new ArrayList<>();
+        List<Boolean> slots = new ArrayList<>();
+        int from = 0;
+        while (true) {
+            int buyerAt = json.indexOf(buyerMark, from);
+            int sellerAt = json.indexOf(sellerMark, from);
+            if (buyerAt < 0 && sellerAt < 0) {
+                break;
+            }
+            boolean buyer = sellerAt < 0 || (buyerAt >= 0 && buyerAt < sellerAt);
+            int at = buyer ? buyerAt : sellerAt;
+            fixed.add(json.substring(from, at));
+            slots.add(buyer);
+            from = at + (buyer ? buyerMark : sellerMark).length();
+        }
+        fixed.add(json.substring(from));
+
+        this.parts = fixed.toArray(String[]::new);
+        this.buyerSlots = new boolean[slots.size()];
+        for (int i = 0; i < buyerSlots.length; i++) {
+            buyerSlots[i] = slots.get(i);
+        }
+        this.fixedLength = fixed.stream().mapToInt(String::length).sum();
+    }
+
+    public static SystemMessageTemplate of(ActionType actionType) {
+        return BY_ACTION_TYPE.get(actionType);
+    }
+
+    // 고정 부분 사이에 ID만 끼워서 metadata JSON 완성 (SystemActionMetadata 를 직렬화한 결과와 같음)
+    public RenderedMetadata render(long buyerId, long sellerId) {
+        StringBuilder json = new StringBuilder(fixedLength + buyerSlots.length * 20);
+        for (int i = 0; i < buyerSlots.length; i++) {
+            json.append(parts[i]).append(buyerSlots[i] ? buyerId : sellerId);
+        }
+        json.append(parts[buyerSlots.length]);
+        Long visibleTo = visibleTarget == VisibleTarget.BUYER ? buyerId
+                : visibleTarget == VisibleTarget.SELLER ? sellerId : null;
+        return new RenderedMetadata(json.toString(), visibleTo);
+    }
+
+    // 시스템 메시지 저장용 DTO
+    public ChatMessageDto toDto(Long chatroomId, Long senderId, Long buyerId, Long sellerId) {
+        return ChatMessageDto.builder()
+                .chatroomId(chatroomId)
+                .senderId(senderId)
+                .type(messageType)
+                .content(content)
+                .metadata(render(buyerId, sellerId))
+                .build();
+    }
+
+    private static SystemActionMetadata.Action action(String label, String actionCode, boolean primary) {
+        return SystemActionMetadata.Action.builder()
+                .label(label)
+                .actionCode(actionCode)
+                .primary(primary)
+                .build();
+    }
+
+    // 이미 JSON 으로 만들어진 metadata (ChatService 에서 다시 직렬화하지 않고 그대로 저장)
+    // 클라이언트 입력(ChatMessageDto.metadata 가 Map/String)은 이 타입이 될 수 없으므로 검증 없이 저장되는 JSON 은 템플릿뿐
+    // visibleTo: 메시지를 볼 사용자 ID (ChatMessage.visibleTo)
+    public record RenderedMetadata(String json, Long visibleTo) {
+    }
+
+    // 템플릿 준비용 (enum 생성자에서는 static 필드를 쓸 수 없어서 따로 둠)
+    private static final class Json {
+        private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+        static String write(Object value) {
+            try {
+                return OBJECT_MAPPER.writeValueAsString(value);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("시스템 메시지 템플릿 직렬화 실패", e);
+            }
+        }
+    }
+}
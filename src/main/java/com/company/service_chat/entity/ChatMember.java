@@ -1,22 +1,37 @@
 package com.company.service_chat.entity;
 
+import com.company.service_chat.entity.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate // 바뀐 컬럼만 UPDATE (동시에 증가하는 unreadCount를 덮어쓰지 않도록)
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@Table(name = "chat_members")
+@Table(name = "chat_members",
+        uniqueConstraints = {
+                // 한 사용자는 한 방에 멤버 1개 (findByUserIdAndChatroomId)
+                @UniqueConstraint(name = "uk_chat_members_user_room", columnNames = {"userId", "chatroomId"})
+        },
+        indexes = {
+                // 채팅 목록 조회 (findByUserIdAndIsDeletedFalse, 인박스 쿼리)
+                @Index(name = "idx_chat_members_user_deleted", columnList = "userId, isDeleted"),
+                // 메시지 저장 시 방 멤버 카운터 갱신 (chatroom_id = ?)
+                @Index(name = "idx_chat_members_room", columnList = "chatroomId")
+        })
 public class ChatMember {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId // 시간 순서 ID (INSERT 전에 정해지므로 JDBC 배치 INSERT 가능)
     private Long id; // PK
     private Long userId;     // FK (user_id)
     private Long chatroomId; // FK (chatroom_id)
     private Long lastReadMessageId; // 마지막으로 읽은 메시지의 ID
+    private long lastReadSeq;       // 마지막으로 읽은 메시지의 순번 (안 읽은 수 계산/앞으로만 옮기기는 이 값으로 비교)
     private boolean isDeleted;      // 채팅방 삭제(숨김) 여부
+    private int unreadCount;        // 안 읽은 TEXT 메시지 수 (상대방이 보낸 것만, 메시지 저장/읽음 처리 시 갱신)
 
     @Builder
     public ChatMember(Long userId, Long chatroomId) {
@@ -24,11 +39,14 @@ public class ChatMember {
         this.chatroomId = chatroomId;
         this.isDeleted = false;
         this.lastReadMessageId = 0L; // 초기에는 0으로 설정
+        this.lastReadSeq = 0L;
+        this.unreadCount = 0;
     }
 
     // 읽음 처리 업데이트 메서드
-    public void updateLastReadMessageId(Long messageId) {
+    public void updateLastRead(Long messageId, long seq) {
         this.lastReadMessageId = messageId;
+        this.lastReadSeq = seq;
     }
 
     // 채팅방 나가기(숨김) 처리 메서드
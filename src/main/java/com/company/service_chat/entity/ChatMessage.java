@@ -1,5 +1,6 @@
 package com.company.service_chat.entity;
 
+import com.company.service_chat.entity.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -7,15 +8,24 @@ import java.time.LocalDateTime;
 @Entity
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+        // 방 안에서 messageId 로 찾기 (커서/읽은 메시지의 seq 확인)
+        @Index(name = "idx_chat_messages_room_message", columnList = "chatroomId, messageId"),
+        // 방별 순번 (메시지 목록/커서 페이지/재접속 시 빠진 구간 조회 정렬/범위, 같은 순번 중복 방지)
+        @Index(name = "uk_chat_messages_room_seq", columnList = "chatroomId, seq", unique = true)
+})
 public class ChatMessage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId // 시간 순서 ID (INSERT 전에 정해지므로 write-behind 배치 저장 가능)
     private Long messageId; // PK
     private Long chatroomId; // FK
     private Long senderId; // FK
 
+    // 방 안에서 1부터 빈틈없이 증가하는 순번 (저장 트랜잭션 안에서 chat_rooms.last_seq 로 부여)
+    // messageId는 파드마다 시계가 달라 같은 방에서도 순서가 뒤바뀔 수 있어서, 클라이언트는 이 값으로 정렬/누락 확인
+    private Long seq;
+
     @Enumerated(EnumType.STRING)
     private MessageType type; // 메시지 타입 (일반 메시지(TEXT), 시스템 메시지)
 
@@ -27,6 +37,10 @@ public class ChatMessage {
     @Column(columnDefinition = "JSON")
     private String metadata; // 양도 수락/거절 같은 액션 버튼 정보 담는 거
 
+    // 이 사용자에게만 보이는 시스템 메시지 (metadata.visibleTarget 의 사용자 ID), NULL 이면 방 전체
+    // 실시간 전송은 받는 사람 큐로만, 메시지 목록 조회도 보는 사람 기준으로 DB에서 거름
+    private Long visibleTo;
+
     // MessageType ENUM 정의
     public enum MessageType {
         TEXT,
@@ -40,7 +54,7 @@ public class ChatMessage {
     }
 
     @Builder
-    public ChatMessage(Long messageId, Long chatroomId, Long senderId, MessageType type, String content, String metadata, LocalDateTime sentAt) {
+    public ChatMessage(Long messageId, Long chatroomId, Long senderId, MessageType type, String content, String metadata, LocalDateTime sentAt, Long seq, Long visibleTo) {
         this.messageId = messageId; //
         this.chatroomId = chatroomId;
         this.senderId = senderId;
@@ -48,5 +62,12 @@ public class ChatMessage {
         this.sentAt = sentAt; //
         this.content = content;
         this.metadata = metadata;
+        this.seq = seq;
+        this.visibleTo = visibleTo;
+    }
+
+    // 저장 직전에 방 순번 부여 (ChatService.reserveSeq)
+    public void assignSeq(long seq) {
+        this.seq = seq;
     }
 }
\ No newline at end of file
@@ -1,23 +1,48 @@
 package com.company.service_chat.entity;
 
+import com.company.service_chat.entity.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate // 상태 변경 시 바뀐 컬럼만 UPDATE (동시에 갱신되는 최신 메시지 포인터를 덮어쓰지 않도록)
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@Table(name = "chat_rooms")
+@Table(name = "chat_rooms",
+        uniqueConstraints = {
+                // (티켓, 구매자)마다 열린 방은 하나 (채팅방 생성 중복 방지, findByActiveKey)
+                @UniqueConstraint(name = "uk_chat_rooms_active_key", columnNames = {"activeKey"})
+        },
+        indexes = {
+                // (티켓, 구매자)의 방 이력 조회 (findFirstByTicketIdAndBuyerIdOrderByCreatedAtDesc)
+                @Index(name = "idx_chat_rooms_ticket_buyer_created", columnList = "ticketId, buyerId, createdAt")
+        })
 public class ChatRoom {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId // 시간 순서 ID (INSERT 전에 정해지므로 JDBC 배치 INSERT 가능)
     private Long chatroomId; // PK
     private Long ticketId;
     private Long buyerId;
     private Long sellerId;
     private Long lastMessageId;
 
+    // 열린 방 키 "ticketId:buyerId" (유니크), 구매자가 방을 나가면 NULL 로 비워서 같은 티켓으로 새 방을 만들 수 있게 함
+    private String activeKey;
+
+    // 채팅 목록 표시용 최신 메시지 요약 (메시지 저장 시 함께 갱신, chat_messages 재조회 방지)
+    private String lastMessagePreview;
+
+    @Enumerated(EnumType.STRING)
+    private ChatMessage.MessageType lastMessageType;
+
+    private LocalDateTime lastMessageAt;
+
+    // 마지막으로 부여한 메시지 순번 (ChatMessage.seq)
+    private Long lastSeq;
+
     @Enumerated(EnumType.STRING) // DB에 ENUM 이름을 문자열로 저장
     private RoomStatus roomStatus;
 
@@ -28,16 +53,37 @@ public class ChatRoom {
     private LocalDateTime updatedAt;
 
 
+    // 최신 메시지 미리보기 최대 길이
+    public static final int LAST_MESSAGE_PREVIEW_LENGTH = 100;
+
     // DB의 ENUM 타입과 일치시켜야 함
     public enum RoomStatus { OPEN, LOCK }
     public enum DealStatus { PENDING, REQUESTED, ACCEPTED, REJECTED, COMPLETED }
 
+    // 거래 상태 전이표 (양도 요청/수락/거절)
+    // from 상태일 때만 to 로 바뀌고 방 상태도 같이 바뀜 -> ChatRoomRepository.transitionDeal 한 문장으로 적용
+    // 수락과 거절은 둘 다 REQUESTED 에서만 가능하므로 동시에 눌러도 하나만 성공
+    @Getter
+    @RequiredArgsConstructor
+    public enum DealTransition {
+        REQUEST(DealStatus.PENDING, DealStatus.REQUESTED, RoomStatus.OPEN),
+        ACCEPT(DealStatus.REQUESTED, DealStatus.ACCEPTED, RoomStatus.OPEN),
+        REJECT(DealStatus.REQUESTED, DealStatus.REJECTED, RoomStatus.LOCK);
+
+        private final DealStatus from;
+        private final DealStatus to;
+        private final RoomStatus roomStatus;
+    }
+
     @PrePersist
     public void prePersist() { // 저장될 때 디폴트값 설정
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
         this.roomStatus = RoomStatus.OPEN;
         this.dealStatus = DealStatus.PENDING;
+        if (this.lastSeq == null) {
+            this.lastSeq = 0L;
+        }
     }
 
     @Builder
@@ -47,6 +93,25 @@ public class ChatRoom {
         this.sellerId = sellerId;
     }
 
+    public static String activeKey(Long ticketId, Long buyerId) {
+        return ticketId + ":" + buyerId;
+    }
+
+    // 방의 다른 참여자 (구매자면 판매자, 판매자면 구매자)
+    public Long counterpartOf(Long userId) {
+        return buyerId.equals(userId) ? sellerId : buyerId;
+    }
+
+    // 채팅방 생성 시 (티켓, 구매자)의 열린 방으로 등록
+    public void activate() {
+        this.activeKey = activeKey(ticketId, buyerId);
+    }
+
+    // 새 방의 첫 메시지 count개 순번(1..count)을 INSERT 때 미리 예약 (ChatService.saveFirstMessages)
+    public void reserveInitialSeq(int count) {
+        this.lastSeq = (long) count;
+    }
+
     // 상태 변경 메서드 (비즈니스 로직)
     public void updateStatus(RoomStatus roomStatus, DealStatus dealStatus) {
         this.roomStatus = roomStatus;
@@ -0,0 +1,16 @@
+package com.company.service_chat.entity.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+// @Id 필드에 붙이면 INSERT 전에 SnowflakeIdGenerator로 ID를 채움 (@GeneratedValue 대신 사용)
+@IdGeneratorType(SnowflakeIdentifierGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface SnowflakeId {
+}
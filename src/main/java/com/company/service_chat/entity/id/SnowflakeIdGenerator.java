@@ -0,0 +1,83 @@
+package com.company.service_chat.entity.id;
+
+import java.time.Instant;
+
+// 시간 순서 ID 생성기 (Snowflake 방식)
+// DB INSERT 전에 메모리에서 ID를 정할 수 있어서 IDENTITY와 달리 배치 INSERT / write-behind 저장이 가능하다.
+//
+// 프론트(JavaScript Number)에서 정밀도가 깨지지 않도록 53비트 안에 맞춤
+//   [41비트: 2025-01-01 이후 ms] [6비트: 노드 ID (0~63)] [6비트: ms 안의 순번 (0~63)]
+// - 같은 노드에서는 항상 증가 (시계가 뒤로 가면 마지막 시각을 계속 사용)
+// - 노드 번호는 IdGeneratorConfig 가 파드마다 겹치지 않게 정함 (설정 전에는 ID를 만들지 않음)
+// - 노드끼리는 시계가 조금씩 달라서 ID 순서가 보낸 순서와 다를 수 있음 -> 방 안 순서 비교는 메시지 순번(seq)으로
+public final class SnowflakeIdGenerator {
+
+    public static final long EPOCH_MILLIS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_BITS = 6;
+    private static final int SEQUENCE_BITS = 6;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    // 엔티티 ID 생성기(Hibernate)와 write-behind 저장이 같이 쓰는 노드 단위 인스턴스
+    private static volatile SnowflakeIdGenerator instance;
+
+    private final long nodeId;
+    private long lastTimestamp = -1L;
+    private long sequence = 0L;
+
+    public SnowflakeIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("노드 ID는 0~" + MAX_NODE_ID + " 사이여야 합니다: " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    // 애플리케이션 시작 시 노드 ID 지정 (IdGeneratorConfig)
+    public static void configure(long nodeId) {
+        instance = new SnowflakeIdGenerator(nodeId);
+    }
+
+    public static SnowflakeIdGenerator getInstance() {
+        SnowflakeIdGenerator current = instance;
+        if (current == null) {
+            throw new IllegalStateException("Snowflake 노드 번호가 아직 정해지지 않았습니다. (IdGeneratorConfig)");
+        }
+        return current;
+    }
+
+    public synchronized long nextId() {
+        long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0) {
+                // 같은 ms 안의 순번을 다 쓰면 다음 ms 까지 대기
+                timestamp = waitNextMillis(lastTimestamp);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+        return ((timestamp - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS))
+                | (nodeId << SEQUENCE_BITS)
+                | sequence;
+    }
+
+    // ID 를 만든 시각 (epoch ms)
+    public static long timestampMillis(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    private long waitNextMillis(long lastTimestamp) {
+        long timestamp = System.currentTimeMillis();
+        while (timestamp <= lastTimestamp) {
+            Thread.onSpinWait();
+            timestamp = System.currentTimeMillis();
+        }
+        return timestamp;
+    }
+}
@@ -1,8 +1,15 @@
 package com.company.service_chat.repository;
 
+import com.company.service_chat.dto.ChatRoomResponse;
 import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +21,99 @@ public interface ChatMemberRepository extends JpaRepository<ChatMember, Long> {
 
     // 특정 방의 특정 사용자 정보를 찾을 때 사용
     Optional<ChatMember> findByUserIdAndChatroomId(Long userId, Long chatroomId);
-}
\ No newline at end of file
+
+    boolean existsByUserIdAndChatroomId(Long userId, Long chatroomId);
+
+    // 읽음 알림: 여러 (사용자, 방)의 남은 안 읽은 수를 한 번에 조회 (uk_chat_members_user_room 인덱스)
+    List<ChatMember> findByUserIdInAndChatroomIdIn(Collection<Long> userIds, Collection<Long> chatroomIds);
+
+    // 채팅 목록(인박스) 조회용 쿼리
+    // chat_members + chat_rooms 를 조인하고 최신 메시지는 chat_rooms 의 요약 컬럼,
+    // 안 읽은 메시지 수는 chat_members 의 unreadCount 컬럼을 사용해서 방 개수와 상관없이 쿼리 1번으로 가져옴
+    @Query("""
+            SELECT new com.company.service_chat.dto.ChatRoomResponse(
+                r.chatroomId, r.ticketId, r.createdAt, r.roomStatus,
+                r.lastMessagePreview, r.lastMessageType, r.lastMessageAt,
+                cm.unreadCount)
+            FROM ChatMember cm
+            JOIN ChatRoom r ON r.chatroomId = cm.chatroomId
+            WHERE cm.userId = :userId
+              AND cm.isDeleted = false
+            """)
+    List<ChatRoomResponse> findInboxByUserId(@Param("userId") Long userId);
+
+    // TEXT 메시지가 저장되면 보낸 사람을 제외한 멤버의 안 읽은 메시지 수 +1
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE ChatMember m
+               SET m.unreadCount = m.unreadCount + 1
+             WHERE m.chatroomId = :chatroomId
+               AND m.userId <> :senderId
+            """)
+    int incrementUnreadCount(@Param("chatroomId") Long chatroomId, @Param("senderId") Long senderId);
+
+    // write-behind 배치 저장 후: 이번 배치로 들어간 TEXT 메시지 중 각 멤버가 보낸 것이 아니고
+    // 아직 읽은 위치 이후인 것만큼 증가 (배치 저장 전에 브로드캐스트로 받고 먼저 읽음 처리한 경우 제외)
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE ChatMember m
+               SET m.unreadCount = m.unreadCount + (SELECT COUNT(u) FROM ChatMessage u
+                                                     WHERE u.messageId IN :messageIds
+                                                       AND u.senderId <> m.userId
+                                                       AND u.seq > m.lastReadSeq)
+             WHERE m.chatroomId = :chatroomId
+            """)
+    int addUnreadCountForMessages(@Param("chatroomId") Long chatroomId,
+                                  @Param("messageIds") Collection<Long> messageIds);
+
+    // 읽음 처리: 읽은 위치를 앞으로만 옮기고, 그 이후에 남은 안 읽은 메시지 수를 같은 문장에서 다시 계산
+    // (읽은 위치 이후의 꼬리 구간만 세므로 방 히스토리 전체를 스캔하지 않음)
+    // 비교는 방 순번(seq)으로: messageId(Snowflake)는 시계가 어긋난 파드끼리 순서가 뒤바뀔 수 있음
+    // seq 는 읽은 메시지의 순번 (호출하는 쪽에서 같은 방의 메시지인지 확인한 값)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE ChatMember m
+               SET m.lastReadMessageId = :messageId,
+                   m.lastReadSeq = :seq,
+                   m.unreadCount = (SELECT COUNT(u) FROM ChatMessage u
+                                     WHERE u.chatroomId = m.chatroomId
+                                       AND u.seq > :seq
+                                       AND u.type = :countType
+                                       AND u.senderId <> m.userId)
+             WHERE m.userId = :userId
+               AND m.chatroomId = :chatroomId
+               AND m.lastReadSeq < :seq
+            """)
+    int advanceLastRead(@Param("userId") Long userId,
+                        @Param("chatroomId") Long chatroomId,
+                        @Param("messageId") Long messageId,
+                        @Param("seq") Long seq,
+                        @Param("countType") ChatMessage.MessageType countType);
+
+    // 카운터 보정: id 구간 안에서 실제 COUNT와 어긋난 멤버만 다시 계산해서 저장 (보정된 행 수 반환)
+    @Modifying
+    @Query("""
+            UPDATE ChatMember m
+               SET m.unreadCount = (SELECT COUNT(u) FROM ChatMessage u
+                                     WHERE u.chatroomId = m.chatroomId
+                                       AND u.seq > m.lastReadSeq
+                                       AND u.type = :countType
+                                       AND u.senderId <> m.userId)
+             WHERE m.id BETWEEN :fromId AND :toId
+               AND m.unreadCount <> (SELECT COUNT(c) FROM ChatMessage c
+                                      WHERE c.chatroomId = m.chatroomId
+                                        AND c.seq > m.lastReadSeq
+                                        AND c.type = :countType
+                                        AND c.senderId <> m.userId)
+            """)
+    int reconcileUnreadCounts(@Param("fromId") Long fromId,
+                              @Param("toId") Long toId,
+                              @Param("countType") ChatMessage.MessageType countType);
+
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM ChatMember m")
+    Long findMaxId();
+
+    // 보정 작업 구간 나누기: lastId 다음 id부터 순서대로 (Snowflake ID는 연속 값이 아니라서 고정 폭 id 구간 대신 사용)
+    @Query("SELECT m.id FROM ChatMember m WHERE m.id > :lastId ORDER BY m.id")
+    List<Long> findIdsAfter(@Param("lastId") Long lastId, Pageable pageable);
+}
@@ -1,23 +1,67 @@
 package com.company.service_chat.repository;
 
 import com.company.service_chat.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
 
-    // 특정 채팅방의 메시지 목록을 오래된 순서대로 조회할 때 사용. (선택)
-    // 즉 한 사람에게 메시지가 여러 개 오면 채팅방 들어갔을 때 안 읽은 메시지 중 제일 오래된 것부터 보여주는 기능을 넣을 때 사용
-    // "메시지 목록 조회" 기능에 사용
-    List<ChatMessage> findByChatroomIdOrderBySentAtAsc(Long chatroomId);
+    // 방 안 메시지 순서는 seq (순번 예약 UPDATE 가 방 행을 잠그므로 커밋 순서와 같음, uk_chat_messages_room_seq)
+    // messageId(Snowflake)는 파드마다 시계로 만들어서 시계가 어긋난 파드끼리는 보낸 순서와 다를 수 있으므로 정렬/범위에 쓰지 않음
+    // 특정 채팅방의 메시지 목록을 오래된 순서대로 조회 ("메시지 목록 조회" 기능에 사용)
+    List<ChatMessage> findByChatroomIdOrderBySeqAsc(Long chatroomId);
+    // messageId 순서 (테스트에서 한 파드 안의 messageId 순서 == seq 순서 확인용)
+    List<ChatMessage> findByChatroomIdOrderByMessageIdAsc(Long chatroomId);
     // lastReadMessageId 이후의 메시지만 가져올 때 사용
     List<ChatMessage> findByChatroomIdAndMessageIdGreaterThan(Long chatroomId, Long messageId);
 
-    // 특정 채팅방의 최신 메시지 1개 조회 (채팅 목록에서 마지막 메시지 표시용)
-    ChatMessage findTopByChatroomIdOrderBySentAtDesc(Long chatroomId);
+    // 커서 기반 페이지 조회 - Pageable은 개수 제한 용도로만 사용 (count 쿼리 없음)
+    // API 커서는 messageId 그대로 받고, 그 메시지의 seq 로 바꿔서 seq 범위로 조회
+    @Query("SELECT m.seq FROM ChatMessage m WHERE m.chatroomId = :chatroomId AND m.messageId = :messageId")
+    Optional<Long> findSeqByChatroomIdAndMessageId(@Param("chatroomId") Long chatroomId, @Param("messageId") Long messageId);
+    // 최신 N개 (채팅방 입장 시, 최근 메시지 캐시 채우기)
+    List<ChatMessage> findByChatroomIdOrderBySeqDesc(Long chatroomId, Pageable pageable);
+    // 순번 이전 N개 (위로 스크롤)
+    List<ChatMessage> findByChatroomIdAndSeqLessThanOrderBySeqDesc(Long chatroomId, Long seq, Pageable pageable);
+    // 순번 이후 N개 (커서 이후 따라잡기, 재접속 시 빠진 구간 조회)
+    List<ChatMessage> findByChatroomIdAndSeqGreaterThanOrderBySeqAsc(Long chatroomId, Long seq, Pageable pageable);
 
-    // 안 읽은 메시지 개수 세기 (messageId > lastReadMessageId이고 type이 TEXT인 메시지만 카운트)
-    int countByChatroomIdAndMessageIdGreaterThanAndType(Long chatroomId, Long lastReadMessageId, ChatMessage.MessageType type);
-}
\ No newline at end of file
+    // 보는 사람 기준 조회 (위 조회와 같은 순서/범위, 상대방에게만 보이는 시스템 메시지 제외)
+    // visible_to 조건은 (chatroom_id, seq) 인덱스로 범위를 잡은 뒤 행 단위로 거름
+    String VISIBLE_TO_VIEWER = "(m.visibleTo IS NULL OR m.visibleTo = :viewerId)";
+
+    @Query("SELECT m FROM ChatMessage m WHERE m.chatroomId = :chatroomId AND " + VISIBLE_TO_VIEWER
+            + " ORDER BY m.seq ASC")
+    List<ChatMessage> findVisibleByChatroomId(@Param("chatroomId") Long chatroomId, @Param("viewerId") Long viewerId);
+
+    @Query("SELECT m FROM ChatMessage m WHERE m.chatroomId = :chatroomId AND " + VISIBLE_TO_VIEWER
+            + " ORDER BY m.seq DESC")
+    List<ChatMessage> findVisibleLatest(@Param("chatroomId") Long chatroomId, @Param("viewerId") Long viewerId,
+                                        Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m WHERE m.chatroomId = :chatroomId AND m.seq < :seq AND "
+            + VISIBLE_TO_VIEWER + " ORDER BY m.seq DESC")
+    List<ChatMessage> findVisibleBeforeSeq(@Param("chatroomId") Long chatroomId, @Param("viewerId") Long viewerId,
+                                           @Param("seq") Long seq, Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m WHERE m.chatroomId = :chatroomId AND m.seq > :seq AND "
+            + VISIBLE_TO_VIEWER + " ORDER BY m.seq ASC")
+    List<ChatMessage> findVisibleAfterSeq(@Param("chatroomId") Long chatroomId, @Param("viewerId") Long viewerId,
+                                          @Param("seq") Long seq, Pageable pageable);
+
+    // 특정 채팅방의 최신 메시지 1개 조회 (최신 메시지 포인터가 없는 방의 전체 읽음 처리)
+    ChatMessage findTopByChatroomIdOrderBySeqDesc(Long chatroomId);
+
+    // 안 읽은 메시지 개수 세기 (seq > lastReadSeq이고 type이 TEXT인 메시지만 카운트)
+    int countByChatroomIdAndSeqGreaterThanAndType(Long chatroomId, Long lastReadSeq, ChatMessage.MessageType type);
+
+    // 특정 멤버 기준 안 읽은 메시지 개수 (본인이 보낸 메시지 제외) - unreadCount 카운터 검증/보정 기준
+    int countByChatroomIdAndSeqGreaterThanAndTypeAndSenderIdNot(Long chatroomId, Long lastReadSeq,
+                                                                 ChatMessage.MessageType type, Long senderId);
+}
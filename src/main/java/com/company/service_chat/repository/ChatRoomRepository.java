@@ -1,13 +1,94 @@
 package com.company.service_chat.repository;
 
+import com.company.service_chat.entity.ChatMessage;
 import com.company.service_chat.entity.ChatRoom;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 
 public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
-    // 같은 티켓과 구매자 조합의 채팅방이 이미 존재하는지 확인 (가장 최근 것만)
+    // 같은 티켓과 구매자 조합의 가장 최근 채팅방 (구매자가 나간 방 포함)
     Optional<ChatRoom> findFirstByTicketIdAndBuyerIdOrderByCreatedAtDesc(Long ticketId, Long buyerId);
-}
\ No newline at end of file
+
+    // (티켓, 구매자)의 열린 방 (uk_chat_rooms_active_key)
+    Optional<ChatRoom> findByActiveKey(String activeKey);
+
+    // 구매자가 방을 나가면 열린 방 키를 비움 (다음 채팅방 생성 때 새 방)
+    @Modifying
+    @Query("UPDATE ChatRoom r SET r.activeKey = NULL WHERE r.chatroomId = :chatroomId AND r.buyerId = :buyerId")
+    int releaseActiveKey(@Param("chatroomId") Long chatroomId, @Param("buyerId") Long buyerId);
+
+    // 거래 상태 전이 (ChatRoom.DealTransition)
+    // 현재 거래 상태가 from 일 때만 바뀌므로 동시에 요청/수락/거절이 들어와도 먼저 UPDATE 한 하나만 1건, 나머지는 0건
+    // 방 행 락은 트랜잭션 끝까지 유지되어 같은 트랜잭션의 시스템 메시지 순번 예약과 순서가 섞이지 않음
+    default boolean transitionDeal(Long chatroomId, ChatRoom.DealTransition transition) {
+        return updateDealStatus(chatroomId, transition.getFrom(), transition.getTo(),
+                transition.getRoomStatus(), LocalDateTime.now()) > 0;
+    }
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE ChatRoom r
+               SET r.dealStatus = :to,
+                   r.roomStatus = :roomStatus,
+                   r.updatedAt = :now
+             WHERE r.chatroomId = :chatroomId
+               AND r.dealStatus = :from
+            """)
+    int updateDealStatus(@Param("chatroomId") Long chatroomId,
+                         @Param("from") ChatRoom.DealStatus from,
+                         @Param("to") ChatRoom.DealStatus to,
+                         @Param("roomStatus") ChatRoom.RoomStatus roomStatus,
+                         @Param("now") LocalDateTime now);
+
+    // 최신 메시지 포인터 갱신
+    // 지금 포인터가 가리키는 메시지보다 순번(seq)이 클 때만 갱신하므로 같은 방에 동시에 메시지가 저장돼도 포인터가 뒤로 가지 않음
+    // (messageId 는 시계가 어긋난 파드끼리 순서가 뒤바뀔 수 있어서 비교하지 않음, 포인터 메시지는 PK 로 한 건 조회)
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE ChatRoom r
+               SET r.lastMessageId = :messageId,
+                   r.lastMessagePreview = :preview,
+                   r.lastMessageType = :type,
+                   r.lastMessageAt = :sentAt
+             WHERE r.chatroomId = :chatroomId
+               AND (r.lastMessageId IS NULL
+                    OR COALESCE((SELECT p.seq FROM ChatMessage p WHERE p.messageId = r.lastMessageId), 0) < :seq)
+            """)
+    int updateLastMessage(@Param("chatroomId") Long chatroomId,
+                          @Param("messageId") Long messageId,
+                          @Param("seq") Long seq,
+                          @Param("preview") String preview,
+                          @Param("type") ChatMessage.MessageType type,
+                          @Param("sentAt") LocalDateTime sentAt);
+
+    // 메시지 순번 count개 예약 (ChatService.reserveSeq, ChatMessageWriteBehindBuffer)
+    // UPDATE가 방 행에 락을 잡으므로 트랜잭션이 끝날 때까지 같은 방의 다른 저장은 대기 (파드가 여러 개여도 중복 없음)
+    // 롤백되면 순번도 같이 되돌아가므로 저장된 메시지의 순번에는 빈틈이 없음 -> 반드시 메시지 INSERT와 같은 트랜잭션에서 호출
+    // 예약한 첫 번째 순번 = UPDATE 후 findLastSeqById - count + 1, 0건이면 방이 없거나(잠금 조건이 있으면) 잠긴 방
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ChatRoom r SET r.lastSeq = r.lastSeq + :count WHERE r.chatroomId = :chatroomId")
+    int increaseLastSeq(@Param("chatroomId") Long chatroomId, @Param("count") int count);
+
+    // 잠긴 방이면 예약하지 않음 (TEXT 메시지)
+    // 캐시된 방 상태(RoomSnapshotCache)가 아직 무효화되지 않았어도 같은 UPDATE 안에서 최신 상태로 한 번 더 확인됨
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE ChatRoom r
+               SET r.lastSeq = r.lastSeq + :count
+             WHERE r.chatroomId = :chatroomId
+               AND (r.roomStatus IS NULL OR r.roomStatus <> :excluded)
+            """)
+    int increaseLastSeqUnlessStatus(@Param("chatroomId") Long chatroomId,
+                                    @Param("count") int count,
+                                    @Param("excluded") ChatRoom.RoomStatus excluded);
+
+    @Query("SELECT r.lastSeq FROM ChatRoom r WHERE r.chatroomId = :chatroomId")
+    Optional<Long> findLastSeqById(@Param("chatroomId") Long chatroomId);
+}
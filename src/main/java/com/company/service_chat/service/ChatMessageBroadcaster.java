@@ -0,0 +1,90 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.dto.ChatMessageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+// WebSocket 브로드캐스트 진입점
+// SimpleBroker는 메모리 안에서만 전달하므로 파드가 여러 개면 다른 파드에 붙은 구독자는 메시지를 못 받음
+// redis 모드: Redis pub/sub 채널(chat:broadcast:{destination})로 발행 -> 모든 파드(자기 자신 포함)의
+//            RedisBroadcastListener가 받아서 각자의 로컬 구독자에게 한 번씩 전달
+// local 모드: 단일 인스턴스/테스트용, 바로 로컬 브로커로 전달
+// 사용자별 전달은 /queue/users/{userId}/... 로 발행하고, 그 사용자가 어느 파드에 붙어 있든 구독한 파드의 로컬 브로커가 전달
+// (인증 Principal 이 없어서 /user/queue 와 SimpUserRegistry 대신 사용자 ID가 들어간 목적지 + 모든 파드 전달로 처리)
+@Slf4j
+@Service
+public class ChatMessageBroadcaster {
+
+    public static final String CHANNEL_PREFIX = "chat:broadcast:";
+    public static final String ROOM_TOPIC_PREFIX = "/topic/chatrooms/";
+    public static final String USER_QUEUE_PREFIX = "/queue/users/";
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean redisMode;
+    private final ChatMetrics chatMetrics;
+
+    public ChatMessageBroadcaster(SimpMessageSendingOperations messagingTemplate,
+                                  StringRedisTemplate stringRedisTemplate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${chat.broadcast.mode:redis}") String mode,
+                                  ChatMetrics chatMetrics) {
+        this.messagingTemplate = messagingTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisMode = "redis".equalsIgnoreCase(mode);
+        this.chatMetrics = chatMetrics;
+    }
+
+    // 채팅방 구독자 전체에게 전송 (/topic/chatrooms/{chatroomId})
+    public void broadcastToRoom(Long chatroomId, Object payload) {
+        broadcast(ROOM_TOPIC_PREFIX + chatroomId, payload);
+    }
+
+    // 메시지를 볼 수 있는 사람에게만 전송
+    // visibleTo 가 있으면(한 사람에게만 보이는 시스템 메시지) 그 사람의 채팅방 큐로, 없으면 채팅방 전체
+    // 보지 못하는 참여자(hiddenFrom)의 채팅방 큐에는 같은 seq 의 HIDDEN 프레임을 보내서 seq 가 이어지도록 함
+    // (보내지 않으면 다음 메시지에서 빈틈으로 보고 resume API 를 부름)
+    public void broadcastMessage(Long chatroomId, Long visibleTo, Long hiddenFrom, ChatMessageResponse message) {
+        if (visibleTo == null) {
+            broadcastToRoom(chatroomId, message);
+            return;
+        }
+        broadcast(userRoomQueue(visibleTo, chatroomId), message);
+        if (hiddenFrom != null && message.getSeq() != null) {
+            broadcast(userRoomQueue(hiddenFrom, chatroomId), ChatMessageResponse.hidden(message.getSeq()));
+        }
+    }
+
+    // 사용자의 채팅방 큐 (/queue/users/{userId}/chatrooms/{chatroomId}), 채팅방 입장 시 /topic/chatrooms/{chatroomId} 와 같이 구독
+    public static String userRoomQueue(Long userId, Long chatroomId) {
+        return USER_QUEUE_PREFIX + userId + "/chatrooms/" + chatroomId;
+    }
+
+    public void broadcast(String destination, Object payload) {
+        long start = System.nanoTime();
+        if (!redisMode) {
+            // 로컬 브로커 전달 (JSON 직렬화 + 구독자 outbound 채널에 넣기까지)
+            messagingTemplate.convertAndSend(destination, payload);
+            chatMetrics.recordBroadcast(start, "local");
+            return;
+        }
+
+        try {
+            // 직렬화는 발행하는 쪽에서 한 번만, 받는 쪽은 JSON 그대로 전달
+            String json = objectMapper.writeValueAsString(payload);
+            chatMetrics.recordSerialize(start, "json");
+            stringRedisTemplate.convertAndSend(CHANNEL_PREFIX + destination, json);
+            chatMetrics.recordBroadcast(start, "redis");
+        } catch (Exception e) {
+            // Redis 장애 시 최소한 이 파드의 구독자에게는 전달
+            log.warn("Redis 브로드캐스트 실패, 로컬 브로커로만 전달합니다: destination={}", destination, e);
+            messagingTemplate.convertAndSend(destination, payload);
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.ChatRoom;
+import com.company.service_chat.entity.id.SnowflakeIdGenerator;
+import com.company.service_chat.repository.ChatMemberRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// WebSocket 메시지 write-behind 저장 (chat.persistence.mode=write-behind)
+// 메시지마다 트랜잭션 + INSERT 하는 대신 메모리에서 ID(Snowflake)와 시각을 정해서 바로 응답하고,
+// flush-interval-ms / batch-size 단위로 모아서 JDBC 배치 INSERT + 최신 메시지 포인터 / 안 읽은 수 갱신을 한 트랜잭션으로 처리한다.
+//
+// 내구성(durability)
+//   group-commit : 보낸 스레드는 자기 메시지가 들어간 배치가 커밋될 때까지 대기, 커밋 후 브로드캐스트 (유실 없음, 배치 주기만큼 지연)
+//   async        : 큐에 넣자마자 브로드캐스트 (가장 빠름, 파드가 비정상 종료되면 마지막 배치 주기 분량 유실 가능)
+// 순서
+//   같은 방의 메시지는 방 단위 락 안에서 ID 부여 -> 큐 적재 -> (async) 브로드캐스트 하므로
+//   브로드캐스트 순서 = messageId 순서 = 저장 순서 (group-commit 은 flush 스레드 하나가 큐 순서대로 브로드캐스트)
+//   방 순번(seq)은 chat_rooms.last_seq 에서 예약 (여러 파드가 같은 방에 쓰므로 파드 메모리 카운터로는 겹침)
+//     group-commit: 배치 트랜잭션 안에서 방마다 한 번에 예약해서 큐 순서대로 부여
+//     async       : 브로드캐스트 프레임에도 seq 가 있어야 하므로 방 락 안에서 큐에 넣기 전에 하나씩 예약
+//                   (저장 전에 파드가 비정상 종료되거나 격리되면 그 순번은 DB에 없는 채로 남음)
+//   TEXT 는 예약 UPDATE 에서 잠금 여부를 DB 기준으로 다시 확인 (방 캐시가 아직 무효화되지 않은 파드 대비)
+//   -> 잠긴 방의 TEXT 는 저장/브로드캐스트하지 않고 보낸 쪽에 실패 응답 (sync 모드와 같은 예외)
+// 저장 실패
+//   DB 장애 같은 일시적 오류는 배치 단위로 처리 (group-commit: 실패 응답, async: 저장될 때까지 재시도)
+//   제약 조건 위반 같은 데이터 오류(NonTransientDataAccessException)는 배치를 반으로 나눠 다시 저장하고,
+//   한 건만 남아도 실패하면 그 메시지만 격리(로그 + quarantinedCount)해서 나머지 메시지가 같이 막히지 않게 함
+// 모든 파드가 같은 모드를 써야 함 (메시지 ID는 파드마다 다른 노드 번호로 만들어져서 겹치지 않음)
+@Slf4j
+@Component
+public class ChatMessageWriteBehindBuffer {
+
+    public static final String MODE_WRITE_BEHIND = "write-behind";
+    public static final String DURABILITY_ASYNC = "async";
+    public static final String DURABILITY_GROUP_COMMIT = "group-commit";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO chat_messages (message_id, chatroom_id, sender_id, type, content, sent_at, metadata, seq, visible_to)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final int ROOM_LOCK_STRIPES = 64;
+    private static final long RETRY_BACKOFF_MILLIS = 200;
+    private static final int SHUTDOWN_RETRIES = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMemberRepository chatMemberRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final boolean groupCommit;
+    private final long flushIntervalMillis;
+    private final int batchSize;
+    private final long ackTimeoutMillis;
+
+    private final BlockingQueue<PendingMessage> queue;
+    // 대기열 자리 (max-pending), 방 락 밖에서 먼저 받아두므로 대기열이 가득 차도 같은 방의 다른 발신자를 막지 않음
+    // 배치 저장이 끝나면 반납
+    private final Semaphore capacity;
+    private final AtomicLong quarantined = new AtomicLong();
+    private final Object[] roomLocks = new Object[ROOM_LOCK_STRIPES];
+    // async: 브로드캐스트했지만 아직 커밋되지 않은 메시지 (방별, seq 순서), 최근 메시지 캐시를 DB에서 채울 때 이어 붙임
+    // 넣고 빼는 것은 방 락 안에서 (비어서 지운 방의 맵에 넣지 않도록)
+    private final Map<Long, NavigableMap<Long, ChatMessage>> unflushed = new ConcurrentHashMap<>();
+    // flush 스레드와 flushNow()(종료/테스트)가 동시에 배치를 꺼내지 않도록
+    // (fair: flush 스레드는 대기열이 빌 때마다 락을 놓았다가 다시 잡으므로 기다리는 flushNow() 가 먼저 잡도록)
+    private final ReentrantLock flushLock = new ReentrantLock(true);
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public ChatMessageWriteBehindBuffer(JdbcTemplate jdbcTemplate,
+                                        ChatRoomRepository chatRoomRepository,
+                                        ChatMemberRepository chatMemberRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${chat.persistence.mode:sync}") String mode,
+                                        @Value("${chat.persistence.write-behind.durability:group-commit}") String durability,
+                                        @Value("${chat.persistence.write-behind.flush-interval-ms:20}") long flushIntervalMillis,
+                                        @Value("${chat.persistence.write-behind.batch-size:500}") int batchSize,
+                                        @Value("${chat.persistence.write-behind.max-pending:20000}") int maxPending,
+                                        @Value("${chat.persistence.write-behind.ack-timeout-ms:5000}") long ackTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chatRoomRepository = chatRoomRepository;
+        this.chatMemberRepository = chatMemberRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = MODE_WRITE_BEHIND.equalsIgnoreCase(mode);
+        this.groupCommit = !DURABILITY_ASYNC.equalsIgnoreCase(durability);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.batchSize = batchSize;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.queue = new LinkedBlockingQueue<>();
+        this.capacity = new Semaphore(maxPending);
+        for (int i = 0; i < ROOM_LOCK_STRIPES; i++) {
+            roomLocks[i] = new Object();
+        }
+
+        this.flusher = new Thread(this::runFlushLoop, "chat-write-behind");
+        this.flusher.setDaemon(true);
+        if (enabled) {
+            flusher.start();
+            log.info("메시지 write-behind 저장 사용: durability={}, flushInterval={}ms, batchSize={}",
+                    groupCommit ? DURABILITY_GROUP_COMMIT : DURABILITY_ASYNC, flushIntervalMillis, batchSize);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 메시지에 ID/시각을 부여하고 저장 대기열에 넣음
+    // onSaved(브로드캐스트)는 같은 방 안에서 messageId 순서대로 호출됨
+    // (async: 순번 예약 후 바로 호출, group-commit: 배치 커밋 후 호출하고 그때까지 대기)
+    public ChatMessage append(ChatMessage draft, Consumer<ChatMessage> onSaved) {
+        reserveCapacity();
+        PendingMessage pending;
+        synchronized (roomLock(draft.getChatroomId())) {
+            ChatMessage message;
+            try {
+                message = newMessage(draft);
+            } catch (RuntimeException e) {
+                capacity.release(); // 대기열에 넣지 못했으므로 자리 반납
+                throw e;
+            }
+            pending = new PendingMessage(message, groupCommit ? onSaved : null, new CompletableFuture<>());
+            queue.add(pending);
+            if (!groupCommit) {
+                unflushed.computeIfAbsent(message.getChatroomId(), id -> new ConcurrentSkipListMap<>())
+                        .put(message.getSeq(), message);
+                if (onSaved != null) {
+                    onSaved.accept(message);
+                }
+            }
+        }
+
+        if (groupCommit) {
+            awaitCommit(pending);
+        }
+        return pending.message();
+    }
+
+    // 방 락 안에서 호출 (async 는 순번까지 예약)
+    private ChatMessage newMessage(ChatMessage draft) {
+        ChatMessage message = ChatMessage.builder()
+                .messageId(SnowflakeIdGenerator.getInstance().nextId())
+                .chatroomId(draft.getChatroomId())
+                .senderId(draft.getSenderId())
+                .type(draft.getType())
+                .content(draft.getContent())
+                .metadata(draft.getMetadata())
+                .visibleTo(draft.getVisibleTo())
+                .sentAt(LocalDateTime.now())
+                .build();
+        if (!groupCommit) {
+            message.assignSeq(reserveSeq(message));
+        }
+        return message;
+    }
+
+    // 대기 중인 메시지를 모두 현재 스레드에서 저장 (종료 시, 테스트용)
+    public void flushNow() {
+        flushLock.lock();
+        try {
+            List<PendingMessage> batch = new ArrayList<>();
+            while (queue.drainTo(batch, batchSize) > 0) {
+                flush(batch);
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // async: 이 파드에서 브로드캐스트했지만 아직 커밋되지 않은 방의 메시지 (seq 순서)
+    public List<ChatMessage> unflushedMessages(Long chatroomId) {
+        NavigableMap<Long, ChatMessage> messages = unflushed.get(chatroomId);
+        return messages == null ? List.of() : List.copyOf(messages.values());
+    }
+
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    // 저장하지 못하고 격리한 메시지 수 (데이터 오류)
+    public long quarantinedCount() {
+        return quarantined.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushNow();
+    }
+
+    private void reserveCapacity() {
+        try {
+            // 대기열이 가득 차면 flush 가 따라잡을 때까지 보내는 쪽(STOMP inbound 스레드)을 막아서 속도를 맞춤 (방 락을 잡기 전)
+            if (!capacity.tryAcquire(ackTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("메시지 저장 대기열이 가득 찼습니다. 잠시 후 다시 시도해주세요.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("메시지 저장 대기 중 인터럽트", e);
+        }
+    }
+
+    private void awaitCommit(PendingMessage pending) {
+        try {
+            pending.committed().get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalStateException rejected) {
+                throw rejected; // 잠긴 방 (sync 모드와 같은 예외)
+            }
+            throw new IllegalStateException("메시지 저장 실패", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("메시지 저장 대기 시간 초과", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("메시지 저장 대기 중 인터럽트", e);
+        }
+    }
+
+    private void runFlushLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running) {
+            // 첫 메시지를 꺼내는 것부터 락 안에서 (꺼낸 뒤 락을 잡기 전에 flushNow() 가 뒤의 메시지를 먼저 저장하면 순번이 뒤바뀜)
+            flushLock.lock();
+            try {
+                // 첫 메시지가 올 때까지 기다렸다가, flush-interval 동안 batch-size 까지 모음
+                PendingMessage first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingMessage next = remaining > 0 ? pollUninterruptibly(remaining) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("메시지 write-behind flush 루프 오류", e);
+            } finally {
+                batch.clear();
+                flushLock.unlock();
+            }
+        }
+    }
+
+    // 배치를 모으는 중에 종료(인터럽트)되면 지금까지 모은 것은 저장하고 루프를 끝냄
+    private PendingMessage pollUninterruptibly(long timeoutNanos) {
+        try {
+            return queue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        try {
+            flushWithRetry(batch);
+        } finally {
+            capacity.release(batch.size());
+        }
+    }
+
+    private void flushWithRetry(List<PendingMessage> batch) {
+        int attempts = 0;
+        List<PendingMessage> rejected;
+        while (true) {
+            try {
+                rejected = transactionTemplate.execute(status -> write(batch));
+                break;
+            } catch (Exception e) {
+                if (isDataError(e)) {
+                    // 데이터 오류는 다시 해도 같은 결과 -> 나눠서 문제 있는 메시지만 걸러냄 (앞쪽부터 저장하므로 방 안 순서 유지)
+                    if (batch.size() > 1) {
+                        int half = batch.size() / 2;
+                        log.warn("메시지 배치 저장 실패, 나눠서 다시 저장 ({}건)", batch.size(), e);
+                        flushWithRetry(new ArrayList<>(batch.subList(0, half)));
+                        flushWithRetry(new ArrayList<>(batch.subList(half, batch.size())));
+                    } else {
+                        quarantine(batch.get(0), e);
+                    }
+                    return;
+                }
+                attempts++;
+                if (groupCommit) {
+                    // 보낸 쪽이 실패를 받고 재전송할 수 있으므로 배치를 버림 (브로드캐스트도 하지 않음)
+                    log.error("메시지 배치 저장 실패, {}건 실패 처리", batch.size(), e);
+                    batch.forEach(pending -> pending.committed().completeExceptionally(e));
+                    return;
+                }
+                // async 는 이미 브로드캐스트된 메시지라 버리면 안 됨 -> 저장될 때까지 재시도 (종료 중에는 몇 번만)
+                if (!running && attempts >= SHUTDOWN_RETRIES) {
+                    log.error("종료 중 메시지 배치 저장 실패, {}건 유실", batch.size(), e);
+                    batch.forEach(pending -> forgetUnflushed(pending.message()));
+                    return;
+                }
+                log.error("메시지 배치 저장 실패, {}ms 후 재시도 ({}건)", RETRY_BACKOFF_MILLIS, batch.size(), e);
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        for (PendingMessage pending : batch) {
+            forgetUnflushed(pending.message());
+            if (rejected.contains(pending)) {
+                rejectLocked(pending);
+                continue;
+            }
+            pending.committed().complete(null);
+            if (pending.onSaved() != null) {
+                try {
+                    pending.onSaved().accept(pending.message());
+                } catch (Exception e) {
+                    log.error("메시지 저장 후 처리 실패: messageId={}", pending.message().getMessageId(), e);
+                }
+            }
+        }
+    }
+
+    // 제약 조건 위반, 없는 방 등 다시 해도 실패하는 오류 (연결 실패는 NonTransient 이지만 DB가 돌아오면 저장되므로 제외)
+    private static boolean isDataError(Exception e) {
+        return e instanceof IllegalArgumentException
+                || e instanceof NonTransientDataAccessException && !(e instanceof DataAccessResourceFailureException);
+    }
+
+    private void quarantine(PendingMessage pending, Exception cause) {
+        ChatMessage message = pending.message();
+        quarantined.incrementAndGet();
+        log.error("저장할 수 없는 메시지 격리: messageId={}, chatroomId={}, senderId={}, type={}",
+                message.getMessageId(), message.getChatroomId(), message.getSenderId(), message.getType(), cause);
+        forgetUnflushed(message);
+        pending.committed().completeExceptionally(cause);
+    }
+
+    // 커밋(또는 격리/유실)된 async 메시지를 미저장 목록에서 뺌
+    private void forgetUnflushed(ChatMessage message) {
+        if (groupCommit) {
+            return;
+        }
+        synchronized (roomLock(message.getChatroomId())) {
+            unflushed.computeIfPresent(message.getChatroomId(), (id, messages) -> {
+                messages.remove(message.getSeq());
+                return messages.isEmpty() ? null : messages;
+            });
+        }
+    }
+
+    // 잠긴 방이라 저장하지 않은 TEXT (group-commit 만, 보낸 쪽이 실패를 받음)
+    private void rejectLocked(PendingMessage pending) {
+        pending.committed().completeExceptionally(new IllegalStateException("잠긴 채팅방에서는 메시지를 보낼 수 없습니다."));
+    }
+
+    // 한 트랜잭션: 방별 순번 예약(group-commit) -> 배치 INSERT -> 방별 최신 메시지 포인터 -> 방별 안 읽은 메시지 수
+    // (재시도하면 롤백된 순번 대신 새로 예약해서 다시 부여, async 는 append 때 예약한 순번 그대로)
+    // 반환: 잠긴 방이라 저장하지 않은 TEXT 메시지
+    private List<PendingMessage> write(List<PendingMessage> batch) {
+        // 방 행 락은 chatroomId 순서로 잡음 (다른 파드의 배치와 서로 기다리는 교착 방지)
+        Map<Long, List<PendingMessage>> pendingsByRoom = new TreeMap<>();
+        if (groupCommit) {
+            for (PendingMessage pending : batch) {
+                pendingsByRoom.computeIfAbsent(pending.message().getChatroomId(), id -> new ArrayList<>()).add(pending);
+            }
+        }
+        List<PendingMessage> rejected = new ArrayList<>();
+        pendingsByRoom.forEach((chatroomId, pendings) -> {
+            List<PendingMessage> reserved = reserveSeq(chatroomId, pendings);
+            if (reserved.size() < pendings.size()) {
+                pendings.stream().filter(pending -> !reserved.contains(pending)).forEach(rejected::add);
+            }
+        });
+        List<PendingMessage> accepted = rejected.isEmpty()
+                ? batch
+                : batch.stream().filter(pending -> !rejected.contains(pending)).toList();
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, accepted, accepted.size(), (ps, pending) -> {
+            ChatMessage message = pending.message();
+            ps.setLong(1, message.getMessageId());
+            ps.setLong(2, message.getChatroomId());
+            ps.setLong(3, message.getSenderId());
+            ps.setString(4, message.getType().name());
+            ps.setString(5, message.getContent());
+            ps.setTimestamp(6, Timestamp.valueOf(message.getSentAt()));
+            ps.setString(7, message.getMetadata());
+            ps.setLong(8, message.getSeq());
+            ps.setObject(9, message.getVisibleTo(), Types.BIGINT);
+        });
+
+        Map<Long, ChatMessage> lastByRoom = new LinkedHashMap<>();
+        Map<Long, List<Long>> textIdsByRoom = new LinkedHashMap<>();
+        for (PendingMessage pending : accepted) {
+            ChatMessage message = pending.message();
+            // 한 사람에게만 보이는 메시지는 채팅방 요약에 넣지 않음 (ChatService.applyMessageSaved 와 같음)
+            if (message.getVisibleTo() == null) {
+                lastByRoom.merge(message.getChatroomId(), message,
+                        (a, b) -> a.getSeq() > b.getSeq() ? a : b);
+            }
+            if (message.getType() == ChatMessage.MessageType.TEXT) {
+                textIdsByRoom.computeIfAbsent(message.getChatroomId(), id -> new ArrayList<>())
+                        .add(message.getMessageId());
+            }
+        }
+
+        lastByRoom.values().forEach(last -> chatRoomRepository.updateLastMessage(
+                last.getChatroomId(),
+                last.getMessageId(),
+                last.getSeq(),
+                ChatService.toPreview(last.getContent()),
+                last.getType(),
+                last.getSentAt()));
+        textIdsByRoom.forEach(chatMemberRepository::addUnreadCountForMessages);
+        return rejected;
+    }
+
+    // async: 메시지 하나의 방 순번을 별도 트랜잭션으로 바로 예약 (TEXT 는 잠기지 않은 방일 때만, ChatService.reserveSeq 와 같은 조건)
+    private long reserveSeq(ChatMessage message) {
+        Long chatroomId = message.getChatroomId();
+        return transactionTemplate.execute(status -> {
+            int updated = message.getType() == ChatMessage.MessageType.TEXT
+                    ? chatRoomRepository.increaseLastSeqUnlessStatus(chatroomId, 1, ChatRoom.RoomStatus.LOCK)
+                    : chatRoomRepository.increaseLastSeq(chatroomId, 1);
+            Optional<Long> lastSeq = chatRoomRepository.findLastSeqById(chatroomId);
+            if (lastSeq.isEmpty()) {
+                throw new IllegalArgumentException("채팅방 없음");
+            }
+            if (updated == 0) {
+                throw new IllegalStateException("잠긴 채팅방에서는 메시지를 보낼 수 없습니다.");
+            }
+            return lastSeq.get();
+        });
+    }
+
+    // group-commit: 방 순번을 예약해서 큐 순서대로 부여하고, 예약한 메시지 반환
+    // TEXT 가 있으면 잠기지 않은 방일 때만 예약 (ChatService.reserveSeq 와 같은 조건), 잠긴 방이면 TEXT 는 빼고 나머지만 예약
+    private List<PendingMessage> reserveSeq(Long chatroomId, List<PendingMessage> pendings) {
+        List<PendingMessage> accepted = pendings;
+        boolean reserved;
+        if (pendings.stream().anyMatch(ChatMessageWriteBehindBuffer::isText)) {
+            reserved = chatRoomRepository.increaseLastSeqUnlessStatus(
+                    chatroomId, pendings.size(), ChatRoom.RoomStatus.LOCK) > 0;
+            if (!reserved) {
+                // 잠긴 방 (없는 방이면 아래에서 예외)
+                accepted = pendings.stream().filter(pending -> !isText(pending)).toList();
+                reserved = accepted.isEmpty() || chatRoomRepository.increaseLastSeq(chatroomId, accepted.size()) > 0;
+            }
+        } else {
+            reserved = chatRoomRepository.increaseLastSeq(chatroomId, pendings.size()) > 0;
+        }
+        Optional<Long> lastSeq = chatRoomRepository.findLastSeqById(chatroomId);
+        if (!reserved || lastSeq.isEmpty()) {
+            throw new IllegalArgumentException("채팅방 없음: chatroomId=" + chatroomId);
+        }
+        long seq = lastSeq.get() - accepted.size() + 1;
+        for (PendingMessage pending : accepted) {
+            pending.message().assignSeq(seq++);
+        }
+        return accepted;
+    }
+
+    private static boolean isText(PendingMessage pending) {
+        return pending.message().getType() == ChatMessage.MessageType.TEXT;
+    }
+
+    private Object roomLock(Long chatroomId) {
+        return roomLocks[Math.floorMod(Long.hashCode(chatroomId), ROOM_LOCK_STRIPES)];
+    }
+
+    private record PendingMessage(ChatMessage message,
+                                  Consumer<ChatMessage> onSaved,
+                                  CompletableFuture<Void> committed) {
+    }
+}
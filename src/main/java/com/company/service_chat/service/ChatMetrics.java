@@ -0,0 +1,74 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.ChatRoom;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// 메시지 처리 단계별 지연시간 / 메시지 수 지표 (/actuator/prometheus)
+// - chat.message.pipeline  : WebSocket 수신 -> 저장 -> 브로드캐스트까지 (outcome=success/failure)
+// - chat.message.persist   : 저장 시작 -> 저장 확정(브로드캐스트 가능)까지 (mode=sync/write-behind)
+// - chat.message.serialize : 응답 DTO 변환(stage=response), Redis 발행용 JSON 직렬화(stage=json), CBOR 세션용 변환(stage=cbor)
+// - chat.message.broadcast : 로컬 브로커 전달 / Redis 발행 (mode=local/redis)
+// - chat.messages.received : 메시지 타입 x 방 거래 상태별 메시지 수
+// 타이머는 histogram 버킷도 내보내서 Prometheus에서 histogram_quantile로 p99 계산
+@Component
+public class ChatMetrics {
+
+    private static final Duration SLO_MIN = Duration.ofMillis(1);
+    private static final Duration SLO_MAX = Duration.ofSeconds(10);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ChatMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordPipeline(long startNanos, boolean success) {
+        timer("chat.message.pipeline", "outcome", success ? "success" : "failure").record(elapsed(startNanos), TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPersist(long startNanos, String mode) {
+        timer("chat.message.persist", "mode", mode).record(elapsed(startNanos), TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSerialize(long startNanos, String stage) {
+        timer("chat.message.serialize", "stage", stage).record(elapsed(startNanos), TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBroadcast(long startNanos, String mode) {
+        timer("chat.message.broadcast", "mode", mode).record(elapsed(startNanos), TimeUnit.NANOSECONDS);
+    }
+
+    public void countMessage(ChatMessage.MessageType type, ChatRoom.DealStatus dealStatus) {
+        String dealTag = dealStatus != null ? dealStatus.name() : "NONE";
+        counters.computeIfAbsent(type.name() + ':' + dealTag, key -> Counter.builder("chat.messages.received")
+                        .description("받은 메시지 수 (메시지 타입 x 방 거래 상태)")
+                        .tag("type", type.name())
+                        .tag("deal_status", dealTag)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private Timer timer(String name, String tagKey, String tagValue) {
+        return timers.computeIfAbsent(name + ':' + tagValue, key -> Timer.builder(name)
+                .tag(tagKey, tagValue)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(SLO_MIN)
+                .maximumExpectedValue(SLO_MAX)
+                .register(meterRegistry));
+    }
+
+    private static long elapsed(long startNanos) {
+        return System.nanoTime() - startNanos;
+    }
+}
@@ -4,21 +4,25 @@ package com.company.service_chat.service;
 import com.company.service_chat.dto.ChatRoomResponse;
 import com.company.service_chat.dto.ChatMessageDto; // 시스템 메시지 생성을 위해 필요
 import com.company.service_chat.dto.ChatMessageResponse;
+import com.company.service_chat.dto.SystemMessageTemplate;
 import com.company.service_chat.entity.ChatRoom;
 import com.company.service_chat.entity.ChatMember;
 import com.company.service_chat.entity.ChatMessage;
 import com.company.service_chat.entity.ChatRoom.RoomStatus;
 import com.company.service_chat.entity.ChatRoom.DealStatus;
+import com.company.service_chat.entity.ChatRoom.DealTransition;
 import com.company.service_chat.repository.ChatRoomRepository;
 import com.company.service_chat.repository.ChatMemberRepository;
 import com.company.service_chat.repository.ChatMessageRepository;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.Optional;
 
 @Service
@@ -31,7 +35,11 @@ public class ChatRoomService {
     private final ChatService chatService; // 시스템 메시지 저장을 위해 주입
     // private final TicketService ticketService; // 티켓 정보 조회를 위한 서비스
     private final TicketLookupService ticketLookupService;
-    private final SimpMessageSendingOperations messagingTemplate; // WebSocket 브로드캐스트용
+    private final ChatMessageBroadcaster chatMessageBroadcaster; // WebSocket 브로드캐스트용 (파드 간 전달 포함)
+    private final RoomSnapshotCache roomSnapshotCache; // 상태 변경 시 메시지 저장용 방 캐시 무효화
+    private final InboxEventPublisher inboxEventPublisher; // 전체 읽음 처리 시 채팅 목록 알림
+    private final TransactionTemplate transactionTemplate; // 채팅방 생성 (티켓 서비스 호출 뒤 저장만 트랜잭션)
+    private final TransactionTemplate readOnlyTransactionTemplate; // 채팅방 생성 전 열린 방 조회
 
     // 생성자 주입
     public ChatRoomService(ChatRoomRepository chatRoomRepository,
@@ -39,106 +47,95 @@ public class ChatRoomService {
                            ChatMessageRepository chatMessageRepository,
                            ChatService chatService,
                            TicketLookupService ticketLookupService,
-                           SimpMessageSendingOperations messagingTemplate) {
+                           ChatMessageBroadcaster chatMessageBroadcaster,
+                           RoomSnapshotCache roomSnapshotCache,
+                           InboxEventPublisher inboxEventPublisher,
+                           PlatformTransactionManager transactionManager) {
         this.chatRoomRepository = chatRoomRepository;
         this.chatMemberRepository = chatMemberRepository;
         this.chatMessageRepository = chatMessageRepository;
         this.chatService = chatService;
         this.ticketLookupService = ticketLookupService;
-        this.messagingTemplate = messagingTemplate;
+        this.chatMessageBroadcaster = chatMessageBroadcaster;
+        this.roomSnapshotCache = roomSnapshotCache;
+        this.inboxEventPublisher = inboxEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
     // --- 1. 채팅방 생성 (POST /chat/rooms) ---
-    @Transactional // 생성 작업은 쓰기 트랜잭션 필요
+    // (티켓, 구매자)마다 열린 방은 chat_rooms.active_key 유니크 키로 하나만 존재 (버튼을 연달아 눌러도 방/안내 메시지 한 번)
+    // 티켓 서비스 호출은 트랜잭션 밖에서 하고 열린 방 조회 / 방·멤버·안내 메시지 저장은 각각 짧은 트랜잭션으로 처리
+    // 동시에 만들면 한 요청만 INSERT 에 성공하고 나머지는 유니크 키 위반 -> 먼저 만들어진 방을 반환
+    // NOT_SUPPORTED 구간에서 저장소를 바로 부르면 EntityManager 가 메서드 끝까지 커넥션을 잡고 있으므로
+    // (티켓 서비스 호출 동안 커넥션 1개 + 저장 트랜잭션 1개 -> 동시 생성이 풀 크기를 넘으면 서로 대기)
+    // DB 접근은 모두 TransactionTemplate 안에서만 함
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ChatRoomResponse createRoom(Long ticketId, Long buyerId) {
 
-        // 1. 기존 채팅방이 있는지 확인 (같은 티켓과 구매자 조합, 가장 최근 것만)
-        Optional<ChatRoom> existingRoomOpt = chatRoomRepository.findFirstByTicketIdAndBuyerIdOrderByCreatedAtDesc(ticketId, buyerId);
-        if (existingRoomOpt.isPresent()) {
-            ChatRoom existingRoom = existingRoomOpt.get();
-            Long chatroomId = existingRoom.getChatroomId();
-            
-            // 해당 사용자의 ChatMember 확인 (삭제 여부 체크)
-            Optional<ChatMember> existingMember = chatMemberRepository.findByUserIdAndChatroomId(buyerId, chatroomId);
-            
-            // 삭제되지 않은 채팅방이 있으면 기존 채팅방 반환
-            if (existingMember.isPresent() && !existingMember.get().isDeleted()) {
-                return ChatRoomResponse.builder()
-                        .chatroomId(chatroomId)
-                        .ticketId(existingRoom.getTicketId())
-                        .createdAt(existingRoom.getCreatedAt())
-                        .roomStatus(existingRoom.getRoomStatus().name())
-                        .build();
-            }
-            // 삭제된 채팅방이면 무시하고 새로 생성 (아래 로직 계속 진행)
+        // 1. 열린 방이 있으면 그대로 반환 (구매자가 나간 방은 active_key 가 비워져 있어서 새로 생성)
+        String activeKey = ChatRoom.activeKey(ticketId, buyerId);
+        Optional<ChatRoom> existingRoom = findActiveRoom(activeKey);
+        if (existingRoom.isPresent()) {
+            return toRoomResponse(existingRoom.get());
         }
 
-        // 2. 티켓 서비스에서 판매자 ID 조회
+        // 2. 티켓 서비스에서 판매자 ID 조회 (DB 트랜잭션/커넥션을 잡지 않은 상태에서)
         Long sellerId = ticketLookupService.getSellerId(ticketId);
 
+        try {
+            return transactionTemplate.execute(status -> insertRoom(ticketId, buyerId, sellerId));
+        } catch (DataAccessException e) {
+            // 유니크 키 위반(DB에 따라 락 대기 실패로 오기도 함) -> 다른 요청이 먼저 만든 방 반환
+            // 이번 트랜잭션의 방/멤버/안내 메시지는 모두 롤백됨
+            return findActiveRoom(activeKey)
+                    .map(this::toRoomResponse)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<ChatRoom> findActiveRoom(String activeKey) {
+        return readOnlyTransactionTemplate.execute(status -> chatRoomRepository.findByActiveKey(activeKey));
+    }
+
+    // 방/멤버/안내 메시지 저장 (createRoom 의 트랜잭션 안에서 호출)
+    private ChatRoomResponse insertRoom(Long ticketId, Long buyerId, Long sellerId) {
         // 3. ChatRoom 생성 및 저장
         ChatRoom chatRoom = ChatRoom.builder()
                 .ticketId(ticketId)
                 .buyerId(buyerId)
                 .sellerId(sellerId)
                 .build();
+        chatRoom.activate();
+        chatRoom.reserveInitialSeq(2); // 아래 안내 메시지 2개 (순번 예약 UPDATE/조회 생략)
         chatRoom = chatRoomRepository.save(chatRoom);
         Long chatroomId = chatRoom.getChatroomId();
 
-        // 4. 구매자, 판매자 정보 저장 (기존 멤버가 없을 경우에만)
-        Optional<ChatMember> existingBuyerMember = chatMemberRepository.findByUserIdAndChatroomId(buyerId, chatroomId);
-        if (existingBuyerMember.isEmpty()) {
-            chatMemberRepository.save(new ChatMember(buyerId, chatroomId));
-        }
-        Optional<ChatMember> existingSellerMember = chatMemberRepository.findByUserIdAndChatroomId(sellerId, chatroomId);
-        if (existingSellerMember.isEmpty()) {
-            chatMemberRepository.save(new ChatMember(sellerId, chatroomId));
+        // 4. 구매자, 판매자 정보 저장 (방금 만든 방이라 기존 멤버 조회 없이 저장, 같은 사람이면 1명만)
+        // ID가 INSERT 전에 정해지므로 방/멤버/시스템 메시지 INSERT는 flush 때 테이블별 배치로 묶임
+        List<ChatMember> members = new ArrayList<>();
+        members.add(new ChatMember(buyerId, chatroomId));
+        if (!sellerId.equals(buyerId)) {
+            members.add(new ChatMember(sellerId, chatroomId));
         }
+        chatMemberRepository.saveAll(members);
 
         // 5. 새 채팅방인 경우에만 시스템 메시지 저장
-        // 구매자에게 "양도 요청하기" 버튼 보여주는 메시지
-        Map<String, Object> buyerMetadata = new HashMap<>();
-        buyerMetadata.put("actionType", "REQUEST_TRANSFER_INTRO");
-        buyerMetadata.put("buyerId", buyerId);
-        buyerMetadata.put("sellerId", sellerId);
-        buyerMetadata.put("visibleTarget", "BUYER");
-
-        List<Map<String, Object>> buyerActions = new ArrayList<>();
-        buyerActions.add(Map.of(
-                "label", "양도 요청하기",
-                "actionCode", "TRANSFER_REQUEST",
-                "isPrimary", true
-        ));
-
-        buyerMetadata.put("actions", buyerActions);
-
-        chatService.saveSystemMessage(
-                chatroomId,
-                buyerId,
-                ChatMessageDto.MessageType.SYSTEM_ACTION_MESSAGE,
-                "티켓 거래를 시작하려면 '양도 요청하기' 버튼을 눌러주세요.",
-                buyerMetadata
-        );
+        // 구매자에게 "양도 요청하기" 버튼 보여주는 메시지, 판매자에게는 안내 메시지 (버튼 없이 정보만)
+        ChatMessageDto buyerIntro = SystemMessageTemplate.REQUEST_TRANSFER_INTRO.toDto(chatroomId, buyerId, buyerId, sellerId);
+        ChatMessageDto sellerIntro = SystemMessageTemplate.TRANSFER_INTRO_SELLER.toDto(chatroomId, sellerId, buyerId, sellerId);
 
-        // 판매자에게도 안내 메시지 표시 (버튼 없이 정보만)
-        Map<String, Object> sellerMetadata = new HashMap<>();
-        sellerMetadata.put("actionType", "TRANSFER_INTRO_SELLER");
-        sellerMetadata.put("buyerId", buyerId);
-        sellerMetadata.put("sellerId", sellerId);
-        sellerMetadata.put("visibleTarget", "SELLER");
-
-        chatService.saveSystemMessage(
-                chatroomId,
-                sellerId,
-                ChatMessageDto.MessageType.SYSTEM_INFO_MESSAGE,
-                "구매자가 채팅을 시작했습니다. 양도 요청을 기다리고 있습니다.",
-                sellerMetadata
-        );
+        chatService.saveFirstMessages(List.of(buyerIntro, sellerIntro));
 
         // 6. 응답 DTO 반환
+        return toRoomResponse(chatRoom);
+    }
+
+    private ChatRoomResponse toRoomResponse(ChatRoom chatRoom) {
         return ChatRoomResponse.builder()
-                .chatroomId(chatroomId)
-                .ticketId(ticketId)
+                .chatroomId(chatRoom.getChatroomId())
+                .ticketId(chatRoom.getTicketId())
                 .createdAt(chatRoom.getCreatedAt())
                 .roomStatus(chatRoom.getRoomStatus().name())
                 .build();
@@ -146,52 +143,9 @@ public class ChatRoomService {
 
     // --- 2. 채팅방 목록 조회 (GET /chat/rooms) ---
     public List<ChatRoomResponse> getChatRoomsByUserId(Long userId) {
-        // 1. 해당 사용자가 속한 ChatMember 목록 조회
-        List<ChatMember> memberList = chatMemberRepository.findByUserIdAndIsDeletedFalse(userId);
-
-        // 2. ChatMember 목록에서 ChatRoomId 리스트 추출
-        List<Long> chatRoomIds = memberList.stream()
-                .map(ChatMember::getChatroomId)
-                .collect(Collectors.toList());
-
-        // 3. ChatRoom 정보 조회 (findByIdIn 사용 가능)
-        List<ChatRoom> chatRooms = chatRoomRepository.findAllById(chatRoomIds);
-
-        // 4. ChatMember를 Map으로 변환 (chatroomId -> ChatMember)
-        Map<Long, ChatMember> memberMap = memberList.stream()
-                .collect(Collectors.toMap(ChatMember::getChatroomId, member -> member));
-
-        // 5. Entity -> DTO 변환 및 반환
-        return chatRooms.stream()
-                .map(room -> {
-                    Long chatroomId = room.getChatroomId();
-
-                    // 해당 채팅방의 최신 메시지 조회
-                    ChatMessage lastMessage = chatMessageRepository.findTopByChatroomIdOrderBySentAtDesc(chatroomId);
-
-                    // 사용자의 lastReadMessageId 가져오기
-                    ChatMember member = memberMap.get(chatroomId);
-                    Long lastReadMessageId = (member != null && member.getLastReadMessageId() != null)
-                            ? member.getLastReadMessageId()
-                            : 0L;
-
-                    // 안 읽은 메시지 개수 계산 (TEXT 메시지만 카운트, 시스템 메시지 제외)
-                    int unreadCount = chatMessageRepository.countByChatroomIdAndMessageIdGreaterThanAndType(
-                            chatroomId, lastReadMessageId, ChatMessage.MessageType.TEXT);
-
-                    return ChatRoomResponse.builder()
-                            .chatroomId(chatroomId)
-                            .ticketId(room.getTicketId())
-                            .createdAt(room.getCreatedAt())
-                            .roomStatus(room.getRoomStatus().name())
-                            // 최신 메시지 정보 추가
-                            .lastMessageContent(lastMessage != null ? lastMessage.getContent() : null)
-                            .lastMessageType(lastMessage != null ? lastMessage.getType().name() : null)
-                            .lastMessageTime(lastMessage != null ? lastMessage.getSentAt() : null)
-                            .unreadCount(unreadCount)
-                            .build();
-                })
-                .collect(Collectors.toList());
+        // 방마다 최신 메시지/안 읽은 메시지 수를 따로 조회하면 방 N개에 쿼리 2N개가 나가므로
+        // 인박스 전용 쿼리 한 번으로 DTO까지 만들어서 반환 (안 읽은 메시지는 TEXT만 카운트)
+        return chatMemberRepository.findInboxByUserId(userId);
     }
 
     // --- 3. 양도 요청 처리 (구매자 -> 판매자) ---
@@ -201,53 +155,21 @@ public class ChatRoomService {
         ChatRoom chatRoom = chatRoomRepository.findById(chatroomId)
                 .orElseThrow(() -> new NoSuchElementException("채팅방을 찾을 수 없습니다."));
 
-        // 양도 요청 이전의 거래 상태가 PENDING인지 확인
-        if (chatRoom.getDealStatus() != DealStatus.PENDING) {
-            throw new IllegalStateException("이미 양도 절차가 진행 중입니다.");
-        }
-
         // buyerId가 해당 채팅방 구매자인지 확인
         if (!chatRoom.getBuyerId().equals(buyerId)) {
             throw new IllegalStateException("해당 사용자는 양도 요청을 할 수 없습니다.");
         }
 
-        // 2. DealStatus 업데이트: REQUESTED
-        chatRoom.updateStatus(RoomStatus.OPEN, DealStatus.REQUESTED);
-        chatRoomRepository.save(chatRoom);
-
-        // 양도 요청 metadata 만들기 ----------------------------
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("actionType", "TICKET_REQUEST");
-        metadata.put("sellerId", chatRoom.getSellerId());
-        metadata.put("visibleTarget", "SELLER");
-
-        List<Map<String, Object>> actions = new ArrayList<>();
-        actions.add(Map.of(
-                "label", "양도 수락",
-                "actionCode", "TRANSFER_ACCEPT",
-                "isPrimary", true
-        ));
-        actions.add(Map.of(
-                "label", "양도 거절",
-                "actionCode", "TRANSFER_REJECT",
-                "isPrimary", false
-        ));
-
-        metadata.put("actions", actions);
-        // 여기까지 양도 요청 metadata 만들기 --------------------
-
-        // 3. 시스템 메시지 저장 및 WebSocket으로 브로드캐스트
-        ChatMessage savedMessage = chatService.saveSystemMessage(
-                chatroomId,
-                buyerId,
-                ChatMessageDto.MessageType.SYSTEM_ACTION_MESSAGE,
-                "구매자가 티켓 양도를 신청했습니다. 수락/거절을 선택해주세요.",
-                metadata
-        );
+        // 2. DealStatus 업데이트: PENDING -> REQUESTED (이미 진행 중이면 0건)
+        transitionDeal(chatRoom, DealTransition.REQUEST, "이미 양도 절차가 진행 중입니다.");
+
+        // 3. 시스템 메시지 저장 (판매자에게 양도 수락/거절 버튼)
+        ChatMessage savedMessage = saveSystemMessage(chatroomId, buyerId, SystemMessageTemplate.TICKET_REQUEST, chatRoom);
         
-        // 4. WebSocket으로 시스템 메시지 브로드캐스트
+        // 4. WebSocket으로 시스템 메시지 전송 (판매자에게만)
         ChatMessageResponse response = chatService.toResponse(savedMessage);
-        messagingTemplate.convertAndSend("/topic/chatrooms/" + chatroomId, response);
+        chatMessageBroadcaster.broadcastMessage(chatroomId, savedMessage.getVisibleTo(),
+                chatRoom.counterpartOf(savedMessage.getVisibleTo()), response);
     }
 
     // --- 4. 양도 수락 (결제 요청) 처리 (판매자) ---
@@ -260,38 +182,16 @@ public class ChatRoomService {
             throw new IllegalStateException("판매자만 양도 수락을 할 수 있습니다.");
         }
 
-        // 1. DealStatus 업데이트: ACCEPTED
-        chatRoom.updateStatus(RoomStatus.OPEN, DealStatus.ACCEPTED); // 방 상태는 OPEN 유지
-        chatRoomRepository.save(chatRoom);
-
-        // 양도 수락 (결제 요청) metadata 만들기 -----------------
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("actionType", "PAYMENT_REQUEST");
-        metadata.put("buyerId", chatRoom.getBuyerId());
-        metadata.put("visibleTarget", "BUYER");
-
-        List<Map<String, Object>> actions = new ArrayList<>();
-        actions.add(Map.of(
-                "label", "결제하기",
-                "actionCode", "START_PAYMENT",
-                "isPrimary", true
-        ));
-
-        metadata.put("actions", actions);
-        // 여기까지 양도 수락 (결제 요청) metadata ----------------
+        // 1. DealStatus 업데이트: REQUESTED -> ACCEPTED (방 상태는 OPEN 유지, 요청이 없거나 이미 처리됐으면 0건)
+        transitionDeal(chatRoom, DealTransition.ACCEPT, "양도 요청 상태에서만 수락할 수 있습니다.");
 
-        // 2. 결제 요청 시스템 메시지 저장 및 WebSocket으로 브로드캐스트
-        ChatMessage savedMessage = chatService.saveSystemMessage(
-                chatroomId,
-                sellerId,
-                ChatMessageDto.MessageType.SYSTEM_ACTION_MESSAGE,
-                "양도가 수락되었습니다. 구매자는 24시간 이내에 결제를 진행해주세요.",
-                metadata
-        );
+        // 2. 결제 요청 시스템 메시지 저장 (구매자에게 결제하기 버튼)
+        ChatMessage savedMessage = saveSystemMessage(chatroomId, sellerId, SystemMessageTemplate.PAYMENT_REQUEST, chatRoom);
         
-        // 3. WebSocket으로 시스템 메시지 브로드캐스트
+        // 3. WebSocket으로 시스템 메시지 전송 (구매자에게만)
         ChatMessageResponse response = chatService.toResponse(savedMessage);
-        messagingTemplate.convertAndSend("/topic/chatrooms/" + chatroomId, response);
+        chatMessageBroadcaster.broadcastMessage(chatroomId, savedMessage.getVisibleTo(),
+                chatRoom.counterpartOf(savedMessage.getVisibleTo()), response);
     }
 
     // --- 5. 양도 거절 처리 (판매자) ---
@@ -304,26 +204,11 @@ public class ChatRoomService {
             throw new IllegalStateException("판매자만 거절할 수 있습니다.");
         }
 
-        // 1. RoomStatus를 LOCK으로 변경, DealStatus를 REJECTED로 변경
-        chatRoom.updateStatus(RoomStatus.LOCK, DealStatus.REJECTED);
-        chatRoomRepository.save(chatRoom);
-
-        // 양도 거절 metadata 만들기 ----------------------------
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("actionType", "TICKET_REJECT");
-        metadata.put("reason", "판매자 거절");
-        metadata.put("visibleTarget", "BUYER");
-        metadata.put("buyerId", chatRoom.getBuyerId());
-        // 여기까지 양도 거절 metadata --------------------------
+        // 1. RoomStatus를 LOCK으로 변경, DealStatus를 REQUESTED -> REJECTED로 변경 (이미 수락/거절됐으면 0건)
+        transitionDeal(chatRoom, DealTransition.REJECT, "양도 요청 상태에서만 거절할 수 있습니다.");
 
         // 2. 거절 시스템 메시지 저장
-        chatService.saveSystemMessage(
-                chatroomId,
-                sellerId,
-                ChatMessageDto.MessageType.SYSTEM_INFO_MESSAGE,
-                "판매자가 양도를 거절했습니다. 채팅이 잠금 상태로 전환됩니다.",
-                metadata
-        );
+        saveSystemMessage(chatroomId, sellerId, SystemMessageTemplate.TICKET_REJECT, chatRoom);
     }
 
     // 6. 채팅방 삭제(숨김 처리)
@@ -336,6 +221,9 @@ public class ChatRoomService {
 
         chatMember.markAsDeleted();
         chatMemberRepository.save(chatMember); // DB에 저장
+
+        // 구매자가 나가면 다음 채팅방 생성 때 새 방을 만들도록 열린 방 키를 비움 (판매자면 0건)
+        chatRoomRepository.releaseActiveKey(chatroomId, userId);
     }
 
     // 1. 현재 채팅방 상태 조회
@@ -358,24 +246,64 @@ public class ChatRoomService {
         ChatRoom.DealStatus currentDealStatus = chatRoom.getDealStatus();
 
         // 엔티티의 updateStatus 호출
-        chatRoom.updateStatus(newRoomStatus, currentDealStatus);
+        changeStatus(chatRoom, newRoomStatus, currentDealStatus);
+    }
+
+    // 상태 변경 + 커밋 후 모든 파드의 방 캐시 무효화 (메시지 저장 시 잠금 확인이 바로 반영되도록)
+    private void changeStatus(ChatRoom chatRoom, RoomStatus roomStatus, DealStatus dealStatus) {
+        chatRoom.updateStatus(roomStatus, dealStatus);
+        roomSnapshotCache.evictAfterCommit(chatRoom.getChatroomId());
+    }
+
+    // 거래 상태 전이를 조건부 UPDATE 한 문장으로 적용 (자바에서 읽고 비교한 뒤 저장하면 동시 요청끼리 덮어씀)
+    // 현재 상태가 전이 시작 상태가 아니면 예외 -> 트랜잭션 롤백, 시스템 메시지도 저장되지 않음
+    private void transitionDeal(ChatRoom chatRoom, DealTransition transition, String conflictMessage) {
+        if (!chatRoomRepository.transitionDeal(chatRoom.getChatroomId(), transition)) {
+            throw new IllegalStateException(conflictMessage);
+        }
+        roomSnapshotCache.evictAfterCommit(chatRoom.getChatroomId());
     }
 
     // 7. 메시지 읽음 처리 (채팅방 입장 시)
     @Transactional
     public void markMessagesAsRead(Long chatroomId, Long userId) {
-        // 1. 해당 채팅방의 최신 메시지 조회
-        ChatMessage latestMessage = chatMessageRepository.findTopByChatroomIdOrderBySentAtDesc(chatroomId);
-
-        if (latestMessage == null) {
-            return; // 메시지가 없으면 아무것도 하지 않음
+        // 1. 채팅방에 저장된 최신 메시지 포인터 조회 (PK 조회, chat_messages 정렬 조회 없음)
+        ChatRoom chatRoom = chatRoomRepository.findById(chatroomId)
+                .orElseThrow(() -> new NoSuchElementException("채팅방을 찾을 수 없습니다."));
+        Long latestMessageId = chatRoom.getLastMessageId();
+        // 방 전체를 읽으므로 읽은 순번은 방의 마지막 순번 (포인터와 같은 행에서 읽은 값)
+        Long latestSeq = chatRoom.getLastSeq();
+
+        if (latestMessageId == null) {
+            // 포인터가 도입되기 전에 만들어진 방은 기존 방식으로 한 번 조회
+            ChatMessage latestMessage = chatMessageRepository.findTopByChatroomIdOrderBySeqDesc(chatroomId);
+            if (latestMessage == null) {
+                return; // 메시지가 없으면 아무것도 하지 않음
+            }
+            latestMessageId = latestMessage.getMessageId();
+            latestSeq = latestMessage.getSeq();
         }
 
-        // 2. 사용자의 ChatMember 조회
-        ChatMember chatMember = chatMemberRepository.findByUserIdAndChatroomId(userId, chatroomId)
-                .orElseThrow(() -> new NoSuchElementException("해당 채팅방의 멤버가 아닙니다."));
+        // 2. 읽은 위치를 최신 메시지로 옮기고 안 읽은 메시지 수 초기화
+        int updated = chatMemberRepository.advanceLastRead(
+                userId, chatroomId, latestMessageId, latestSeq, ChatMessage.MessageType.TEXT);
 
-        // 3. lastReadMessageId 업데이트
-        chatMember.updateLastReadMessageId(latestMessage.getMessageId());
+        if (updated == 0 && !chatMemberRepository.existsByUserIdAndChatroomId(userId, chatroomId)) {
+            throw new NoSuchElementException("해당 채팅방의 멤버가 아닙니다.");
+        }
+        if (updated > 0) {
+            inboxEventPublisher.readAdvanced(chatroomId, userId, latestMessageId);
+        }
+    }
+
+    // 템플릿으로 시스템 메시지 저장 (metadata 는 템플릿에 ID만 끼워 넣은 JSON)
+    private ChatMessage saveSystemMessage(Long chatroomId, Long senderId, SystemMessageTemplate template, ChatRoom chatRoom) {
+        return chatService.saveSystemMessage(
+                chatroomId,
+                senderId,
+                template.getMessageType(),
+                template.getContent(),
+                template.render(chatRoom.getBuyerId(), chatRoom.getSellerId())
+        );
     }
-}
\ No newline at end of file
+}
@@ -2,47 +2,135 @@ package com.company.service_chat.service;
 
 import com.company.service_chat.dto.ChatMessageDto;
 import com.company.service_chat.dto.ChatMessageResponse;
-import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.dto.ChatMessageResumeResponse;
+import com.company.service_chat.dto.ReadReceiptRequest;
+import com.company.service_chat.dto.SystemMessageTemplate;
 import com.company.service_chat.entity.ChatMessage;
 import com.company.service_chat.entity.ChatRoom;
 import com.company.service_chat.repository.ChatMemberRepository;
 import com.company.service_chat.repository.ChatMessageRepository;
 import com.company.service_chat.repository.ChatRoomRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
 public class ChatService {
 
+    // 메시지 페이지 조회 기본/최대 개수
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final ChatMessageRepository chatMessageRepository;
     private final ChatRoomRepository chatRoomRepository;
     private final ChatMemberRepository chatMemberRepository;
-    private final ObjectMapper objectMapper; // metadata 직렬화/역직렬화용
+    private final ObjectMapper objectMapper; // metadata 직렬화용 (저장 시 한 번)
+    private final ChatMessageWriteBehindBuffer writeBehindBuffer; // write-behind 모드 배치 저장
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate; // 트랜잭션 밖(NOT_SUPPORTED) 조회용, 조회가 끝나면 커넥션 반납
+    private final ChatMetrics chatMetrics;
+    private final RecentMessageCache recentMessageCache; // 방별 최근 메시지 (방 입장 시 DB 조회 생략)
+    private final RoomSnapshotCache roomSnapshotCache; // 메시지 저장 시 참여자/잠금 확인용 채팅방 요약
+    private final ReadReceiptBuffer readReceiptBuffer; // 읽음 처리 모아서 저장 (STOMP, 여러 방 읽음 처리)
+    private final InboxEventPublisher inboxEventPublisher; // 참여자별 채팅 목록 변경분 전송 (/queue/users/{userId})
 
     // 생성자 주입(필드 추가 반영)
     public ChatService(ChatMessageRepository chatMessageRepository,
                        ChatRoomRepository chatRoomRepository,
                        ChatMemberRepository chatMemberRepository,
-                       ObjectMapper objectMapper) {
+                       ObjectMapper objectMapper,
+                       ChatMessageWriteBehindBuffer writeBehindBuffer,
+                       PlatformTransactionManager transactionManager,
+                       ChatMetrics chatMetrics,
+                       RecentMessageCache recentMessageCache,
+                       RoomSnapshotCache roomSnapshotCache,
+                       ReadReceiptBuffer readReceiptBuffer,
+                       InboxEventPublisher inboxEventPublisher) {
         this.chatMessageRepository = chatMessageRepository;
         this.chatRoomRepository = chatRoomRepository;
         this.chatMemberRepository = chatMemberRepository;
         this.objectMapper = objectMapper;
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.chatMetrics = chatMetrics;
+        this.recentMessageCache = recentMessageCache;
+        this.roomSnapshotCache = roomSnapshotCache;
+        this.readReceiptBuffer = readReceiptBuffer;
+        this.inboxEventPublisher = inboxEventPublisher;
     }
 
     // --- 1. 일반 메시지 DB 저장 ---
     @Transactional
     public ChatMessage saveMessage(ChatMessageDto messageDto) {
-        // 1. 채팅방 조회
-        ChatRoom chatRoom = chatRoomRepository.findById(messageDto.getChatroomId())
+        ChatMessage message = toMessage(messageDto);
+        assignSeq(List.of(message));
+        message = chatMessageRepository.save(message);
+        applyMessageSaved(message);
+        cacheAfterCommit(List.of(message));
+        return message;
+    }
+
+    // --- 1-1. WebSocket 실시간 메시지 저장 (/app/chat/message) ---
+    // onSaved(브로드캐스트)는 저장이 확정된 뒤 호출됨
+    // - sync: 메시지 하나씩 트랜잭션 커밋 후 호출
+    // - write-behind: 배치 저장 대기열에 넣고, 같은 방 안에서는 messageId 순서대로 호출 (ChatMessageWriteBehindBuffer 참고)
+    // group-commit 대기 중에 DB 커넥션을 잡고 있지 않도록 이 메서드 자체는 트랜잭션 밖에서 실행
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ChatMessage saveMessage(ChatMessageDto messageDto, Consumer<ChatMessage> onSaved) {
+        // 저장 지연시간: 저장 시작 -> 저장 확정(onSaved 호출)까지
+        long persistStart = System.nanoTime();
+        if (writeBehindBuffer.isEnabled()) {
+            try {
+                return writeBehindBuffer.append(toMessage(messageDto), saved -> {
+                    chatMetrics.recordPersist(persistStart, "write-behind");
+                    onCommitted(saved);
+                    onSaved.accept(saved);
+                });
+            } catch (IllegalStateException e) {
+                // 순번 예약(async: append 때, group-commit: 배치 저장 때)에서 잠긴 방으로 거부됐으면 방 캐시가 오래된 것이므로 다시 읽도록
+                roomSnapshotCache.evict(messageDto.getChatroomId());
+                throw e;
+            }
+        }
+
+        ChatMessage message = transactionTemplate.execute(status -> {
+            ChatMessage draft = toMessage(messageDto);
+            assignSeq(List.of(draft));
+            ChatMessage saved = chatMessageRepository.save(draft);
+            applyMessageSaved(saved);
+            cacheAfterCommit(List.of(saved));
+            return saved;
+        });
+        chatMetrics.recordPersist(persistStart, "sync");
+        onSaved.accept(message);
+        return message;
+    }
+
+    // 검증 후 저장할 메시지 엔티티 생성
+    private ChatMessage toMessage(ChatMessageDto messageDto) {
+        // 1. 채팅방 조회 (캐시, 상태가 바뀌면 RoomSnapshotCache 가 무효화)
+        RoomSnapshotCache.RoomSnapshot chatRoom = findRoomSnapshot(messageDto.getChatroomId())
                 .orElseThrow(() -> new IllegalArgumentException("채팅방 없음"));
 
-        if (chatRoom.getRoomStatus() == ChatRoom.RoomStatus.LOCK
+        if (chatRoom.roomStatus() == ChatRoom.RoomStatus.LOCK
                 && messageDto.getType() == ChatMessageDto.MessageType.TEXT) {
             throw new IllegalStateException("잠긴 채팅방에서는 메시지를 보낼 수 없습니다.");
         }
@@ -50,53 +138,148 @@ public class ChatService {
         Long senderId = messageDto.getSenderId();
 
         // 2. 권한 체크
-        boolean isParticipant =
-                senderId.equals(chatRoom.getSellerId()) ||
-                        senderId.equals(chatRoom.getBuyerId());
-
-        if (!isParticipant) {
+        if (!chatRoom.isParticipant(senderId)) {
             throw new IllegalStateException("채팅방 참여자만 메시지 전송 가능");
         }
         // Enum 매핑
         ChatMessage.MessageType mappedType =
                 ChatMessage.MessageType.valueOf(messageDto.getType().name());
+        chatMetrics.countMessage(mappedType, chatRoom.dealStatus());
         // Object -> JSON 문자열로 변환 (DTO에서 metadata Object로 저장했었음)
+        // 시스템 메시지 템플릿은 이미 JSON 으로 만들어져 있으므로 그대로 사용
         String metadataJson = null;
-        if (messageDto.getMetadata() != null) {
+        Long visibleTo = null;
+        if (messageDto.getMetadata() instanceof SystemMessageTemplate.RenderedMetadata rendered) {
+            metadataJson = rendered.json();
+            visibleTo = rendered.visibleTo();
+        } else if (messageDto.getMetadata() != null) {
             try {
                 metadataJson = objectMapper.writeValueAsString(messageDto.getMetadata());
             } catch (Exception e) {
                 metadataJson = null;
             }
         }
-        ChatMessage message = ChatMessage.builder()
+        return ChatMessage.builder()
                 .chatroomId(messageDto.getChatroomId())
                 .senderId(messageDto.getSenderId())
                 .type(mappedType)
                 .content(messageDto.getContent())
                 .metadata(metadataJson) // JSON string 저장
+                .visibleTo(visibleTo)
                 .build();
-        message = chatMessageRepository.save(message);
-        return message;
     }
 
-    // REST / WS 모두 동일한 메시지 구조로 응답을 주기 위해 추가
-    public ChatMessageResponse toResponse(ChatMessage message) {
-        Object metadataObj = null;
-        if (message.getMetadata() != null) {
-            try {
-                metadataObj = objectMapper.readValue(message.getMetadata(), Object.class);
-            } catch (Exception e) {
-                metadataObj = null;
+    // 채팅방 요약 조회 (캐시에 없으면 DB)
+    // NOT_SUPPORTED 메서드에서는 공유 EntityManager 가 메서드가 끝날 때까지 커넥션을 잡고 있으므로
+    // (group-commit 대기 중에도) 조회는 짧은 읽기 전용 트랜잭션 안에서 하고 바로 반납, 트랜잭션 안에서는 그 트랜잭션에 참여
+    private Optional<RoomSnapshotCache.RoomSnapshot> findRoomSnapshot(Long chatroomId) {
+        return roomSnapshotCache.get(chatroomId,
+                id -> readOnlyTransactionTemplate.execute(status -> chatRoomRepository.findById(id)));
+    }
+
+    // 저장 직전에 방별 순번 부여 (목록 순서대로 연속 번호, 저장과 같은 트랜잭션 안에서 호출)
+    // TEXT가 있으면 순번 예약 UPDATE에서 잠금 여부를 DB 기준으로 다시 확인 (캐시가 아직 무효화되지 않은 파드 대비)
+    private void assignSeq(List<ChatMessage> messages) {
+        Map<Long, List<ChatMessage>> byRoom = messages.stream()
+                .collect(Collectors.groupingBy(ChatMessage::getChatroomId, LinkedHashMap::new, Collectors.toList()));
+        for (Map.Entry<Long, List<ChatMessage>> entry : byRoom.entrySet()) {
+            boolean hasText = entry.getValue().stream()
+                    .anyMatch(message -> message.getType() == ChatMessage.MessageType.TEXT);
+            long seq = reserveSeq(entry.getKey(), entry.getValue().size(), hasText);
+            for (ChatMessage message : entry.getValue()) {
+                message.assignSeq(seq++);
+            }
+        }
+    }
+
+    // 순번 count개 예약하고 첫 번째 순번 반환 (예외는 리포지토리 default 메서드 대신 여기서 던져야 예외 변환 없이 그대로 나감)
+    // openOnly: 잠긴 방이면 예약하지 않고 예외
+    private long reserveSeq(Long chatroomId, int count, boolean openOnly) {
+        int updated = openOnly
+                ? chatRoomRepository.increaseLastSeqUnlessStatus(chatroomId, count, ChatRoom.RoomStatus.LOCK)
+                : chatRoomRepository.increaseLastSeq(chatroomId, count);
+        Optional<Long> lastSeq = chatRoomRepository.findLastSeqById(chatroomId);
+        if (lastSeq.isEmpty()) {
+            throw new IllegalArgumentException("채팅방 없음");
+        }
+        if (updated == 0) {
+            roomSnapshotCache.evict(chatroomId); // 캐시가 오래된 상태였으므로 다시 읽도록
+            throw new IllegalStateException("잠긴 채팅방에서는 메시지를 보낼 수 없습니다.");
+        }
+        return lastSeq.get() - count + 1;
+    }
+
+    // 저장된 메시지 기준으로 채팅방 요약 / 안 읽은 메시지 수 갱신
+    private void applyMessageSaved(ChatMessage message) {
+        // 3. 채팅방의 최신 메시지 포인터/요약 갱신 (채팅 목록, 전체 읽음 처리에서 사용)
+        // 한 사람에게만 보이는 메시지는 요약에 넣지 않음 (상대방 채팅 목록에 내용이 보이지 않도록)
+        if (message.getVisibleTo() == null) {
+            updateLastMessage(message);
+        }
+
+        // 4. TEXT 메시지면 상대방의 안 읽은 메시지 수 +1 (채팅 목록 뱃지용 카운터)
+        if (message.getType() == ChatMessage.MessageType.TEXT) {
+            chatMemberRepository.incrementUnreadCount(message.getChatroomId(), message.getSenderId());
+        }
+    }
+
+    private void updateLastMessage(ChatMessage message) {
+        chatRoomRepository.updateLastMessage(
+                message.getChatroomId(),
+                message.getMessageId(),
+                message.getSeq(),
+                toPreview(message.getContent()),
+                message.getType(),
+                message.getSentAt()
+        );
+    }
+
+    // 커밋된 뒤에 최근 메시지 캐시 추가 / 채팅 목록 알림 (롤백된 메시지가 캐시에 남거나 알림으로 나가지 않도록)
+    private void cacheAfterCommit(List<ChatMessage> messages) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            messages.forEach(this::onCommitted);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                messages.forEach(ChatService.this::onCommitted);
             }
+        });
+    }
+
+    private void onCommitted(ChatMessage message) {
+        recentMessageCache.append(message.getChatroomId(), buildResponse(message));
+        inboxEventPublisher.messageSaved(message);
+    }
+
+    // 채팅 목록에 보여줄 최신 메시지 미리보기 (길면 잘라서 저장, 채팅 목록 알림에서도 사용)
+    static String toPreview(String content) {
+        if (content == null || content.length() <= ChatRoom.LAST_MESSAGE_PREVIEW_LENGTH) {
+            return content;
         }
+        return content.substring(0, ChatRoom.LAST_MESSAGE_PREVIEW_LENGTH);
+    }
+
+    // REST / WS 모두 동일한 메시지 구조로 응답을 주기 위해 추가
+    // metadata는 저장할 때 만든 JSON 문자열을 파싱하지 않고 그대로 전달 (응답 직렬화 시 원문 그대로 출력)
+    public ChatMessageResponse toResponse(ChatMessage message) {
+        long start = System.nanoTime();
+        ChatMessageResponse response = buildResponse(message);
+        chatMetrics.recordSerialize(start, "response");
+        return response;
+    }
+
+    static ChatMessageResponse buildResponse(ChatMessage message) {
         return ChatMessageResponse.builder()
                 .messageId(message.getMessageId())
+                .seq(message.getSeq())
                 .senderId(message.getSenderId())
                 .type(message.getType().name())
                 .content(message.getContent())
                 .sentAt(message.getSentAt())
-                .metadata(metadataObj)
+                .metadata(message.getMetadata())
+                .visibleTo(message.getVisibleTo())
                 .build();
     }
 
@@ -113,49 +296,277 @@ public class ChatService {
         return saveMessage(dto); // JSON 으로 변환
     }
 
+    // --- 2-1. 같은 방 시스템 메시지 여러 개 저장 (채팅방 생성 등) ---
+    // INSERT는 flush 때 JDBC 배치로 묶이고, 최신 메시지 포인터는 방 전체에 보이는 마지막 메시지로 한 번만 갱신
+    @Transactional
+    public List<ChatMessage> saveSystemMessages(List<ChatMessageDto> messageDtos) {
+        List<ChatMessage> drafts = messageDtos.stream()
+                .map(this::toMessage)
+                .toList();
+        assignSeq(drafts);
+        return saveDrafts(drafts);
+    }
+
+    // --- 2-2. 방금 만든 방의 첫 메시지들 (ChatRoomService.createRoom, 방 INSERT 와 같은 트랜잭션) ---
+    // 순번 1..n 은 방을 만들 때 ChatRoom.reserveInitialSeq 로 예약해 두었으므로 순번 예약 UPDATE/조회 없이 저장
+    @Transactional
+    public List<ChatMessage> saveFirstMessages(List<ChatMessageDto> messageDtos) {
+        List<ChatMessage> drafts = messageDtos.stream()
+                .map(this::toMessage)
+                .toList();
+        long seq = 1;
+        for (ChatMessage draft : drafts) {
+            draft.assignSeq(seq++);
+        }
+        return saveDrafts(drafts);
+    }
+
+    private List<ChatMessage> saveDrafts(List<ChatMessage> drafts) {
+        List<ChatMessage> messages = chatMessageRepository.saveAll(drafts);
+        if (!messages.isEmpty()) {
+            messages.stream()
+                    .filter(message -> message.getVisibleTo() == null)
+                    .reduce((first, second) -> second)
+                    .ifPresent(this::updateLastMessage);
+            cacheAfterCommit(messages);
+        }
+        return messages;
+    }
+
     // --- 3. 특정 채팅방 메시지 목록 조회 (GET /chat/rooms/{id}/messages) ---
     public List<ChatMessageResponse> getMessagesByChatroomId(Long chatroomId) {
+        return getMessagesByChatroomId(chatroomId, null);
+    }
+
+    // viewerId: 보는 사람 (있으면 상대방에게만 보이는 시스템 메시지 제외, 없으면 예전처럼 전부)
+    public List<ChatMessageResponse> getMessagesByChatroomId(Long chatroomId, Long viewerId) {
+        // 0. 메시지가 적은 방은 최근 메시지 캐시에 전체가 들어 있음
+        Optional<RecentMessageCache.Snapshot> cached = recentMessageCache.get(chatroomId);
+        if (cached.isPresent() && cached.get().isComplete()) {
+            return visibleFor(cached.get().messages(), viewerId);
+        }
+
         // 1. Repository를 통해 메시지 목록 조회 (오래된 순)
-        List<ChatMessage> messages = chatMessageRepository.findByChatroomIdOrderBySentAtAsc(chatroomId);
+        List<ChatMessage> messages = viewerId == null
+                ? chatMessageRepository.findByChatroomIdOrderBySeqAsc(chatroomId)
+                : chatMessageRepository.findVisibleByChatroomId(chatroomId, viewerId);
 
         // 2. Entity -> Response DTO 변환
         return messages.stream()
-                .map(message -> {
-                    Object metadataObj = null;
-
-                    // DB에 String(JSON)으로 저장된 것을 다시 Object로 역직렬화
-                    if (message.getMetadata() != null) {
-                        try {
-                            metadataObj =
-                                    objectMapper.readValue(message.getMetadata(), Object.class);
-                        } catch (Exception e) {
-                            metadataObj = null;
-                        }
-                    }
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
 
-                    return ChatMessageResponse.builder()
-                            .messageId(message.getMessageId())
-                            .senderId(message.getSenderId())
-                            .type(message.getType().name())
-                            .content(message.getContent())
-                            .sentAt(message.getSentAt())
-                            .metadata(metadataObj)   // 프론트는 Object로 받음
-                            .build();
-                })
+    // --- 3-1. 커서 기반 메시지 페이지 조회 (GET /chat/rooms/{id}/messages?before=&after=&size=) ---
+    // before: 해당 messageId보다 이전 메시지 (위로 스크롤)
+    // after : 해당 messageId보다 이후 메시지 (재접속 후 따라잡기)
+    // 둘 다 없으면 최신 메시지 size개. 응답은 항상 오래된 순서
+    public List<ChatMessageResponse> getMessages(Long chatroomId, Long beforeMessageId, Long afterMessageId, Integer size) {
+        return getMessages(chatroomId, beforeMessageId, afterMessageId, size, null);
+    }
+
+    public List<ChatMessageResponse> getMessages(Long chatroomId, Long beforeMessageId, Long afterMessageId,
+                                                 Integer size, Long viewerId) {
+        if (beforeMessageId != null && afterMessageId != null) {
+            throw new IllegalArgumentException("before와 after는 동시에 사용할 수 없습니다.");
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageRequest limit = PageRequest.of(0, pageSize);
+
+        // 최신 페이지(방 입장)는 캐시에 충분히 있으면 캐시에서
+        if (beforeMessageId == null && afterMessageId == null) {
+            Optional<RecentMessageCache.Snapshot> cached = recentMessageCache.get(chatroomId);
+            if (cached.isPresent()) {
+                List<ChatMessageResponse> recent = visibleFor(cached.get().messages(), viewerId);
+                if (cached.get().isComplete() || recent.size() >= pageSize) {
+                    return recent.subList(Math.max(0, recent.size() - pageSize), recent.size());
+                }
+            }
+        }
+
+        // 커서 messageId 는 그 메시지의 순번으로 바꿔서 순번 범위로 조회
+        List<ChatMessage> messages;
+        if (afterMessageId != null) {
+            long afterSeq = cursorSeq(chatroomId, afterMessageId);
+            messages = viewerId == null
+                    ? chatMessageRepository.findByChatroomIdAndSeqGreaterThanOrderBySeqAsc(chatroomId, afterSeq, limit)
+                    : chatMessageRepository.findVisibleAfterSeq(chatroomId, viewerId, afterSeq, limit);
+        } else {
+            // 최신순으로 잘라온 다음 오래된 순서로 뒤집기
+            List<ChatMessage> latestFirst;
+            if (beforeMessageId != null) {
+                long beforeSeq = cursorSeq(chatroomId, beforeMessageId);
+                latestFirst = viewerId == null
+                        ? chatMessageRepository.findByChatroomIdAndSeqLessThanOrderBySeqDesc(chatroomId, beforeSeq, limit)
+                        : chatMessageRepository.findVisibleBeforeSeq(chatroomId, viewerId, beforeSeq, limit);
+            } else {
+                latestFirst = viewerId == null
+                        ? chatMessageRepository.findByChatroomIdOrderBySeqDesc(chatroomId, limit)
+                        : chatMessageRepository.findVisibleLatest(chatroomId, viewerId, limit);
+            }
+            messages = new ArrayList<>(latestFirst);
+            Collections.reverse(messages);
+        }
+
+        return messages.stream()
+                .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
+    private long cursorSeq(Long chatroomId, Long messageId) {
+        return chatMessageRepository.findSeqByChatroomIdAndMessageId(chatroomId, messageId)
+                .orElseThrow(() -> new IllegalArgumentException("커서 메시지가 이 채팅방에 없습니다."));
+    }
+
+    // --- 3-2. 순번 기반 따라잡기 (GET /chat/rooms/{id}/messages/resume?afterSeq=) ---
+    // 클라이언트는 마지막으로 받은 seq를 기억하다가, 재접속하거나 받은 seq가 건너뛰면(빈틈) 그 이후만 조회
+    // lastSeq를 먼저 읽고 메시지를 조회하므로 hasMore가 false면 lastSeq까지 빠짐없이 받은 것
+    public ChatMessageResumeResponse resumeMessages(Long chatroomId, Long afterSeq, Integer size) {
+        return resumeMessages(chatroomId, afterSeq, size, null);
+    }
+
+    // viewerId 가 있으면 상대방에게만 보이는 메시지는 빠지므로 seq 에 빈틈이 있을 수 있음
+    // -> 페이지가 가득 찼을 때만 hasMore, 아니면 lastSeq 까지 받은 것 (클라이언트는 lastSeq 로 건너뜀)
+    public ChatMessageResumeResponse resumeMessages(Long chatroomId, Long afterSeq, Integer size, Long viewerId) {
+        long from = afterSeq == null ? 0L : Math.max(0L, afterSeq);
+        int pageSize = size == null ? MAX_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // 빠진 구간이 캐시 범위 안이면 캐시에서 (재접속이 몰릴 때 DB 조회 생략)
+        Optional<RecentMessageCache.Snapshot> cached = recentMessageCache.get(chatroomId);
+        if (cached.isPresent() && from >= cached.get().firstSeq() - 1) {
+            RecentMessageCache.Snapshot snapshot = cached.get();
+            List<ChatMessageResponse> gap = snapshot.messages().stream()
+                    .filter(message -> message.getSeq() > from && message.visibleFor(viewerId))
+                    .limit(pageSize)
+                    .toList();
+            return resumeResponse(chatroomId, snapshot.lastSeq(), from, pageSize, gap);
+        }
+
+        long lastSeq = chatRoomRepository.findLastSeqById(chatroomId)
+                .orElseThrow(() -> new IllegalArgumentException("채팅방 없음"));
+
+        List<ChatMessage> messages;
+        if (from >= lastSeq) {
+            messages = List.of();
+        } else if (viewerId == null) {
+            messages = chatMessageRepository.findByChatroomIdAndSeqGreaterThanOrderBySeqAsc(
+                    chatroomId, from, PageRequest.of(0, pageSize));
+        } else {
+            messages = chatMessageRepository.findVisibleAfterSeq(chatroomId, viewerId, from, PageRequest.of(0, pageSize));
+        }
+
+        return resumeResponse(chatroomId, lastSeq, from, pageSize, messages.stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList()));
+    }
+
+    private ChatMessageResumeResponse resumeResponse(Long chatroomId, long lastSeq, long from, int pageSize,
+                                                     List<ChatMessageResponse> messages) {
+        long lastReturnedSeq = messages.isEmpty() ? from : messages.get(messages.size() - 1).getSeq();
+        return ChatMessageResumeResponse.builder()
+                .chatroomId(chatroomId)
+                .lastSeq(lastSeq)
+                .hasMore(messages.size() >= pageSize && lastReturnedSeq < lastSeq)
+                .messages(messages)
+                .build();
+    }
+
+    // 최근 메시지 캐시는 방 전체 메시지를 들고 있으므로 보는 사람 기준으로 거름
+    private static List<ChatMessageResponse> visibleFor(List<ChatMessageResponse> messages, Long viewerId) {
+        if (viewerId == null) {
+            return messages;
+        }
+        return messages.stream()
+                .filter(message -> message.visibleFor(viewerId))
+                .toList();
+    }
+
     //--- 4. 메시지 읽음 처리 ---
     @Transactional
     public void markAsRead(Long chatroomId, Long userId, Long lastReadMessageId) {
 
-        ChatMember chatMember = chatMemberRepository
-                .findByUserIdAndChatroomId(userId, chatroomId)
-                .orElseThrow(() -> new NoSuchElementException("해당 채팅방의 멤버가 아닙니다."));
+        // 읽은 위치는 방 순번(seq)으로 비교하므로 먼저 이 방의 메시지인지 확인하고 순번 조회
+        Optional<Long> seq = chatMessageRepository.findSeqByChatroomIdAndMessageId(chatroomId, lastReadMessageId);
+        if (seq.isEmpty()) {
+            if (!chatMemberRepository.existsByUserIdAndChatroomId(userId, chatroomId)) {
+                throw new NoSuchElementException("해당 채팅방의 멤버가 아닙니다.");
+            }
+            // 아직 저장되지 않은 메시지(write-behind async)는 읽음 처리 버퍼로 넘겨서 저장된 뒤 반영
+            readReceiptBuffer.submit(userId, chatroomId, lastReadMessageId);
+            return;
+        }
+
+        // 더 큰 값으로만 업데이트 (뒤로 돌아가면 안됨), 안 읽은 메시지 수도 같이 다시 계산
+        int updated = chatMemberRepository.advanceLastRead(
+                userId, chatroomId, lastReadMessageId, seq.get(), ChatMessage.MessageType.TEXT);
+
+        if (updated == 0 && !chatMemberRepository.existsByUserIdAndChatroomId(userId, chatroomId)) {
+            throw new NoSuchElementException("해당 채팅방의 멤버가 아닙니다.");
+        }
+        if (updated > 0) {
+            inboxEventPublisher.readAdvanced(chatroomId, userId, lastReadMessageId);
+        }
+    }
+
+    //--- 4-1. 읽음 처리 모아서 저장 (STOMP) ---
+    // 스크롤 중 계속 들어오는 읽음 처리는 바로 UPDATE 하지 않고 ReadReceiptBuffer 에서 (사용자, 방)마다 순번이 가장 큰 것 하나로 합쳐서 주기적으로 저장
+    // 참여자 확인은 방 요약 캐시로 (캐시에 있으면 DB 조회 없음)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void submitReadReceipt(Long chatroomId, Long userId, Long lastReadMessageId) {
+        if (lastReadMessageId == null || lastReadMessageId <= 0) {
+            throw new IllegalArgumentException("읽은 메시지 ID가 올바르지 않습니다.");
+        }
+        checkParticipant(chatroomId, userId);
+        readReceiptBuffer.submit(userId, chatroomId, lastReadMessageId);
+    }
+
+    //--- 4-2. 여러 방 읽음 처리 (POST /chat/rooms/read) ---
+    // 전부 확인한 뒤에 한꺼번에 접수 (하나라도 멤버가 아니면 아무것도 저장하지 않음)
+    // lastReadMessageId 가 없는 방은 방의 최신 메시지까지 (chat_rooms 한 번에 조회)
+    // 같은 방이 여러 번 와도 messageId 로 고르지 않고 모두 넘김 (ReadReceiptBuffer 가 순번으로 비교해서 합침)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void submitReadReceipts(Long userId, List<ReadReceiptRequest> receipts) {
+        if (receipts == null || receipts.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Long>> lastReads = new ArrayList<>();
+        List<Long> latestRoomIds = new ArrayList<>();
+        for (ReadReceiptRequest receipt : receipts) {
+            if (receipt.getChatroomId() == null) {
+                throw new IllegalArgumentException("채팅방 ID가 없습니다.");
+            }
+            checkParticipant(receipt.getChatroomId(), userId);
+            if (receipt.getLastReadMessageId() == null) {
+                latestRoomIds.add(receipt.getChatroomId());
+            } else {
+                lastReads.add(Map.entry(receipt.getChatroomId(), receipt.getLastReadMessageId()));
+            }
+        }
+        if (!latestRoomIds.isEmpty()) {
+            List<ChatRoom> latestRooms = readOnlyTransactionTemplate.execute(status -> chatRoomRepository.findAllById(latestRoomIds));
+            for (ChatRoom chatRoom : latestRooms) {
+                Long latestMessageId = chatRoom.getLastMessageId();
+                if (latestMessageId == null) {
+                    // 포인터가 도입되기 전에 만들어진 방은 기존 방식으로 한 번 조회
+                    ChatMessage latestMessage = readOnlyTransactionTemplate.execute(status ->
+                            chatMessageRepository.findTopByChatroomIdOrderBySeqDesc(chatRoom.getChatroomId()));
+                    if (latestMessage == null) {
+                        continue; // 메시지가 없으면 읽을 것도 없음
+                    }
+                    latestMessageId = latestMessage.getMessageId();
+                }
+                lastReads.add(Map.entry(chatRoom.getChatroomId(), latestMessageId));
+            }
+        }
+        lastReads.forEach(lastRead -> readReceiptBuffer.submit(userId, lastRead.getKey(), lastRead.getValue()));
+    }
 
-        // 더 큰 값으로만 업데이트 (뒤로 돌아가면 안됨)
-        if (lastReadMessageId > chatMember.getLastReadMessageId()) {
-            chatMember.updateLastReadMessageId(lastReadMessageId);
+    // 채팅방 멤버(구매자/판매자)인지 확인
+    private void checkParticipant(Long chatroomId, Long userId) {
+        RoomSnapshotCache.RoomSnapshot chatRoom = findRoomSnapshot(chatroomId)
+                .orElseThrow(() -> new NoSuchElementException("채팅방을 찾을 수 없습니다."));
+        if (userId == null || !chatRoom.isParticipant(userId)) {
+            throw new NoSuchElementException("해당 채팅방의 멤버가 아닙니다.");
         }
     }
-}
\ No newline at end of file
+}
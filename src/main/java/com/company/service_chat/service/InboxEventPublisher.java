@@ -0,0 +1,147 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.dto.InboxEvent;
+import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.repository.ChatMemberRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// 사용자별 채팅 목록(인박스) 변경분 전송 (/queue/users/{userId})
+// 방 참여자(구매자/판매자)에게 새 메시지 / 읽은 위치 변경을 보내서 채팅 목록을 다시 조회하지 않아도 되게 함
+// - 참여자는 방 요약 캐시(RoomSnapshotCache)에서 가져옴 (메시지마다 DB 조회 없음)
+// - 전달은 ChatMessageBroadcaster 사용 (redis 모드면 다른 파드에 연결된 사용자에게도 전달)
+// - 보조 알림이라 실패해도 저장에는 영향 없음 (클라이언트는 재접속 시 GET /chat/rooms 로 맞춤)
+@Slf4j
+@Component
+public class InboxEventPublisher {
+
+    public static final String USER_QUEUE_PREFIX = ChatMessageBroadcaster.USER_QUEUE_PREFIX;
+
+    private final ChatMessageBroadcaster chatMessageBroadcaster;
+    private final RoomSnapshotCache roomSnapshotCache;
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMemberRepository chatMemberRepository;
+    private final boolean enabled;
+
+    public InboxEventPublisher(ChatMessageBroadcaster chatMessageBroadcaster,
+                               RoomSnapshotCache roomSnapshotCache,
+                               ChatRoomRepository chatRoomRepository,
+                               ChatMemberRepository chatMemberRepository,
+                               @Value("${chat.inbox-events.enabled:true}") boolean enabled) {
+        this.chatMessageBroadcaster = chatMessageBroadcaster;
+        this.roomSnapshotCache = roomSnapshotCache;
+        this.chatRoomRepository = chatRoomRepository;
+        this.chatMemberRepository = chatMemberRepository;
+        this.enabled = enabled;
+    }
+
+    // 저장이 확정된 메시지 (커밋 후 호출)
+    public void messageSaved(ChatMessage message) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            roomSnapshotCache.get(message.getChatroomId(), chatRoomRepository::findById).ifPresent(room -> {
+                // 한 사람에게만 보이는 시스템 메시지는 그 사람 목록에만 (상대방에게 내용이 미리보기로 나가지 않도록)
+                if (message.getVisibleTo() != null) {
+                    sendMessageEvent(message.getVisibleTo(), message);
+                    return;
+                }
+                sendMessageEvent(room.buyerId(), message);
+                sendMessageEvent(room.sellerId(), message);
+            });
+        } catch (Exception e) {
+            log.warn("채팅 목록 알림 전송 실패: messageId={}", message.getMessageId(), e);
+        }
+    }
+
+    // 읽은 위치가 앞으로 옮겨짐 (트랜잭션 안이면 커밋 후 전송)
+    public void readAdvanced(Long chatroomId, Long readerId, Long lastReadMessageId) {
+        readAdvanced(List.of(new ReadPosition(readerId, chatroomId, lastReadMessageId)));
+    }
+
+    // 여러 건은 읽은 사람의 남은 안 읽은 수를 한 번에 조회 (ReadReceiptBuffer 배치 저장 후)
+    public void readAdvanced(List<ReadPosition> positions) {
+        if (!enabled || positions.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sendReadEvents(positions);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sendReadEvents(positions);
+            }
+        });
+    }
+
+    private void sendMessageEvent(Long userId, ChatMessage message) {
+        boolean unread = message.getType() == ChatMessage.MessageType.TEXT && !userId.equals(message.getSenderId());
+        chatMessageBroadcaster.broadcast(USER_QUEUE_PREFIX + userId, InboxEvent.builder()
+                .type(InboxEvent.Type.MESSAGE)
+                .chatroomId(message.getChatroomId())
+                .messageId(message.getMessageId())
+                .seq(message.getSeq())
+                .senderId(message.getSenderId())
+                .lastMessageContent(ChatService.toPreview(message.getContent()))
+                .lastMessageType(message.getType().name())
+                .lastMessageTime(message.getSentAt())
+                .unreadDelta(unread ? 1 : 0)
+                .build());
+    }
+
+    private void sendReadEvents(List<ReadPosition> positions) {
+        try {
+            Map<ReadPosition, Integer> unreadCounts = unreadCounts(positions);
+            for (ReadPosition position : positions) {
+                InboxEvent.InboxEventBuilder event = InboxEvent.builder()
+                        .type(InboxEvent.Type.READ)
+                        .chatroomId(position.chatroomId())
+                        .readerId(position.userId())
+                        .lastReadMessageId(position.lastReadMessageId());
+
+                // 본인(다른 기기 포함)에게는 남은 안 읽은 수, 상대방에게는 읽음 표시용 위치만
+                chatMessageBroadcaster.broadcast(USER_QUEUE_PREFIX + position.userId(),
+                        event.unreadCount(unreadCounts.get(position)).build());
+                roomSnapshotCache.get(position.chatroomId(), chatRoomRepository::findById).ifPresent(room -> {
+                    Long peerId = position.userId().equals(room.buyerId()) ? room.sellerId() : room.buyerId();
+                    chatMessageBroadcaster.broadcast(USER_QUEUE_PREFIX + peerId, event.unreadCount(null).build());
+                });
+            }
+        } catch (Exception e) {
+            log.warn("읽음 알림 전송 실패: {}건", positions.size(), e);
+        }
+    }
+
+    // 읽은 사람들의 남은 안 읽은 수 (쿼리 1번, 사용자/방 IN 조건으로 가져와서 필요한 조합만 사용)
+    private Map<ReadPosition, Integer> unreadCounts(List<ReadPosition> positions) {
+        Set<Long> userIds = positions.stream().map(ReadPosition::userId).collect(Collectors.toSet());
+        Set<Long> chatroomIds = positions.stream().map(ReadPosition::chatroomId).collect(Collectors.toSet());
+        Map<String, Integer> byMember = new HashMap<>();
+        for (ChatMember member : chatMemberRepository.findByUserIdInAndChatroomIdIn(userIds, chatroomIds)) {
+            byMember.put(member.getUserId() + ":" + member.getChatroomId(), member.getUnreadCount());
+        }
+        Map<ReadPosition, Integer> result = new HashMap<>();
+        for (ReadPosition position : positions) {
+            result.put(position, byMember.get(position.userId() + ":" + position.chatroomId()));
+        }
+        return result;
+    }
+
+    // 사용자가 방에서 읽은 위치
+    public record ReadPosition(Long userId, Long chatroomId, Long lastReadMessageId) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.id.SnowflakeIdGenerator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 읽음 처리 모아서 저장 (STOMP /app/chat/{chatroomId}/read, 여러 방 읽음 처리 API)
+// 스크롤하면서 읽음 처리를 계속 보내도 (사용자, 방)마다 한 주기 동안 받은 메시지 ID 만 모아두고,
+// flush-interval-ms 마다 순번이 가장 큰 것 하나로 JDBC 배치 UPDATE (읽은 위치는 앞으로만, 안 읽은 수는 같은 문장에서 다시 계산)
+// - 합치기/비교 모두 저장할 때 조회한 메시지 순번(seq)으로 (messageId 는 시계가 어긋난 파드끼리 순서가 뒤바뀔 수 있음)
+// - 파드마다 따로 모으지만 UPDATE 가 더 큰 순번으로만 옮기므로 어느 파드가 먼저 저장해도 결과는 같음
+// - 아직 저장되지 않은 메시지(write-behind async)는 다음 주기에 다시, unsaved-retention-ms 가 지나도 없으면 버림
+// - 파드가 비정상 종료되면 마지막 주기 분량의 읽음 위치가 유실될 수 있음 (다음 읽음 처리 때 다시 저장됨)
+@Slf4j
+@Component
+public class ReadReceiptBuffer {
+
+    // ChatMemberRepository.advanceLastRead 와 같은 조건/계산
+    private static final String UPDATE_SQL = """
+            UPDATE chat_members m
+               SET last_read_message_id = ?,
+                   last_read_seq = ?,
+                   unread_count = (SELECT COUNT(*) FROM chat_messages u
+                                    WHERE u.chatroom_id = m.chatroom_id
+                                      AND u.seq > ?
+                                      AND u.type = ?
+                                      AND u.sender_id <> m.user_id)
+             WHERE m.user_id = ?
+               AND m.chatroom_id = ?
+               AND m.last_read_seq < ?
+            """;
+
+    // 읽은 메시지의 방/순번 (IN 목록은 배치 크기 이하)
+    private static final String SEQ_SQL = "SELECT message_id, chatroom_id, seq FROM chat_messages WHERE message_id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InboxEventPublisher inboxEventPublisher;
+    private final int batchSize;
+    private final long unsavedRetentionMillis;
+
+    // (사용자, 방) -> 아직 저장하지 않은 읽은 메시지 ID 들 (순번은 저장할 때 한 번에 조회)
+    private final ConcurrentHashMap<Receipt, Set<Long>> pending = new ConcurrentHashMap<>();
+
+    public ReadReceiptBuffer(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             InboxEventPublisher inboxEventPublisher,
+                             @Value("${chat.read-receipt.batch-size:500}") int batchSize,
+                             @Value("${chat.read-receipt.unsaved-retention-ms:60000}") long unsavedRetentionMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.inboxEventPublisher = inboxEventPublisher;
+        this.batchSize = batchSize;
+        this.unsavedRetentionMillis = unsavedRetentionMillis;
+    }
+
+    // 같은 (사용자, 방)은 저장할 때 순번이 가장 큰 것 하나로 합쳐짐
+    public void submit(Long userId, Long chatroomId, Long lastReadMessageId) {
+        submit(new Receipt(userId, chatroomId), Set.of(lastReadMessageId));
+    }
+
+    private void submit(Receipt receipt, Collection<Long> messageIds) {
+        pending.compute(receipt, (key, ids) -> {
+            Set<Long> merged = ids == null ? new HashSet<>() : ids;
+            merged.addAll(messageIds);
+            return merged;
+        });
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(initialDelayString = "${chat.read-receipt.flush-interval-ms:1000}",
+               fixedDelayString = "${chat.read-receipt.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("읽음 처리 저장 실패", e);
+        }
+    }
+
+    // 모인 읽음 위치를 batchSize 개씩 저장, 저장한 건수 반환 (아직 저장되지 않은 메시지 / 버린 것 제외)
+    // 실패한 배치는 다시 넣어서 다음 주기에 재시도하고, 나머지 배치는 계속 저장한 뒤 첫 번째 실패를 던짐
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<Receipt, Set<Long>>> receipts = new ArrayList<>(pending.size());
+        for (Receipt receipt : pending.keySet()) {
+            Set<Long> messageIds = pending.remove(receipt);
+            if (messageIds != null) {
+                receipts.add(Map.entry(receipt, messageIds));
+            }
+        }
+        // 행 락은 (방, 사용자) 순서로 잡음 (다른 파드의 배치와 서로 기다리는 교착 방지)
+        receipts.sort(Comparator.comparing((Map.Entry<Receipt, Set<Long>> e) -> e.getKey().chatroomId())
+                .thenComparing(e -> e.getKey().userId()));
+
+        int flushed = 0;
+        RuntimeException failure = null;
+        for (int from = 0; from < receipts.size(); from += batchSize) {
+            List<Map.Entry<Receipt, Set<Long>>> batch = receipts.subList(from, Math.min(from + batchSize, receipts.size()));
+            Written written;
+            try {
+                written = transactionTemplate.execute(status -> write(batch));
+            } catch (RuntimeException e) {
+                batch.forEach(entry -> submit(entry.getKey(), entry.getValue()));
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+                continue;
+            }
+            flushed += written.count();
+            written.unsaved().forEach(entry -> submit(entry.getKey(), List.of(entry.getValue())));
+            // 실제로 앞으로 옮겨진 것만 채팅 목록 알림 (커밋 후)
+            inboxEventPublisher.readAdvanced(written.advanced());
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return flushed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("종료 전 읽음 처리 저장 실패: {}건", pending.size(), e);
+        }
+    }
+
+    // 읽은 메시지의 순번을 조회해서 (사용자, 방)마다 순번이 가장 큰 것으로 배치 UPDATE
+    // 읽은 위치가 바뀐 것만 advanced 로 반환 (이미 더 뒤까지 읽은 건 0건)
+    // 아직 저장되지 않은 메시지는 unsaved 로 돌려주고 (순번이 더 클 수 있음), 다른 방의 메시지 ID 이거나 오래전 ID 인데 없는 메시지는 버림
+    private Written write(List<Map.Entry<Receipt, Set<Long>>> batch) {
+        Map<Long, MessageSeq> seqs = findSeqs(batch);
+        List<Map.Entry<Receipt, Long>> resolved = new ArrayList<>(batch.size());
+        List<Map.Entry<Receipt, Long>> unsaved = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Receipt, Set<Long>> entry : batch) {
+            Receipt receipt = entry.getKey();
+            Long latest = null;
+            for (Long messageId : entry.getValue()) {
+                MessageSeq seq = seqs.get(messageId);
+                if (seq != null && seq.chatroomId() == receipt.chatroomId()) {
+                    if (latest == null || seq.seq() > seqs.get(latest).seq()) {
+                        latest = messageId;
+                    }
+                } else if (seq == null
+                        && Math.abs(now - SnowflakeIdGenerator.timestampMillis(messageId)) < unsavedRetentionMillis) {
+                    unsaved.add(Map.entry(receipt, messageId));
+                } else {
+                    log.debug("읽은 메시지를 찾을 수 없어 버림: userId={}, chatroomId={}, messageId={}",
+                            receipt.userId(), receipt.chatroomId(), messageId);
+                }
+            }
+            if (latest != null) {
+                resolved.add(Map.entry(receipt, latest));
+            }
+        }
+        if (resolved.isEmpty()) {
+            return new Written(0, List.of(), unsaved);
+        }
+
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, resolved, resolved.size(), (ps, entry) -> {
+            long seq = seqs.get(entry.getValue()).seq();
+            ps.setLong(1, entry.getValue());
+            ps.setLong(2, seq);
+            ps.setLong(3, seq);
+            ps.setString(4, ChatMessage.MessageType.TEXT.name());
+            ps.setLong(5, entry.getKey().userId());
+            ps.setLong(6, entry.getKey().chatroomId());
+            ps.setLong(7, seq);
+        });
+
+        List<InboxEventPublisher.ReadPosition> advanced = new ArrayList<>();
+        for (int i = 0; i < resolved.size(); i++) {
+            // 드라이버가 건수를 모르면 음수(SUCCESS_NO_INFO) -> 바뀐 것으로 봄
+            if (counts[0][i] != 0) {
+                Map.Entry<Receipt, Long> entry = resolved.get(i);
+                advanced.add(new InboxEventPublisher.ReadPosition(
+                        entry.getKey().userId(), entry.getKey().chatroomId(), entry.getValue()));
+            }
+        }
+        return new Written(resolved.size(), advanced, unsaved);
+    }
+
+    private Map<Long, MessageSeq> findSeqs(List<Map.Entry<Receipt, Set<Long>>> batch) {
+        List<Long> messageIds = batch.stream().flatMap(entry -> entry.getValue().stream()).distinct().toList();
+        Map<Long, MessageSeq> seqs = new HashMap<>();
+        for (int from = 0; from < messageIds.size(); from += batchSize) {
+            Object[] chunk = messageIds.subList(from, Math.min(from + batchSize, messageIds.size())).toArray();
+            String sql = SEQ_SQL.formatted(String.join(", ", Collections.nCopies(chunk.length, "?")));
+            jdbcTemplate.query(sql, rs -> {
+                seqs.put(rs.getLong("message_id"), new MessageSeq(rs.getLong("chatroom_id"), rs.getLong("seq")));
+            }, chunk);
+        }
+        return seqs;
+    }
+
+    private record Written(int count,
+                           List<InboxEventPublisher.ReadPosition> advanced,
+                           List<Map.Entry<Receipt, Long>> unsaved) {
+    }
+
+    private record MessageSeq(long chatroomId, long seq) {
+    }
+
+    private record Receipt(Long userId, Long chatroomId) {
+    }
+}
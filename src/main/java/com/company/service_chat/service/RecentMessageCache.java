@@ -0,0 +1,241 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.dto.ChatMessageResponse;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.repository.ChatMessageRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// 활성 채팅방의 최근 메시지 N개 캐시 (파드 로컬, Caffeine)
+// 방 입장/최신 페이지/재접속 따라잡기를 DB 조회 없이 응답하기 위한 것
+// - 채우기: 메시지 저장이 커밋된 뒤 append (ChatService), 다른 파드에서 저장된 메시지는 Redis 브로드캐스트로 받아서 append
+//          (RedisBroadcastListener -> applyRemote, 캐시에 있는 방만 파싱)
+// - 일관성: 방 순번(seq)이 마지막 값 + 1일 때만 이어 붙이고, 건너뛰면(놓친 메시지) 그 방 캐시를 버림 -> 다음 조회 때 DB에서 다시 채움
+//          pub/sub은 유실될 수 있으므로 마지막 append 후 max-staleness 가 지나면 한 번 chat_rooms.last_seq 와 비교
+//          DB에서 채우는 동안 커밋된 메시지의 append 는 캐시에 없는 방으로 보고 버려지므로(Caffeine 은 로딩 중인 키를 없는 것으로 봄)
+//          채운 뒤 chat_rooms.last_seq 와 한 번 더 비교해서 다르면 버림 (그 뒤에 커밋된 메시지는 append 로 이어짐)
+//          write-behind async 는 순번을 예약하고 저장 전에 브로드캐스트하므로, 채울 때 이 파드의 아직 저장되지 않은 메시지를 DB 행 뒤에 이어 붙임
+//          (없으면 대기 중인 메시지가 있는 동안 last_seq 와 맞지 않아 활성 방은 계속 캐시되지 않음)
+// - 비우기: 방 개수 상한(LRU 근사) + 마지막 조회 후 idle 시간
+@Slf4j
+@Component
+public class RecentMessageCache {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMessageWriteBehindBuffer writeBehindBuffer;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int capacity;
+    private final long maxStalenessNanos;
+    private final Cache<Long, RoomWindow> windows;
+
+    public RecentMessageCache(ChatMessageRepository chatMessageRepository,
+                              ChatRoomRepository chatRoomRepository,
+                              ChatMessageWriteBehindBuffer writeBehindBuffer,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${chat.recent-messages.enabled:true}") boolean enabled,
+                              @Value("${chat.recent-messages.size:50}") int capacity,
+                              @Value("${chat.recent-messages.max-rooms:2000}") long maxRooms,
+                              @Value("${chat.recent-messages.idle-seconds:600}") long idleSeconds,
+                              @Value("${chat.recent-messages.max-staleness-seconds:30}") long maxStalenessSeconds) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatRoomRepository = chatRoomRepository;
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.maxStalenessNanos = TimeUnit.SECONDS.toNanos(maxStalenessSeconds);
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterAccess(Duration.ofSeconds(idleSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, windows, "chat.recent_messages");
+    }
+
+    // 방의 최근 메시지 (캐시에 없으면 DB에서 최근 capacity개를 읽어서 채움)
+    // 캐시할 수 없는 방(없는 방, 순번 없는 예전 데이터)이면 empty -> 호출하는 쪽에서 DB 조회
+    public Optional<Snapshot> get(Long chatroomId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        RoomWindow window = windows.getIfPresent(chatroomId);
+        if (window != null && window.isStale(maxStalenessNanos) && !window.verify(lastSeq(chatroomId))) {
+            windows.asMap().remove(chatroomId, window);
+            window = null;
+        }
+        if (window == null) {
+            window = windows.get(chatroomId, this::load);
+            if (window != null && !window.verify(lastSeq(chatroomId))) {
+                windows.asMap().remove(chatroomId, window);
+                return Optional.empty();
+            }
+        }
+        return window == null ? Optional.empty() : Optional.of(window.snapshot());
+    }
+
+    // 이 파드에서 저장이 확정된 메시지 (커밋 후 호출)
+    public void append(Long chatroomId, ChatMessageResponse message) {
+        if (!enabled) {
+            return;
+        }
+        windows.asMap().computeIfPresent(chatroomId, (id, window) -> window.append(message) ? window : null);
+    }
+
+    // 다른 파드(또는 자기 자신)가 Redis로 브로드캐스트한 방 메시지, 캐시에 있는 방만 반영
+    // visibleTo: 사용자 채팅방 큐로 온 메시지(그 사용자에게만 보이는 메시지)면 그 사용자, 방 토픽이면 null
+    // HIDDEN 프레임(messageId 없음)은 그 메시지 자체가 해당 사용자 큐로 따로 오므로 무시
+    public void applyRemote(Long chatroomId, Long visibleTo, byte[] json) {
+        if (!enabled || windows.getIfPresent(chatroomId) == null) {
+            return;
+        }
+        try {
+            ChatMessageResponse message = objectMapper.readValue(json, ChatMessageResponse.class);
+            if (message.getMessageId() != null) {
+                append(chatroomId, visibleTo == null ? message : message.toBuilder().visibleTo(visibleTo).build());
+            }
+        } catch (Exception e) {
+            // 어떤 메시지인지 모르므로 방 캐시를 버리고 다음 조회 때 DB에서 다시 채움
+            log.warn("최근 메시지 캐시 반영 실패, 캐시를 비웁니다: chatroomId={}", chatroomId, e);
+            invalidate(chatroomId);
+        }
+    }
+
+    public void invalidate(Long chatroomId) {
+        windows.invalidate(chatroomId);
+    }
+
+    private RoomWindow load(Long chatroomId) {
+        // DB보다 먼저 읽어야 그 사이에 저장된 메시지가 양쪽에서 다 빠지지 않음 (겹치는 것은 순번으로 거름)
+        List<ChatMessage> unflushed = writeBehindBuffer.unflushedMessages(chatroomId);
+        List<ChatMessage> latest = new ArrayList<>(chatMessageRepository.findByChatroomIdOrderBySeqDesc(
+                chatroomId, PageRequest.of(0, capacity)));
+        if (latest.stream().anyMatch(message -> message.getSeq() == null)) {
+            return null; // 순번 없는 예전 데이터
+        }
+        Collections.reverse(latest); // 오래된 순서
+        long persistedLastSeq = latest.isEmpty() ? 0 : latest.get(latest.size() - 1).getSeq();
+        unflushed.stream().filter(message -> message.getSeq() > persistedLastSeq).forEach(latest::add);
+        List<ChatMessage> messages = latest.subList(Math.max(0, latest.size() - capacity), latest.size());
+
+        long lastSeq;
+        if (messages.isEmpty()) {
+            Optional<Long> roomLastSeq = chatRoomRepository.findLastSeqById(chatroomId);
+            if (roomLastSeq.isEmpty()) {
+                return null; // 없는 방은 캐시하지 않음
+            }
+            lastSeq = roomLastSeq.get();
+        } else {
+            lastSeq = messages.get(messages.size() - 1).getSeq();
+        }
+
+        RoomWindow window = new RoomWindow(capacity, lastSeq);
+        for (int i = 0; i < messages.size(); i++) {
+            ChatMessage message = messages.get(i);
+            // 순번이 이어지지 않으면 캐시하지 않음
+            if (message.getSeq() != lastSeq - (messages.size() - 1 - i)) {
+                return null;
+            }
+            window.load(ChatService.buildResponse(message));
+        }
+        return window;
+    }
+
+    private long lastSeq(Long chatroomId) {
+        return chatRoomRepository.findLastSeqById(chatroomId).orElse(-1L);
+    }
+
+    // 캐시된 방 상태 (firstSeq..lastSeq 구간의 메시지, 오래된 순서)
+    // firstSeq == 1 이면 방의 전체 메시지
+    public record Snapshot(long firstSeq, long lastSeq, List<ChatMessageResponse> messages) {
+
+        public boolean isComplete() {
+            return firstSeq == 1;
+        }
+    }
+
+    // 방 하나의 최근 메시지 링 버퍼 (ArrayDeque, 가득 차면 가장 오래된 것부터 버림)
+    private static class RoomWindow {
+
+        private final int capacity;
+        private final ArrayDeque<ChatMessageResponse> messages;
+        private long firstSeq;
+        private long lastSeq;
+        private volatile long verifiedAt = System.nanoTime();
+
+        RoomWindow(int capacity, long lastSeq) {
+            this.capacity = capacity;
+            this.messages = new ArrayDeque<>(capacity);
+            this.lastSeq = lastSeq;
+            this.firstSeq = lastSeq + 1;
+        }
+
+        // DB에서 읽은 메시지 (오래된 순서로 호출)
+        void load(ChatMessageResponse message) {
+            if (messages.isEmpty()) {
+                firstSeq = message.getSeq();
+            }
+            messages.addLast(message);
+        }
+
+        // 순번이 이어지면 추가하고 true, 놓친 메시지가 있으면 false (방 캐시 버림)
+        synchronized boolean append(ChatMessageResponse message) {
+            Long seq = message.getSeq();
+            if (seq == null) {
+                return false; // 순번 없는 메시지는 어디에 끼울지 모름
+            }
+            if (seq <= lastSeq) {
+                return true; // 이미 반영됨 (자기 파드 메시지가 브로드캐스트로 다시 들어온 경우 등)
+            }
+            if (seq != lastSeq + 1) {
+                return false;
+            }
+            if (messages.size() == capacity) {
+                messages.removeFirst();
+                firstSeq = messages.isEmpty() ? seq : messages.peekFirst().getSeq();
+            }
+            if (messages.isEmpty()) {
+                firstSeq = seq;
+            }
+            messages.addLast(message);
+            lastSeq = seq;
+            verifiedAt = System.nanoTime();
+            return true;
+        }
+
+        boolean isStale(long maxStalenessNanos) {
+            return System.nanoTime() - verifiedAt > maxStalenessNanos;
+        }
+
+        // DB의 마지막 순번과 같으면 그대로 사용
+        synchronized boolean verify(long roomLastSeq) {
+            if (roomLastSeq != lastSeq) {
+                return false;
+            }
+            verifiedAt = System.nanoTime();
+            return true;
+        }
+
+        synchronized Snapshot snapshot() {
+            return new Snapshot(firstSeq, lastSeq, Collections.unmodifiableList(new ArrayList<>(messages)));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.company.service_chat.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+
+// Redis chat:broadcast:* 채널 구독자
+// 다른 파드(또는 자기 자신)가 발행한 메시지를 이 파드에 연결된 STOMP 구독자에게 전달
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisBroadcastListener implements MessageListener {
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final RecentMessageCache recentMessageCache;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        if (!channel.startsWith(ChatMessageBroadcaster.CHANNEL_PREFIX)) {
+            return;
+        }
+        String destination = channel.substring(ChatMessageBroadcaster.CHANNEL_PREFIX.length());
+
+        // 이미 JSON으로 직렬화된 payload라 다시 변환하지 않고 그대로 전달
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+
+        try {
+            messagingTemplate.send(destination,
+                    MessageBuilder.createMessage(message.getBody(), accessor.getMessageHeaders()));
+        } catch (Exception e) {
+            log.error("브로드캐스트 메시지 로컬 전달 실패: destination={}", destination, e);
+        }
+
+        // 다른 파드에서 저장된 메시지도 이 파드의 최근 메시지 캐시에 반영
+        // 한 사람에게만 보이는 메시지는 그 사람의 채팅방 큐로만 오므로 visibleTo 를 붙여서 반영 (JSON 에는 visibleTo 가 없음)
+        // 빠뜨리면 다음 방 메시지에서 seq 가 건너뛴 것으로 보고 방 캐시를 버림
+        try {
+            if (destination.startsWith(ChatMessageBroadcaster.ROOM_TOPIC_PREFIX)) {
+                Long chatroomId = Long.valueOf(destination.substring(ChatMessageBroadcaster.ROOM_TOPIC_PREFIX.length()));
+                recentMessageCache.applyRemote(chatroomId, null, message.getBody());
+            } else if (destination.startsWith(ChatMessageBroadcaster.USER_QUEUE_PREFIX)) {
+                // /queue/users/{userId}/chatrooms/{chatroomId}
+                String[] parts = destination.substring(ChatMessageBroadcaster.USER_QUEUE_PREFIX.length()).split("/");
+                if (parts.length == 3 && "chatrooms".equals(parts[1])) {
+                    recentMessageCache.applyRemote(Long.valueOf(parts[2]), Long.valueOf(parts[0]), message.getBody());
+                }
+            }
+        } catch (NumberFormatException e) {
+            log.warn("채팅방 ID를 알 수 없는 브로드캐스트: destination={}", destination);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.entity.ChatRoom;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// 메시지 저장 시 권한/잠금 확인용 채팅방 요약 캐시 (파드 로컬, Caffeine)
+// 메시지마다 chat_rooms 를 SELECT 하지 않도록 참여자(구매자/판매자)와 상태만 캐시
+// - 참여자는 바뀌지 않고, 상태(roomStatus/dealStatus)는 ChatRoomService 에서 바뀔 때 커밋 후 무효화
+// - 다른 파드는 Redis 채널(chat:room-invalidate)로 무효화 (redis 모드)
+// - pub/sub 이 늦거나 유실돼도 순번 예약 UPDATE 가 잠긴 방의 TEXT 를 막음 (sync: ChatService.reserveSeq, write-behind: group-commit 은 배치 저장 시, async 는 append 시)
+@Slf4j
+@Component
+public class RoomSnapshotCache implements MessageListener {
+
+    public static final String INVALIDATE_CHANNEL = "chat:room-invalidate";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean redisMode;
+    private final Cache<Long, RoomSnapshot> snapshots;
+
+    public RoomSnapshotCache(StringRedisTemplate stringRedisTemplate,
+                             @Value("${chat.broadcast.mode:redis}") String broadcastMode,
+                             @Value("${chat.room-cache.ttl-seconds:300}") long ttlSeconds,
+                             @Value("${chat.room-cache.max-rooms:20000}") long maxRooms) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMode = "redis".equalsIgnoreCase(broadcastMode);
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    // 캐시에 없으면 loader(보통 chatRoomRepository::findById)로 채움, 없는 방은 캐시하지 않음
+    public Optional<RoomSnapshot> get(Long chatroomId, Function<Long, Optional<ChatRoom>> loader) {
+        return Optional.ofNullable(snapshots.get(chatroomId,
+                id -> loader.apply(id).map(RoomSnapshot::from).orElse(null)));
+    }
+
+    // 상태 변경이 커밋된 뒤 모든 파드에서 무효화 (커밋 전에 지우면 다른 요청이 이전 상태로 다시 채울 수 있음)
+    public void evictAfterCommit(Long chatroomId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictEverywhere(chatroomId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictEverywhere(chatroomId);
+            }
+        });
+    }
+
+    // 이 파드에서만 무효화
+    public void evict(Long chatroomId) {
+        snapshots.invalidate(chatroomId);
+    }
+
+    // Redis 무효화 메시지 수신 (자기 자신이 보낸 것 포함)
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            evict(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException e) {
+            log.warn("채팅방 캐시 무효화 메시지 형식 오류: {}", new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private void evictEverywhere(Long chatroomId) {
+        evict(chatroomId);
+        if (!redisMode) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, chatroomId.toString());
+        } catch (Exception e) {
+            // 다른 파드는 TTL 이 지나거나 순번 예약 UPDATE 에서 잠금을 확인하면 갱신됨
+            log.warn("채팅방 캐시 무효화 발행 실패: chatroomId={}", chatroomId, e);
+        }
+    }
+
+    // 메시지 저장 검증에 필요한 값만
+    public record RoomSnapshot(Long chatroomId, Long buyerId, Long sellerId,
+                               ChatRoom.RoomStatus roomStatus, ChatRoom.DealStatus dealStatus) {
+
+        static RoomSnapshot from(ChatRoom room) {
+            return new RoomSnapshot(room.getChatroomId(), room.getBuyerId(), room.getSellerId(),
+                    room.getRoomStatus(), room.getDealStatus());
+        }
+
+        public boolean isParticipant(Long userId) {
+            return userId.equals(buyerId) || userId.equals(sellerId);
+        }
+    }
+}
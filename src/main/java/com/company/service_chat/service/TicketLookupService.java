@@ -1,72 +1,174 @@
 package com.company.service_chat.service;
 
-import com.company.service_chat.dto.ApiResponse;
-import com.company.service_chat.dto.external.TicketInfoResponse;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+// 티켓 ID -> 판매자 ID 조회
+// 로컬(Caffeine) -> Redis -> 티켓 서비스 순서로 찾는 2단 캐시
+// - 같은 티켓을 동시에 조회하면 로컬 캐시가 로딩 중인 하나의 결과를 같이 기다림 (single-flight, 티켓 오픈 시 HTTP 폭주 방지)
+// - 티켓 서비스 호출은 타임아웃 + 서킷 브레이커로 감싸서 느릴 때 채팅방 생성이 같이 느려지지 않도록 함
+// - 조회 실패(404, 타임아웃 등)는 캐시하지 않음
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TicketLookupService {
 
+    static final String REDIS_KEY_PREFIX = "chat:ticket-seller:";
+    private static final Duration REDIS_TIMEOUT = Duration.ofMillis(200);
+
     private final WebClient ticketWebClient;
-    private final ObjectMapper objectMapper;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration redisTtl;
+    private final Duration timeout;
+    private final AsyncCache<Long, Long> localCache;
 
+    public TicketLookupService(WebClient ticketWebClient,
+                               ReactiveStringRedisTemplate redisTemplate,
+                               CircuitBreaker ticketServiceCircuitBreaker,
+                               @Value("${ticket.service.cache.local-ttl-seconds:300}") long localTtlSeconds,
+                               @Value("${ticket.service.cache.redis-ttl-seconds:1800}") long redisTtlSeconds,
+                               @Value("${ticket.service.timeout-ms:1500}") long timeoutMillis) {
+        this.ticketWebClient = ticketWebClient;
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = ticketServiceCircuitBreaker;
+        this.redisTtl = Duration.ofSeconds(redisTtlSeconds);
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.localCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .maximumSize(10_000)
+                .buildAsync();
+    }
+
+    // 기존 동기 API (채팅방 생성에서 사용), 최대 timeout 만큼만 대기
     public Long getSellerId(Long ticketId) {
         try {
-            // 티켓 서비스는 ApiResponse<TicketResponse> 형태로 응답
-            JsonNode response = ticketWebClient.get()
-                    .uri("/api/tickets/{ticketId}", ticketId)
-                    .retrieve()
-                    .bodyToMono(JsonNode.class)
-                    .block();
-
-            if (response == null) {
-                log.error("티켓 정보 조회 실패: ticketId={}, 응답이 null입니다.", ticketId);
-                throw new IllegalStateException("티켓 정보를 조회할 수 없습니다.");
+            return getSellerIdAsync(ticketId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IllegalStateException illegalState) {
+                throw illegalState;
             }
+            log.error("티켓 정보 조회 중 예상치 못한 오류: ticketId={}", ticketId, e.getCause());
+            throw new IllegalStateException("티켓 정보 조회 중 오류가 발생했습니다: " + e.getCause().getMessage());
+        }
+    }
 
-            // ApiResponse 구조에서 data 필드 추출
-            JsonNode dataNode = response.get("data");
-            if (dataNode == null || dataNode.isNull()) {
-                log.error("티켓 정보 조회 실패: ticketId={}, data 필드가 null입니다.", ticketId);
-                throw new IllegalStateException("티켓 정보를 조회할 수 없습니다.");
-            }
+    // 논블로킹 API: 같은 티켓에 대한 동시 요청은 하나의 로딩 결과를 공유
+    public CompletableFuture<Long> getSellerIdAsync(Long ticketId) {
+        CompletableFuture<Long> future = localCache.get(ticketId, (key, executor) -> loadSellerId(key).toFuture());
+        if (future.isCompletedExceptionally()) {
+            // 실패한 로딩은 Caffeine 이 완료 콜백에서 지우는데, 실패를 받은 호출이 그보다 먼저 다시 조회하면 같은 실패를 받음
+            // -> 직접 지우고 다시 로딩 (실패는 캐시하지 않음)
+            localCache.asMap().remove(ticketId, future);
+            future = localCache.get(ticketId, (key, executor) -> loadSellerId(key).toFuture());
+        }
+        return future;
+    }
 
-            // ownerId 또는 sellerId 추출
-            JsonNode ownerIdNode = dataNode.get("ownerId");
-            JsonNode sellerIdNode = dataNode.get("sellerId");
-            
-            Long sellerId = null;
-            if (sellerIdNode != null && !sellerIdNode.isNull()) {
-                sellerId = sellerIdNode.asLong();
-            } else if (ownerIdNode != null && !ownerIdNode.isNull()) {
-                sellerId = ownerIdNode.asLong();
-            }
+    // 캐시 비우기 (티켓 소유자 변경 등)
+    public void evict(Long ticketId) {
+        localCache.synchronous().invalidate(ticketId);
+        redisTemplate.delete(REDIS_KEY_PREFIX + ticketId)
+                .timeout(REDIS_TIMEOUT)
+                .onErrorResume(e -> Mono.empty())
+                .subscribe();
+    }
 
-            if (sellerId == null) {
-                log.error("티켓 정보에 판매자 ID가 없습니다: ticketId={}", ticketId);
-                throw new IllegalStateException("티켓 정보에 판매자 ID가 없습니다.");
-            }
+    private Mono<Long> loadSellerId(Long ticketId) {
+        String key = REDIS_KEY_PREFIX + ticketId;
+        return redisTemplate.opsForValue().get(key)
+                .timeout(REDIS_TIMEOUT)
+                .map(Long::valueOf)
+                // Redis 장애는 캐시 미스로 보고 티켓 서비스로 넘어감
+                .onErrorResume(e -> {
+                    log.warn("Redis 티켓 캐시 조회 실패: ticketId={}, {}", ticketId, e.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> fetchSellerId(ticketId)
+                        .flatMap(sellerId -> redisTemplate.opsForValue().set(key, String.valueOf(sellerId), redisTtl)
+                                .timeout(REDIS_TIMEOUT)
+                                .onErrorResume(e -> Mono.just(false))
+                                .thenReturn(sellerId))));
+    }
+
+    private Mono<Long> fetchSellerId(Long ticketId) {
+        // 티켓 서비스는 ApiResponse<TicketResponse> 형태로 응답
+        return ticketWebClient.get()
+                .uri("/api/tickets/{ticketId}", ticketId)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(timeout)
+                .map(response -> extractSellerId(ticketId, response))
+                // 본문 없는 응답은 null 이 아니라 조회 실패 (그대로 두면 판매자 ID 가 null 로 캐시/반환됨)
+                .switchIfEmpty(Mono.error(() -> {
+                    log.error("티켓 정보 조회 실패: ticketId={}, 응답 본문이 없습니다.", ticketId);
+                    return new IllegalStateException("티켓 정보를 조회할 수 없습니다.");
+                }))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorMap(e -> !(e instanceof IllegalStateException), e -> toLookupException(ticketId, e))
+                .doOnNext(sellerId -> log.info("티켓 정보 조회 성공: ticketId={}, sellerId={}", ticketId, sellerId));
+    }
+
+    private Long extractSellerId(Long ticketId, JsonNode response) {
+        // ApiResponse 구조에서 data 필드 추출
+        JsonNode dataNode = response.get("data");
+        if (dataNode == null || dataNode.isNull()) {
+            log.error("티켓 정보 조회 실패: ticketId={}, data 필드가 null입니다.", ticketId);
+            throw new IllegalStateException("티켓 정보를 조회할 수 없습니다.");
+        }
+
+        // ownerId 또는 sellerId 추출
+        JsonNode ownerIdNode = dataNode.get("ownerId");
+        JsonNode sellerIdNode = dataNode.get("sellerId");
+
+        Long sellerId = null;
+        if (sellerIdNode != null && !sellerIdNode.isNull()) {
+            sellerId = sellerIdNode.asLong();
+        } else if (ownerIdNode != null && !ownerIdNode.isNull()) {
+            sellerId = ownerIdNode.asLong();
+        }
+
+        if (sellerId == null) {
+            log.error("티켓 정보에 판매자 ID가 없습니다: ticketId={}", ticketId);
+            throw new IllegalStateException("티켓 정보에 판매자 ID가 없습니다.");
+        }
+        return sellerId;
+    }
 
-            log.info("티켓 정보 조회 성공: ticketId={}, sellerId={}", ticketId, sellerId);
-            return sellerId;
-        } catch (WebClientResponseException.NotFound e) {
-            log.error("티켓을 찾을 수 없습니다: ticketId={}", ticketId, e);
-            throw new IllegalStateException("티켓을 찾을 수 없습니다.");
-        } catch (WebClientResponseException e) {
-            log.error("티켓 서비스 호출 오류: ticketId={}, status={}, body={}", 
-                    ticketId, e.getStatusCode(), e.getResponseBodyAsString(), e);
-            throw new IllegalStateException("티켓 정보 조회 중 오류가 발생했습니다.");
-        } catch (Exception e) {
-            log.error("티켓 정보 조회 중 예상치 못한 오류: ticketId={}", ticketId, e);
-            throw new IllegalStateException("티켓 정보 조회 중 오류가 발생했습니다: " + e.getMessage());
+    private IllegalStateException toLookupException(Long ticketId, Throwable e) {
+        if (e instanceof WebClientResponseException.NotFound) {
+            log.error("티켓을 찾을 수 없습니다: ticketId={}", ticketId);
+            return new IllegalStateException("티켓을 찾을 수 없습니다.");
+        }
+        if (e instanceof CallNotPermittedException) {
+            log.warn("티켓 서비스 서킷 브레이커 열림, 조회 생략: ticketId={}", ticketId);
+            return new IllegalStateException("티켓 서비스가 응답하지 않습니다. 잠시 후 다시 시도해주세요.");
+        }
+        if (e instanceof TimeoutException) {
+            log.error("티켓 서비스 응답 시간 초과: ticketId={}, timeout={}ms", ticketId, timeout.toMillis());
+            return new IllegalStateException("티켓 서비스가 응답하지 않습니다. 잠시 후 다시 시도해주세요.");
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            log.error("티켓 서비스 호출 오류: ticketId={}, status={}, body={}",
+                    ticketId, responseException.getStatusCode(), responseException.getResponseBodyAsString(), e);
+            return new IllegalStateException("티켓 정보 조회 중 오류가 발생했습니다.");
         }
+        log.error("티켓 정보 조회 중 예상치 못한 오류: ticketId={}", ticketId, e);
+        return new IllegalStateException("티켓 정보 조회 중 오류가 발생했습니다: " + e.getMessage());
     }
 }
@@ -0,0 +1,67 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.repository.ChatMemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// ChatMember.unreadCount 카운터 보정 작업
+// 메시지 저장/읽음 처리에서 카운터를 갱신하지만, 장애나 수동 데이터 수정 등으로 어긋날 수 있으므로
+// 주기적으로 실제 COUNT와 비교해서 다른 행만 다시 계산한다. (batchSize 개씩 id 구간을 잘라서 짧은 트랜잭션)
+@Slf4j
+@Component
+public class UnreadCountReconciler {
+
+    private final ChatMemberRepository chatMemberRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public UnreadCountReconciler(ChatMemberRepository chatMemberRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${chat.unread.reconcile-batch-size:1000}") int batchSize) {
+        this.chatMemberRepository = chatMemberRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${chat.unread.reconcile-interval-ms:600000}",
+               fixedDelayString = "${chat.unread.reconcile-interval-ms:600000}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("안 읽은 메시지 카운터 보정 실패", e);
+        }
+    }
+
+    // 전체 멤버를 batchSize 개씩 나눠서 보정, 보정된 행 수 반환
+    public int reconcile() {
+        int repaired = 0;
+        long lastId = 0L;
+
+        while (true) {
+            List<Long> ids = chatMemberRepository.findIdsAfter(lastId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            long fromId = ids.get(0);
+            long toId = ids.get(ids.size() - 1);
+            Integer count = transactionTemplate.execute(status ->
+                    chatMemberRepository.reconcileUnreadCounts(fromId, toId, ChatMessage.MessageType.TEXT));
+            repaired += count != null ? count : 0;
+            lastId = toId;
+        }
+
+        if (repaired > 0) {
+            log.warn("안 읽은 메시지 카운터 보정: {}건", repaired);
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,92 @@
+package com.company.service_chat.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// WebSocket 포화 지표 (/actuator/prometheus)
+// - chat.websocket.sessions      : 현재 연결된 STOMP 세션 수 (이 파드)
+// - chat.websocket.subscriptions : 현재 구독 수
+// - chat.persistence.pending     : write-behind 저장 대기 메시지 수
+// - executor.queued / executor.active / executor.pool.size {name=clientInboundChannel|clientOutboundChannel}
+//   : STOMP 수신/발신 채널 스레드 풀 대기열 (쌓이기 시작하면 처리량 한계)
+@Component
+public class WebSocketMetrics {
+
+    // 세션 ID -> 구독 수 (DISCONNECT 이벤트가 두 번 올 수 있어서 세션 단위로 관리)
+    private final Map<String, AtomicInteger> subscriptionsBySession = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    public WebSocketMetrics(MeterRegistry meterRegistry,
+                            @Qualifier("clientInboundChannelExecutor") TaskExecutor clientInboundChannelExecutor,
+                            @Qualifier("clientOutboundChannelExecutor") TaskExecutor clientOutboundChannelExecutor,
+                            ChatMessageWriteBehindBuffer writeBehindBuffer) {
+        Gauge.builder("chat.websocket.sessions", subscriptionsBySession, Map::size)
+                .description("연결된 STOMP 세션 수")
+                .register(meterRegistry);
+        Gauge.builder("chat.websocket.subscriptions", subscriptions, AtomicInteger::get)
+                .description("STOMP 구독 수")
+                .register(meterRegistry);
+        Gauge.builder("chat.persistence.pending", writeBehindBuffer, ChatMessageWriteBehindBuffer::pendingCount)
+                .description("write-behind 저장 대기 메시지 수")
+                .register(meterRegistry);
+
+        bindExecutor(meterRegistry, clientInboundChannelExecutor, "clientInboundChannel");
+        bindExecutor(meterRegistry, clientOutboundChannelExecutor, "clientOutboundChannel");
+    }
+
+    private void bindExecutor(MeterRegistry meterRegistry, TaskExecutor executor, String name) {
+        if (executor instanceof ThreadPoolTaskExecutor threadPool) {
+            new ExecutorServiceMetrics(threadPool.getThreadPoolExecutor(), name, Tags.empty()).bindTo(meterRegistry);
+        }
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        subscriptionsBySession.putIfAbsent(sessionId(event.getMessage().getHeaders()), new AtomicInteger());
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        AtomicInteger count = subscriptionsBySession.get(sessionId(event.getMessage().getHeaders()));
+        if (count != null) {
+            count.incrementAndGet();
+            subscriptions.incrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        AtomicInteger count = subscriptionsBySession.get(sessionId(event.getMessage().getHeaders()));
+        if (count != null && count.getAndUpdate(value -> Math.max(0, value - 1)) > 0) {
+            subscriptions.decrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        AtomicInteger count = subscriptionsBySession.remove(event.getSessionId());
+        if (count != null) {
+            subscriptions.addAndGet(-count.get());
+        }
+    }
+
+    private static String sessionId(Map<String, Object> headers) {
+        return SimpMessageHeaderAccessor.getSessionId(headers);
+    }
+}
@@ -0,0 +1,35 @@
+-- 채팅 서비스 기본 스키마
+-- 지금까지 ddl-auto: update 로 만들어진 테이블과 같은 구조 (이미 있는 환경에서는 건너뜀)
+
+CREATE TABLE IF NOT EXISTS chat_rooms (
+    chatroom_id     BIGINT NOT NULL AUTO_INCREMENT,
+    ticket_id       BIGINT,
+    buyer_id        BIGINT,
+    seller_id       BIGINT,
+    last_message_id BIGINT,
+    room_status     ENUM ('OPEN','LOCK'),
+    deal_status     ENUM ('PENDING','REQUESTED','ACCEPTED','REJECTED','COMPLETED'),
+    created_at      DATETIME(6),
+    updated_at      DATETIME(6),
+    PRIMARY KEY (chatroom_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS chat_members (
+    id                   BIGINT NOT NULL AUTO_INCREMENT,
+    user_id              BIGINT,
+    chatroom_id          BIGINT,
+    last_read_message_id BIGINT,
+    is_deleted           BIT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS chat_messages (
+    message_id  BIGINT NOT NULL AUTO_INCREMENT,
+    chatroom_id BIGINT,
+    sender_id   BIGINT,
+    type        ENUM ('TEXT','SYSTEM_ACTION_MESSAGE','SYSTEM_INFO_MESSAGE'),
+    content     TEXT,
+    sent_at     DATETIME(6),
+    metadata    JSON,
+    PRIMARY KEY (message_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
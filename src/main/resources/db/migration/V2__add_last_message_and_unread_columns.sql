@@ -0,0 +1,34 @@
+-- 최신 메시지 요약 컬럼(chat_rooms)과 안 읽은 메시지 카운터(chat_members)
+-- ddl-auto: update 로 이미 컬럼이 추가된 환경이 있어서 없는 경우에만 추가
+
+SET @ddl := IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'chat_rooms' AND column_name = 'last_message_preview') = 0,
+               'ALTER TABLE chat_rooms ADD COLUMN last_message_preview VARCHAR(255)',
+               'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl := IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'chat_rooms' AND column_name = 'last_message_type') = 0,
+               'ALTER TABLE chat_rooms ADD COLUMN last_message_type ENUM (''TEXT'',''SYSTEM_ACTION_MESSAGE'',''SYSTEM_INFO_MESSAGE'')',
+               'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl := IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'chat_rooms' AND column_name = 'last_message_at') = 0,
+               'ALTER TABLE chat_rooms ADD COLUMN last_message_at DATETIME(6)',
+               'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl := IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'chat_members' AND column_name = 'unread_count') = 0,
+               'ALTER TABLE chat_members ADD COLUMN unread_count INT NOT NULL DEFAULT 0',
+               'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
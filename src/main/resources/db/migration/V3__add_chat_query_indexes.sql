@@ -0,0 +1,88 @@
+-- 레포지토리 조회 쿼리별 복합 인덱스
+--   chat_messages (chatroom_id, message_id)        : 메시지 목록/커서 페이지/안 읽은 메시지 카운트
+--   chat_members  (user_id, chatroom_id) UNIQUE     : findByUserIdAndChatroomId, 멤버 중복 방지
+--   chat_members  (user_id, is_deleted)             : findByUserIdAndIsDeletedFalse, 인박스 쿼리
+--   chat_members  (chatroom_id)                     : 메시지 저장 시 unread_count 증가 (WHERE chatroom_id = ?)
+--   chat_rooms    (ticket_id, buyer_id, created_at) : findFirstByTicketIdAndBuyerIdOrderByCreatedAtDesc
+-- 이미 같은 이름의 인덱스가 있으면 건너뜀 (ddl-auto: update 가 엔티티의 @Index 로 만들었을 수 있음)
+
+-- 1. 유니크 키를 걸기 전에 중복 멤버 정리
+--    가장 먼저 만들어진 행을 남기고, 읽음 위치는 가장 앞선 값 / 숨김 여부는 하나라도 보이면 보이도록 합침
+UPDATE chat_members keep_row
+    JOIN (SELECT user_id, chatroom_id,
+                 MIN(id)                               AS keep_id,
+                 MAX(COALESCE(last_read_message_id, 0)) AS max_read,
+                 MIN(is_deleted + 0)                    AS all_deleted
+          FROM chat_members
+          GROUP BY user_id, chatroom_id
+          HAVING COUNT(*) > 1) dup ON keep_row.id = dup.keep_id
+SET keep_row.last_read_message_id = dup.max_read,
+    keep_row.is_deleted           = dup.all_deleted;
+
+DELETE dup_row
+FROM chat_members dup_row
+         JOIN chat_members keep_row
+              ON keep_row.user_id = dup_row.user_id
+                  AND keep_row.chatroom_id = dup_row.chatroom_id
+                  AND keep_row.id < dup_row.id;
+
+-- 2. 인덱스 추가
+SET @ddl := IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'chat_messages' AND index_name = 'idx_chat_messages_room_message') = 0,
+               'CREATE INDEX idx_chat_messages_room_message ON chat_messages (chatroom_id, message_id)',
+               'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl := IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'chat_members' AND index_name = 'uk_chat_members_user_room') = 0,
+               'ALTER TABLE chat_members ADD CONSTRAINT uk_chat_members_user_room UNIQUE (user_id, chatroom_id)',
+               'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl := IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'chat_members' AND index_name = 'idx_chat_members_user_deleted') = 0,
+               'CREATE INDEX idx_chat_members_user_deleted ON chat_members (user_id, is_deleted)',
+               'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl := IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'chat_members' AND index_name = 'idx_chat_members_room') = 0,
+               'CREATE INDEX idx_chat_members_room ON chat_members (chatroom_id)',
+               'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl := IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'chat_rooms' AND index_name = 'idx_chat_rooms_ticket_buyer_created') = 0,
+               'CREATE INDEX idx_chat_rooms_ticket_buyer_created ON chat_rooms (ticket_id, buyer_id, created_at)',
+               'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 3. 기존 데이터 채우기 (인덱스가 생긴 뒤라 방별 MAX/COUNT 가 인덱스 범위 스캔으로 처리됨)
+--    최신 메시지 요약: 아직 비어 있는 방만
+UPDATE chat_rooms r
+    JOIN chat_messages m
+    ON m.message_id = (SELECT MAX(m2.message_id) FROM chat_messages m2 WHERE m2.chatroom_id = r.chatroom_id)
+SET r.last_message_id      = m.message_id,
+    r.last_message_preview = LEFT(m.content, 100),
+    r.last_message_type    = m.type,
+    r.last_message_at      = m.sent_at
+WHERE r.last_message_at IS NULL;
+
+--    안 읽은 메시지 수: 상대방이 보낸 TEXT 메시지 중 읽은 위치 이후 개수
+UPDATE chat_members cm
+SET cm.unread_count = (SELECT COUNT(*)
+                       FROM chat_messages m
+                       WHERE m.chatroom_id = cm.chatroom_id
+                         AND m.message_id > COALESCE(cm.last_read_message_id, 0)
+                         AND m.type = 'TEXT'
+                         AND m.sender_id <> cm.user_id);
@@ -0,0 +1,19 @@
+-- 방별 메시지 순번
+--   chat_rooms.last_seq : 마지막으로 부여한 순번 (메시지 저장 트랜잭션에서 +1)
+--   chat_messages.seq   : 방 안에서 1부터 빈틈 없이 증가, 재접속 시 빠진 구간 조회 (chatroom_id, seq) UNIQUE
+
+ALTER TABLE chat_rooms ADD COLUMN last_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE chat_messages ADD COLUMN seq BIGINT NULL;
+
+-- 기존 메시지는 messageId 순서대로 번호 부여
+UPDATE chat_messages m
+    JOIN (SELECT message_id,
+                 ROW_NUMBER() OVER (PARTITION BY chatroom_id ORDER BY message_id) AS rn
+          FROM chat_messages) numbered ON numbered.message_id = m.message_id
+SET m.seq = numbered.rn;
+
+UPDATE chat_rooms r
+SET r.last_seq = COALESCE((SELECT MAX(m.seq) FROM chat_messages m WHERE m.chatroom_id = r.chatroom_id), 0);
+
+ALTER TABLE chat_messages MODIFY seq BIGINT NOT NULL;
+CREATE UNIQUE INDEX uk_chat_messages_room_seq ON chat_messages (chatroom_id, seq);
@@ -0,0 +1,18 @@
+-- 채팅방 생성 중복 방지
+--   chat_rooms.active_key : (티켓, 구매자)의 열린 방 "ticketId:buyerId", UNIQUE (구매자가 방을 나가면 NULL)
+--   조회 후 INSERT 대신 유니크 키로 동시에 눌린 생성 요청 중 하나만 저장되게 함
+
+ALTER TABLE chat_rooms ADD COLUMN active_key VARCHAR(64) NULL;
+
+-- 기존 데이터: (티켓, 구매자)마다 가장 최근 방 중 구매자가 나가지 않은 방만 열린 방으로
+-- (이미 중복으로 만들어진 방은 예전 createRoom 과 같이 가장 최근 것을 사용)
+UPDATE chat_rooms r
+    JOIN (SELECT chatroom_id,
+                 ROW_NUMBER() OVER (PARTITION BY ticket_id, buyer_id ORDER BY created_at DESC, chatroom_id DESC) AS rn
+          FROM chat_rooms
+          WHERE ticket_id IS NOT NULL
+            AND buyer_id IS NOT NULL) latest ON latest.chatroom_id = r.chatroom_id AND latest.rn = 1
+    JOIN chat_members m ON m.chatroom_id = r.chatroom_id AND m.user_id = r.buyer_id AND m.is_deleted = 0
+SET r.active_key = CONCAT(r.ticket_id, ':', r.buyer_id);
+
+CREATE UNIQUE INDEX uk_chat_rooms_active_key ON chat_rooms (active_key);
@@ -0,0 +1,15 @@
+-- 한 사람에게만 보이는 시스템 메시지 (양도 요청/수락/거절 버튼 등)
+--   chat_messages.visible_to : metadata.visibleTarget(BUYER/SELLER)에 해당하는 사용자 ID, NULL 이면 방 전체
+--   메시지 목록 조회 시 (visible_to IS NULL OR visible_to = 보는 사람) 으로 거름 (chatroom_id 인덱스 범위 안에서 필터)
+
+ALTER TABLE chat_messages ADD COLUMN visible_to BIGINT NULL;
+
+-- 기존 시스템 메시지는 metadata 의 visibleTarget 으로 채움
+UPDATE chat_messages m
+    JOIN chat_rooms r ON r.chatroom_id = m.chatroom_id
+SET m.visible_to = CASE JSON_UNQUOTE(JSON_EXTRACT(m.metadata, '$.visibleTarget'))
+                       WHEN 'BUYER' THEN r.buyer_id
+                       WHEN 'SELLER' THEN r.seller_id
+                   END
+WHERE m.type <> 'TEXT'
+  AND m.metadata IS NOT NULL;
@@ -0,0 +1,14 @@
+-- 읽은 위치를 방 순번으로도 저장
+--   chat_members.last_read_seq : 마지막으로 읽은 메시지의 seq, 안 읽은 수 계산 (seq > last_read_seq) / 읽은 위치를 앞으로만 옮기는 비교에 사용
+--   message_id(Snowflake)는 파드마다 시계로 만들어서 시계가 어긋난 파드끼리는 같은 방에서도 순서가 뒤바뀔 수 있음
+--   last_read_message_id 는 읽음 표시(상대방에게 보내는 읽은 위치) 용도로 그대로 둠
+
+ALTER TABLE chat_members ADD COLUMN last_read_seq BIGINT NOT NULL DEFAULT 0;
+
+-- 기존 읽은 위치(message_id 이하를 읽음)와 같은 구간이 되도록 그 이하 메시지 중 가장 큰 순번으로 채움
+UPDATE chat_members cm
+SET cm.last_read_seq = COALESCE((SELECT MAX(m.seq)
+                                 FROM chat_messages m
+                                 WHERE m.chatroom_id = cm.chatroom_id
+                                   AND m.message_id <= cm.last_read_message_id), 0)
+WHERE cm.last_read_message_id > 0;
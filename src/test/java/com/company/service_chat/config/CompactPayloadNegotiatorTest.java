@@ -0,0 +1,157 @@
+package com.company.service_chat.config;
+
+import com.company.service_chat.dto.ReadReceiptRequest;
+import com.company.service_chat.service.ChatMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("STOMP payload 인코딩 협상 테스트")
+class CompactPayloadNegotiatorTest {
+
+    private static final String JSON = "{\"messageId\":231845470654529,\"seq\":12,\"senderId\":100,"
+            + "\"type\":\"SYSTEM_ACTION_MESSAGE\",\"content\":\"구매자가 티켓 양도를 신청했습니다.\","
+            + "\"sentAt\":\"2025-01-01T12:00:00\",\"metadata\":{\"actionType\":\"TICKET_REQUEST\",\"sellerId\":200,"
+            + "\"actions\":[{\"label\":\"양도 수락\",\"actionCode\":\"TRANSFER_ACCEPT\",\"isPrimary\":true}]}}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CompactPayloadNegotiator negotiator =
+            new CompactPayloadNegotiator(new ChatMetrics(meterRegistry), true, 16);
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    @Test
+    @DisplayName("CBOR 를 요청한 WebSocket 세션은 같은 내용의 CBOR 바이너리 프레임으로 받고, 변환은 payload 당 한 번")
+    void cborSessionReceivesCompactFrame() throws Exception {
+        // given
+        connect("s1", true, "application/cbor");
+        connect("s2", true, "application/cbor");
+        byte[] payload = JSON.getBytes(StandardCharsets.UTF_8);
+
+        // when: 같은 브로드캐스트가 두 구독자에게
+        Message<?> first = negotiator.preSend(message("s1", payload), channel);
+        Message<?> second = negotiator.preSend(message("s2", payload), channel);
+
+        // then
+        byte[] cbor = (byte[]) first.getPayload();
+        assertThat(cbor.length).isLessThan(payload.length);
+        assertThat(cborMapper.readTree(cbor)).isEqualTo(jsonMapper.readTree(payload));
+        assertThat(first.getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo(CompactPayloadNegotiator.CBOR_FRAME);
+        // 스프링은 application/octet-stream 호환일 때만 바이너리 프레임으로 보냄
+        assertThat(MimeTypeUtils.APPLICATION_OCTET_STREAM.isCompatibleWith(CompactPayloadNegotiator.CBOR_FRAME)).isTrue();
+        assertThat(SimpMessageHeaderAccessor.getSubscriptionId(first.getHeaders())).isEqualTo("sub-0");
+        assertThat(second.getPayload()).isSameAs(cbor);
+        assertThat(meterRegistry.get("chat.message.serialize").tag("stage", "cbor").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("요청하지 않은 세션, SockJS 세션, 연결이 끊긴 세션은 JSON 그대로")
+    void otherSessionsKeepJson() {
+        // given
+        connect("json", true, null);
+        connect("sockjs", false, "application/cbor");
+        connect("closed", true, "application/cbor");
+        negotiator.preSend(frame("closed", SimpMessageType.DISCONNECT, null, null), channel);
+        byte[] payload = JSON.getBytes(StandardCharsets.UTF_8);
+
+        // when & then
+        for (String sessionId : List.of("json", "sockjs", "closed")) {
+            Message<?> sent = negotiator.preSend(message(sessionId, payload), channel);
+            assertThat(sent.getPayload()).as(sessionId).isSameAs(payload);
+            assertThat(sent.getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+        }
+    }
+
+    @Test
+    @DisplayName("content-type 헤더가 잘못돼도 예외 없이 JSON 그대로")
+    void malformedContentTypeKeepsJson() {
+        // given
+        connect("malformed", true, "cbor");
+        connect("s1", true, "application/cbor");
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId("s1");
+        accessor.setHeader(MessageHeaders.CONTENT_TYPE, "json");
+        byte[] payload = JSON.getBytes(StandardCharsets.UTF_8);
+
+        // when
+        Message<?> malformedAccept = negotiator.preSend(message("malformed", payload), channel);
+        Message<?> malformedContentType = negotiator.preSend(
+                MessageBuilder.createMessage(payload, accessor.getMessageHeaders()), channel);
+
+        // then
+        assertThat(malformedAccept.getPayload()).isSameAs(payload);
+        assertThat(malformedContentType.getPayload()).isSameAs(payload);
+    }
+
+    @Test
+    @DisplayName("CBOR 컨버터는 content-type:application/cbor 인 SEND 프레임만 읽고, 나머지는 기본 JSON 컨버터")
+    void cborConverterOnlyForCborContentType() throws Exception {
+        // given
+        List<MessageConverter> converters = new ArrayList<>();
+        new WebSocketConfig(null, negotiator, null).configureMessageConverters(converters);
+        CompositeMessageConverter converter = new CompositeMessageConverter(converters);
+        ReadReceiptRequest receipt = new ReadReceiptRequest(1L, 100L, 231845470654529L);
+
+        // when
+        ReadReceiptRequest fromCbor = (ReadReceiptRequest) converter.fromMessage(
+                frame("s1", SimpMessageType.MESSAGE, CompactPayloadNegotiator.APPLICATION_CBOR,
+                        cborMapper.writeValueAsBytes(receipt)), ReadReceiptRequest.class);
+        Message<?> withoutContentType = converter.toMessage(receipt, null);
+
+        // then
+        assertThat(fromCbor.getLastReadMessageId()).isEqualTo(231845470654529L);
+        // content-type 이 없으면 CBOR 컨버터는 쓰지 않음 (뒤에 스프링이 붙이는 기본 JSON 컨버터가 처리)
+        assertThat(withoutContentType).isNull();
+    }
+
+    private void connect(String sessionId, boolean nativeWebSocket, String accept) {
+        Map<String, Object> attributes = new HashMap<>();
+        if (nativeWebSocket) {
+            negotiator.beforeHandshake(null, null, null, attributes);
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        accessor.setSessionId(sessionId);
+        accessor.setSessionAttributes(attributes);
+        if (accept != null) {
+            accessor.setNativeHeader(CompactPayloadNegotiator.ACCEPT_HEADER, accept);
+        }
+        negotiator.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), channel);
+    }
+
+    private Message<byte[]> message(String sessionId, byte[] payload) {
+        return frame(sessionId, SimpMessageType.MESSAGE, MimeTypeUtils.APPLICATION_JSON, payload);
+    }
+
+    private Message<byte[]> frame(String sessionId, SimpMessageType type, MimeType contentType, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination("/topic/chatrooms/1");
+        if (contentType != null) {
+            accessor.setContentType(contentType);
+        }
+        return MessageBuilder.createMessage(payload != null ? payload : new byte[0], accessor.getMessageHeaders());
+    }
+}
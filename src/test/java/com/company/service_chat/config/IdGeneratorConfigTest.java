@@ -0,0 +1,96 @@
+package com.company.service_chat.config;
+
+import com.company.service_chat.entity.id.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Snowflake 노드 번호 임대 테스트")
+class IdGeneratorConfigTest {
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<StringRedisTemplate> provider = mock(ObjectProvider.class);
+
+    @BeforeEach
+    void setUp() {
+        when(redis.opsForValue()).thenReturn(values);
+        when(provider.getIfAvailable()).thenReturn(redis);
+    }
+
+    @Test
+    @DisplayName("다른 파드가 임대한 번호는 건너뛰고 비어 있는 번호를 임대")
+    void leasesFreeNodeId() {
+        // given: 7번만 비어 있음
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0).equals(IdGeneratorConfig.NODE_KEY_PREFIX + 7));
+
+        // when
+        IdGeneratorConfig config = new IdGeneratorConfig("", 30, provider);
+
+        // then
+        assertThat(config.getLeasedNodeId()).isEqualTo(7L);
+        assertThat(SnowflakeIdGenerator.getInstance().getNodeId()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("비어 있는 번호가 없으면 시작 실패")
+    void failsWhenAllNodeIdsAreTaken() {
+        // given
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        // when & then
+        assertThatThrownBy(() -> new IdGeneratorConfig("", 30, provider))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("사용할 수 있는 Snowflake 노드 번호가 없습니다");
+        verify(values, times(SnowflakeIdGenerator.MAX_NODE_ID + 1)).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("연장하려는데 다른 파드가 가져갔으면 새 번호로 바꿈")
+    @SuppressWarnings("unchecked")
+    void reLeasesWhenLeaseWasTaken() {
+        // given: 처음에는 3번, 연장 실패 후에는 12번만 비어 있음
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0).equals(IdGeneratorConfig.NODE_KEY_PREFIX + 3));
+        IdGeneratorConfig config = new IdGeneratorConfig("", 30, provider);
+        when(redis.execute(any(RedisScript.class), eq(List.of(IdGeneratorConfig.NODE_KEY_PREFIX + 3)), any(Object[].class)))
+                .thenReturn(0L);
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0).equals(IdGeneratorConfig.NODE_KEY_PREFIX + 12));
+
+        // when
+        config.renewLease();
+
+        // then
+        assertThat(config.getLeasedNodeId()).isEqualTo(12L);
+        assertThat(SnowflakeIdGenerator.getInstance().getNodeId()).isEqualTo(12L);
+    }
+
+    @Test
+    @DisplayName("chat.node-id 로 지정하면 Redis 를 쓰지 않음")
+    void configuredNodeIdSkipsRedis() {
+        // when
+        IdGeneratorConfig config = new IdGeneratorConfig("9", 30, provider);
+        config.renewLease();
+        config.releaseLease();
+
+        // then
+        assertThat(config.getLeasedNodeId()).isNull();
+        assertThat(SnowflakeIdGenerator.getInstance().getNodeId()).isEqualTo(9L);
+        verifyNoInteractions(redis);
+    }
+}
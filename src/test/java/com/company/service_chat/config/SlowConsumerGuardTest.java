@@ -0,0 +1,102 @@
+package com.company.service_chat.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("느린 구독자 처리 정책 테스트")
+class SlowConsumerGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MessageChannel outboundChannel = mock(MessageChannel.class);
+
+    @Test
+    @DisplayName("drop: 소켓 쓰기가 기준 시간 이상 막힌 세션으로 가는 MESSAGE 프레임은 버림")
+    void dropPolicySkipsStalledSession() throws Exception {
+        // given
+        SlowConsumerGuard guard = new SlowConsumerGuard(meterRegistry, SlowConsumerGuard.POLICY_DROP, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        WebSocketSession raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn("s1");
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS); // 받지 못하는 브라우저
+            return null;
+        }).when(raw).sendMessage(any());
+
+        AtomicReference<WebSocketSession> decorated = new AtomicReference<>();
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+        doAnswer(invocation -> {
+            decorated.set(invocation.getArgument(0));
+            return null;
+        }).when(handler).afterConnectionEstablished(any());
+        guard.decorate(handler).afterConnectionEstablished(raw);
+
+        // 첫 프레임 전송이 막힘
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        writer.submit(() -> {
+            decorated.get().sendMessage(new TextMessage("first"));
+            return null;
+        });
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when: 막힌 지 기준 시간(50ms)이 지나기 전 / 지난 후
+        Message<?> beforeThreshold = guard.preSend(frame("s1", SimpMessageType.MESSAGE), outboundChannel);
+        Thread.sleep(100);
+        Message<?> afterThreshold = guard.preSend(frame("s1", SimpMessageType.MESSAGE), outboundChannel);
+        Message<?> heartbeat = guard.preSend(frame("s1", SimpMessageType.HEARTBEAT), outboundChannel);
+        Message<?> otherSession = guard.preSend(frame("s2", SimpMessageType.MESSAGE), outboundChannel);
+
+        // then
+        assertThat(beforeThreshold).isNotNull();
+        assertThat(afterThreshold).isNull();
+        assertThat(heartbeat).isNotNull();
+        assertThat(otherSession).isNotNull();
+        assertThat(meterRegistry.get("chat.websocket.slow_consumer.dropped").counter().count()).isEqualTo(1);
+
+        // 다시 받기 시작하면 정상 전달
+        release.countDown();
+        writer.shutdown();
+        assertThat(writer.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(guard.preSend(frame("s1", SimpMessageType.MESSAGE), outboundChannel)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("disconnect: 세션을 감싸지 않고 프레임도 그대로 전달 (스프링 전송 제한으로 세션 종료)")
+    void disconnectPolicyLeavesSessionsAlone() {
+        SlowConsumerGuard guard = new SlowConsumerGuard(meterRegistry, SlowConsumerGuard.POLICY_DISCONNECT, 50);
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+
+        assertThat(guard.decorate(handler)).isSameAs(handler);
+        assertThat(guard.preSend(frame("s1", SimpMessageType.MESSAGE), outboundChannel)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("알 수 없는 정책이면 시작 시 예외")
+    void rejectsUnknownPolicy() {
+        assertThatThrownBy(() -> new SlowConsumerGuard(meterRegistry, "block", 50))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Message<byte[]> frame(String sessionId, SimpMessageType type) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
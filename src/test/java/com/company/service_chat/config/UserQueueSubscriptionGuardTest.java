@@ -0,0 +1,89 @@
+package com.company.service_chat.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("사용자 큐 구독 확인 테스트")
+class UserQueueSubscriptionGuardTest {
+
+    private final UserQueueSubscriptionGuard guard = new UserQueueSubscriptionGuard();
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Test
+    @DisplayName("CONNECT 때 보낸 user-id 와 같은 사용자의 큐만 구독 가능")
+    void allowsOwnQueue() {
+        // given
+        Map<String, Object> session = connect("100");
+
+        // when & then
+        assertThat(guard.preSend(subscribe(session, "/queue/users/100/chatrooms/1"), channel)).isNotNull();
+        assertThat(guard.preSend(subscribe(session, "/queue/users/100"), channel)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("다른 사용자의 큐 구독은 거부")
+    void rejectsOtherUsersQueue() {
+        // given
+        Map<String, Object> session = connect("100");
+
+        // when & then
+        assertThatThrownBy(() -> guard.preSend(subscribe(session, "/queue/users/200/chatrooms/1"), channel))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("다른 사용자의 큐는 구독할 수 없습니다");
+        // 앞자리만 같은 ID 도 거부
+        assertThatThrownBy(() -> guard.preSend(subscribe(session, "/queue/users/1000"), channel))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("CONNECT 때 user-id 를 보내지 않았으면 사용자 큐 구독은 거부하고 방 토픽은 그대로")
+    void rejectsUserQueueWithoutUser() {
+        // given
+        Map<String, Object> session = connect(null);
+
+        // when & then
+        assertThatThrownBy(() -> guard.preSend(subscribe(session, "/queue/users/100"), channel))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(guard.preSend(subscribe(session, "/topic/chatrooms/1"), channel)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("user-id 헤더가 숫자가 아니면 연결 거부")
+    void rejectsMalformedUserId() {
+        assertThatThrownBy(() -> connect("abc"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("user-id 헤더가 올바르지 않습니다");
+    }
+
+    private Map<String, Object> connect(String userId) {
+        Map<String, Object> attributes = new HashMap<>();
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        accessor.setSessionId("s1");
+        accessor.setSessionAttributes(attributes);
+        if (userId != null) {
+            accessor.setNativeHeader(UserQueueSubscriptionGuard.USER_ID_HEADER, userId);
+        }
+        guard.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), channel);
+        return attributes;
+    }
+
+    private Message<byte[]> subscribe(Map<String, Object> session, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId("s1");
+        accessor.setSessionAttributes(session);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
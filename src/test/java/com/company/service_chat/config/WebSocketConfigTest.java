@@ -0,0 +1,42 @@
+package com.company.service_chat.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+@DisplayName("STOMP 채널 executor 설정 테스트")
+class WebSocketConfigTest {
+
+    @Test
+    @DisplayName("가상 스레드 모드가 아니면 채널 스레드 풀을 그대로 사용")
+    void keepsThreadPoolByDefault() {
+        // given
+        BeanPostProcessor processor = WebSocketConfig.virtualChannelExecutors(false);
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+
+        // when & then
+        assertThat(processor.postProcessBeforeInitialization(pool, "clientInboundChannelExecutor")).isSameAs(pool);
+    }
+
+    @Test
+    @DisplayName("가상 스레드 모드는 수신/발신 채널 executor 만 풀 없는 VirtualThreadTaskExecutor 로 교체")
+    void replacesChannelExecutorsWithVirtualThreads() {
+        assumeTrue(Runtime.version().feature() >= 21, "가상 스레드는 Java 21 이상");
+
+        // given
+        BeanPostProcessor processor = WebSocketConfig.virtualChannelExecutors(true);
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+
+        // when & then
+        assertThat(processor.postProcessBeforeInitialization(pool, "clientInboundChannelExecutor"))
+                .isInstanceOf(VirtualThreadTaskExecutor.class);
+        assertThat(processor.postProcessBeforeInitialization(pool, "clientOutboundChannelExecutor"))
+                .isInstanceOf(VirtualThreadTaskExecutor.class);
+        assertThat(processor.postProcessBeforeInitialization(pool, "brokerChannelExecutor")).isSameAs(pool);
+    }
+}
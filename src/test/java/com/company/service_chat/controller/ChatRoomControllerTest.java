@@ -133,7 +133,7 @@ class ChatRoomControllerTest {
 
         List<ChatMessageResponse> messages = Arrays.asList(message1, message2);
 
-        when(chatService.getMessagesByChatroomId(chatroomId)).thenReturn(messages);
+        when(chatService.getMessagesByChatroomId(chatroomId, null)).thenReturn(messages);
 
         // when & then
         mockMvc.perform(get("/chat/rooms/{chatroomId}/messages", chatroomId))
@@ -143,7 +143,69 @@ class ChatRoomControllerTest {
                 .andExpect(jsonPath("$.data[0].content").value("첫 번째 메시지"))
                 .andExpect(jsonPath("$.data[1].content").value("두 번째 메시지"));
 
-        verify(chatService, times(1)).getMessagesByChatroomId(chatroomId);
+        verify(chatService, times(1)).getMessagesByChatroomId(chatroomId, null);
+    }
+
+    @Test
+    @DisplayName("메시지 커서 페이지 조회 API 성공")
+    void getChatMessages_WithCursor_Success() throws Exception {
+        // given
+        Long chatroomId = 1L;
+        ChatMessageResponse message = ChatMessageResponse.builder()
+                .messageId(99L)
+                .senderId(100L)
+                .type("TEXT")
+                .content("이전 메시지")
+                .sentAt(LocalDateTime.now())
+                .build();
+
+        when(chatService.getMessages(chatroomId, 100L, null, 30, null)).thenReturn(List.of(message));
+
+        // when & then
+        mockMvc.perform(get("/chat/rooms/{chatroomId}/messages", chatroomId)
+                        .param("before", "100")
+                        .param("size", "30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].messageId").value(99));
+
+        verify(chatService, times(1)).getMessages(chatroomId, 100L, null, 30, null);
+        verify(chatService, never()).getMessagesByChatroomId(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("순번 이후 메시지 조회 API 성공")
+    void resumeChatMessages_Success() throws Exception {
+        // given
+        Long chatroomId = 1L;
+        ChatMessageResumeResponse response = ChatMessageResumeResponse.builder()
+                .chatroomId(chatroomId)
+                .lastSeq(12L)
+                .hasMore(false)
+                .messages(List.of(ChatMessageResponse.builder()
+                        .messageId(501L)
+                        .seq(12L)
+                        .senderId(100L)
+                        .type("TEXT")
+                        .content("놓친 메시지")
+                        .sentAt(LocalDateTime.now())
+                        .build()))
+                .build();
+
+        when(chatService.resumeMessages(chatroomId, 11L, null, 100L)).thenReturn(response);
+
+        // when & then
+        mockMvc.perform(get("/chat/rooms/{chatroomId}/messages/resume", chatroomId)
+                        .param("afterSeq", "11")
+                        .param("userId", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.lastSeq").value(12))
+                .andExpect(jsonPath("$.data.hasMore").value(false))
+                .andExpect(jsonPath("$.data.messages[0].seq").value(12));
+
+        verify(chatService, times(1)).resumeMessages(chatroomId, 11L, null, 100L);
     }
 
     @Test
@@ -185,6 +247,27 @@ class ChatRoomControllerTest {
     }
 
     @Test
+    @DisplayName("여러 방 읽음 처리 API 성공")
+    void markRoomsAsRead_Success() throws Exception {
+        // given
+        Long userId = 100L;
+        String requestJson = "[{\"chatroomId\":1,\"lastReadMessageId\":33},{\"chatroomId\":2}]";
+
+        // when & then
+        mockMvc.perform(post("/chat/rooms/read")
+                        .param("userId", userId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+
+        verify(chatService, times(1)).submitReadReceipts(eq(userId), argThat(receipts ->
+                receipts.size() == 2
+                        && receipts.get(0).getLastReadMessageId() == 33L
+                        && receipts.get(1).getLastReadMessageId() == null));
+    }
+
+        @Test
     @DisplayName("채팅방 삭제 API 성공")
     void deleteChatRoom_Success() throws Exception {
         // given
@@ -0,0 +1,104 @@
+package com.company.service_chat.dto;
+
+import com.company.service_chat.dto.SystemActionMetadata.ActionType;
+import com.company.service_chat.dto.SystemActionMetadata.VisibleTarget;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("시스템 메시지 템플릿 테스트")
+class SystemMessageTemplateTest {
+
+    private static final Long BUYER_ID = 1_234_567_890_123L;
+    private static final Long SELLER_ID = 42L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("템플릿 결과가 SystemActionMetadata를 직렬화한 JSON과 같음")
+    void rendersSameJsonAsTypedMetadata() throws Exception {
+        // given: 템플릿 도입 전에 핸들러에서 만들던 metadata
+        Map<SystemMessageTemplate, SystemActionMetadata> expected = Map.of(
+                SystemMessageTemplate.REQUEST_TRANSFER_INTRO, SystemActionMetadata.builder()
+                        .actionType(ActionType.REQUEST_TRANSFER_INTRO)
+                        .buyerId(BUYER_ID)
+                        .sellerId(SELLER_ID)
+                        .visibleTarget(VisibleTarget.BUYER)
+                        .action(action("양도 요청하기", "TRANSFER_REQUEST", true))
+                        .build(),
+                SystemMessageTemplate.TRANSFER_INTRO_SELLER, SystemActionMetadata.builder()
+                        .actionType(ActionType.TRANSFER_INTRO_SELLER)
+                        .buyerId(BUYER_ID)
+                        .sellerId(SELLER_ID)
+                        .visibleTarget(VisibleTarget.SELLER)
+                        .build(),
+                SystemMessageTemplate.TICKET_REQUEST, SystemActionMetadata.builder()
+                        .actionType(ActionType.TICKET_REQUEST)
+                        .sellerId(SELLER_ID)
+                        .visibleTarget(VisibleTarget.SELLER)
+                        .action(action("양도 수락", "TRANSFER_ACCEPT", true))
+                        .action(action("양도 거절", "TRANSFER_REJECT", false))
+                        .build(),
+                SystemMessageTemplate.PAYMENT_REQUEST, SystemActionMetadata.builder()
+                        .actionType(ActionType.PAYMENT_REQUEST)
+                        .buyerId(BUYER_ID)
+                        .visibleTarget(VisibleTarget.BUYER)
+                        .action(action("결제하기", "START_PAYMENT", true))
+                        .build(),
+                SystemMessageTemplate.TICKET_REJECT, SystemActionMetadata.builder()
+                        .actionType(ActionType.TICKET_REJECT)
+                        .reason("판매자 거절")
+                        .visibleTarget(VisibleTarget.BUYER)
+                        .buyerId(BUYER_ID)
+                        .build()
+        );
+
+        // when & then
+        assertThat(expected).hasSize(SystemMessageTemplate.values().length);
+        for (Map.Entry<SystemMessageTemplate, SystemActionMetadata> entry : expected.entrySet()) {
+            String rendered = entry.getKey().render(BUYER_ID, SELLER_ID).json();
+            assertThat(rendered).as(entry.getKey().name())
+                    .isEqualTo(objectMapper.writeValueAsString(entry.getValue()));
+        }
+    }
+
+    @Test
+    @DisplayName("visibleTarget에 해당하는 사용자가 메시지를 볼 사람으로 정해짐")
+    void resolvesVisibleTo() {
+        assertThat(SystemMessageTemplate.TICKET_REQUEST.render(BUYER_ID, SELLER_ID).visibleTo()).isEqualTo(SELLER_ID);
+        assertThat(SystemMessageTemplate.TRANSFER_INTRO_SELLER.render(BUYER_ID, SELLER_ID).visibleTo()).isEqualTo(SELLER_ID);
+        assertThat(SystemMessageTemplate.REQUEST_TRANSFER_INTRO.render(BUYER_ID, SELLER_ID).visibleTo()).isEqualTo(BUYER_ID);
+        assertThat(SystemMessageTemplate.PAYMENT_REQUEST.render(BUYER_ID, SELLER_ID).visibleTo()).isEqualTo(BUYER_ID);
+        assertThat(SystemMessageTemplate.TICKET_REJECT.render(BUYER_ID, SELLER_ID).visibleTo()).isEqualTo(BUYER_ID);
+    }
+
+    @Test
+    @DisplayName("actionType으로 템플릿 조회, 저장용 DTO에 문구와 메시지 타입 포함")
+    void lookupByActionTypeAndDto() {
+        // when
+        ChatMessageDto dto = SystemMessageTemplate.of(ActionType.PAYMENT_REQUEST).toDto(10L, SELLER_ID, BUYER_ID, SELLER_ID);
+
+        // then
+        assertThat(dto.getChatroomId()).isEqualTo(10L);
+        assertThat(dto.getSenderId()).isEqualTo(SELLER_ID);
+        assertThat(dto.getType()).isEqualTo(ChatMessageDto.MessageType.SYSTEM_ACTION_MESSAGE);
+        assertThat(dto.getContent()).contains("양도가 수락되었습니다");
+        assertThat(dto.getMetadata()).isInstanceOf(SystemMessageTemplate.RenderedMetadata.class);
+        assertThat(((SystemMessageTemplate.RenderedMetadata) dto.getMetadata()).visibleTo()).isEqualTo(BUYER_ID);
+        for (ActionType actionType : ActionType.values()) {
+            assertThat(SystemMessageTemplate.of(actionType).getActionType()).isEqualTo(actionType);
+        }
+    }
+
+    private static SystemActionMetadata.Action action(String label, String actionCode, boolean primary) {
+        return SystemActionMetadata.Action.builder()
+                .label(label)
+                .actionCode(actionCode)
+                .primary(primary)
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.company.service_chat.entity.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("SnowflakeIdGenerator 단위 테스트")
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    @DisplayName("한 스레드 안에서는 항상 증가하고 JavaScript 안전 정수 범위 안")
+    void idsIncreaseAndFitInJavaScriptNumber() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5);
+
+        long previous = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous).isLessThanOrEqualTo(9_007_199_254_740_991L); // 2^53 - 1
+            previous = id;
+        }
+    }
+
+    @Test
+    @DisplayName("여러 스레드, 여러 노드에서 동시에 만들어도 중복 없음")
+    void idsAreUniqueAcrossThreadsAndNodes() throws Exception {
+        List<SnowflakeIdGenerator> nodes = List.of(new SnowflakeIdGenerator(1), new SnowflakeIdGenerator(2));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++) {
+            SnowflakeIdGenerator generator = nodes.get(t % 2);
+            futures.add(executor.submit(() -> {
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < 5_000; i++) {
+                    ids.add(generator.nextId());
+                }
+                return ids;
+            }));
+        }
+
+        Set<Long> all = new HashSet<>();
+        for (Future<List<Long>> future : futures) {
+            List<Long> ids = future.get(30, TimeUnit.SECONDS);
+            assertThat(ids).isSorted();
+            all.addAll(ids);
+        }
+        executor.shutdown();
+        assertThat(all).hasSize(8 * 5_000);
+    }
+
+    @Test
+    @DisplayName("노드 번호 범위를 벗어나면 예외")
+    void rejectsInvalidNodeId() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,186 @@
+package com.company.service_chat.repository;
+
+import com.company.service_chat.config.IdGeneratorConfig;
+import com.company.service_chat.dto.ChatRoomResponse;
+import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.ChatRoom;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 채팅 목록(인박스) 조회 벤치마크.
+ * 사용자가 참여한 방 개수를 늘려가면서 기존 N+1 방식과 인박스 전용 쿼리의
+ * 실행된 SQL 수와 p99 응답 시간을 비교해서 출력한다.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(IdGeneratorConfig.class) // 엔티티 ID(Snowflake) 노드 번호 설정
+@ActiveProfiles("test")
+@DisplayName("채팅 목록 조회 쿼리 수 / 지연시간 벤치마크")
+class InboxQueryBenchmarkTest {
+
+    private static final int[] ROOM_COUNTS = {10, 50, 200};
+    private static final int MESSAGES_PER_ROOM = 5;
+    private static final int ITERATIONS = 30;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ChatMemberRepository chatMemberRepository;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    private Statistics statistics;
+    private long nextUserId = 1_000L;
+
+    @BeforeEach
+    void setUp() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("방 개수가 늘어나도 인박스 조회 쿼리 수는 1개로 고정")
+    void inboxQueryCountStaysConstant() {
+        System.out.printf("%-6s | %-14s | %-12s | %-14s | %-12s%n",
+                "rooms", "legacy queries", "legacy p99", "inbox queries", "inbox p99");
+
+        for (int roomCount : ROOM_COUNTS) {
+            Long userId = seedUser(roomCount);
+
+            Measurement legacy = measure(() -> legacyInbox(userId));
+            Measurement inbox = measure(() ->
+                    chatMemberRepository.findInboxByUserId(userId));
+
+            System.out.printf("%-6d | %-14d | %9.3f ms | %-14d | %9.3f ms%n",
+                    roomCount, legacy.queries, legacy.p99Millis, inbox.queries, inbox.p99Millis);
+
+            // 결과는 기존 방식과 동일해야 함
+            assertThat(toComparable(inbox.result)).isEqualTo(toComparable(legacy.result));
+            assertThat(inbox.result).hasSize(roomCount);
+
+            // 기존 방식: 멤버 1 + 방 1 + 방마다 (최신 메시지 1 + 카운트 1)
+            assertThat(legacy.queries).isEqualTo(2 + 2L * roomCount);
+            // 인박스 쿼리: 방 개수와 무관하게 1개
+            assertThat(inbox.queries).isEqualTo(1);
+        }
+    }
+
+    // --- 기존 getChatRoomsByUserId 구현 (N+1) ---
+    private List<ChatRoomResponse> legacyInbox(Long userId) {
+        List<ChatMember> members = chatMemberRepository.findByUserIdAndIsDeletedFalse(userId);
+        Map<Long, ChatMember> memberMap = new HashMap<>();
+        for (ChatMember member : members) {
+            memberMap.put(member.getChatroomId(), member);
+        }
+
+        List<ChatRoomResponse> responses = new ArrayList<>();
+        for (ChatRoom room : chatRoomRepository.findAllById(memberMap.keySet())) {
+            ChatMessage lastMessage = chatMessageRepository.findTopByChatroomIdOrderBySeqDesc(room.getChatroomId());
+            int unreadCount = chatMessageRepository.countByChatroomIdAndSeqGreaterThanAndType(
+                    room.getChatroomId(),
+                    memberMap.get(room.getChatroomId()).getLastReadSeq(),
+                    ChatMessage.MessageType.TEXT);
+
+            responses.add(ChatRoomResponse.builder()
+                    .chatroomId(room.getChatroomId())
+                    .ticketId(room.getTicketId())
+                    .createdAt(room.getCreatedAt())
+                    .roomStatus(room.getRoomStatus().name())
+                    .lastMessageContent(lastMessage != null ? lastMessage.getContent() : null)
+                    .lastMessageType(lastMessage != null ? lastMessage.getType().name() : null)
+                    .lastMessageTime(lastMessage != null ? lastMessage.getSentAt() : null)
+                    .unreadCount(unreadCount)
+                    .build());
+        }
+        return responses;
+    }
+
+    private Measurement measure(Supplier<List<ChatRoomResponse>> inboxQuery) {
+        // 워밍업 + 쿼리 수 측정
+        em.clear();
+        statistics.clear();
+        List<ChatRoomResponse> result = inboxQuery.get();
+        long queries = statistics.getPrepareStatementCount();
+
+        long[] elapsed = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            em.clear();
+            long start = System.nanoTime();
+            inboxQuery.get();
+            elapsed[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(elapsed);
+        int p99Index = (int) Math.ceil(ITERATIONS * 0.99) - 1;
+        return new Measurement(result, queries, elapsed[p99Index] / 1_000_000.0);
+    }
+
+    private Long seedUser(int roomCount) {
+        Long userId = nextUserId++;
+        Long otherUserId = nextUserId++;
+
+        for (int i = 0; i < roomCount; i++) {
+            ChatRoom room = ChatRoom.builder()
+                    .ticketId((long) i)
+                    .buyerId(userId)
+                    .sellerId(otherUserId)
+                    .build();
+            em.persist(room);
+
+            ChatMember member = new ChatMember(userId, room.getChatroomId());
+            em.persist(member);
+            em.persist(new ChatMember(otherUserId, room.getChatroomId()));
+
+            for (int j = 0; j < MESSAGES_PER_ROOM; j++) {
+                ChatMessage message = ChatMessage.builder()
+                        .chatroomId(room.getChatroomId())
+                        .senderId(otherUserId)
+                        .type(ChatMessage.MessageType.TEXT)
+                        .content("message-" + i + "-" + j)
+                        .seq((long) j + 1)
+                        .build();
+                em.persist(message);
+                chatRoomRepository.updateLastMessage(room.getChatroomId(), message.getMessageId(), message.getSeq(),
+                        message.getContent(), message.getType(), message.getSentAt());
+                // 방마다 앞의 두 개까지만 읽은 상태로 만들어 둠
+                if (j == 1) {
+                    em.flush();
+                    member.updateLastRead(message.getMessageId(), message.getSeq());
+                }
+            }
+        }
+        em.flush();
+        // 직접 넣은 데이터라 unreadCount 카운터는 보정 쿼리로 맞춰 둠
+        chatMemberRepository.reconcileUnreadCounts(1L, chatMemberRepository.findMaxId(), ChatMessage.MessageType.TEXT);
+        em.clear();
+        return userId;
+    }
+
+    private List<String> toComparable(List<ChatRoomResponse> responses) {
+        return responses.stream()
+                .map(r -> r.getChatroomId() + "|" + r.getRoomStatus() + "|" + r.getLastMessageContent()
+                        + "|" + r.getLastMessageType() + "|" + r.getUnreadCount())
+                .sorted()
+                .toList();
+    }
+
+    private record Measurement(List<ChatRoomResponse> result, long queries, double p99Millis) {
+    }
+}
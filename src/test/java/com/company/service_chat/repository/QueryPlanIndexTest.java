@@ -0,0 +1,104 @@
+package com.company.service_chat.repository;
+
+import com.company.service_chat.config.IdGeneratorConfig;
+import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.ChatRoom;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 레포지토리 조회 쿼리가 각자의 복합 인덱스를 타는지 H2 EXPLAIN 결과로 확인.
+ * SQL은 Spring Data가 만드는 쿼리와 같은 WHERE / ORDER BY 형태로 작성.
+ */
+@DataJpaTest
+@Import(IdGeneratorConfig.class) // 엔티티 ID(Snowflake) 노드 번호 설정
+@ActiveProfiles("test")
+@DisplayName("조회 쿼리 실행 계획 인덱스 사용 테스트")
+class QueryPlanIndexTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        // 통계가 있어야 옵티마이저가 테이블 스캔 대신 인덱스를 고르므로 데이터를 조금 넣고 ANALYZE
+        for (long i = 1; i <= 20; i++) {
+            ChatRoom room = ChatRoom.builder().ticketId(i).buyerId(100L + i).sellerId(200L).build();
+            em.persist(room);
+            em.persist(new ChatMember(100L + i, room.getChatroomId()));
+            em.persist(new ChatMember(200L, room.getChatroomId()));
+            for (int j = 0; j < 20; j++) {
+                em.persist(ChatMessage.builder()
+                        .chatroomId(room.getChatroomId())
+                        .senderId(200L)
+                        .type(ChatMessage.MessageType.TEXT)
+                        .content("message-" + j)
+                        .build());
+            }
+        }
+        em.flush();
+        em.createNativeQuery("ANALYZE").executeUpdate();
+    }
+
+    @Test
+    @DisplayName("findByChatroomIdOrderBySeqAsc / 커서 페이지 / 순번 따라잡기 -> (chatroom_id, seq)")
+    void messagesByRoomUseRoomSeqIndex() {
+        assertThat(explain("SELECT * FROM chat_messages WHERE chatroom_id = 1 ORDER BY seq"))
+                .contains("UK_CHAT_MESSAGES_ROOM_SEQ");
+        assertThat(explain("SELECT * FROM chat_messages WHERE chatroom_id = 1 AND seq < 10 ORDER BY seq DESC LIMIT 50"))
+                .contains("UK_CHAT_MESSAGES_ROOM_SEQ");
+        assertThat(explain("SELECT * FROM chat_messages WHERE chatroom_id = 1 AND seq > 10 ORDER BY seq LIMIT 100"))
+                .contains("UK_CHAT_MESSAGES_ROOM_SEQ");
+    }
+
+    @Test
+    @DisplayName("커서 messageId -> 순번 (findSeqByChatroomIdAndMessageId) -> 기본 키")
+    void cursorSeqUsesPrimaryKey() {
+        assertThat(explain("SELECT seq FROM chat_messages WHERE chatroom_id = 1 AND message_id = 10"))
+                .contains("PRIMARY_KEY");
+    }
+
+    @Test
+    @DisplayName("findByUserIdAndChatroomId -> (user_id, chatroom_id) 유니크 키")
+    void memberByUserAndRoomUsesUniqueKey() {
+        assertThat(explain("SELECT * FROM chat_members WHERE user_id = 101 AND chatroom_id = 1"))
+                .contains("UK_CHAT_MEMBERS_USER_ROOM");
+    }
+
+    @Test
+    @DisplayName("findByUserIdAndIsDeletedFalse -> (user_id, is_deleted)")
+    void activeMembershipsUseUserDeletedIndex() {
+        assertThat(explain("SELECT * FROM chat_members WHERE user_id = 200 AND is_deleted = FALSE"))
+                .contains("IDX_CHAT_MEMBERS_USER_DELETED");
+    }
+
+    @Test
+    @DisplayName("unread_count 증가 (chatroom_id = ?) -> (chatroom_id)")
+    void membersByRoomUseRoomIndex() {
+        assertThat(explain("SELECT * FROM chat_members WHERE chatroom_id = 1 AND user_id <> 200"))
+                .contains("IDX_CHAT_MEMBERS_ROOM");
+    }
+
+    @Test
+    @DisplayName("findFirstByTicketIdAndBuyerIdOrderByCreatedAtDesc -> (ticket_id, buyer_id, created_at)")
+    void existingRoomLookupUsesTicketBuyerIndex() {
+        assertThat(explain("SELECT * FROM chat_rooms WHERE ticket_id = 1 AND buyer_id = 101 ORDER BY created_at DESC LIMIT 1"))
+                .contains("IDX_CHAT_ROOMS_TICKET_BUYER_CREATED");
+    }
+
+    private String explain(String sql) {
+        String plan = String.valueOf(em.createNativeQuery("EXPLAIN " + sql).getSingleResult());
+        // 인덱스를 못 타면 H2는 /* PUBLIC.CHAT_XXX.tableScan */ 으로 표시
+        assertThat(plan).as(plan).doesNotContain("tableScan");
+        return plan;
+    }
+}
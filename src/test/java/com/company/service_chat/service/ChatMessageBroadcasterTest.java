@@ -0,0 +1,192 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.dto.ChatMessageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ChatMessageBroadcaster 멀티 노드 테스트 (Redis pub/sub 대역 사용)")
+class ChatMessageBroadcasterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private InMemoryPubSub redis;
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeEach
+    void setUp() {
+        redis = new InMemoryPubSub();
+        nodeA = new Node(redis, objectMapper);
+        nodeB = new Node(redis, objectMapper);
+    }
+
+    @Test
+    @DisplayName("A 노드에서 보낸 메시지가 A, B 노드의 로컬 구독자에게 각각 한 번씩 전달")
+    void broadcastReachesEveryNodeExactlyOnce() throws Exception {
+        // given
+        ChatMessageResponse response = ChatMessageResponse.builder()
+                .messageId(10L)
+                .senderId(100L)
+                .type("TEXT")
+                .content("안녕하세요")
+                .sentAt(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+        String expectedJson = objectMapper.writeValueAsString(response);
+
+        // when
+        nodeA.broadcaster.broadcastToRoom(1L, response);
+
+        // then
+        for (Node node : List.of(nodeA, nodeB)) {
+            verify(node.messagingTemplate, times(1)).send(eq("/topic/chatrooms/1"), argThat((Message<?> message) ->
+                    expectedJson.equals(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8))
+                            && MimeTypeUtils.APPLICATION_JSON.equals(message.getHeaders().get(MessageHeaders.CONTENT_TYPE))));
+            // 발행한 노드도 Redis를 거쳐서만 받으므로 로컬 직접 전송은 없어야 함 (중복 방지)
+            verify(node.messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+        }
+        assertThat(redis.published).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Redis 발행 실패 시 발행한 노드의 로컬 구독자에게만 전달")
+    void fallsBackToLocalBrokerWhenRedisFails() {
+        // given
+        redis.failing = true;
+        ChatMessageResponse response = ChatMessageResponse.builder().messageId(1L).type("TEXT").build();
+
+        // when
+        nodeA.broadcaster.broadcastToRoom(1L, response);
+
+        // then
+        verify(nodeA.messagingTemplate, times(1)).convertAndSend("/topic/chatrooms/1", response);
+        verifyNoInteractions(nodeB.messagingTemplate);
+    }
+
+    @Test
+    @DisplayName("한 사람에게만 보이는 메시지는 모든 노드에서 그 사람의 채팅방 큐로, 상대방에게는 seq 만 있는 HIDDEN 프레임")
+    void targetedMessageGoesToUserQueueOnly() throws Exception {
+        // given
+        ChatMessageResponse response = ChatMessageResponse.builder()
+                .messageId(20L)
+                .seq(3L)
+                .senderId(100L)
+                .type("SYSTEM_ACTION_MESSAGE")
+                .content("구매자가 티켓 양도를 신청했습니다.")
+                .visibleTo(200L)
+                .build();
+        String hiddenJson = objectMapper.writeValueAsString(ChatMessageResponse.hidden(3L));
+
+        // when
+        nodeA.broadcaster.broadcastMessage(1L, 200L, 100L, response);
+
+        // then: 판매자가 어느 노드에 붙어 있든 받을 수 있도록 모든 노드에 전달, 방 토픽에는 없음
+        //       구매자는 내용 없이 seq 만 받아서 다음 메시지에서 빈틈으로 보지 않음
+        for (Node node : List.of(nodeA, nodeB)) {
+            verify(node.messagingTemplate, times(1)).send(eq("/queue/users/200/chatrooms/1"), any(Message.class));
+            verify(node.messagingTemplate, times(1)).send(eq("/queue/users/100/chatrooms/1"), argThat((Message<?> message) ->
+                    hiddenJson.equals(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8))));
+            verify(node.messagingTemplate, never()).send(eq("/topic/chatrooms/1"), any(Message.class));
+            // 최근 메시지 캐시에는 보는 사람을 붙여서 반영
+            verify(node.recentMessageCache, times(1)).applyRemote(eq(1L), eq(200L), any(byte[].class));
+            verify(node.recentMessageCache, times(1)).applyRemote(eq(1L), eq(100L), any(byte[].class));
+        }
+        assertThat(hiddenJson).doesNotContain("구매자가");
+        assertThat(redis.published).containsExactly(
+                ChatMessageBroadcaster.CHANNEL_PREFIX + "/queue/users/200/chatrooms/1",
+                ChatMessageBroadcaster.CHANNEL_PREFIX + "/queue/users/100/chatrooms/1");
+    }
+
+    @Test
+    @DisplayName("보는 사람이 정해지지 않은 메시지는 방 전체로 전달")
+    void untargetedMessageGoesToRoom() {
+        // given
+        ChatMessageResponse response = ChatMessageResponse.builder().messageId(21L).type("SYSTEM_INFO_MESSAGE").build();
+
+        // when
+        nodeA.broadcaster.broadcastMessage(1L, null, null, response);
+
+        // then
+        assertThat(redis.published).containsExactly(ChatMessageBroadcaster.CHANNEL_PREFIX + "/topic/chatrooms/1");
+    }
+
+    @Test
+    @DisplayName("local 모드는 Redis 없이 바로 로컬 브로커로 전달")
+    void localModeSendsDirectly() {
+        // given
+        SimpMessageSendingOperations messagingTemplate = mock(SimpMessageSendingOperations.class);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ChatMessageBroadcaster broadcaster =
+                new ChatMessageBroadcaster(messagingTemplate, redisTemplate, objectMapper, "local",
+                        new ChatMetrics(new SimpleMeterRegistry()));
+        ChatMessageResponse response = ChatMessageResponse.builder().messageId(1L).type("TEXT").build();
+
+        // when
+        broadcaster.broadcastToRoom(3L, response);
+
+        // then
+        verify(messagingTemplate, times(1)).convertAndSend("/topic/chatrooms/3", response);
+        verifyNoInteractions(redisTemplate);
+    }
+
+    // 하나의 파드 = 브로드캐스터 + Redis 구독 리스너 + 로컬 STOMP 브로커(mock)
+    private static class Node {
+        final SimpMessageSendingOperations messagingTemplate = mock(SimpMessageSendingOperations.class);
+        final RecentMessageCache recentMessageCache = mock(RecentMessageCache.class);
+        final ChatMessageBroadcaster broadcaster;
+
+        Node(InMemoryPubSub redis, ObjectMapper objectMapper) {
+            StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+            when(redisTemplate.convertAndSend(anyString(), any())).thenAnswer(invocation ->
+                    redis.publish(invocation.getArgument(0), invocation.getArgument(1)));
+
+            this.broadcaster = new ChatMessageBroadcaster(messagingTemplate, redisTemplate, objectMapper, "redis",
+                    new ChatMetrics(new SimpleMeterRegistry()));
+            redis.subscribe(new RedisBroadcastListener(messagingTemplate, recentMessageCache));
+        }
+    }
+
+    // Redis pub/sub 대역: 발행된 메시지를 구독 중인 모든 리스너에게 전달
+    private static class InMemoryPubSub {
+        final List<RedisBroadcastListener> listeners = new ArrayList<>();
+        final List<String> published = new ArrayList<>();
+        boolean failing;
+
+        void subscribe(RedisBroadcastListener listener) {
+            listeners.add(listener);
+        }
+
+        long publish(String channel, Object body) {
+            if (failing) {
+                throw new IllegalStateException("Redis 연결 실패");
+            }
+            published.add(channel);
+            DefaultMessage message = new DefaultMessage(
+                    channel.getBytes(StandardCharsets.UTF_8),
+                    body.toString().getBytes(StandardCharsets.UTF_8));
+            listeners.forEach(listener -> listener.onMessage(message,
+                    (ChatMessageBroadcaster.CHANNEL_PREFIX + "*").getBytes(StandardCharsets.UTF_8)));
+            return listeners.size();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.company.service_chat.entity.ChatMember;
 import com.company.service_chat.entity.ChatMessage;
 import com.company.service_chat.entity.ChatRoom;
 import com.company.service_chat.entity.ChatRoom.DealStatus;
+import com.company.service_chat.entity.ChatRoom.DealTransition;
 import com.company.service_chat.entity.ChatRoom.RoomStatus;
 import com.company.service_chat.repository.ChatMemberRepository;
 import com.company.service_chat.repository.ChatMessageRepository;
@@ -17,7 +18,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.*;
 
@@ -45,7 +47,16 @@ class ChatRoomServiceTest {
     private TicketLookupService ticketLookupService;
 
     @Mock
-    private SimpMessageSendingOperations messagingTemplate;
+    private ChatMessageBroadcaster chatMessageBroadcaster;
+
+    @Mock
+    private RoomSnapshotCache roomSnapshotCache;
+
+    @Mock
+    private InboxEventPublisher inboxEventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private ChatRoomService chatRoomService;
@@ -88,14 +99,9 @@ class ChatRoomServiceTest {
         field.setAccessible(true);
         field.set(savedRoom, 1L);
 
-        when(chatRoomRepository.findFirstByTicketIdAndBuyerIdOrderByCreatedAtDesc(ticketId, buyerId))
-                .thenReturn(Optional.empty());
+        when(chatRoomRepository.findByActiveKey("1:100")).thenReturn(Optional.empty());
         when(ticketLookupService.getSellerId(ticketId)).thenReturn(sellerId);
         when(chatRoomRepository.save(any(ChatRoom.class))).thenReturn(savedRoom);
-        when(chatMemberRepository.findByUserIdAndChatroomId(anyLong(), anyLong()))
-                .thenReturn(Optional.empty());
-        when(chatService.saveSystemMessage(anyLong(), anyLong(), any(), anyString(), any()))
-                .thenReturn(null);
 
         // when
         ChatRoomResponse response = chatRoomService.createRoom(ticketId, buyerId);
@@ -104,9 +110,47 @@ class ChatRoomServiceTest {
         assertThat(response).isNotNull();
         assertThat(response.getTicketId()).isEqualTo(ticketId);
         assertThat(response.getRoomStatus()).isEqualTo("OPEN");
-        verify(chatRoomRepository, times(1)).save(any(ChatRoom.class));
-        verify(chatMemberRepository, times(2)).save(any(ChatMember.class));
-        verify(chatService, times(2)).saveSystemMessage(anyLong(), anyLong(), any(), anyString(), any());
+        // 안내 메시지 2개의 순번은 방 INSERT 때 예약
+        verify(chatRoomRepository, times(1)).save(argThat((ChatRoom room) -> room.getLastSeq() == 2L));
+        verify(chatRoomRepository, never()).increaseLastSeq(anyLong(), anyInt());
+        // 새 방이라 멤버 존재 여부를 다시 조회하지 않고 한 번에 저장 (배치 INSERT)
+        verify(chatMemberRepository, never()).findByUserIdAndChatroomId(anyLong(), anyLong());
+        verify(chatMemberRepository, times(1)).saveAll(argThat((List<ChatMember> members) ->
+                members.size() == 2
+                        && members.get(0).getUserId().equals(buyerId)
+                        && members.get(1).getUserId().equals(sellerId)));
+        verify(chatService, times(1)).saveFirstMessages(argThat(messages ->
+                messages.size() == 2
+                        && messages.get(0).getSenderId().equals(buyerId)
+                        && messages.get(1).getSenderId().equals(sellerId)));
+    }
+
+    @Test
+    @DisplayName("판매자가 자기 티켓으로 채팅방을 만들면 멤버는 1명만 저장")
+    void createRoom_BuyerIsSeller_SingleMember() throws Exception {
+        // given
+        Long ticketId = 1L;
+        Long userId = 100L;
+
+        ChatRoom savedRoom = ChatRoom.builder()
+                .ticketId(ticketId)
+                .buyerId(userId)
+                .sellerId(userId)
+                .build();
+        savedRoom.prePersist();
+        java.lang.reflect.Field field = ChatRoom.class.getDeclaredField("chatroomId");
+        field.setAccessible(true);
+        field.set(savedRoom, 1L);
+
+        when(chatRoomRepository.findByActiveKey("1:100")).thenReturn(Optional.empty());
+        when(ticketLookupService.getSellerId(ticketId)).thenReturn(userId);
+        when(chatRoomRepository.save(any(ChatRoom.class))).thenReturn(savedRoom);
+
+        // when
+        chatRoomService.createRoom(ticketId, userId);
+
+        // then
+        verify(chatMemberRepository, times(1)).saveAll(argThat((List<ChatMember> members) -> members.size() == 1));
     }
 
     @Test
@@ -121,53 +165,69 @@ class ChatRoomServiceTest {
         field.setAccessible(true);
         field.set(testChatRoom, 1L);
 
-        when(chatRoomRepository.findFirstByTicketIdAndBuyerIdOrderByCreatedAtDesc(ticketId, buyerId))
-                .thenReturn(Optional.of(testChatRoom));
-        when(chatMemberRepository.findByUserIdAndChatroomId(buyerId, 1L))
-                .thenReturn(Optional.of(testChatMember));
+        when(chatRoomRepository.findByActiveKey("1:100")).thenReturn(Optional.of(testChatRoom));
 
         // when
         ChatRoomResponse response = chatRoomService.createRoom(ticketId, buyerId);
 
-        // then
+        // then: 티켓 서비스 호출 / 저장 없이 열린 방 반환
         assertThat(response).isNotNull();
         assertThat(response.getTicketId()).isEqualTo(ticketId);
         verify(chatRoomRepository, never()).save(any(ChatRoom.class));
+        verifyNoInteractions(ticketLookupService);
     }
 
     @Test
-    @DisplayName("채팅방 목록 조회 성공")
-    void getChatRoomsByUserId_Success() throws Exception {
+    @DisplayName("동시에 만든 다른 요청이 먼저 저장한 경우 유니크 키 위반 후 그 방 반환")
+    void createRoom_LostRace_ReturnsWinner() throws Exception {
         // given
-        Long userId = 100L;
+        Long ticketId = 1L;
+        Long buyerId = 100L;
 
-        // chatroomId 설정
         java.lang.reflect.Field field = ChatRoom.class.getDeclaredField("chatroomId");
         field.setAccessible(true);
-        field.set(testChatRoom, 1L);
+        field.set(testChatRoom, 7L);
 
-        List<ChatMember> members = Arrays.asList(testChatMember);
-        List<ChatRoom> rooms = Arrays.asList(testChatRoom);
-        ChatMessage lastMessage = ChatMessage.builder()
-                .chatroomId(1L)
-                .senderId(200L)
-                .type(ChatMessage.MessageType.TEXT)
-                .content("테스트 메시지")
-                .build();
+        when(chatRoomRepository.findByActiveKey("1:100"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(testChatRoom));
+        when(ticketLookupService.getSellerId(ticketId)).thenReturn(200L);
+        when(chatRoomRepository.save(any(ChatRoom.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_chat_rooms_active_key"));
+
+        // when
+        ChatRoomResponse response = chatRoomService.createRoom(ticketId, buyerId);
 
-        when(chatMemberRepository.findByUserIdAndIsDeletedFalse(userId)).thenReturn(members);
-        when(chatRoomRepository.findAllById(anyList())).thenReturn(rooms);
-        when(chatMessageRepository.findTopByChatroomIdOrderBySentAtDesc(1L)).thenReturn(lastMessage);
-        when(chatMessageRepository.countByChatroomIdAndMessageIdGreaterThanAndType(eq(1L), anyLong(), any()))
-                .thenReturn(3);
+        // then
+        assertThat(response.getChatroomId()).isEqualTo(7L);
+        verify(chatService, never()).saveFirstMessages(anyList());
+    }
+
+    @Test
+    @DisplayName("채팅방 목록 조회 성공")
+    void getChatRoomsByUserId_Success() {
+        // given
+        Long userId = 100L;
+
+        ChatRoomResponse inboxRow = new ChatRoomResponse(
+                1L, 1L, testChatRoom.getCreatedAt(), RoomStatus.OPEN,
+                "테스트 메시지", ChatMessage.MessageType.TEXT, null, 3L);
+
+        when(chatMemberRepository.findInboxByUserId(userId))
+                .thenReturn(List.of(inboxRow));
 
         // when
         List<ChatRoomResponse> responses = chatRoomService.getChatRoomsByUserId(userId);
 
         // then
         assertThat(responses).hasSize(1);
+        assertThat(responses.get(0).getRoomStatus()).isEqualTo("OPEN");
         assertThat(responses.get(0).getLastMessageContent()).isEqualTo("테스트 메시지");
+        assertThat(responses.get(0).getLastMessageType()).isEqualTo("TEXT");
         assertThat(responses.get(0).getUnreadCount()).isEqualTo(3);
+        // 방 개수와 상관없이 메시지 테이블을 방마다 조회하지 않아야 함
+        verifyNoInteractions(chatMessageRepository);
+        verify(chatRoomRepository, never()).findAllById(anyList());
     }
 
     @Test
@@ -190,18 +250,21 @@ class ChatRoomServiceTest {
                 .build();
 
         when(chatRoomRepository.findById(chatroomId)).thenReturn(Optional.of(testChatRoom));
-        when(chatRoomRepository.save(any(ChatRoom.class))).thenReturn(testChatRoom);
+        when(chatRoomRepository.transitionDeal(chatroomId, DealTransition.REQUEST)).thenReturn(true);
         when(chatService.saveSystemMessage(anyLong(), anyLong(), any(), anyString(), any()))
-                .thenReturn(ChatMessage.builder().build());
+                .thenReturn(ChatMessage.builder().visibleTo(200L).build());
         when(chatService.toResponse(any())).thenReturn(mockResponse);
 
         // when
         chatRoomService.handleDealRequest(chatroomId, buyerId);
 
         // then
-        verify(chatRoomRepository, times(1)).save(any(ChatRoom.class));
+        verify(chatRoomRepository, times(1)).transitionDeal(chatroomId, DealTransition.REQUEST);
+        verify(chatRoomRepository, never()).save(any(ChatRoom.class));
         verify(chatService, times(1)).saveSystemMessage(anyLong(), anyLong(), any(), anyString(), any());
-        verify(messagingTemplate, times(1)).convertAndSend(anyString(), any(ChatMessageResponse.class));
+        // 판매자에게만 전송, 구매자는 seq 만 받음 (방 전체 브로드캐스트 없음)
+        verify(chatMessageBroadcaster, times(1)).broadcastMessage(eq(chatroomId), eq(200L), eq(100L), any(ChatMessageResponse.class));
+        verify(chatMessageBroadcaster, never()).broadcastToRoom(anyLong(), any());
     }
 
     @Test
@@ -239,18 +302,19 @@ class ChatRoomServiceTest {
                 .build();
 
         when(chatRoomRepository.findById(chatroomId)).thenReturn(Optional.of(testChatRoom));
-        when(chatRoomRepository.save(any(ChatRoom.class))).thenReturn(testChatRoom);
+        when(chatRoomRepository.transitionDeal(chatroomId, DealTransition.ACCEPT)).thenReturn(true);
         when(chatService.saveSystemMessage(anyLong(), anyLong(), any(), anyString(), any()))
-                .thenReturn(ChatMessage.builder().build());
+                .thenReturn(ChatMessage.builder().visibleTo(100L).build());
         when(chatService.toResponse(any())).thenReturn(mockResponse);
 
         // when
         chatRoomService.handleDealAccept(chatroomId, sellerId);
 
         // then
-        verify(chatRoomRepository, times(1)).save(any(ChatRoom.class));
+        verify(chatRoomRepository, times(1)).transitionDeal(chatroomId, DealTransition.ACCEPT);
         verify(chatService, times(1)).saveSystemMessage(anyLong(), anyLong(), any(), anyString(), any());
-        verify(messagingTemplate, times(1)).convertAndSend(anyString(), any(ChatMessageResponse.class));
+        // 구매자에게만 전송
+        verify(chatMessageBroadcaster, times(1)).broadcastMessage(eq(chatroomId), eq(100L), eq(200L), any(ChatMessageResponse.class));
     }
 
     @Test
@@ -276,7 +340,7 @@ class ChatRoomServiceTest {
         Long sellerId = 200L;
 
         when(chatRoomRepository.findById(chatroomId)).thenReturn(Optional.of(testChatRoom));
-        when(chatRoomRepository.save(any(ChatRoom.class))).thenReturn(testChatRoom);
+        when(chatRoomRepository.transitionDeal(testChatRoom.getChatroomId(), DealTransition.REJECT)).thenReturn(true);
         when(chatService.saveSystemMessage(anyLong(), anyLong(), any(), anyString(), any()))
                 .thenReturn(null);
 
@@ -284,8 +348,52 @@ class ChatRoomServiceTest {
         chatRoomService.handleDealReject(chatroomId, sellerId);
 
         // then
-        verify(chatRoomRepository, times(1)).save(any(ChatRoom.class));
+        verify(chatRoomRepository, times(1)).transitionDeal(testChatRoom.getChatroomId(), DealTransition.REJECT);
         verify(chatService, times(1)).saveSystemMessage(anyLong(), anyLong(), any(), anyString(), any());
+        verify(roomSnapshotCache, times(1)).evictAfterCommit(testChatRoom.getChatroomId());
+    }
+
+    @Test
+    @DisplayName("양도 수락 - 요청 상태가 아니면(이미 거절/수락됨) 실패, 시스템 메시지 없음")
+    void handleDealAccept_NotRequested_Fail() {
+        // given: 조건부 UPDATE 0건 (다른 요청이 먼저 상태를 바꿈)
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatRoomRepository.transitionDeal(testChatRoom.getChatroomId(), DealTransition.ACCEPT)).thenReturn(false);
+
+        // when & then
+        assertThatThrownBy(() -> chatRoomService.handleDealAccept(1L, 200L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("양도 요청 상태에서만");
+        verifyNoInteractions(chatService, chatMessageBroadcaster, roomSnapshotCache);
+    }
+
+    @Test
+    @DisplayName("양도 요청 - 이미 진행 중이면 실패")
+    void handleDealRequest_AlreadyInProgress_Fail() {
+        // given
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatRoomRepository.transitionDeal(testChatRoom.getChatroomId(), DealTransition.REQUEST)).thenReturn(false);
+
+        // when & then
+        assertThatThrownBy(() -> chatRoomService.handleDealRequest(1L, 100L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("이미 양도 절차가 진행 중");
+        verifyNoInteractions(chatService, chatMessageBroadcaster);
+    }
+
+    @Test
+    @DisplayName("관리자 채팅방 상태 변경 - 거래 상태는 유지하고 방 캐시 무효화")
+    void updateRoomStatus_EvictsRoomSnapshot() {
+        // given
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+
+        // when
+        chatRoomService.updateRoomStatus(1L, RoomStatus.LOCK);
+
+        // then
+        assertThat(testChatRoom.getRoomStatus()).isEqualTo(RoomStatus.LOCK);
+        assertThat(testChatRoom.getDealStatus()).isEqualTo(DealStatus.PENDING);
+        verify(roomSnapshotCache, times(1)).evictAfterCommit(testChatRoom.getChatroomId());
     }
 
     @Test
@@ -304,6 +412,8 @@ class ChatRoomServiceTest {
         // then
         verify(chatMemberRepository, times(1)).save(any(ChatMember.class));
         assertThat(testChatMember.isDeleted()).isTrue();
+        // 구매자가 나가면 다음 생성 때 새 방이 만들어지도록 열린 방 키 해제
+        verify(chatRoomRepository, times(1)).releaseActiveKey(chatroomId, userId);
     }
 
     @Test
@@ -337,8 +447,36 @@ class ChatRoomServiceTest {
     }
 
     @Test
-    @DisplayName("메시지 읽음 처리 성공")
-    void markMessagesAsRead_Success() {
+    @DisplayName("메시지 읽음 처리 성공 - 채팅방의 최신 메시지 포인터 사용")
+    void markMessagesAsRead_Success() throws Exception {
+        // given
+        Long chatroomId = 1L;
+        Long userId = 100L;
+
+        java.lang.reflect.Field field = ChatRoom.class.getDeclaredField("lastMessageId");
+        field.setAccessible(true);
+        field.set(testChatRoom, 999L);
+        java.lang.reflect.Field seqField = ChatRoom.class.getDeclaredField("lastSeq");
+        seqField.setAccessible(true);
+        seqField.set(testChatRoom, 42L);
+
+        when(chatRoomRepository.findById(chatroomId)).thenReturn(Optional.of(testChatRoom));
+        when(chatMemberRepository.advanceLastRead(userId, chatroomId, 999L, 42L, ChatMessage.MessageType.TEXT))
+                .thenReturn(1);
+
+        // when
+        chatRoomService.markMessagesAsRead(chatroomId, userId);
+
+        // then: 읽은 순번은 방의 마지막 순번
+        verify(chatMemberRepository, times(1))
+                .advanceLastRead(userId, chatroomId, 999L, 42L, ChatMessage.MessageType.TEXT);
+        verify(chatMessageRepository, never()).findTopByChatroomIdOrderBySeqDesc(anyLong());
+        verify(inboxEventPublisher).readAdvanced(chatroomId, userId, 999L);
+    }
+
+    @Test
+    @DisplayName("메시지 읽음 처리 - 포인터가 없는 기존 방은 최신 메시지 조회")
+    void markMessagesAsRead_LegacyRoom() {
         // given
         Long chatroomId = 1L;
         Long userId = 100L;
@@ -349,17 +487,20 @@ class ChatRoomServiceTest {
                 .type(ChatMessage.MessageType.TEXT)
                 .content("최신 메시지")
                 .build();
+        latestMessage.assignSeq(7L);
 
-        when(chatMessageRepository.findTopByChatroomIdOrderBySentAtDesc(chatroomId))
+        when(chatRoomRepository.findById(chatroomId)).thenReturn(Optional.of(testChatRoom));
+        when(chatMessageRepository.findTopByChatroomIdOrderBySeqDesc(chatroomId))
                 .thenReturn(latestMessage);
-        when(chatMemberRepository.findByUserIdAndChatroomId(userId, chatroomId))
-                .thenReturn(Optional.of(testChatMember));
+        when(chatMemberRepository.advanceLastRead(userId, chatroomId, 999L, 7L, ChatMessage.MessageType.TEXT))
+                .thenReturn(1);
 
         // when
         chatRoomService.markMessagesAsRead(chatroomId, userId);
 
         // then
-        assertThat(testChatMember.getLastReadMessageId()).isEqualTo(999L);
+        verify(chatMemberRepository, times(1))
+                .advanceLastRead(userId, chatroomId, 999L, 7L, ChatMessage.MessageType.TEXT);
     }
 
     @Test
@@ -369,13 +510,14 @@ class ChatRoomServiceTest {
         Long chatroomId = 1L;
         Long userId = 100L;
 
-        when(chatMessageRepository.findTopByChatroomIdOrderBySentAtDesc(chatroomId))
+        when(chatRoomRepository.findById(chatroomId)).thenReturn(Optional.of(testChatRoom));
+        when(chatMessageRepository.findTopByChatroomIdOrderBySeqDesc(chatroomId))
                 .thenReturn(null);
 
         // when
         chatRoomService.markMessagesAsRead(chatroomId, userId);
 
         // then
-        verify(chatMemberRepository, never()).findByUserIdAndChatroomId(anyLong(), anyLong());
+        verify(chatMemberRepository, never()).advanceLastRead(anyLong(), anyLong(), anyLong(), anyLong(), any());
     }
 }
@@ -2,6 +2,9 @@ package com.company.service_chat.service;
 
 import com.company.service_chat.dto.ChatMessageDto;
 import com.company.service_chat.dto.ChatMessageResponse;
+import com.company.service_chat.dto.ChatMessageResumeResponse;
+import com.company.service_chat.dto.ReadReceiptRequest;
+import com.company.service_chat.dto.SystemMessageTemplate;
 import com.company.service_chat.entity.ChatMember;
 import com.company.service_chat.entity.ChatMessage;
 import com.company.service_chat.entity.ChatRoom;
@@ -9,15 +12,23 @@ import com.company.service_chat.repository.ChatMemberRepository;
 import com.company.service_chat.repository.ChatMessageRepository;
 import com.company.service_chat.repository.ChatRoomRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -39,6 +50,34 @@ class ChatServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private ChatMessageWriteBehindBuffer writeBehindBuffer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RecentMessageCache recentMessageCache;
+
+    @Mock
+    private ReadReceiptBuffer readReceiptBuffer;
+
+    @Mock
+    private InboxEventPublisher inboxEventPublisher;
+
+    // write-behind 대기열에 넘긴 저장 후 콜백
+    @Captor
+    private ArgumentCaptor<Consumer<ChatMessage>> bufferCallback;
+
+    // 실제 캐시 (채팅방은 처음 한 번만 chatRoomRepository.findById 로 조회)
+    @Spy
+    private RoomSnapshotCache roomSnapshotCache = new RoomSnapshotCache(null, "local", 300, 1_000);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ChatMetrics chatMetrics = new ChatMetrics(meterRegistry);
+
     @InjectMocks
     private ChatService chatService;
 
@@ -67,6 +106,11 @@ class ChatServiceTest {
                 .userId(100L)
                 .chatroomId(1L)
                 .build();
+
+        // 순번 예약 UPDATE 는 기본으로 1건 성공 (순번을 확인하는 테스트에서 다시 지정)
+        lenient().when(chatRoomRepository.increaseLastSeq(anyLong(), anyInt())).thenReturn(1);
+        lenient().when(chatRoomRepository.increaseLastSeqUnlessStatus(anyLong(), anyInt(), any())).thenReturn(1);
+        lenient().when(chatRoomRepository.findLastSeqById(anyLong())).thenReturn(Optional.of(1L));
     }
 
     @Test
@@ -92,6 +136,289 @@ class ChatServiceTest {
         verify(chatMessageRepository, times(1)).save(any(ChatMessage.class));
     }
 
+    @Test
+    @DisplayName("WebSocket 메시지 저장 - sync 모드는 바로 저장하고 커밋 후 콜백 호출")
+    void saveMessageWithCallback_SyncMode() {
+        // given
+        ChatMessageDto messageDto = ChatMessageDto.builder()
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessageDto.MessageType.TEXT)
+                .content("테스트 메시지")
+                .build();
+        List<ChatMessage> callbacks = new ArrayList<>();
+
+        when(writeBehindBuffer.isEnabled()).thenReturn(false);
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testChatMessage);
+
+        // when
+        ChatMessage saved = chatService.saveMessage(messageDto, callbacks::add);
+
+        // then
+        assertThat(saved).isSameAs(testChatMessage);
+        assertThat(callbacks).containsExactly(testChatMessage);
+        // 쓰기 트랜잭션은 한 번 (채팅방 조회는 읽기 전용 트랜잭션, 실제로는 쓰기 트랜잭션에 참여)
+        verify(transactionManager, times(1)).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        verify(chatMemberRepository, times(1)).incrementUnreadCount(1L, 100L);
+        assertThat(meterRegistry.get("chat.message.persist").tag("mode", "sync").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.messages.received").tag("type", "TEXT").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("WebSocket 메시지 저장 - write-behind 모드는 검증 후 대기열에 넘기고 바로 INSERT 하지 않음")
+    void saveMessageWithCallback_WriteBehindMode() {
+        // given
+        ChatMessageDto messageDto = ChatMessageDto.builder()
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessageDto.MessageType.TEXT)
+                .content("테스트 메시지")
+                .build();
+        List<ChatMessage> callbacks = new ArrayList<>();
+
+        when(writeBehindBuffer.isEnabled()).thenReturn(true);
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(writeBehindBuffer.append(any(ChatMessage.class), any())).thenReturn(testChatMessage);
+
+        // when
+        ChatMessage saved = chatService.saveMessage(messageDto, callbacks::add);
+
+        // then
+        assertThat(saved).isSameAs(testChatMessage);
+        verify(writeBehindBuffer, times(1)).append(argThat(draft ->
+                draft.getMessageId() == null
+                        && draft.getChatroomId().equals(1L)
+                        && draft.getContent().equals("테스트 메시지")), bufferCallback.capture());
+        verify(chatMessageRepository, never()).save(any());
+        verify(chatRoomRepository, never()).updateLastMessage(any(), any(), any(), any(), any(), any());
+        // 채팅방 조회용 읽기 전용 트랜잭션만 (저장 대기 중에 커넥션을 잡고 있지 않음)
+        verify(transactionManager, never()).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        verify(transactionManager, times(1)).commit(any());
+
+        // 저장이 확정되면(버퍼가 콜백 호출) 원래 콜백 호출 + 저장 지연시간 기록
+        assertThat(callbacks).isEmpty();
+        bufferCallback.getValue().accept(testChatMessage);
+        assertThat(callbacks).containsExactly(testChatMessage);
+        assertThat(meterRegistry.get("chat.message.persist").tag("mode", "write-behind").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("WebSocket 메시지 저장 - write-behind 모드에서도 잠긴 방 TEXT는 거부")
+    void saveMessageWithCallback_WriteBehindMode_LockedRoom_Fail() {
+        // given
+        testChatRoom.updateStatus(ChatRoom.RoomStatus.LOCK, ChatRoom.DealStatus.PENDING);
+        ChatMessageDto messageDto = ChatMessageDto.builder()
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessageDto.MessageType.TEXT)
+                .content("테스트 메시지")
+                .build();
+
+        when(writeBehindBuffer.isEnabled()).thenReturn(true);
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+
+        // when & then
+        assertThatThrownBy(() -> chatService.saveMessage(messageDto, message -> { }))
+                .isInstanceOf(IllegalStateException.class);
+        verify(writeBehindBuffer, never()).append(any(), any());
+    }
+
+    @Test
+    @DisplayName("메시지 저장 시 INSERT 전에 방 순번 부여")
+    void saveMessage_AssignsRoomSeq() {
+        // given
+        ChatMessageDto messageDto = ChatMessageDto.builder()
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessageDto.MessageType.TEXT)
+                .content("테스트 메시지")
+                .build();
+        ArgumentCaptor<ChatMessage> captor = ArgumentCaptor.forClass(ChatMessage.class);
+
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatRoomRepository.increaseLastSeqUnlessStatus(1L, 1, ChatRoom.RoomStatus.LOCK)).thenReturn(1);
+        when(chatRoomRepository.findLastSeqById(1L)).thenReturn(Optional.of(8L));
+        when(chatMessageRepository.save(captor.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        ChatMessage saved = chatService.saveMessage(messageDto);
+
+        // then
+        assertThat(captor.getValue().getSeq()).isEqualTo(8L);
+        assertThat(chatService.toResponse(saved).getSeq()).isEqualTo(8L);
+    }
+
+    @Test
+    @DisplayName("메시지 저장 시 채팅방 최신 메시지 포인터 갱신")
+    void saveMessage_UpdatesLastMessagePointer() {
+        // given
+        String longContent = "가".repeat(ChatRoom.LAST_MESSAGE_PREVIEW_LENGTH + 20);
+        ChatMessage saved = ChatMessage.builder()
+                .messageId(10L)
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessage.MessageType.TEXT)
+                .content(longContent)
+                .build();
+        ChatMessageDto messageDto = ChatMessageDto.builder()
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessageDto.MessageType.TEXT)
+                .content(longContent)
+                .build();
+
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(saved);
+
+        // when
+        chatService.saveMessage(messageDto);
+
+        // then
+        verify(chatRoomRepository, times(1)).updateLastMessage(
+                eq(1L),
+                eq(10L),
+                any(),
+                eq("가".repeat(ChatRoom.LAST_MESSAGE_PREVIEW_LENGTH)),
+                eq(ChatMessage.MessageType.TEXT),
+                any());
+    }
+
+    @Test
+    @DisplayName("시스템 메시지 여러 개 저장 - 한 번에 저장하고 포인터는 마지막 메시지로 한 번만 갱신")
+    void saveSystemMessages_SavesAllAndUpdatesPointerOnce() {
+        // given
+        List<ChatMessageDto> dtos = List.of(
+                ChatMessageDto.builder().chatroomId(1L).senderId(100L)
+                        .type(ChatMessageDto.MessageType.SYSTEM_ACTION_MESSAGE).content("첫 번째").build(),
+                ChatMessageDto.builder().chatroomId(1L).senderId(200L)
+                        .type(ChatMessageDto.MessageType.SYSTEM_INFO_MESSAGE).content("두 번째").build());
+        ChatMessage first = ChatMessage.builder().messageId(10L).chatroomId(1L).senderId(100L)
+                .type(ChatMessage.MessageType.SYSTEM_ACTION_MESSAGE).content("첫 번째").build();
+        ChatMessage second = ChatMessage.builder().messageId(11L).chatroomId(1L).senderId(200L)
+                .type(ChatMessage.MessageType.SYSTEM_INFO_MESSAGE).content("두 번째").build();
+
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatMessageRepository.saveAll(anyList())).thenReturn(List.of(first, second));
+
+        // when
+        List<ChatMessage> saved = chatService.saveSystemMessages(dtos);
+
+        // then
+        assertThat(saved).containsExactly(first, second);
+        verify(chatMessageRepository, never()).save(any(ChatMessage.class));
+        verify(chatRoomRepository, times(1)).updateLastMessage(
+                eq(1L), eq(11L), any(), eq("두 번째"), eq(ChatMessage.MessageType.SYSTEM_INFO_MESSAGE), any());
+        verify(chatMemberRepository, never()).incrementUnreadCount(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("시스템 메시지 여러 개 저장 - 한 사람에게만 보이는 메시지는 채팅 목록 요약에 넣지 않음")
+    void saveSystemMessages_SkipsTargetedMessageForPreview() {
+        // given: 마지막 메시지가 판매자에게만 보이는 양도 요청
+        List<ChatMessageDto> dtos = List.of(
+                ChatMessageDto.builder().chatroomId(1L).senderId(100L)
+                        .type(ChatMessageDto.MessageType.SYSTEM_INFO_MESSAGE).content("모두에게").build(),
+                ChatMessageDto.builder().chatroomId(1L).senderId(100L)
+                        .type(ChatMessageDto.MessageType.SYSTEM_ACTION_MESSAGE).content("판매자에게만").build());
+        ChatMessage shared = ChatMessage.builder().messageId(10L).chatroomId(1L).senderId(100L)
+                .type(ChatMessage.MessageType.SYSTEM_INFO_MESSAGE).content("모두에게").build();
+        ChatMessage targeted = ChatMessage.builder().messageId(11L).chatroomId(1L).senderId(100L)
+                .type(ChatMessage.MessageType.SYSTEM_ACTION_MESSAGE).content("판매자에게만").visibleTo(200L).build();
+
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatMessageRepository.saveAll(anyList())).thenReturn(List.of(shared, targeted));
+
+        // when
+        chatService.saveSystemMessages(dtos);
+
+        // then
+        verify(chatRoomRepository, times(1)).updateLastMessage(
+                eq(1L), eq(10L), any(), eq("모두에게"), eq(ChatMessage.MessageType.SYSTEM_INFO_MESSAGE), any());
+        verify(chatRoomRepository, never()).updateLastMessage(any(), eq(11L), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("시스템 메시지 여러 개 저장 - 순번은 한 번에 예약해서 목록 순서대로 연속 부여")
+    void saveSystemMessages_ReservesConsecutiveSeqs() {
+        // given
+        List<ChatMessageDto> dtos = List.of(
+                ChatMessageDto.builder().chatroomId(1L).senderId(100L)
+                        .type(ChatMessageDto.MessageType.SYSTEM_ACTION_MESSAGE).content("첫 번째").build(),
+                ChatMessageDto.builder().chatroomId(1L).senderId(200L)
+                        .type(ChatMessageDto.MessageType.SYSTEM_INFO_MESSAGE).content("두 번째").build());
+
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatRoomRepository.increaseLastSeq(1L, 2)).thenReturn(1);
+        when(chatRoomRepository.findLastSeqById(1L)).thenReturn(Optional.of(6L));
+        when(chatMessageRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        List<ChatMessage> saved = chatService.saveSystemMessages(dtos);
+
+        // then
+        assertThat(saved).extracting(ChatMessage::getSeq).containsExactly(5L, 6L);
+        verify(chatRoomRepository, times(1)).increaseLastSeq(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("새 방의 첫 메시지 저장 - 방을 만들 때 예약한 순번 1부터, 순번 예약 UPDATE 없음")
+    void saveFirstMessages_UsesSeqsReservedAtRoomInsert() {
+        // given
+        List<ChatMessageDto> dtos = List.of(
+                ChatMessageDto.builder().chatroomId(1L).senderId(100L)
+                        .type(ChatMessageDto.MessageType.SYSTEM_ACTION_MESSAGE).content("첫 번째").build(),
+                ChatMessageDto.builder().chatroomId(1L).senderId(200L)
+                        .type(ChatMessageDto.MessageType.SYSTEM_INFO_MESSAGE).content("두 번째").build());
+
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatMessageRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        List<ChatMessage> saved = chatService.saveFirstMessages(dtos);
+
+        // then
+        assertThat(saved).extracting(ChatMessage::getSeq).containsExactly(1L, 2L);
+        verify(chatRoomRepository, never()).increaseLastSeq(anyLong(), anyInt());
+        verify(chatRoomRepository, never()).increaseLastSeqUnlessStatus(anyLong(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("TEXT 메시지 저장 시 상대방 안 읽은 메시지 수 증가")
+    void saveMessage_Text_IncrementsUnreadCount() {
+        // given
+        ChatMessageDto messageDto = ChatMessageDto.builder()
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessageDto.MessageType.TEXT)
+                .content("테스트 메시지")
+                .build();
+
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testChatMessage);
+
+        // when
+        chatService.saveMessage(messageDto);
+
+        // then
+        verify(chatMemberRepository, times(1)).incrementUnreadCount(1L, 100L);
+    }
+
+    @Test
+    @DisplayName("시스템 메시지는 안 읽은 메시지 수를 증가시키지 않음")
+    void saveSystemMessage_DoesNotIncrementUnreadCount() {
+        // given
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        // 저장한 메시지(SYSTEM_INFO_MESSAGE)를 그대로 돌려줌 (TEXT 인 testChatMessage 를 돌려주면 TEXT 로 처리됨)
+        when(chatMessageRepository.save(any(ChatMessage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        chatService.saveSystemMessage(1L, 100L, ChatMessageDto.MessageType.SYSTEM_INFO_MESSAGE, "안내", null);
+
+        // then
+        verify(chatMemberRepository, never()).incrementUnreadCount(anyLong(), anyLong());
+    }
+
     @Test
     @DisplayName("일반 메시지 저장 성공 - 판매자")
     void saveMessage_Seller_Success() {
@@ -154,6 +481,50 @@ class ChatServiceTest {
                 .hasMessageContaining("잠긴 채팅방");
     }
 
+    @Test
+    @DisplayName("메시지 저장 - 같은 방은 두 번째 메시지부터 채팅방을 다시 조회하지 않음")
+    void saveMessage_UsesCachedRoomSnapshot() {
+        // given
+        ChatMessageDto messageDto = ChatMessageDto.builder()
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessageDto.MessageType.TEXT)
+                .content("테스트 메시지")
+                .build();
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testChatMessage);
+
+        // when
+        chatService.saveMessage(messageDto);
+        chatService.saveMessage(messageDto);
+
+        // then
+        verify(chatRoomRepository, times(1)).findById(1L);
+        verify(chatMessageRepository, times(2)).save(any(ChatMessage.class));
+    }
+
+    @Test
+    @DisplayName("메시지 저장 실패 - 캐시는 OPEN 이지만 DB에서 잠긴 방이면 순번 예약에서 거부하고 캐시를 비움")
+    void saveMessage_StaleSnapshot_LockedInDb_Fail() {
+        // given: 다른 파드에서 잠갔지만 무효화가 아직 도착하지 않음
+        ChatMessageDto messageDto = ChatMessageDto.builder()
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessageDto.MessageType.TEXT)
+                .content("테스트 메시지")
+                .build();
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatRoomRepository.increaseLastSeqUnlessStatus(1L, 1, ChatRoom.RoomStatus.LOCK)).thenReturn(0);
+        when(chatRoomRepository.findLastSeqById(1L)).thenReturn(Optional.of(7L));
+
+        // when & then
+        assertThatThrownBy(() -> chatService.saveMessage(messageDto))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("잠긴 채팅방에서는 메시지를 보낼 수 없습니다.");
+        verify(chatMessageRepository, never()).save(any(ChatMessage.class));
+        verify(roomSnapshotCache, times(1)).evict(1L);
+    }
+
     @Test
     @DisplayName("메시지 저장 실패 - 참여자가 아닌 사용자")
     void saveMessage_NotParticipant_Fail() {
@@ -201,6 +572,27 @@ class ChatServiceTest {
         verify(chatMessageRepository, times(1)).save(any(ChatMessage.class));
     }
 
+    @Test
+    @DisplayName("시스템 메시지 템플릿 metadata는 다시 직렬화하지 않고 그대로 저장")
+    void saveMessage_RenderedTemplate_SkipsSerialization() throws Exception {
+        // given
+        SystemMessageTemplate.RenderedMetadata rendered = SystemMessageTemplate.TICKET_REQUEST.render(100L, 200L);
+        ChatMessageDto messageDto = SystemMessageTemplate.TICKET_REQUEST.toDto(1L, 100L, 100L, 200L);
+
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testChatMessage);
+
+        // when
+        chatService.saveMessage(messageDto);
+
+        // then
+        ArgumentCaptor<ChatMessage> captor = ArgumentCaptor.forClass(ChatMessage.class);
+        verify(chatMessageRepository).save(captor.capture());
+        assertThat(captor.getValue().getMetadata()).isEqualTo(rendered.json());
+        assertThat(captor.getValue().getVisibleTo()).isEqualTo(200L); // 판매자에게만
+        verify(objectMapper, never()).writeValueAsString(any());
+    }
+
     @Test
     @DisplayName("시스템 메시지 저장 성공")
     void saveSystemMessage_Success() {
@@ -237,7 +629,7 @@ class ChatServiceTest {
                         .build()
         );
 
-        when(chatMessageRepository.findByChatroomIdOrderBySentAtAsc(1L)).thenReturn(messages);
+        when(chatMessageRepository.findByChatroomIdOrderBySeqAsc(1L)).thenReturn(messages);
 
         // when
         List<ChatMessageResponse> responses = chatService.getMessagesByChatroomId(1L);
@@ -247,11 +639,120 @@ class ChatServiceTest {
         assertThat(responses.get(0).getContent()).isEqualTo("테스트 메시지");
     }
 
+    @Test
+    @DisplayName("채팅방 메시지 목록 조회 - 최근 메시지 캐시에 방 전체가 있으면 DB 조회 안 함")
+    void getMessagesByChatroomId_FromRecentCache() {
+        // given
+        List<ChatMessageResponse> cached = List.of(chatService.toResponse(message(1L, 1L)), chatService.toResponse(message(2L, 2L)));
+        when(recentMessageCache.get(1L)).thenReturn(Optional.of(new RecentMessageCache.Snapshot(1L, 2L, cached)));
+
+        // when
+        List<ChatMessageResponse> responses = chatService.getMessagesByChatroomId(1L);
+
+        // then
+        assertThat(responses).extracting(ChatMessageResponse::getSeq).containsExactly(1L, 2L);
+        verifyNoInteractions(chatMessageRepository);
+    }
+
+    @Test
+    @DisplayName("메시지 페이지 조회 - 최신 페이지는 캐시에 충분히 있으면 캐시의 마지막 N개")
+    void getMessages_LatestFromRecentCache() {
+        // given: 캐시에는 3~5번, 방 전체는 아님
+        List<ChatMessageResponse> cached = List.of(chatService.toResponse(message(3L, 3L)),
+                chatService.toResponse(message(4L, 4L)), chatService.toResponse(message(5L, 5L)));
+        when(recentMessageCache.get(1L)).thenReturn(Optional.of(new RecentMessageCache.Snapshot(3L, 5L, cached)));
+
+        // when
+        List<ChatMessageResponse> latestTwo = chatService.getMessages(1L, null, null, 2);
+
+        // then
+        assertThat(latestTwo).extracting(ChatMessageResponse::getSeq).containsExactly(4L, 5L);
+        verifyNoInteractions(chatMessageRepository);
+    }
+
+    @Test
+    @DisplayName("보는 사람 기준 조회 - 캐시에 있는 상대방 전용 시스템 메시지는 제외")
+    void getMessagesByChatroomId_FromRecentCache_FiltersByViewer() {
+        // given: 2번은 판매자(200)에게만 보이는 양도 요청 메시지
+        List<ChatMessageResponse> cached = List.of(
+                chatService.toResponse(message(1L, 1L)),
+                chatService.toResponse(targeted(2L, 2L, 200L)),
+                chatService.toResponse(message(3L, 3L)));
+        when(recentMessageCache.get(1L)).thenReturn(Optional.of(new RecentMessageCache.Snapshot(1L, 3L, cached)));
+
+        // when
+        List<ChatMessageResponse> forBuyer = chatService.getMessagesByChatroomId(1L, 100L);
+        List<ChatMessageResponse> forSeller = chatService.getMessagesByChatroomId(1L, 200L);
+
+        // then
+        assertThat(forBuyer).extracting(ChatMessageResponse::getSeq).containsExactly(1L, 3L);
+        assertThat(forSeller).extracting(ChatMessageResponse::getSeq).containsExactly(1L, 2L, 3L);
+        verifyNoInteractions(chatMessageRepository);
+    }
+
+    @Test
+    @DisplayName("보는 사람 기준 조회 - DB 조회는 보는 사람 조건이 붙은 쿼리 사용")
+    void getMessages_WithViewer_UsesVisibleQuery() {
+        // given
+        when(chatMessageRepository.findSeqByChatroomIdAndMessageId(1L, 28L)).thenReturn(Optional.of(8L));
+        when(chatMessageRepository.findVisibleBeforeSeq(eq(1L), eq(100L), eq(8L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(message(27L), message(25L)));
+
+        // when
+        List<ChatMessageResponse> responses = chatService.getMessages(1L, 28L, null, 2, 100L);
+
+        // then
+        assertThat(responses).extracting(ChatMessageResponse::getMessageId).containsExactly(25L, 27L);
+        verify(chatMessageRepository, never()).findByChatroomIdAndSeqLessThanOrderBySeqDesc(
+                anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("보는 사람 기준 순번 조회 - 마지막 메시지가 상대방 전용이어도 hasMore 없이 lastSeq까지 받은 것으로 처리")
+    void resumeMessages_WithViewer_SkipsHiddenTail() {
+        // given: 11, 12번은 보이고 13번은 상대방 전용 (DB에서 제외됨)
+        when(chatRoomRepository.findLastSeqById(1L)).thenReturn(Optional.of(13L));
+        when(chatMessageRepository.findVisibleAfterSeq(eq(1L), eq(100L), eq(10L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(message(31L, 11L), message(32L, 12L)));
+
+        // when
+        ChatMessageResumeResponse response = chatService.resumeMessages(1L, 10L, null, 100L);
+
+        // then
+        assertThat(response.getLastSeq()).isEqualTo(13L);
+        assertThat(response.isHasMore()).isFalse();
+        assertThat(response.getMessages()).extracting(ChatMessageResponse::getSeq).containsExactly(11L, 12L);
+    }
+
+    @Test
+    @DisplayName("메시지 저장 후 최근 메시지 캐시에 추가")
+    void saveMessage_AppendsToRecentCache() {
+        // given
+        ChatMessageDto messageDto = ChatMessageDto.builder()
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessageDto.MessageType.TEXT)
+                .content("테스트 메시지")
+                .build();
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatRoomRepository.increaseLastSeqUnlessStatus(1L, 1, ChatRoom.RoomStatus.LOCK)).thenReturn(1);
+        when(chatRoomRepository.findLastSeqById(1L)).thenReturn(Optional.of(3L));
+        when(chatMessageRepository.save(any(ChatMessage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        chatService.saveMessage(messageDto);
+
+        // then
+        verify(recentMessageCache, times(1)).append(eq(1L), argThat(response ->
+                response.getSeq() == 3L && response.getContent().equals("테스트 메시지")));
+        verify(inboxEventPublisher, times(1)).messageSaved(argThat(saved -> saved.getSeq() == 3L));
+    }
+
     @Test
     @DisplayName("메시지 목록 조회 - 빈 목록")
     void getMessagesByChatroomId_EmptyList() {
         // given
-        when(chatMessageRepository.findByChatroomIdOrderBySentAtAsc(1L))
+        when(chatMessageRepository.findByChatroomIdOrderBySeqAsc(1L))
                 .thenReturn(Collections.emptyList());
 
         // when
@@ -261,6 +762,144 @@ class ChatServiceTest {
         assertThat(responses).isEmpty();
     }
 
+    @Test
+    @DisplayName("메시지 페이지 조회 - 커서 없이 최신 N개를 오래된 순서로 반환")
+    void getMessages_Latest() {
+        // given
+        List<ChatMessage> latestDesc = Arrays.asList(message(30L), message(29L), message(28L));
+        when(chatMessageRepository.findByChatroomIdOrderBySeqDesc(eq(1L), any(Pageable.class)))
+                .thenReturn(latestDesc);
+
+        // when
+        List<ChatMessageResponse> responses = chatService.getMessages(1L, null, null, 3);
+
+        // then
+        assertThat(responses).extracting(ChatMessageResponse::getMessageId).containsExactly(28L, 29L, 30L);
+    }
+
+    @Test
+    @DisplayName("메시지 페이지 조회 - before 커서 (위로 스크롤), 커서 메시지의 순번 기준")
+    void getMessages_BeforeCursor() {
+        // given
+        when(chatMessageRepository.findSeqByChatroomIdAndMessageId(1L, 28L)).thenReturn(Optional.of(8L));
+        when(chatMessageRepository.findByChatroomIdAndSeqLessThanOrderBySeqDesc(
+                eq(1L), eq(8L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(message(27L), message(26L)));
+
+        // when
+        List<ChatMessageResponse> responses = chatService.getMessages(1L, 28L, null, 2);
+
+        // then
+        assertThat(responses).extracting(ChatMessageResponse::getMessageId).containsExactly(26L, 27L);
+    }
+
+    @Test
+    @DisplayName("메시지 페이지 조회 - after 커서 (따라잡기), 커서 메시지의 순번 기준")
+    void getMessages_AfterCursor() {
+        // given
+        when(chatMessageRepository.findSeqByChatroomIdAndMessageId(1L, 30L)).thenReturn(Optional.of(10L));
+        when(chatMessageRepository.findByChatroomIdAndSeqGreaterThanOrderBySeqAsc(
+                eq(1L), eq(10L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(message(31L), message(32L)));
+
+        // when
+        List<ChatMessageResponse> responses = chatService.getMessages(1L, null, 30L, null);
+
+        // then
+        assertThat(responses).extracting(ChatMessageResponse::getMessageId).containsExactly(31L, 32L);
+    }
+
+    @Test
+    @DisplayName("메시지 페이지 조회 - 페이지 크기는 최대값으로 제한")
+    void getMessages_PageSizeCapped() {
+        // given
+        when(chatMessageRepository.findByChatroomIdOrderBySeqDesc(eq(1L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        // when
+        chatService.getMessages(1L, null, null, 10_000);
+
+        // then
+        verify(chatMessageRepository).findByChatroomIdOrderBySeqDesc(
+                1L, PageRequest.of(0, ChatService.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    @DisplayName("메시지 페이지 조회 실패 - 이 방에 없는 커서 메시지")
+    void getMessages_UnknownCursor_Fail() {
+        // given
+        when(chatMessageRepository.findSeqByChatroomIdAndMessageId(1L, 999L)).thenReturn(Optional.empty());
+
+        // when & then
+        assertThatThrownBy(() -> chatService.getMessages(1L, 999L, null, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("커서 메시지가 이 채팅방에 없습니다.");
+    }
+
+    @Test
+    @DisplayName("메시지 페이지 조회 실패 - before/after 동시 사용")
+    void getMessages_BothCursors_Fail() {
+        assertThatThrownBy(() -> chatService.getMessages(1L, 10L, 5L, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("순번 이후 조회 - afterSeq 이후 메시지와 방의 마지막 순번 반환")
+    void resumeMessages_ReturnsGap() {
+        // given
+        when(chatRoomRepository.findLastSeqById(1L)).thenReturn(Optional.of(12L));
+        when(chatMessageRepository.findByChatroomIdAndSeqGreaterThanOrderBySeqAsc(
+                eq(1L), eq(10L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(message(31L, 11L), message(32L, 12L)));
+
+        // when
+        ChatMessageResumeResponse response = chatService.resumeMessages(1L, 10L, null);
+
+        // then
+        assertThat(response.getLastSeq()).isEqualTo(12L);
+        assertThat(response.isHasMore()).isFalse();
+        assertThat(response.getMessages()).extracting(ChatMessageResponse::getSeq).containsExactly(11L, 12L);
+    }
+
+    @Test
+    @DisplayName("순번 이후 조회 - 페이지 크기만큼만 받았으면 hasMore")
+    void resumeMessages_HasMore() {
+        // given
+        when(chatRoomRepository.findLastSeqById(1L)).thenReturn(Optional.of(50L));
+        when(chatMessageRepository.findByChatroomIdAndSeqGreaterThanOrderBySeqAsc(1L, 10L, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(message(31L, 11L), message(32L, 12L)));
+
+        // when
+        ChatMessageResumeResponse response = chatService.resumeMessages(1L, 10L, 2);
+
+        // then
+        assertThat(response.isHasMore()).isTrue();
+    }
+
+    @Test
+    @DisplayName("순번 이후 조회 - 이미 마지막 순번까지 받았으면 메시지를 조회하지 않음")
+    void resumeMessages_UpToDate() {
+        // given
+        when(chatRoomRepository.findLastSeqById(1L)).thenReturn(Optional.of(12L));
+
+        // when
+        ChatMessageResumeResponse response = chatService.resumeMessages(1L, 12L, null);
+
+        // then
+        assertThat(response.getMessages()).isEmpty();
+        assertThat(response.isHasMore()).isFalse();
+        verify(chatMessageRepository, never()).findByChatroomIdAndSeqGreaterThanOrderBySeqAsc(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("순번 이후 조회 실패 - 존재하지 않는 채팅방")
+    void resumeMessages_ChatRoomNotFound_Fail() {
+        when(chatRoomRepository.findLastSeqById(999L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> chatService.resumeMessages(999L, 0L, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     @DisplayName("메시지 읽음 처리 성공")
     void markAsRead_Success() {
@@ -269,14 +908,20 @@ class ChatServiceTest {
         Long userId = 100L;
         Long lastReadMessageId = 50L;
 
-        when(chatMemberRepository.findByUserIdAndChatroomId(userId, chatroomId))
-                .thenReturn(Optional.of(testChatMember));
+        when(chatMessageRepository.findSeqByChatroomIdAndMessageId(chatroomId, lastReadMessageId))
+                .thenReturn(Optional.of(5L));
+        when(chatMemberRepository.advanceLastRead(
+                userId, chatroomId, lastReadMessageId, 5L, ChatMessage.MessageType.TEXT))
+                .thenReturn(1);
 
         // when
         chatService.markAsRead(chatroomId, userId, lastReadMessageId);
 
         // then
-        assertThat(testChatMember.getLastReadMessageId()).isEqualTo(lastReadMessageId);
+        verify(chatMemberRepository, times(1)).advanceLastRead(
+                userId, chatroomId, lastReadMessageId, 5L, ChatMessage.MessageType.TEXT);
+        verify(chatMemberRepository, never()).existsByUserIdAndChatroomId(anyLong(), anyLong());
+        verify(inboxEventPublisher).readAdvanced(chatroomId, userId, lastReadMessageId);
     }
 
     @Test
@@ -287,8 +932,12 @@ class ChatServiceTest {
         Long userId = 999L;
         Long lastReadMessageId = 50L;
 
-        when(chatMemberRepository.findByUserIdAndChatroomId(userId, chatroomId))
-                .thenReturn(Optional.empty());
+        when(chatMessageRepository.findSeqByChatroomIdAndMessageId(chatroomId, lastReadMessageId))
+                .thenReturn(Optional.of(5L));
+        when(chatMemberRepository.advanceLastRead(
+                userId, chatroomId, lastReadMessageId, 5L, ChatMessage.MessageType.TEXT))
+                .thenReturn(0);
+        when(chatMemberRepository.existsByUserIdAndChatroomId(userId, chatroomId)).thenReturn(false);
 
         // when & then
         assertThatThrownBy(() -> chatService.markAsRead(chatroomId, userId, lastReadMessageId))
@@ -299,23 +948,93 @@ class ChatServiceTest {
     @Test
     @DisplayName("메시지 읽음 처리 - 이전 값보다 작은 경우 업데이트 안 됨")
     void markAsRead_SmallerValue_NotUpdated() {
-        // given
+        // given: 이미 더 뒤까지 읽은 상태라 조건부 UPDATE가 0건
         Long chatroomId = 1L;
         Long userId = 100L;
-        testChatMember.updateLastReadMessageId(100L);
         Long lastReadMessageId = 50L;
 
-        when(chatMemberRepository.findByUserIdAndChatroomId(userId, chatroomId))
-                .thenReturn(Optional.of(testChatMember));
+        when(chatMessageRepository.findSeqByChatroomIdAndMessageId(chatroomId, lastReadMessageId))
+                .thenReturn(Optional.of(5L));
+        when(chatMemberRepository.advanceLastRead(
+                userId, chatroomId, lastReadMessageId, 5L, ChatMessage.MessageType.TEXT))
+                .thenReturn(0);
+        when(chatMemberRepository.existsByUserIdAndChatroomId(userId, chatroomId)).thenReturn(true);
+
+        // when & then (예외 없이 무시, 읽은 위치가 그대로라 알림도 없음)
+        assertThatCode(() -> chatService.markAsRead(chatroomId, userId, lastReadMessageId))
+                .doesNotThrowAnyException();
+        verifyNoInteractions(inboxEventPublisher);
+    }
+
+    @Test
+    @DisplayName("메시지 읽음 처리 - 아직 저장되지 않은 메시지는 읽음 처리 버퍼로 넘김")
+    void markAsRead_UnsavedMessage_Buffered() {
+        // given: write-behind async 로 브로드캐스트만 되고 아직 저장 전인 메시지
+        Long chatroomId = 1L;
+        Long userId = 100L;
+        Long lastReadMessageId = 50L;
+
+        when(chatMessageRepository.findSeqByChatroomIdAndMessageId(chatroomId, lastReadMessageId))
+                .thenReturn(Optional.empty());
+        when(chatMemberRepository.existsByUserIdAndChatroomId(userId, chatroomId)).thenReturn(true);
 
         // when
         chatService.markAsRead(chatroomId, userId, lastReadMessageId);
 
         // then
-        assertThat(testChatMember.getLastReadMessageId()).isEqualTo(100L);
+        verify(readReceiptBuffer).submit(userId, chatroomId, lastReadMessageId);
+        verify(chatMemberRepository, never()).advanceLastRead(anyLong(), anyLong(), anyLong(), anyLong(), any());
+        verifyNoInteractions(inboxEventPublisher);
     }
 
     @Test
+    @DisplayName("읽음 처리 접수 - DB UPDATE 없이 모아서 저장하도록 넘김")
+    void submitReadReceipt_Buffered() {
+        // given
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+
+        // when
+        chatService.submitReadReceipt(1L, 100L, 50L);
+        chatService.submitReadReceipt(1L, 100L, 60L);
+
+        // then: 방은 한 번만 조회 (캐시), 멤버 UPDATE 는 하지 않음
+        verify(readReceiptBuffer).submit(100L, 1L, 50L);
+        verify(readReceiptBuffer).submit(100L, 1L, 60L);
+        verify(chatRoomRepository, times(1)).findById(1L);
+        verifyNoInteractions(chatMemberRepository);
+    }
+
+    @Test
+    @DisplayName("읽음 처리 접수 실패 - 멤버가 아닌 경우")
+    void submitReadReceipt_NotMember_Fail() {
+        // given
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+
+        // when & then
+        assertThatThrownBy(() -> chatService.submitReadReceipt(1L, 999L, 50L))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessageContaining("멤버가 아닙니다");
+        verifyNoInteractions(readReceiptBuffer);
+    }
+
+    @Test
+    @DisplayName("여러 방 읽음 처리 - 하나라도 멤버가 아니면 아무것도 접수하지 않음")
+    void submitReadReceipts_NotMemberOfOne_Fail() {
+        // given
+        ChatRoom otherRoom = ChatRoom.builder().ticketId(2L).buyerId(300L).sellerId(400L).build();
+        when(chatRoomRepository.findById(1L)).thenReturn(Optional.of(testChatRoom));
+        when(chatRoomRepository.findById(2L)).thenReturn(Optional.of(otherRoom));
+        List<ReadReceiptRequest> receipts = List.of(
+                new ReadReceiptRequest(1L, null, 50L),
+                new ReadReceiptRequest(2L, null, 70L));
+
+        // when & then
+        assertThatThrownBy(() -> chatService.submitReadReceipts(100L, receipts))
+                .isInstanceOf(NoSuchElementException.class);
+        verifyNoInteractions(readReceiptBuffer);
+    }
+
+        @Test
     @DisplayName("ChatMessage를 ChatMessageResponse로 변환 성공")
     void toResponse_Success() throws Exception {
         // given
@@ -329,19 +1048,32 @@ class ChatServiceTest {
                 .metadata(metadataJson)
                 .build();
 
-        Map<String, Object> metadataObj = new HashMap<>();
-        metadataObj.put("actionType", "TEST");
-
-        when(objectMapper.readValue(metadataJson, Object.class)).thenReturn(metadataObj);
-
         // when
         ChatMessageResponse response = chatService.toResponse(message);
 
-        // then
+        // then: 저장된 JSON 문자열을 파싱하지 않고 그대로 전달
         assertThat(response).isNotNull();
         assertThat(response.getMessageId()).isEqualTo(1L);
         assertThat(response.getContent()).isEqualTo("테스트");
-        assertThat(response.getMetadata()).isNotNull();
+        assertThat(response.getMetadata()).isEqualTo(metadataJson);
+        verifyNoInteractions(objectMapper);
+    }
+
+    @Test
+    @DisplayName("응답 직렬화 시 metadata는 문자열이 아니라 JSON 객체로 그대로 출력")
+    void toResponse_MetadataWrittenAsRawJson() throws Exception {
+        // given
+        ChatMessageResponse response = ChatMessageResponse.builder()
+                .messageId(1L)
+                .type("SYSTEM_ACTION_MESSAGE")
+                .metadata("{\"actionType\":\"TICKET_REQUEST\",\"actions\":[{\"isPrimary\":true}]}")
+                .build();
+
+        // when
+        String json = new ObjectMapper().findAndRegisterModules().writeValueAsString(response);
+
+        // then
+        assertThat(json).contains("\"metadata\":{\"actionType\":\"TICKET_REQUEST\",\"actions\":[{\"isPrimary\":true}]}");
     }
 
     @Test
@@ -364,4 +1096,38 @@ class ChatServiceTest {
         assertThat(response).isNotNull();
         assertThat(response.getMetadata()).isNull();
     }
+
+    private ChatMessage message(Long messageId) {
+        return ChatMessage.builder()
+                .messageId(messageId)
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessage.MessageType.TEXT)
+                .content("메시지 " + messageId)
+                .build();
+    }
+
+    private ChatMessage message(Long messageId, Long seq) {
+        return ChatMessage.builder()
+                .messageId(messageId)
+                .seq(seq)
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessage.MessageType.TEXT)
+                .content("메시지 " + messageId)
+                .build();
+    }
+
+    // userId 에게만 보이는 시스템 메시지
+    private ChatMessage targeted(Long messageId, Long seq, Long userId) {
+        return ChatMessage.builder()
+                .messageId(messageId)
+                .seq(seq)
+                .chatroomId(1L)
+                .senderId(100L)
+                .type(ChatMessage.MessageType.SYSTEM_ACTION_MESSAGE)
+                .content("메시지 " + messageId)
+                .visibleTo(userId)
+                .build();
+    }
 }
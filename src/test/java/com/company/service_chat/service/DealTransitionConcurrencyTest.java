@@ -0,0 +1,152 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.ChatRoom;
+import com.company.service_chat.entity.ChatRoom.DealStatus;
+import com.company.service_chat.entity.ChatRoom.RoomStatus;
+import com.company.service_chat.repository.ChatMemberRepository;
+import com.company.service_chat.repository.ChatMessageRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 거래 상태 전이 동시성 테스트.
+ * 요청이 몰리는 채팅방 여러 개에 양도 요청/수락/거절을 섞어서 동시에 보내도
+ * 전이마다 성공은 한 번뿐이고, 수락과 거절 중 하나만 성공하며,
+ * 최종 상태와 저장된 시스템 메시지 수가 성공한 전이와 맞는지 확인한다.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("거래 상태 전이 동시성 테스트")
+class DealTransitionConcurrencyTest {
+
+    private static final int ROOMS = 20;
+    private static final int ROUNDS = 5; // 방마다 요청/수락/거절을 각각 ROUNDS 번씩
+
+    @Autowired
+    private ChatRoomService chatRoomService;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private ChatMemberRepository chatMemberRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Test
+    @DisplayName("요청/수락/거절을 섞어서 동시에 보내도 전이는 한 번씩만, 수락과 거절은 하나만 성공")
+    void interleavedDealActionsOnHotRooms() throws Exception {
+        // given
+        List<ChatRoom> rooms = new ArrayList<>();
+        long base = 30_000L + System.nanoTime() % 1_000_000;
+        for (int i = 0; i < ROOMS; i++) {
+            ChatRoom room = chatRoomRepository.save(ChatRoom.builder()
+                    .ticketId(base + i)
+                    .buyerId(base + 10_000 + i)
+                    .sellerId(base + 20_000 + i)
+                    .build());
+            chatMemberRepository.save(new ChatMember(room.getBuyerId(), room.getChatroomId()));
+            chatMemberRepository.save(new ChatMember(room.getSellerId(), room.getChatroomId()));
+            rooms.add(room);
+        }
+
+        Map<Long, AtomicInteger> requested = new ConcurrentHashMap<>();
+        Map<Long, AtomicInteger> accepted = new ConcurrentHashMap<>();
+        Map<Long, AtomicInteger> rejected = new ConcurrentHashMap<>();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (ChatRoom room : rooms) {
+            Long id = room.getChatroomId();
+            requested.put(id, new AtomicInteger());
+            accepted.put(id, new AtomicInteger());
+            rejected.put(id, new AtomicInteger());
+            for (int round = 0; round < ROUNDS; round++) {
+                tasks.add(attempt(() -> chatRoomService.handleDealRequest(id, room.getBuyerId()), requested.get(id)));
+                tasks.add(attempt(() -> chatRoomService.handleDealAccept(id, room.getSellerId()), accepted.get(id)));
+                tasks.add(attempt(() -> chatRoomService.handleDealReject(id, room.getSellerId()), rejected.get(id)));
+            }
+        }
+        Collections.shuffle(tasks, new Random(42));
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(60, TimeUnit.SECONDS); // 상태 충돌(IllegalStateException) 외의 예외는 여기서 실패
+        }
+        executor.shutdown();
+
+        // then
+        for (ChatRoom room : rooms) {
+            Long id = room.getChatroomId();
+            ChatRoom saved = chatRoomRepository.findById(id).orElseThrow();
+            int requests = requested.get(id).get();
+            int accepts = accepted.get(id).get();
+            int rejects = rejected.get(id).get();
+
+            assertThat(requests).as("방 %d 양도 요청 성공 수", id).isLessThanOrEqualTo(1);
+            assertThat(accepts + rejects).as("방 %d 수락+거절 성공 수", id).isLessThanOrEqualTo(requests);
+
+            if (accepts == 1) {
+                assertThat(saved.getDealStatus()).isEqualTo(DealStatus.ACCEPTED);
+                assertThat(saved.getRoomStatus()).isEqualTo(RoomStatus.OPEN);
+            } else if (rejects == 1) {
+                assertThat(saved.getDealStatus()).isEqualTo(DealStatus.REJECTED);
+                assertThat(saved.getRoomStatus()).isEqualTo(RoomStatus.LOCK);
+            } else if (requests == 1) {
+                assertThat(saved.getDealStatus()).isEqualTo(DealStatus.REQUESTED);
+            } else {
+                assertThat(saved.getDealStatus()).isEqualTo(DealStatus.PENDING);
+            }
+
+            // 실패한 전이는 롤백되어 시스템 메시지가 남지 않음, 순번도 빈틈 없이 1부터
+            List<ChatMessage> messages = chatMessageRepository.findByChatroomIdOrderByMessageIdAsc(id);
+            assertThat(messages).hasSize(requests + accepts + rejects);
+            assertThat(messages).extracting(ChatMessage::getSeq)
+                    .containsExactlyInAnyOrderElementsOf(seqs(messages.size()));
+        }
+        // 요청은 PENDING 에서 항상 가능하므로 모든 방에서 한 번은 성공
+        assertThat(requested.values()).allSatisfy(count -> assertThat(count.get()).isEqualTo(1));
+    }
+
+    // 성공하면 카운트, 상태가 맞지 않아 거부되면 무시
+    private Callable<Void> attempt(Runnable action, AtomicInteger successes) {
+        return () -> {
+            try {
+                action.run();
+                successes.incrementAndGet();
+            } catch (IllegalStateException e) {
+                // 다른 요청이 먼저 상태를 바꿈
+            }
+            return null;
+        };
+    }
+
+    private List<Long> seqs(int count) {
+        List<Long> seqs = new ArrayList<>();
+        for (long seq = 1; seq <= count; seq++) {
+            seqs.add(seq);
+        }
+        return seqs;
+    }
+}
@@ -0,0 +1,131 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.dto.InboxEvent;
+import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.ChatRoom;
+import com.company.service_chat.repository.ChatMemberRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("채팅 목록 알림 테스트")
+class InboxEventPublisherTest {
+
+    private static final Long ROOM_ID = 1L;
+    private static final Long BUYER_ID = 100L;
+    private static final Long SELLER_ID = 200L;
+
+    private final ChatMessageBroadcaster broadcaster = mock(ChatMessageBroadcaster.class);
+    private final ChatRoomRepository chatRoomRepository = mock(ChatRoomRepository.class);
+    private final ChatMemberRepository chatMemberRepository = mock(ChatMemberRepository.class);
+    private final InboxEventPublisher publisher = new InboxEventPublisher(broadcaster,
+            new RoomSnapshotCache(null, "local", 300, 1_000), chatRoomRepository, chatMemberRepository, true);
+
+    @Test
+    @DisplayName("새 TEXT 메시지는 두 참여자에게 전송, 받는 사람만 안 읽은 수 +1")
+    void messageSavedNotifiesBothParticipants() {
+        // given
+        givenRoom();
+        ChatMessage message = ChatMessage.builder()
+                .messageId(500L)
+                .seq(7L)
+                .chatroomId(ROOM_ID)
+                .senderId(BUYER_ID)
+                .type(ChatMessage.MessageType.TEXT)
+                .content("안녕하세요")
+                .build();
+
+        // when
+        publisher.messageSaved(message);
+
+        // then
+        InboxEvent toBuyer = sentTo(BUYER_ID);
+        InboxEvent toSeller = sentTo(SELLER_ID);
+        assertThat(toBuyer.getType()).isEqualTo(InboxEvent.Type.MESSAGE);
+        assertThat(toBuyer.getUnreadDelta()).isZero();
+        assertThat(toSeller.getUnreadDelta()).isEqualTo(1);
+        assertThat(toSeller.getLastMessageContent()).isEqualTo("안녕하세요");
+        assertThat(toSeller.getSeq()).isEqualTo(7L);
+        verifyNoInteractions(chatMemberRepository);
+    }
+
+    @Test
+    @DisplayName("한 사람에게만 보이는 시스템 메시지는 그 사람 목록에만 전송")
+    void targetedMessageNotifiesOnlyTarget() {
+        // given
+        givenRoom();
+        ChatMessage message = ChatMessage.builder()
+                .messageId(501L)
+                .seq(8L)
+                .chatroomId(ROOM_ID)
+                .senderId(BUYER_ID)
+                .type(ChatMessage.MessageType.SYSTEM_ACTION_MESSAGE)
+                .content("구매자가 티켓 양도를 신청했습니다.")
+                .visibleTo(SELLER_ID)
+                .build();
+
+        // when
+        publisher.messageSaved(message);
+
+        // then
+        assertThat(sentTo(SELLER_ID).getMessageId()).isEqualTo(501L);
+        verify(broadcaster, never()).broadcast(eq(InboxEventPublisher.USER_QUEUE_PREFIX + BUYER_ID), any());
+    }
+
+    @Test
+    @DisplayName("읽은 위치가 바뀌면 본인에게는 남은 안 읽은 수, 상대방에게는 읽은 위치만 전송")
+    void readAdvancedNotifiesReaderAndPeer() {
+        // given
+        givenRoom();
+        ChatMember seller = new ChatMember(SELLER_ID, ROOM_ID);
+        seller.setUnreadCount(2);
+        when(chatMemberRepository.findByUserIdInAndChatroomIdIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(seller));
+
+        // when
+        publisher.readAdvanced(ROOM_ID, SELLER_ID, 480L);
+
+        // then
+        InboxEvent toReader = sentTo(SELLER_ID);
+        InboxEvent toPeer = sentTo(BUYER_ID);
+        assertThat(toReader.getType()).isEqualTo(InboxEvent.Type.READ);
+        assertThat(toReader.getUnreadCount()).isEqualTo(2);
+        assertThat(toPeer.getReaderId()).isEqualTo(SELLER_ID);
+        assertThat(toPeer.getLastReadMessageId()).isEqualTo(480L);
+        assertThat(toPeer.getUnreadCount()).isNull();
+    }
+
+    @Test
+    @DisplayName("꺼져 있으면 아무것도 보내지 않음")
+    void disabledSendsNothing() {
+        InboxEventPublisher disabled = new InboxEventPublisher(broadcaster,
+                new RoomSnapshotCache(null, "local", 300, 1_000), chatRoomRepository, chatMemberRepository, false);
+
+        disabled.readAdvanced(ROOM_ID, SELLER_ID, 480L);
+
+        verifyNoInteractions(broadcaster, chatRoomRepository, chatMemberRepository);
+    }
+
+    private void givenRoom() {
+        when(chatRoomRepository.findById(ROOM_ID)).thenReturn(Optional.of(ChatRoom.builder()
+                .ticketId(1L)
+                .buyerId(BUYER_ID)
+                .sellerId(SELLER_ID)
+                .build()));
+    }
+
+    private InboxEvent sentTo(Long userId) {
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(broadcaster).broadcast(eq(InboxEventPublisher.USER_QUEUE_PREFIX + userId), payload.capture());
+        return (InboxEvent) payload.getValue();
+    }
+}
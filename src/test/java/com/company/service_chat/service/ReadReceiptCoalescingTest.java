@@ -0,0 +1,274 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.dto.ChatMessageDto;
+import com.company.service_chat.dto.ReadReceiptRequest;
+import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.ChatRoom;
+import com.company.service_chat.entity.id.SnowflakeIdGenerator;
+import com.company.service_chat.repository.ChatMemberRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 읽음 처리 모아서 저장 테스트.
+ * 스크롤 중 여러 번 보낸 읽음 처리가 (사용자, 방)마다 순번이 가장 큰 것 하나로 합쳐지고,
+ * flush 때 배치 UPDATE 로 읽은 위치와 안 읽은 메시지 수가 함께 저장되는지 확인한다.
+ * (주기 저장이 테스트 중간에 끼어들지 않도록 flush 주기를 길게 설정하고 직접 flush)
+ */
+@SpringBootTest(properties = "chat.read-receipt.flush-interval-ms=3600000")
+@ActiveProfiles("test")
+@DisplayName("읽음 처리 모아서 저장 테스트")
+class ReadReceiptCoalescingTest {
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ReadReceiptBuffer readReceiptBuffer;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private ChatMemberRepository chatMemberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InboxEventPublisher inboxEventPublisher;
+
+    @Test
+    @DisplayName("여러 번 보낸 읽음 처리는 가장 큰 값 하나로 저장되고 안 읽은 수도 다시 계산됨")
+    void coalescesToMaxPerMember() {
+        // given: 판매자가 TEXT 5개 전송
+        ChatRoom room = room(13_000L);
+        List<Long> sentIds = sendTexts(room, 5);
+
+        // when: 구매자가 스크롤하면서 순서가 섞인 읽음 처리를 여러 번 보냄
+        chatService.submitReadReceipt(room.getChatroomId(), room.getBuyerId(), sentIds.get(1));
+        chatService.submitReadReceipt(room.getChatroomId(), room.getBuyerId(), sentIds.get(3));
+        chatService.submitReadReceipt(room.getChatroomId(), room.getBuyerId(), sentIds.get(2));
+
+        // then: flush 전에는 DB 그대로, flush 하면 (사용자, 방) 1건만 저장
+        assertThat(member(room.getBuyerId(), room).getUnreadCount()).isEqualTo(5);
+        assertThat(readReceiptBuffer.flush()).isEqualTo(1);
+
+        ChatMember buyer = member(room.getBuyerId(), room);
+        assertThat(buyer.getLastReadMessageId()).isEqualTo(sentIds.get(3));
+        assertThat(buyer.getUnreadCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("이미 더 뒤까지 읽은 뒤 늦게 도착한 작은 값은 읽은 위치를 되돌리지 않음")
+    void doesNotMoveBackwards() {
+        // given
+        ChatRoom room = room(14_000L);
+        List<Long> sentIds = sendTexts(room, 3);
+        chatService.submitReadReceipt(room.getChatroomId(), room.getBuyerId(), sentIds.get(2));
+        readReceiptBuffer.flush();
+
+        // when: 다른 파드에 늦게 도착한 예전 읽음 처리
+        chatService.submitReadReceipt(room.getChatroomId(), room.getBuyerId(), sentIds.get(0));
+        readReceiptBuffer.flush();
+
+        // then
+        ChatMember buyer = member(room.getBuyerId(), room);
+        assertThat(buyer.getLastReadMessageId()).isEqualTo(sentIds.get(2));
+        assertThat(buyer.getUnreadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("여러 방 읽음 처리: 값이 없는 방은 최신 메시지까지, 한 번의 flush 로 저장")
+    void bulkMarksManyRooms() {
+        // given
+        ChatRoom first = room(15_000L);
+        ChatRoom second = room(16_000L);
+        List<Long> firstIds = sendTexts(first, 4);
+        sendTexts(second, 2);
+
+        // when: 첫 방은 2번째 메시지까지, 둘째 방은 전부 읽음
+        Long buyerId = first.getBuyerId();
+        chatService.submitReadReceipts(buyerId, List.of(
+                new ReadReceiptRequest(first.getChatroomId(), null, firstIds.get(1)),
+                new ReadReceiptRequest(second.getChatroomId(), null, null)));
+
+        // then
+        assertThat(readReceiptBuffer.flush()).isEqualTo(2);
+        assertThat(member(buyerId, first).getUnreadCount()).isEqualTo(2);
+        assertThat(member(buyerId, second).getUnreadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("배치 하나가 실패해도 뒤 배치는 저장하고, 실패한 배치만 다시 대기")
+    void failedBatchDoesNotDropLaterBatches() {
+        // given: 배치 크기 1, 가운데 방의 UPDATE 만 실패하는 버퍼
+        ChatRoom first = room(18_000L);
+        ChatRoom failing = room(19_000L);
+        ChatRoom last = room(20_000L);
+        Long firstRead = sendTexts(first, 1).get(0);
+        Long failingRead = sendTexts(failing, 1).get(0);
+        Long lastRead = sendTexts(last, 1).get(0);
+
+        JdbcTemplate failingJdbc = spy(jdbcTemplate);
+        doAnswer(invocation -> {
+            Collection<Map.Entry<?, Long>> batch = invocation.getArgument(1);
+            if (batch.stream().anyMatch(entry -> entry.getValue().equals(failingRead))) {
+                throw new DataAccessResourceFailureException("UPDATE 실패");
+            }
+            return invocation.callRealMethod();
+        }).when(failingJdbc).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        ReadReceiptBuffer buffer = new ReadReceiptBuffer(failingJdbc, transactionManager, inboxEventPublisher, 1, 60_000);
+
+        Long buyerId = first.getBuyerId();
+        buffer.submit(buyerId, first.getChatroomId(), firstRead);
+        buffer.submit(buyerId, failing.getChatroomId(), failingRead);
+        buffer.submit(buyerId, last.getChatroomId(), lastRead);
+
+        // when & then
+        assertThatThrownBy(buffer::flush).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(member(buyerId, first).getLastReadMessageId()).isEqualTo(firstRead);
+        assertThat(member(buyerId, last).getLastReadMessageId()).isEqualTo(lastRead);
+        assertThat(member(buyerId, failing).getUnreadCount()).isEqualTo(1);
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("시계가 늦은 파드가 만든 메시지(더 작은 messageId)도 순번 기준으로 읽은 위치를 앞으로 옮김")
+    void comparesBySeqNotMessageId() {
+        // given: 두 번째 메시지까지 읽은 상태
+        ChatRoom room = room(21_000L);
+        List<Long> sentIds = sendTexts(room, 2);
+        chatService.submitReadReceipt(room.getChatroomId(), room.getBuyerId(), sentIds.get(1));
+        readReceiptBuffer.flush();
+
+        // 시계가 늦은 다른 파드가 저장한 세 번째 메시지 (messageId 는 앞의 메시지보다 작고 순번은 3)
+        long skewedId = sentIds.get(0) - 1;
+        jdbcTemplate.update("""
+                INSERT INTO chat_messages (message_id, chatroom_id, sender_id, type, content, sent_at, seq)
+                VALUES (?, ?, ?, 'TEXT', '늦은 시계', CURRENT_TIMESTAMP, 3)
+                """, skewedId, room.getChatroomId(), room.getSellerId());
+        jdbcTemplate.update("UPDATE chat_rooms SET last_seq = 3 WHERE chatroom_id = ?", room.getChatroomId());
+        jdbcTemplate.update("UPDATE chat_members SET unread_count = 1 WHERE user_id = ? AND chatroom_id = ?",
+                room.getBuyerId(), room.getChatroomId());
+
+        // when
+        chatService.submitReadReceipt(room.getChatroomId(), room.getBuyerId(), skewedId);
+        readReceiptBuffer.flush();
+
+        // then
+        ChatMember buyer = member(room.getBuyerId(), room);
+        assertThat(buyer.getLastReadMessageId()).isEqualTo(skewedId);
+        assertThat(buyer.getLastReadSeq()).isEqualTo(3);
+        assertThat(buyer.getUnreadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("한 주기에 같이 모인 읽음 처리는 messageId 가 아니라 순번이 가장 큰 것으로 합침")
+    void coalescesBySeqNotMessageId() {
+        // given: 두 메시지 + 시계가 늦은 파드가 저장한 세 번째 메시지 (messageId 는 가장 작고 순번은 3)
+        ChatRoom room = room(24_000L);
+        List<Long> sentIds = sendTexts(room, 2);
+        long skewedId = sentIds.get(0) - 1;
+        jdbcTemplate.update("""
+                INSERT INTO chat_messages (message_id, chatroom_id, sender_id, type, content, sent_at, seq)
+                VALUES (?, ?, ?, 'TEXT', '늦은 시계', CURRENT_TIMESTAMP, 3)
+                """, skewedId, room.getChatroomId(), room.getSellerId());
+        jdbcTemplate.update("UPDATE chat_rooms SET last_seq = 3 WHERE chatroom_id = ?", room.getChatroomId());
+        jdbcTemplate.update("UPDATE chat_members SET unread_count = 3 WHERE user_id = ? AND chatroom_id = ?",
+                room.getBuyerId(), room.getChatroomId());
+
+        // when: flush 전에 순번 3(작은 ID) -> 순번 2(큰 ID) 순서로 도착
+        chatService.submitReadReceipt(room.getChatroomId(), room.getBuyerId(), skewedId);
+        chatService.submitReadReceipt(room.getChatroomId(), room.getBuyerId(), sentIds.get(1));
+
+        // then: (사용자, 방) 1건, 순번 3까지 읽음
+        assertThat(readReceiptBuffer.flush()).isEqualTo(1);
+        ChatMember buyer = member(room.getBuyerId(), room);
+        assertThat(buyer.getLastReadMessageId()).isEqualTo(skewedId);
+        assertThat(buyer.getLastReadSeq()).isEqualTo(3);
+        assertThat(buyer.getUnreadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("아직 저장되지 않은 메시지는 다음 주기까지 대기, 오래된 ID 인데 없는 메시지는 버림")
+    void keepsUnsavedAndDropsUnknown() {
+        // given: 남은 읽음 처리가 다른 테스트에 섞이지 않도록 따로 만든 버퍼
+        ChatRoom room = room(22_000L);
+        ChatRoom other = room(23_000L);
+        long unsavedId = SnowflakeIdGenerator.getInstance().nextId();
+        ReadReceiptBuffer buffer = new ReadReceiptBuffer(jdbcTemplate, transactionManager, inboxEventPublisher, 500, 60_000);
+
+        // when
+        buffer.submit(room.getBuyerId(), room.getChatroomId(), unsavedId);
+        buffer.submit(other.getBuyerId(), other.getChatroomId(), 1L);
+
+        // then
+        assertThat(buffer.flush()).isZero();
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+        assertThat(member(room.getBuyerId(), room).getLastReadSeq()).isZero();
+    }
+
+    @Test
+    @DisplayName("멤버가 아니면 접수하지 않음")
+    void rejectsNonMember() {
+        // given
+        ChatRoom room = room(17_000L);
+
+        // when & then
+        assertThatThrownBy(() -> chatService.submitReadReceipt(room.getChatroomId(), 99_999L, 1L))
+                .isInstanceOf(NoSuchElementException.class);
+        assertThat(readReceiptBuffer.pendingCount()).isZero();
+    }
+
+    // 구매자는 모든 방에서 같은 사용자 (여러 방 읽음 처리 테스트용)
+    private ChatRoom room(long base) {
+        ChatRoom room = chatRoomRepository.save(ChatRoom.builder()
+                .ticketId(base)
+                .buyerId(13_001L)
+                .sellerId(base + 2)
+                .build());
+        chatMemberRepository.save(new ChatMember(room.getBuyerId(), room.getChatroomId()));
+        chatMemberRepository.save(new ChatMember(room.getSellerId(), room.getChatroomId()));
+        return room;
+    }
+
+    private List<Long> sendTexts(ChatRoom room, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ChatMessage saved = chatService.saveMessage(ChatMessageDto.builder()
+                    .chatroomId(room.getChatroomId())
+                    .senderId(room.getSellerId())
+                    .type(ChatMessageDto.MessageType.TEXT)
+                    .content("메시지 " + i)
+                    .build());
+            ids.add(saved.getMessageId());
+        }
+        return ids;
+    }
+
+    private ChatMember member(Long userId, ChatRoom room) {
+        return chatMemberRepository.findByUserIdAndChatroomId(userId, room.getChatroomId()).orElseThrow();
+    }
+}
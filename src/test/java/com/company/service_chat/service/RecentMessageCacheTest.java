@@ -0,0 +1,282 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.dto.ChatMessageResponse;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.repository.ChatMessageRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("최근 메시지 캐시 테스트")
+class RecentMessageCacheTest {
+
+    private static final Long ROOM_ID = 1L;
+
+    private final ChatMessageRepository chatMessageRepository = mock(ChatMessageRepository.class);
+    private final ChatRoomRepository chatRoomRepository = mock(ChatRoomRepository.class);
+    private final ChatMessageWriteBehindBuffer writeBehindBuffer = mock(ChatMessageWriteBehindBuffer.class);
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    @DisplayName("처음 조회할 때만 DB에서 채우고 이후 조회/저장은 캐시에서 처리")
+    void loadsOnceThenServesFromMemory() {
+        // given: 방에 메시지 3개
+        RecentMessageCache cache = cache(5, 30);
+        when(chatMessageRepository.findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class)))
+                .thenReturn(latestDesc(3));
+        when(chatRoomRepository.findLastSeqById(ROOM_ID)).thenReturn(Optional.of(3L));
+
+        // when
+        RecentMessageCache.Snapshot first = cache.get(ROOM_ID).orElseThrow();
+        cache.append(ROOM_ID, response(4));
+        RecentMessageCache.Snapshot second = cache.get(ROOM_ID).orElseThrow();
+
+        // then
+        assertThat(first.isComplete()).isTrue();
+        assertThat(second.messages()).extracting(ChatMessageResponse::getSeq).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(second.lastSeq()).isEqualTo(4L);
+        verify(chatMessageRepository, times(1)).findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class));
+        verify(chatRoomRepository, times(1)).findLastSeqById(ROOM_ID); // 채운 직후 확인 한 번
+    }
+
+    @Test
+    @DisplayName("가득 차면 오래된 메시지부터 버리고 방 전체가 아님을 표시")
+    void evictsOldestWhenFull() {
+        // given
+        RecentMessageCache cache = cache(3, 30);
+        when(chatMessageRepository.findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class)))
+                .thenReturn(latestDesc(3));
+        when(chatRoomRepository.findLastSeqById(ROOM_ID)).thenReturn(Optional.of(3L));
+        cache.get(ROOM_ID);
+
+        // when
+        cache.append(ROOM_ID, response(4));
+        cache.append(ROOM_ID, response(5));
+
+        // then
+        RecentMessageCache.Snapshot snapshot = cache.get(ROOM_ID).orElseThrow();
+        assertThat(snapshot.messages()).extracting(ChatMessageResponse::getSeq).containsExactly(3L, 4L, 5L);
+        assertThat(snapshot.firstSeq()).isEqualTo(3L);
+        assertThat(snapshot.isComplete()).isFalse();
+    }
+
+    @Test
+    @DisplayName("순번이 건너뛰면(놓친 메시지) 방 캐시를 버리고 다음 조회 때 DB에서 다시 채움")
+    void gapInvalidatesRoom() {
+        // given
+        RecentMessageCache cache = cache(5, 30);
+        when(chatMessageRepository.findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class)))
+                .thenReturn(latestDesc(3))
+                .thenReturn(latestDesc(5));
+        when(chatRoomRepository.findLastSeqById(ROOM_ID))
+                .thenReturn(Optional.of(3L))
+                .thenReturn(Optional.of(5L));
+        cache.get(ROOM_ID);
+
+        // when: 4번을 놓치고 5번이 들어옴
+        cache.append(ROOM_ID, response(5));
+
+        // then
+        assertThat(cache.get(ROOM_ID).orElseThrow().messages())
+                .extracting(ChatMessageResponse::getSeq).containsExactly(1L, 2L, 3L, 4L, 5L);
+        verify(chatMessageRepository, times(2)).findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("다른 파드가 브로드캐스트한 메시지(JSON)를 반영, 자기 메시지가 다시 들어와도 중복 없음")
+    void appliesRemoteBroadcast() throws Exception {
+        // given
+        RecentMessageCache cache = cache(5, 30);
+        when(chatMessageRepository.findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class)))
+                .thenReturn(latestDesc(2));
+        when(chatRoomRepository.findLastSeqById(ROOM_ID)).thenReturn(Optional.of(2L));
+        cache.get(ROOM_ID);
+        ChatMessageResponse remote = ChatMessageResponse.builder()
+                .messageId(103L)
+                .seq(3L)
+                .senderId(200L)
+                .type("SYSTEM_ACTION_MESSAGE")
+                .content("양도 요청")
+                .sentAt(LocalDateTime.of(2025, 1, 1, 12, 0))
+                .metadata("{\"actionType\":\"TICKET_REQUEST\"}")
+                .build();
+        byte[] json = objectMapper.writeValueAsBytes(remote);
+
+        // when
+        cache.applyRemote(ROOM_ID, null, json);
+        cache.applyRemote(ROOM_ID, null, json);
+
+        // then
+        List<ChatMessageResponse> messages = cache.get(ROOM_ID).orElseThrow().messages();
+        assertThat(messages).extracting(ChatMessageResponse::getSeq).containsExactly(1L, 2L, 3L);
+        assertThat(messages.get(2).getMetadata()).isEqualTo("{\"actionType\":\"TICKET_REQUEST\"}");
+        assertThat(messages.get(2).getSentAt()).isEqualTo(LocalDateTime.of(2025, 1, 1, 12, 0));
+    }
+
+    @Test
+    @DisplayName("사용자 채팅방 큐로 온 메시지는 그 사용자에게만 보이도록 반영, HIDDEN 프레임은 무시")
+    void appliesTargetedRemoteBroadcast() throws Exception {
+        // given
+        RecentMessageCache cache = cache(5, 30);
+        when(chatMessageRepository.findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class)))
+                .thenReturn(latestDesc(2));
+        when(chatRoomRepository.findLastSeqById(ROOM_ID)).thenReturn(Optional.of(2L));
+        cache.get(ROOM_ID);
+        byte[] targeted = objectMapper.writeValueAsBytes(ChatMessageResponse.builder()
+                .messageId(103L)
+                .seq(3L)
+                .type("SYSTEM_ACTION_MESSAGE")
+                .content("양도 요청")
+                .build());
+
+        // when
+        cache.applyRemote(ROOM_ID, 100L, objectMapper.writeValueAsBytes(ChatMessageResponse.hidden(3L)));
+        cache.applyRemote(ROOM_ID, 200L, targeted);
+        cache.append(ROOM_ID, response(4));
+
+        // then: 이어서 온 4번도 그대로 붙음 (3번을 놓친 것으로 보지 않음)
+        List<ChatMessageResponse> messages = cache.get(ROOM_ID).orElseThrow().messages();
+        assertThat(messages).extracting(ChatMessageResponse::getSeq).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(messages.get(2).visibleFor(200L)).isTrue();
+        assertThat(messages.get(2).visibleFor(100L)).isFalse();
+        verify(chatMessageRepository, times(1)).findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("캐시에 없는 방의 브로드캐스트는 파싱하지 않고 무시")
+    void ignoresRemoteForUncachedRoom() {
+        RecentMessageCache cache = cache(5, 30);
+
+        cache.applyRemote(ROOM_ID, null, "not-json".getBytes());
+
+        verifyNoInteractions(chatMessageRepository, chatRoomRepository);
+    }
+
+    @Test
+    @DisplayName("마지막 갱신 후 오래 지나면 방의 마지막 순번과 비교해서 다르면 다시 채움")
+    void staleWindowIsVerifiedAgainstRoom() {
+        // given: max-staleness 0초 -> 조회할 때마다 확인
+        RecentMessageCache cache = cache(5, 0);
+        when(chatMessageRepository.findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class)))
+                .thenReturn(latestDesc(2))
+                .thenReturn(latestDesc(3));
+        when(chatRoomRepository.findLastSeqById(ROOM_ID)).thenReturn(Optional.of(2L));
+        cache.get(ROOM_ID);
+
+        // when: 다른 파드에서 저장된 3번 브로드캐스트를 놓침
+        when(chatRoomRepository.findLastSeqById(ROOM_ID)).thenReturn(Optional.of(3L));
+        RecentMessageCache.Snapshot snapshot = cache.get(ROOM_ID).orElseThrow();
+
+        // then
+        assertThat(snapshot.lastSeq()).isEqualTo(3L);
+        verify(chatMessageRepository, times(2)).findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("DB에서 채우는 동안 커밋된 메시지를 놓치면 캐시하지 않고, 다음 조회 때 다시 채움")
+    void messageCommittedDuringLoadIsNotLost() {
+        // given: 3번까지 읽은 직후 4번이 커밋되고 append 가 로딩 중에 들어옴 (캐시에 없는 방으로 보고 버려짐)
+        RecentMessageCache cache = cache(5, 30);
+        when(chatMessageRepository.findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    cache.append(ROOM_ID, response(4));
+                    return latestDesc(3);
+                })
+                .thenReturn(latestDesc(4));
+        when(chatRoomRepository.findLastSeqById(ROOM_ID)).thenReturn(Optional.of(4L));
+
+        // when
+        Optional<RecentMessageCache.Snapshot> first = cache.get(ROOM_ID);
+        Optional<RecentMessageCache.Snapshot> second = cache.get(ROOM_ID);
+
+        // then: 4번이 빠진 창은 완전한 것으로 쓰지 않음 (호출하는 쪽에서 DB 조회)
+        assertThat(first).isEmpty();
+        assertThat(second.orElseThrow().messages())
+                .extracting(ChatMessageResponse::getSeq).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    @DisplayName("write-behind async 로 브로드캐스트됐지만 아직 저장되지 않은 메시지는 DB 행 뒤에 이어 붙여서 채움")
+    void loadIncludesUnflushedMessages() {
+        // given: DB에는 1..3, 대기열에는 3..5 (3은 DB를 읽기 전에 저장됨)
+        RecentMessageCache cache = cache(5, 30);
+        List<ChatMessage> unflushed = new ArrayList<>(latestDesc(5).subList(0, 3));
+        Collections.reverse(unflushed);
+        when(writeBehindBuffer.unflushedMessages(ROOM_ID)).thenReturn(unflushed);
+        when(chatMessageRepository.findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class)))
+                .thenReturn(latestDesc(3));
+        when(chatRoomRepository.findLastSeqById(ROOM_ID)).thenReturn(Optional.of(5L));
+
+        // when
+        RecentMessageCache.Snapshot snapshot = cache.get(ROOM_ID).orElseThrow();
+        cache.append(ROOM_ID, response(6));
+
+        // then
+        assertThat(snapshot.messages()).extracting(ChatMessageResponse::getSeq).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(cache.get(ROOM_ID).orElseThrow().lastSeq()).isEqualTo(6L);
+        verify(chatMessageRepository, times(1)).findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("순번이 없는 예전 메시지가 있는 방은 캐시하지 않음")
+    void doesNotCacheRoomWithoutSeq() {
+        // given
+        RecentMessageCache cache = cache(5, 30);
+        ChatMessage legacy = ChatMessage.builder()
+                .messageId(100L).chatroomId(ROOM_ID).senderId(100L)
+                .type(ChatMessage.MessageType.TEXT).content("예전 메시지")
+                .build();
+        when(chatMessageRepository.findByChatroomIdOrderBySeqDesc(eq(ROOM_ID), any(Pageable.class)))
+                .thenReturn(List.of(legacy));
+
+        // when & then
+        assertThat(cache.get(ROOM_ID)).isEmpty();
+    }
+
+    private RecentMessageCache cache(int size, long maxStalenessSeconds) {
+        return new RecentMessageCache(chatMessageRepository, chatRoomRepository, writeBehindBuffer, objectMapper,
+                new SimpleMeterRegistry(), true, size, 100, 600, maxStalenessSeconds);
+    }
+
+    // 순번 count..1 (최신순)
+    private List<ChatMessage> latestDesc(int count) {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (long seq = count; seq >= 1; seq--) {
+            messages.add(ChatMessage.builder()
+                    .messageId(100L + seq)
+                    .seq(seq)
+                    .chatroomId(ROOM_ID)
+                    .senderId(100L)
+                    .type(ChatMessage.MessageType.TEXT)
+                    .content("메시지 " + seq)
+                    .build());
+        }
+        return messages;
+    }
+
+    private ChatMessageResponse response(long seq) {
+        return ChatMessageResponse.builder()
+                .messageId(100L + seq)
+                .seq(seq)
+                .senderId(100L)
+                .type("TEXT")
+                .content("메시지 " + seq)
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.dto.ChatMessageDto;
+import com.company.service_chat.dto.ChatRoomResponse;
+import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.repository.ChatMemberRepository;
+import com.company.service_chat.repository.ChatMessageRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DisplayName("Snowflake ID + JDBC 배치 INSERT 테스트")
+class RoomCreationBatchingTest {
+
+    @Autowired
+    private ChatRoomService chatRoomService;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatMemberRepository chatMemberRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private TicketLookupService ticketLookupService;
+
+    @Test
+    @DisplayName("채팅방 생성 시 방/멤버/시스템 메시지 INSERT가 테이블별 배치로 묶임")
+    void createRoomBatchesInserts() {
+        // given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        when(ticketLookupService.getSellerId(11_000L)).thenReturn(11_200L);
+        statistics.clear();
+
+        // when
+        ChatRoomResponse response = chatRoomService.createRoom(11_000L, 11_100L);
+
+        // then
+        // 열린 방 조회 1 + INSERT(방 1, 멤버 배치 1, 메시지 배치 1) + 최신 메시지 포인터 UPDATE 1
+        // (첫 메시지 순번은 방 INSERT 때 같이 예약하므로 순번 예약 UPDATE/조회 없음)
+        // (IDENTITY 때는 방/멤버 2/메시지 2 INSERT 와 멤버 존재 확인 2, 포인터 UPDATE 2 로 10번)
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(5);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+
+        assertThat(chatMemberRepository.findByUserIdAndChatroomId(11_100L, response.getChatroomId())).isPresent();
+        assertThat(chatMemberRepository.findByUserIdAndChatroomId(11_200L, response.getChatroomId())).isPresent();
+        assertThat(chatMessageRepository.findByChatroomIdOrderByMessageIdAsc(response.getChatroomId()))
+                .extracting(ChatMessage::getType)
+                .containsExactly(ChatMessage.MessageType.SYSTEM_ACTION_MESSAGE, ChatMessage.MessageType.SYSTEM_INFO_MESSAGE);
+    }
+
+    @Test
+    @DisplayName("Snowflake 메시지 ID는 방 안에서 보낸 순서대로 증가하고 읽음 처리 기준으로 그대로 사용 가능")
+    void messageIdsStayOrderedForReadTracking() {
+        // given
+        when(ticketLookupService.getSellerId(12_000L)).thenReturn(12_200L);
+        Long chatroomId = chatRoomService.createRoom(12_000L, 12_100L).getChatroomId();
+
+        List<Long> sentIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sentIds.add(chatService.saveMessage(ChatMessageDto.builder()
+                    .chatroomId(chatroomId)
+                    .senderId(12_200L)
+                    .type(ChatMessageDto.MessageType.TEXT)
+                    .content("msg-" + i)
+                    .build()).getMessageId());
+        }
+
+        // then: 보낸 순서 == ID 순서
+        assertThat(sentIds).isSorted().doesNotHaveDuplicates();
+
+        // when: 세 번째 메시지까지 읽음
+        chatService.markAsRead(chatroomId, 12_100L, sentIds.get(2));
+
+        // then: 이후 두 개만 안 읽음
+        ChatMember buyer = chatMemberRepository.findByUserIdAndChatroomId(12_100L, chatroomId).orElseThrow();
+        assertThat(buyer.getLastReadMessageId()).isEqualTo(sentIds.get(2));
+        assertThat(buyer.getUnreadCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,108 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.dto.ChatRoomResponse;
+import com.company.service_chat.entity.ChatRoom;
+import com.company.service_chat.repository.ChatMemberRepository;
+import com.company.service_chat.repository.ChatMessageRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 채팅방 생성 중복 방지 테스트.
+ * "판매자와 채팅하기" 버튼을 연달아 누른 것처럼 같은 (티켓, 구매자)로 동시에 생성 요청을 보내도
+ * chat_rooms.active_key 유니크 키로 방 하나와 안내 메시지 한 쌍만 저장되는지 확인한다.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("채팅방 생성 중복 방지 테스트")
+class RoomCreationIdempotencyTest {
+
+    private static final int REQUESTS = 100;
+
+    @Autowired
+    private ChatRoomService chatRoomService;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private ChatMemberRepository chatMemberRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @MockBean
+    private TicketLookupService ticketLookupService;
+
+    @Test
+    @DisplayName("동시에 100번 생성해도 방은 하나, 모든 요청이 같은 방을 받음")
+    void parallelCreatesProduceOneRoom() throws Exception {
+        // given: 티켓 서비스 응답이 느려서 모든 요청이 열린 방 조회를 통과한 뒤 INSERT 하도록
+        Long ticketId = 20_000L;
+        Long buyerId = 20_100L;
+        when(ticketLookupService.getSellerId(ticketId)).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return 20_200L;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ChatRoomResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return chatRoomService.createRoom(ticketId, buyerId);
+            }));
+        }
+
+        // when
+        start.countDown();
+        List<Long> chatroomIds = new ArrayList<>();
+        for (Future<ChatRoomResponse> future : futures) {
+            chatroomIds.add(future.get(60, TimeUnit.SECONDS).getChatroomId());
+        }
+        executor.shutdown();
+
+        // then
+        Long chatroomId = chatroomIds.get(0);
+        assertThat(chatroomIds).containsOnly(chatroomId);
+        assertThat(chatRoomRepository.findAll())
+                .filteredOn(room -> ticketId.equals(room.getTicketId()) && buyerId.equals(room.getBuyerId()))
+                .extracting(ChatRoom::getChatroomId)
+                .containsExactly(chatroomId);
+        assertThat(chatMemberRepository.findByUserIdAndChatroomId(buyerId, chatroomId)).isPresent();
+        assertThat(chatMessageRepository.findByChatroomIdOrderByMessageIdAsc(chatroomId)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("구매자가 방을 나간 뒤 다시 만들면 새 방")
+    void createsNewRoomAfterBuyerLeaves() {
+        // given
+        Long ticketId = 21_000L;
+        Long buyerId = 21_100L;
+        when(ticketLookupService.getSellerId(ticketId)).thenReturn(21_200L);
+        Long first = chatRoomService.createRoom(ticketId, buyerId).getChatroomId();
+
+        // when
+        Long again = chatRoomService.createRoom(ticketId, buyerId).getChatroomId();
+        chatRoomService.deleteChatRoomForUser(first, buyerId);
+        Long afterLeave = chatRoomService.createRoom(ticketId, buyerId).getChatroomId();
+
+        // then
+        assertThat(again).isEqualTo(first);
+        assertThat(afterLeave).isNotEqualTo(first);
+        verify(ticketLookupService, times(2)).getSellerId(ticketId);
+    }
+}
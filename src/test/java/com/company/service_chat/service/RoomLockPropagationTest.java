@@ -0,0 +1,238 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.dto.ChatMessageDto;
+import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.ChatRoom;
+import com.company.service_chat.repository.ChatMemberRepository;
+import com.company.service_chat.repository.ChatMessageRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 채팅방 잠금 전파 테스트.
+ * 같은 DB를 쓰는 두 파드(A: 스프링 빈, B: 자기만의 방 캐시를 가진 ChatService)를 만들고,
+ * 두 파드 모두 방 캐시가 채워진 상태에서 A에서 관리자가 방을 잠갔을 때
+ * Redis 무효화 메시지가 B에 도착하기 전에도 양쪽 모두 TEXT 메시지를 바로 거부하는지 확인한다.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("채팅방 잠금 전파 테스트 (파드 2개)")
+class RoomLockPropagationTest {
+
+    @Autowired
+    private ChatService chatService; // 파드 A
+
+    @Autowired
+    private ChatRoomService chatRoomService; // 파드 A
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private ChatMemberRepository chatMemberRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ChatMessageWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChatMetrics chatMetrics;
+
+    @Autowired
+    private RecentMessageCache recentMessageCache;
+
+    @Autowired
+    private ReadReceiptBuffer readReceiptBuffer;
+
+    @Autowired
+    private InboxEventPublisher inboxEventPublisher;
+
+    private RoomSnapshotCache nodeBRoomCache;
+    private ChatService nodeB; // 스프링 프록시가 아니므로 트랜잭션을 직접 여는 saveMessage(dto, onSaved)만 사용
+    private ChatRoom room;
+
+    @BeforeEach
+    void setUp() {
+        nodeBRoomCache = new RoomSnapshotCache(null, "local", 300, 1_000);
+        nodeB = new ChatService(chatMessageRepository, chatRoomRepository, chatMemberRepository, objectMapper,
+                writeBehindBuffer, transactionManager, chatMetrics, recentMessageCache, nodeBRoomCache,
+                readReceiptBuffer, inboxEventPublisher);
+
+        long base = 11_000L + System.nanoTime() % 1_000_000;
+        room = chatRoomRepository.save(ChatRoom.builder()
+                .ticketId(base)
+                .buyerId(base + 1)
+                .sellerId(base + 2)
+                .build());
+        chatMemberRepository.save(new ChatMember(room.getBuyerId(), room.getChatroomId()));
+        chatMemberRepository.save(new ChatMember(room.getSellerId(), room.getChatroomId()));
+    }
+
+    @Test
+    @DisplayName("관리자가 잠그면 무효화 메시지를 받기 전인 파드에서도 다음 TEXT부터 거부")
+    void lockIsEnforcedOnEveryNodeImmediately() {
+        // given: 두 파드 모두 방 캐시가 OPEN 상태로 채워짐
+        chatService.saveMessage(text(room.getBuyerId(), "A에서 보냄"));
+        nodeB.saveMessage(text(room.getSellerId(), "B에서 보냄"), saved -> { });
+        assertThat(nodeBRoomCache.get(room.getChatroomId(), id -> { throw new AssertionError("캐시되어 있어야 함"); })
+                .orElseThrow().roomStatus()).isEqualTo(ChatRoom.RoomStatus.OPEN);
+        long savedBefore = chatMessageRepository.count();
+
+        // when: 파드 A에서 관리자 잠금 (B에는 Redis 무효화가 오지 않음)
+        chatRoomService.updateRoomStatus(room.getChatroomId(), ChatRoom.RoomStatus.LOCK);
+
+        // then: A는 커밋 후 무효화된 캐시로, B는 순번 예약 UPDATE에서 거부
+        assertThatThrownBy(() -> chatService.saveMessage(text(room.getBuyerId(), "잠긴 뒤 A")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> nodeB.saveMessage(text(room.getSellerId(), "잠긴 뒤 B"), saved -> { }))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(chatMessageRepository.count()).isEqualTo(savedBefore);
+
+        // B의 캐시도 잠긴 상태로 다시 채워지고, 시스템 메시지는 계속 저장 가능
+        assertThat(nodeBRoomCache.get(room.getChatroomId(), chatRoomRepository::findById)
+                .orElseThrow().roomStatus()).isEqualTo(ChatRoom.RoomStatus.LOCK);
+        nodeB.saveMessage(ChatMessageDto.builder()
+                .chatroomId(room.getChatroomId())
+                .senderId(room.getSellerId())
+                .type(ChatMessageDto.MessageType.SYSTEM_INFO_MESSAGE)
+                .content("채팅이 잠금 상태로 전환됩니다.")
+                .build(), saved -> { });
+        assertThat(chatMessageRepository.count()).isEqualTo(savedBefore + 1);
+    }
+
+    @Test
+    @DisplayName("write-behind 모드 파드도 무효화 메시지를 받기 전에 잠긴 방의 TEXT 를 배치 저장에서 거부")
+    void lockIsEnforcedByWriteBehindBatch() {
+        // given: 파드 B가 write-behind(group-commit) 모드, 방 캐시는 OPEN
+        ChatMessageWriteBehindBuffer nodeBBuffer = new ChatMessageWriteBehindBuffer(jdbcTemplate, chatRoomRepository,
+                chatMemberRepository, transactionManager, ChatMessageWriteBehindBuffer.MODE_WRITE_BEHIND,
+                ChatMessageWriteBehindBuffer.DURABILITY_GROUP_COMMIT, 10, 500, 1_000, 5_000);
+        ChatService writeBehindNode = new ChatService(chatMessageRepository, chatRoomRepository, chatMemberRepository,
+                objectMapper, nodeBBuffer, transactionManager, chatMetrics, recentMessageCache, nodeBRoomCache,
+                readReceiptBuffer, inboxEventPublisher);
+        try {
+            writeBehindNode.saveMessage(text(room.getSellerId(), "B에서 보냄"), saved -> { });
+            long savedBefore = chatMessageRepository.count();
+
+            // when: 파드 A에서 관리자 잠금 (B에는 Redis 무효화가 오지 않음)
+            chatRoomService.updateRoomStatus(room.getChatroomId(), ChatRoom.RoomStatus.LOCK);
+
+            // then: 대기열에는 들어가지만 배치 저장의 순번 예약에서 거부, 브로드캐스트 없음
+            List<ChatMessage> broadcast = new ArrayList<>();
+            assertThatThrownBy(() -> writeBehindNode.saveMessage(text(room.getSellerId(), "잠긴 뒤 B"), broadcast::add))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("잠긴 채팅방");
+            assertThat(broadcast).isEmpty();
+            assertThat(chatMessageRepository.count()).isEqualTo(savedBefore);
+
+            // 방 캐시를 다시 읽어서 다음 TEXT 는 대기열에 넣기 전에 거부, 시스템 메시지는 계속 저장
+            assertThat(nodeBRoomCache.get(room.getChatroomId(), chatRoomRepository::findById)
+                    .orElseThrow().roomStatus()).isEqualTo(ChatRoom.RoomStatus.LOCK);
+            writeBehindNode.saveMessage(ChatMessageDto.builder()
+                    .chatroomId(room.getChatroomId())
+                    .senderId(room.getSellerId())
+                    .type(ChatMessageDto.MessageType.SYSTEM_INFO_MESSAGE)
+                    .content("채팅이 잠금 상태로 전환됩니다.")
+                    .build(), saved -> { });
+            assertThat(chatMessageRepository.count()).isEqualTo(savedBefore + 1);
+        } finally {
+            nodeBBuffer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("write-behind async 모드 파드는 브로드캐스트 전 순번 예약에서 잠긴 방의 TEXT 를 거부")
+    void lockIsEnforcedByWriteBehindAsyncAppend() {
+        // given: 파드 B가 write-behind(async) 모드, 방 캐시는 OPEN
+        ChatMessageWriteBehindBuffer nodeBBuffer = new ChatMessageWriteBehindBuffer(jdbcTemplate, chatRoomRepository,
+                chatMemberRepository, transactionManager, ChatMessageWriteBehindBuffer.MODE_WRITE_BEHIND,
+                ChatMessageWriteBehindBuffer.DURABILITY_ASYNC, 10, 500, 1_000, 5_000);
+        ChatService writeBehindNode = new ChatService(chatMessageRepository, chatRoomRepository, chatMemberRepository,
+                objectMapper, nodeBBuffer, transactionManager, chatMetrics, recentMessageCache, nodeBRoomCache,
+                readReceiptBuffer, inboxEventPublisher);
+        try {
+            List<ChatMessage> broadcast = new ArrayList<>();
+            writeBehindNode.saveMessage(text(room.getSellerId(), "B에서 보냄"), broadcast::add);
+            nodeBBuffer.flushNow();
+            long savedBefore = chatMessageRepository.count();
+
+            // when: 파드 A에서 관리자 잠금 (B에는 Redis 무효화가 오지 않음)
+            chatRoomService.updateRoomStatus(room.getChatroomId(), ChatRoom.RoomStatus.LOCK);
+
+            // then: 대기열에 넣기 전에 거부되어 브로드캐스트/저장/격리 없음
+            assertThatThrownBy(() -> writeBehindNode.saveMessage(text(room.getSellerId(), "잠긴 뒤 B"), broadcast::add))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("잠긴 채팅방");
+            nodeBBuffer.flushNow();
+            assertThat(broadcast).extracting(ChatMessage::getSeq).containsExactly(1L);
+            assertThat(chatMessageRepository.count()).isEqualTo(savedBefore);
+            assertThat(nodeBBuffer.quarantinedCount()).isZero();
+
+            // 시스템 메시지는 계속 저장되고 브로드캐스트 프레임에 다음 순번이 있음
+            writeBehindNode.saveMessage(ChatMessageDto.builder()
+                    .chatroomId(room.getChatroomId())
+                    .senderId(room.getSellerId())
+                    .type(ChatMessageDto.MessageType.SYSTEM_INFO_MESSAGE)
+                    .content("채팅이 잠금 상태로 전환됩니다.")
+                    .build(), broadcast::add);
+            nodeBBuffer.flushNow();
+            assertThat(broadcast).extracting(ChatMessage::getSeq).containsExactly(1L, 2L);
+            assertThat(chatMessageRepository.count()).isEqualTo(savedBefore + 1);
+        } finally {
+            nodeBBuffer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Redis 무효화 메시지를 받으면 캐시를 비우고 다음 확인 때 DB 상태를 읽음")
+    void invalidationMessageEvictsSnapshot() {
+        // given
+        nodeB.saveMessage(text(room.getBuyerId(), "B에서 보냄"), saved -> { });
+        chatRoomService.updateRoomStatus(room.getChatroomId(), ChatRoom.RoomStatus.LOCK);
+
+        // when: 다른 파드가 발행한 무효화 메시지 수신
+        nodeBRoomCache.onMessage(new DefaultMessage(
+                RoomSnapshotCache.INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                room.getChatroomId().toString().getBytes(StandardCharsets.UTF_8)), null);
+
+        // then
+        assertThat(nodeBRoomCache.get(room.getChatroomId(), chatRoomRepository::findById)
+                .orElseThrow().roomStatus()).isEqualTo(ChatRoom.RoomStatus.LOCK);
+    }
+
+    private ChatMessageDto text(Long senderId, String content) {
+        return ChatMessageDto.builder()
+                .chatroomId(room.getChatroomId())
+                .senderId(senderId)
+                .type(ChatMessageDto.MessageType.TEXT)
+                .content(content)
+                .build();
+    }
+}
@@ -0,0 +1,236 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.config.WebClientConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("TicketLookupService 캐시 / single-flight / 서킷 브레이커 테스트 (로컬 티켓 서비스 스텁)")
+class TicketLookupServiceTest {
+
+    private static final long TIMEOUT_MILLIS = 300;
+
+    private HttpServer ticketServer;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile long delayMillis;
+    private volatile int status = 200;
+    private volatile boolean emptyBody;
+
+    private final Map<String, String> redisStore = new ConcurrentHashMap<>();
+    private CircuitBreaker circuitBreaker;
+    private TicketLookupService ticketLookupService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // 티켓 서비스 스텁: GET /api/tickets/{id} -> {"data": {"ticketId": id, "ownerId": id + 1000}}
+        ticketServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(16);
+        ticketServer.setExecutor(serverExecutor);
+        ticketServer.createContext("/api/tickets/", this::handleTicket);
+        ticketServer.start();
+
+        ReactiveStringRedisTemplate redisTemplate = inMemoryRedis();
+        WebClientConfig webClientConfig = new WebClientConfig();
+        WebClient webClient = webClientConfig.ticketWebClient(
+                "http://127.0.0.1:" + ticketServer.getAddress().getPort(), 200, TIMEOUT_MILLIS);
+        warmUp(webClient);
+        circuitBreaker = webClientConfig.ticketServiceCircuitBreaker(50, 4, 4, 60_000);
+        ticketLookupService = new TicketLookupService(
+                webClient,
+                redisTemplate,
+                circuitBreaker,
+                300,
+                1800,
+                TIMEOUT_MILLIS);
+    }
+
+    // Reactor Netty 첫 요청(이벤트 루프 / 커넥션 풀 생성, 클래스 로딩)은 수 초까지 걸려서 300ms 타임아웃에 걸림
+    // 테스트 전에 같은 WebClient 로 한 번 호출해서 연결을 만들어 두고, 스텁 호출 수는 0부터 다시 셈
+    private void warmUp(WebClient webClient) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            try {
+                webClient.get().uri("/api/tickets/0").retrieve().toBodilessEntity().block(Duration.ofSeconds(10));
+                break;
+            } catch (RuntimeException e) {
+                // 첫 요청이 응답 타임아웃에 걸렸으면 다시 (두 번째부터는 준비된 상태)
+            }
+        }
+        hits.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketServer.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("같은 티켓을 동시에 50번 조회해도 티켓 서비스는 1번만 호출")
+    void concurrentLookupsAreSingleFlight() throws Exception {
+        // given
+        delayMillis = 100; // 로딩 중에 나머지 요청이 겹치도록
+        ExecutorService callers = Executors.newFixedThreadPool(50);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 50; i++) {
+            futures.add(callers.submit(() -> {
+                start.await();
+                return ticketLookupService.getSellerId(1L);
+            }));
+        }
+        start.countDown();
+
+        // then
+        for (Future<Long> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo(1_001L);
+        }
+        callers.shutdown();
+        assertThat(hits.get()).isEqualTo(1);
+        assertThat(redisStore).containsEntry(TicketLookupService.REDIS_KEY_PREFIX + 1, "1001");
+    }
+
+    @Test
+    @DisplayName("한 번 조회한 티켓은 로컬 캐시에서 응답")
+    void cachedLookupDoesNotCallTicketService() {
+        ticketLookupService.getSellerId(2L);
+        ticketLookupService.getSellerId(2L);
+
+        assertThat(hits.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("다른 파드가 Redis에 넣어둔 값이 있으면 티켓 서비스를 호출하지 않음")
+    void redisHitSkipsTicketService() {
+        redisStore.put(TicketLookupService.REDIS_KEY_PREFIX + 3, "777");
+
+        assertThat(ticketLookupService.getSellerId(3L)).isEqualTo(777L);
+        assertThat(hits.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("404는 캐시하지 않고 서킷 브레이커 실패로도 세지 않음")
+    void notFoundIsNotCached() {
+        status = 404;
+
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> ticketLookupService.getSellerId(4L))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("티켓을 찾을 수 없습니다.");
+        }
+
+        assertThat(hits.get()).isEqualTo(5);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("200 인데 본문이 없으면 null 대신 조회 실패, 캐시하지 않음")
+    void emptyBodyFailsInsteadOfReturningNull() {
+        emptyBody = true;
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> ticketLookupService.getSellerId(5L))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("티켓 정보를 조회할 수 없습니다.");
+        }
+
+        assertThat(hits.get()).isEqualTo(2);
+        assertThat(redisStore).doesNotContainKey(TicketLookupService.REDIS_KEY_PREFIX + 5);
+    }
+
+    @Test
+    @DisplayName("티켓 서비스가 느리면 타임아웃으로 빨리 실패하고, 실패가 쌓이면 서킷이 열려 호출 자체를 생략")
+    void slowTicketServiceTimesOutAndOpensCircuit() {
+        // given
+        delayMillis = 2_000;
+
+        // when: 타임아웃 실패 4번 (서로 다른 티켓)
+        for (long ticketId = 10; ticketId < 14; ticketId++) {
+            long ticket = ticketId;
+            long begin = System.nanoTime();
+            assertThatThrownBy(() -> ticketLookupService.getSellerId(ticket))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - begin)).isLessThan(Duration.ofMillis(1_500));
+        }
+
+        // then: 서킷 열림 -> 바로 실패, 스텁 호출 없음
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        int hitsBefore = hits.get();
+        long begin = System.nanoTime();
+        assertThatThrownBy(() -> ticketLookupService.getSellerId(20L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("잠시 후 다시 시도");
+        assertThat(Duration.ofNanos(System.nanoTime() - begin)).isLessThan(Duration.ofMillis(TIMEOUT_MILLIS));
+        assertThat(hits.get()).isEqualTo(hitsBefore);
+    }
+
+    private void handleTicket(HttpExchange exchange) throws IOException {
+        hits.incrementAndGet();
+        String path = exchange.getRequestURI().getPath();
+        long ticketId = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+        try {
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        byte[] body = (status == 200
+                ? "{\"success\":true,\"data\":{\"ticketId\":" + ticketId + ",\"ownerId\":" + (ticketId + 1_000) + "}}"
+                : "{\"success\":false,\"message\":\"not found\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        try {
+            if (emptyBody) {
+                exchange.sendResponseHeaders(status, -1); // Content-Length: 0
+                exchange.close();
+                return;
+            }
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // 클라이언트가 타임아웃으로 먼저 끊은 경우
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ReactiveStringRedisTemplate inMemoryRedis() {
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        ReactiveValueOperations<String, String> valueOperations = mock(ReactiveValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(invocation ->
+                Mono.justOrEmpty(redisStore.get(invocation.<String>getArgument(0))));
+        when(valueOperations.set(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation -> {
+            redisStore.put(invocation.getArgument(0), invocation.getArgument(1));
+            return Mono.just(true);
+        });
+        return redisTemplate;
+    }
+}
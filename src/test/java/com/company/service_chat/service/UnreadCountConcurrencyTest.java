@@ -0,0 +1,119 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.dto.ChatMessageDto;
+import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.ChatRoom;
+import com.company.service_chat.repository.ChatMemberRepository;
+import com.company.service_chat.repository.ChatMessageRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("안 읽은 메시지 카운터 동시성 테스트")
+class UnreadCountConcurrencyTest {
+
+    private static final int MESSAGES_PER_SENDER = 50;
+    private static final int READS_PER_READER = 50;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatRoomService chatRoomService;
+
+    @Autowired
+    private UnreadCountReconciler unreadCountReconciler;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private ChatMemberRepository chatMemberRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Test
+    @DisplayName("동시에 메시지를 보내고 읽어도 카운터가 COUNT 쿼리 결과와 일치")
+    void unreadCountMatchesCountQueryUnderConcurrentSendAndRead() throws Exception {
+        // given
+        Long buyerId = 7_001L;
+        Long sellerId = 7_002L;
+        ChatRoom room = chatRoomRepository.save(ChatRoom.builder()
+                .ticketId(7_000L)
+                .buyerId(buyerId)
+                .sellerId(sellerId)
+                .build());
+        Long chatroomId = room.getChatroomId();
+        chatMemberRepository.save(new ChatMember(buyerId, chatroomId));
+        chatMemberRepository.save(new ChatMember(sellerId, chatroomId));
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // 구매자/판매자 각각 2개 스레드에서 메시지 전송
+        for (Long senderId : List.of(buyerId, sellerId, buyerId, sellerId)) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < MESSAGES_PER_SENDER; i++) {
+                    chatService.saveMessage(ChatMessageDto.builder()
+                            .chatroomId(chatroomId)
+                            .senderId(senderId)
+                            .type(ChatMessageDto.MessageType.TEXT)
+                            .content("msg-" + senderId + "-" + i)
+                            .build());
+                }
+                return null;
+            }));
+        }
+
+        // 구매자/판매자가 동시에 읽음 처리 (특정 메시지까지 / 전체 읽음 번갈아 가며)
+        for (Long readerId : List.of(buyerId, sellerId)) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < READS_PER_READER; i++) {
+                    Long latest = chatRoomRepository.findById(chatroomId).orElseThrow().getLastMessageId();
+                    if (i % 2 == 0 && latest != null) {
+                        chatService.markAsRead(chatroomId, readerId, latest);
+                    } else {
+                        chatRoomService.markMessagesAsRead(chatroomId, readerId);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then: 각 멤버의 카운터 == 실제 COUNT
+        for (Long userId : List.of(buyerId, sellerId)) {
+            ChatMember member = chatMemberRepository.findByUserIdAndChatroomId(userId, chatroomId).orElseThrow();
+            int expected = chatMessageRepository.countByChatroomIdAndSeqGreaterThanAndTypeAndSenderIdNot(
+                    chatroomId, member.getLastReadSeq(), ChatMessage.MessageType.TEXT, userId);
+
+            assertThat(member.getUnreadCount())
+                    .as("userId=%d unreadCount", userId)
+                    .isEqualTo(expected);
+        }
+
+        // 보정 작업도 고칠 게 없어야 함
+        assertThat(unreadCountReconciler.reconcile()).isZero();
+    }
+}
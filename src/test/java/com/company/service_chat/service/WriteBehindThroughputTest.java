@@ -0,0 +1,337 @@
+package com.company.service_chat.service;
+
+import com.company.service_chat.dto.ChatMessageDto;
+import com.company.service_chat.dto.ChatMessageResponse;
+import com.company.service_chat.entity.ChatMember;
+import com.company.service_chat.entity.ChatMessage;
+import com.company.service_chat.entity.ChatRoom;
+import com.company.service_chat.repository.ChatMemberRepository;
+import com.company.service_chat.repository.ChatMessageRepository;
+import com.company.service_chat.repository.ChatRoomRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * write-behind 저장 부하 테스트.
+ * 같은 방들에 여러 스레드가 동시에 메시지를 보낼 때 sync(메시지마다 트랜잭션) 와
+ * write-behind(배치 INSERT) 의 초당 처리 메시지 수를 출력하고, 배치 저장 후에도
+ * 메시지 수 / 방 안 순서 / 안 읽은 메시지 카운터가 맞는지 확인한다.
+ */
+@SpringBootTest(properties = {
+        "chat.persistence.mode=write-behind",
+        "chat.persistence.write-behind.durability=async"
+})
+@ActiveProfiles("test")
+@DisplayName("write-behind 메시지 저장 부하 테스트")
+class WriteBehindThroughputTest {
+
+    private static final int ROOMS = 4;
+    private static final int SENDER_THREADS = 8;
+    private static final int MESSAGES_PER_THREAD = 250;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatMessageWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private ChatMemberRepository chatMemberRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ChatMetrics chatMetrics;
+
+    @Autowired
+    private RoomSnapshotCache roomSnapshotCache;
+
+    @Autowired
+    private ReadReceiptBuffer readReceiptBuffer;
+
+    @Autowired
+    private InboxEventPublisher inboxEventPublisher;
+
+    @Test
+    @DisplayName("sync 대비 write-behind 처리량 출력 + 저장 결과/순서/카운터 일치")
+    void writeBehindKeepsOrderAndCounters() throws Exception {
+        // 1. sync: 메시지마다 트랜잭션 + INSERT
+        List<ChatRoom> syncRooms = createRooms(8_000L);
+        double syncRate = send(syncRooms, chatService::saveMessage);
+
+        // 2. write-behind: 대기열에 넣고 배치 INSERT
+        List<ChatRoom> rooms = createRooms(9_000L);
+        Map<Long, List<Long>> broadcastOrder = new ConcurrentHashMap<>();
+        Map<Long, List<Long>> broadcastSeqs = new ConcurrentHashMap<>();
+        rooms.forEach(room -> {
+            broadcastOrder.put(room.getChatroomId(), Collections.synchronizedList(new ArrayList<>()));
+            broadcastSeqs.put(room.getChatroomId(), Collections.synchronizedList(new ArrayList<>()));
+        });
+
+        double writeBehindRate = send(rooms, dto -> chatService.saveMessage(dto, saved -> {
+            broadcastOrder.get(saved.getChatroomId()).add(saved.getMessageId());
+            broadcastSeqs.get(saved.getChatroomId()).add(saved.getSeq());
+        }));
+        writeBehindBuffer.flushNow();
+
+        System.out.printf("sync: %,.0f msg/s | write-behind(async): %,.0f msg/s | x%.1f%n",
+                syncRate, writeBehindRate, writeBehindRate / syncRate);
+
+        // then
+        int perRoom = SENDER_THREADS * MESSAGES_PER_THREAD / ROOMS;
+        for (ChatRoom room : rooms) {
+            Long chatroomId = room.getChatroomId();
+            List<Long> persistedIds = chatMessageRepository.findByChatroomIdOrderByMessageIdAsc(chatroomId).stream()
+                    .map(ChatMessage::getMessageId)
+                    .toList();
+
+            // 모두 저장되었고, 브로드캐스트 순서 == 저장된 messageId 순서
+            assertThat(persistedIds).hasSize(perRoom);
+            assertThat(broadcastOrder.get(chatroomId)).containsExactlyElementsOf(persistedIds);
+
+            // 최신 메시지 포인터는 마지막 메시지
+            assertThat(chatRoomRepository.findById(chatroomId).orElseThrow().getLastMessageId())
+                    .isEqualTo(persistedIds.get(persistedIds.size() - 1));
+
+            // 방 순번은 저장 순서대로 1..N (배치로 예약해도 빈틈/중복 없음)
+            assertThat(seqsInMessageIdOrder(chatroomId)).containsExactlyElementsOf(expectedSeqs(perRoom));
+            // async 는 저장 전에 브로드캐스트하지만 프레임의 순번도 같은 순서로 1..N
+            assertThat(broadcastSeqs.get(chatroomId)).containsExactlyElementsOf(expectedSeqs(perRoom));
+
+            // 안 읽은 메시지 카운터 == 실제 COUNT
+            for (Long userId : List.of(room.getBuyerId(), room.getSellerId())) {
+                ChatMember member = chatMemberRepository.findByUserIdAndChatroomId(userId, chatroomId).orElseThrow();
+                assertThat(member.getUnreadCount()).isEqualTo(
+                        chatMessageRepository.countByChatroomIdAndSeqGreaterThanAndTypeAndSenderIdNot(
+                                chatroomId, member.getLastReadSeq(), ChatMessage.MessageType.TEXT, userId));
+            }
+        }
+
+        // sync 도 동시에 저장한 방마다 순번 1..N, 방의 lastSeq == N
+        for (ChatRoom room : syncRooms) {
+            assertThat(seqsInMessageIdOrder(room.getChatroomId())).containsExactlyElementsOf(expectedSeqs(perRoom));
+            assertThat(chatRoomRepository.findLastSeqById(room.getChatroomId())).contains((long) perRoom);
+        }
+    }
+
+    @Test
+    @DisplayName("group-commit 은 append 가 끝나면 이미 DB에 커밋되어 있음")
+    void groupCommitReturnsAfterCommit() throws Exception {
+        // given
+        ChatMessageWriteBehindBuffer groupCommitBuffer = new ChatMessageWriteBehindBuffer(
+                jdbcTemplate, chatRoomRepository, chatMemberRepository, transactionManager,
+                ChatMessageWriteBehindBuffer.MODE_WRITE_BEHIND, ChatMessageWriteBehindBuffer.DURABILITY_GROUP_COMMIT,
+                10, 100, 1_000, 5_000);
+        ChatRoom room = createRooms(10_000L).get(0);
+        ExecutorService executor = Executors.newFixedThreadPool(SENDER_THREADS);
+
+        try {
+            // when: 여러 스레드가 동시에 보내서 한 배치로 묶이게 함
+            List<Future<ChatMessage>> futures = new ArrayList<>();
+            for (int i = 0; i < SENDER_THREADS; i++) {
+                long senderId = i % 2 == 0 ? room.getBuyerId() : room.getSellerId();
+                futures.add(executor.submit(() -> groupCommitBuffer.append(ChatMessage.builder()
+                        .chatroomId(room.getChatroomId())
+                        .senderId(senderId)
+                        .type(ChatMessage.MessageType.TEXT)
+                        .content("group-commit")
+                        .build(), saved -> { })));
+            }
+
+            // then: 반환된 메시지는 모두 조회 가능
+            for (Future<ChatMessage> future : futures) {
+                ChatMessage saved = future.get(10, TimeUnit.SECONDS);
+                assertThat(chatMessageRepository.findById(saved.getMessageId())).isPresent();
+            }
+            assertThat(groupCommitBuffer.pendingCount()).isZero();
+        } finally {
+            executor.shutdown();
+            groupCommitBuffer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("배치에 저장할 수 없는 메시지가 섞여 있으면 그 메시지만 격리하고 나머지는 저장")
+    void poisonMessageIsQuarantined() throws Exception {
+        // given: 배치를 모으는 시간을 길게 해서 세 메시지가 한 배치로 묶이게 함
+        ChatMessageWriteBehindBuffer groupCommitBuffer = new ChatMessageWriteBehindBuffer(
+                jdbcTemplate, chatRoomRepository, chatMemberRepository, transactionManager,
+                ChatMessageWriteBehindBuffer.MODE_WRITE_BEHIND, ChatMessageWriteBehindBuffer.DURABILITY_GROUP_COMMIT,
+                200, 100, 1_000, 5_000);
+        ChatRoom room = createRooms(11_000L).get(0);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try {
+            // when: 가운데 메시지는 없는 방으로 (순번 예약에서 실패)
+            Future<ChatMessage> first = executor.submit(() -> groupCommitBuffer.append(
+                    text(room.getChatroomId(), room.getBuyerId()), saved -> { }));
+            Future<ChatMessage> poison = executor.submit(() -> groupCommitBuffer.append(
+                    text(-1L, room.getBuyerId()), saved -> { }));
+            Future<ChatMessage> last = executor.submit(() -> groupCommitBuffer.append(
+                    text(room.getChatroomId(), room.getSellerId()), saved -> { }));
+
+            // then
+            assertThat(chatMessageRepository.findById(first.get(10, TimeUnit.SECONDS).getMessageId())).isPresent();
+            assertThat(chatMessageRepository.findById(last.get(10, TimeUnit.SECONDS).getMessageId())).isPresent();
+            assertThatThrownBy(() -> poison.get(10, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("메시지 저장 실패");
+            assertThat(groupCommitBuffer.quarantinedCount()).isEqualTo(1);
+            assertThat(seqsInMessageIdOrder(room.getChatroomId())).containsExactly(1L, 2L);
+        } finally {
+            executor.shutdown();
+            groupCommitBuffer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("async 는 저장 전에 브로드캐스트해도 최근 메시지 캐시가 이어지고 조회는 캐시에서 처리")
+    void recentMessageCacheHitsUnderAsync() {
+        // given: 배치 주기를 길게 해서 조회할 때 아직 저장되지 않은 메시지가 있게 함
+        ChatMessageWriteBehindBuffer asyncBuffer = new ChatMessageWriteBehindBuffer(
+                jdbcTemplate, chatRoomRepository, chatMemberRepository, transactionManager,
+                ChatMessageWriteBehindBuffer.MODE_WRITE_BEHIND, ChatMessageWriteBehindBuffer.DURABILITY_ASYNC,
+                500, 500, 1_000, 5_000);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RecentMessageCache cache = new RecentMessageCache(chatMessageRepository, chatRoomRepository, asyncBuffer,
+                objectMapper, meterRegistry, true, 50, 100, 600, 30);
+        ChatService node = new ChatService(chatMessageRepository, chatRoomRepository, chatMemberRepository,
+                objectMapper, asyncBuffer, transactionManager, chatMetrics, cache, roomSnapshotCache,
+                readReceiptBuffer, inboxEventPublisher);
+        ChatRoom room = createRooms(12_000L).get(0);
+        Long chatroomId = room.getChatroomId();
+
+        try {
+            // when: 3개 보낸 뒤 처음 조회(DB + 아직 저장되지 않은 메시지로 채움), 이후 보낼 때마다 조회
+            for (int i = 0; i < 3; i++) {
+                node.saveMessage(dto(room, i), saved -> { });
+            }
+            RecentMessageCache.Snapshot first = cache.get(chatroomId).orElseThrow();
+            List<Long> lastSeqs = new ArrayList<>();
+            for (int i = 3; i < 40; i++) {
+                node.saveMessage(dto(room, i), saved -> { });
+                lastSeqs.add(cache.get(chatroomId).map(RecentMessageCache.Snapshot::lastSeq).orElse(-1L));
+            }
+
+            // then: 처음 채울 때만 미스, 이후 조회는 모두 히트하고 최신 메시지까지 들어 있음
+            assertThat(first.messages()).extracting(ChatMessageResponse::getSeq).containsExactly(1L, 2L, 3L);
+            assertThat(lastSeqs).containsExactlyElementsOf(expectedSeqs(40).subList(3, 40));
+            assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(2);
+            assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(37);
+
+            // 저장이 끝난 뒤에도 같은 창을 그대로 사용
+            asyncBuffer.flushNow();
+            assertThat(cache.get(chatroomId).orElseThrow().messages())
+                    .extracting(ChatMessageResponse::getSeq).containsExactlyElementsOf(expectedSeqs(40));
+        } finally {
+            asyncBuffer.shutdown();
+        }
+    }
+
+    private ChatMessageDto dto(ChatRoom room, int i) {
+        return ChatMessageDto.builder()
+                .chatroomId(room.getChatroomId())
+                .senderId(i % 2 == 0 ? room.getBuyerId() : room.getSellerId())
+                .type(ChatMessageDto.MessageType.TEXT)
+                .content("cache-" + i)
+                .build();
+    }
+
+    private ChatMessage text(Long chatroomId, Long senderId) {
+        return ChatMessage.builder()
+                .chatroomId(chatroomId)
+                .senderId(senderId)
+                .type(ChatMessage.MessageType.TEXT)
+                .content("write-behind")
+                .build();
+    }
+
+    // 방마다 구매자/판매자가 번갈아 보내도록 SENDER_THREADS 개 스레드로 전송, 초당 메시지 수 반환
+    private double send(List<ChatRoom> rooms, Consumer<ChatMessageDto> sender) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SENDER_THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < SENDER_THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+                    ChatRoom room = rooms.get((thread + i) % ROOMS);
+                    Long senderId = i % 2 == 0 ? room.getBuyerId() : room.getSellerId();
+                    sender.accept(ChatMessageDto.builder()
+                            .chatroomId(room.getChatroomId())
+                            .senderId(senderId)
+                            .type(ChatMessageDto.MessageType.TEXT)
+                            .content("msg-" + thread + "-" + i)
+                            .build());
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+        executor.shutdown();
+        return SENDER_THREADS * MESSAGES_PER_THREAD / seconds;
+    }
+
+    private List<Long> seqsInMessageIdOrder(Long chatroomId) {
+        return chatMessageRepository.findByChatroomIdOrderByMessageIdAsc(chatroomId).stream()
+                .map(ChatMessage::getSeq)
+                .toList();
+    }
+
+    private List<Long> expectedSeqs(int count) {
+        List<Long> seqs = new ArrayList<>(count);
+        for (long seq = 1; seq <= count; seq++) {
+            seqs.add(seq);
+        }
+        return seqs;
+    }
+
+    private List<ChatRoom> createRooms(long baseId) {
+        List<ChatRoom> rooms = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            ChatRoom room = chatRoomRepository.save(ChatRoom.builder()
+                    .ticketId(baseId + i)
+                    .buyerId(baseId + 100 + i)
+                    .sellerId(baseId + 200 + i)
+                    .build());
+            chatMemberRepository.save(new ChatMember(room.getBuyerId(), room.getChatroomId()));
+            chatMemberRepository.save(new ChatMember(room.getSellerId(), room.getChatroomId()));
+            rooms.add(room);
+        }
+        return rooms;
+    }
+}